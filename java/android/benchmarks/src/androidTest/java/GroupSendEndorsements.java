@@ -10,11 +10,16 @@ import java.time.temporal.ChronoUnit;
 import java.util.Arrays;
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.junit.After;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.junit.runners.Parameterized;
 import org.junit.runners.Parameterized.Parameters;
+import org.signal.libsignal.internal.CompletableFuture;
 import org.signal.libsignal.protocol.ServiceId;
 import org.signal.libsignal.zkgroup.ServerPublicParams;
 import org.signal.libsignal.zkgroup.ServerSecretParams;
@@ -35,6 +40,9 @@ public class GroupSendEndorsements {
     return new Integer[] {10, 100, 1000};
   }
 
+  // Enough groups to keep a handful of cores busy when received in parallel.
+  private static final int GROUP_COUNT = 4;
+
   private final ServerSecretParams serverParams = ServerSecretParams.generate();
   private final ServerPublicParams serverPublicParams = serverParams.getPublicParams();
   private final GroupSecretParams groupParams = GroupSecretParams.generate();
@@ -45,6 +53,8 @@ public class GroupSendEndorsements {
   private final ServiceId.Aci[] members;
   private final UuidCiphertext[] encryptedMembers;
   private final GroupSendEndorsementsResponse response;
+  private final ExecutorService executor =
+      Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
 
   public GroupSendEndorsements(int groupSize) {
     members = new ServiceId.Aci[groupSize];
@@ -81,6 +91,37 @@ public class GroupSendEndorsements {
     }
   }
 
+  @Test
+  public void benchmarkReceiveSeveralGroupsSerially() throws VerificationFailedException {
+    final BenchmarkState state = benchmarkRule.getState();
+
+    while (state.keepRunning()) {
+      for (int i = 0; i < GROUP_COUNT; ++i) {
+        response.receive(Arrays.asList(members), members[0], groupParams, serverPublicParams);
+      }
+    }
+  }
+
+  @Test
+  public void benchmarkReceiveSeveralGroupsOnExecutor()
+      throws ExecutionException, InterruptedException {
+    final BenchmarkState state = benchmarkRule.getState();
+    final List<ServiceId> memberList = Arrays.asList(members);
+    @SuppressWarnings("unchecked")
+    final CompletableFuture<GroupSendEndorsementsResponse.ReceivedEndorsements>[] futures =
+        new CompletableFuture[GROUP_COUNT];
+
+    while (state.keepRunning()) {
+      for (int i = 0; i < GROUP_COUNT; ++i) {
+        futures[i] =
+            response.receive(memberList, members[0], groupParams, serverPublicParams, executor);
+      }
+      for (CompletableFuture<?> future : futures) {
+        future.get();
+      }
+    }
+  }
+
   @Test
   public void benchmarkToToken() throws VerificationFailedException {
     final BenchmarkState state = benchmarkRule.getState();
@@ -95,4 +136,9 @@ public class GroupSendEndorsements {
       }
     }
   }
+
+  @After
+  public void tearDown() {
+    executor.shutdown();
+  }
 }
@@ -0,0 +1,119 @@
+//
+// Copyright 2026 Signal Messenger, LLC.
+// SPDX-License-Identifier: AGPL-3.0-only
+//
+
+package org.signal.libsignal.benchmarks;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.signal.libsignal.protocol.SealedSenderMultiRecipientMessage;
+import org.signal.libsignal.protocol.ServiceId;
+
+/** Measures the server's handling of a sealed sender message addressed to many recipients. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MultiRecipientMessages {
+  private static final int VERSION_SERVICE_ID_AWARE = 0x23;
+  private static final int KEY_MATERIAL_LENGTH = 48;
+
+  @Param({"10", "1000"})
+  public int recipientCount;
+
+  @Param({"3"})
+  public int devicesPerRecipient;
+
+  @Param({"1024"})
+  public int sharedDataSize;
+
+  private byte[] serialized;
+  private ByteBuffer input;
+  private SealedSenderMultiRecipientMessage message;
+  private ByteBuffer output;
+
+  @Setup
+  public void setUp() throws Exception {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    out.write(VERSION_SERVICE_ID_AWARE);
+    for (int count = recipientCount; ; count >>>= 7) {
+      if (count < 0x80) {
+        out.write(count);
+        break;
+      }
+      out.write((count & 0x7F) | 0x80);
+    }
+
+    byte[] keyMaterial = new byte[KEY_MATERIAL_LENGTH];
+    for (int i = 0; i < recipientCount; i++) {
+      out.write(new ServiceId.Aci(UUID.randomUUID()).toServiceIdFixedWidthBinary());
+      for (int deviceId = 1; deviceId <= devicesPerRecipient; deviceId++) {
+        int registrationId = ThreadLocalRandom.current().nextInt(1, 0x3FFF);
+        if (deviceId < devicesPerRecipient) {
+          registrationId |= 0x8000;
+        }
+        out.write(deviceId);
+        out.write(registrationId >> 8);
+        out.write(registrationId);
+      }
+      ThreadLocalRandom.current().nextBytes(keyMaterial);
+      out.write(keyMaterial);
+    }
+
+    byte[] sharedData = new byte[sharedDataSize];
+    ThreadLocalRandom.current().nextBytes(sharedData);
+    out.write(sharedData);
+
+    serialized = out.toByteArray();
+    input = ByteBuffer.wrap(serialized);
+    message = SealedSenderMultiRecipientMessage.parse(serialized);
+    output = ByteBuffer.allocate(serialized.length);
+  }
+
+  @Benchmark
+  public SealedSenderMultiRecipientMessage benchmarkParse() throws Exception {
+    return SealedSenderMultiRecipientMessage.parse(serialized);
+  }
+
+  @Benchmark
+  public int benchmarkForEachRecipient(Blackhole blackhole) throws Exception {
+    return SealedSenderMultiRecipientMessage.forEachRecipient(
+        input,
+        (serviceId, devices, registrationIds, deviceCount, offset) -> blackhole.consume(serviceId));
+  }
+
+  @Benchmark
+  public void benchmarkMessageForEachRecipient(Blackhole blackhole) {
+    for (SealedSenderMultiRecipientMessage.Recipient recipient :
+        message.getRecipients().values()) {
+      blackhole.consume(message.messageForRecipient(recipient));
+    }
+  }
+
+  @Benchmark
+  public void benchmarkWriteMessageForEachRecipient(Blackhole blackhole) {
+    for (SealedSenderMultiRecipientMessage.Recipient recipient :
+        message.getRecipients().values()) {
+      output.clear();
+      blackhole.consume(message.writeMessageForRecipient(recipient, output));
+    }
+  }
+}
@@ -0,0 +1,98 @@
+//
+// Copyright 2026 Signal Messenger, LLC.
+// SPDX-License-Identifier: AGPL-3.0-only
+//
+
+package org.signal.libsignal.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.signal.libsignal.protocol.SignalProtocolAddress;
+import org.signal.libsignal.protocol.groups.GroupCipher;
+import org.signal.libsignal.protocol.groups.GroupSessionBuilder;
+import org.signal.libsignal.protocol.groups.state.InMemorySenderKeyStore;
+import org.signal.libsignal.protocol.message.CiphertextMessage;
+import org.signal.libsignal.protocol.message.SenderKeyDistributionMessage;
+import org.signal.libsignal.protocol.util.BatchResult;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GroupCipherOperations {
+  private static final int BATCH_SIZE = 16;
+
+  @Param({"128", "4096"})
+  public int messageSize;
+
+  private final SignalProtocolAddress sender = new SignalProtocolAddress("+14151111111", 1);
+  private final UUID distributionId = UUID.randomUUID();
+
+  private GroupCipher senderCipher;
+  private GroupCipher receiverCipher;
+  private byte[] message;
+
+  @Setup
+  public void setUp() throws Exception {
+    InMemorySenderKeyStore senderStore = new InMemorySenderKeyStore();
+    InMemorySenderKeyStore receiverStore = new InMemorySenderKeyStore();
+
+    SenderKeyDistributionMessage distributionMessage =
+        new GroupSessionBuilder(senderStore).create(sender, distributionId);
+    new GroupSessionBuilder(receiverStore)
+        .process(sender, new SenderKeyDistributionMessage(distributionMessage.serialize()));
+
+    senderCipher = new GroupCipher(senderStore, sender);
+    receiverCipher = new GroupCipher(receiverStore, sender);
+    message = new byte[messageSize];
+  }
+
+  @Benchmark
+  public CiphertextMessage benchmarkEncrypt() throws Exception {
+    return senderCipher.encrypt(distributionId, message);
+  }
+
+  @Benchmark
+  public byte[] benchmarkEncryptAndDecrypt() throws Exception {
+    return receiverCipher.decrypt(senderCipher.encrypt(distributionId, message).serialize());
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(BATCH_SIZE)
+  public void benchmarkDecryptSeparately() throws Exception {
+    for (byte[] ciphertext : encryptBacklog()) {
+      receiverCipher.decrypt(ciphertext);
+    }
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(BATCH_SIZE)
+  public List<BatchResult<byte[]>> benchmarkDecryptBatch() throws Exception {
+    return receiverCipher.decryptBatch(encryptBacklog());
+  }
+
+  // Encrypting is part of the measurement, but it costs the same for both decrypt benchmarks.
+  private List<byte[]> encryptBacklog() throws Exception {
+    List<byte[]> backlog = new ArrayList<>(BATCH_SIZE);
+    for (int i = 0; i < BATCH_SIZE; i++) {
+      backlog.add(senderCipher.encrypt(distributionId, message).serialize());
+    }
+    return backlog;
+  }
+}
@@ -0,0 +1,151 @@
+//
+// Copyright 2026 Signal Messenger, LLC.
+// SPDX-License-Identifier: AGPL-3.0-only
+//
+
+package org.signal.libsignal.benchmarks;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.signal.libsignal.internal.CompletableFuture;
+import org.signal.libsignal.protocol.ServiceId;
+import org.signal.libsignal.zkgroup.ServerPublicParams;
+import org.signal.libsignal.zkgroup.ServerSecretParams;
+import org.signal.libsignal.zkgroup.groups.ClientZkGroupCipher;
+import org.signal.libsignal.zkgroup.groups.GroupSecretParams;
+import org.signal.libsignal.zkgroup.groups.UuidCiphertext;
+import org.signal.libsignal.zkgroup.groupsend.GroupSendDerivedKeyPair;
+import org.signal.libsignal.zkgroup.groupsend.GroupSendEndorsement;
+import org.signal.libsignal.zkgroup.groupsend.GroupSendEndorsementIndex;
+import org.signal.libsignal.zkgroup.groupsend.GroupSendEndorsementsResponse;
+import org.signal.libsignal.zkgroup.groupsend.GroupSendEndorsementsResponse.ReceivedEndorsements;
+
+/**
+ * Receiving endorsements on the client, matching the Android {@code GroupSendEndorsements}
+ * benchmark.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GroupSendEndorsements {
+  // Enough groups to keep a handful of cores busy when received in parallel.
+  private static final int GROUP_COUNT = 4;
+
+  @Param({"10", "100", "1000"})
+  public int groupSize;
+
+  private final ServerSecretParams serverParams = ServerSecretParams.generate();
+  private final ServerPublicParams serverPublicParams = serverParams.getPublicParams();
+  private final GroupSecretParams groupParams = GroupSecretParams.generate();
+
+  private ServiceId.Aci localUser;
+  private List<ServiceId> members;
+  private List<UuidCiphertext> encryptedMembers;
+  private GroupSendEndorsementsResponse response;
+  private ExecutorService executor;
+
+  // Everyone but the local user and every seventh member, standing in for blocked members.
+  private List<ServiceId> recipients;
+  private List<GroupSendEndorsement> recipientEndorsements;
+  private GroupSendEndorsementIndex index;
+
+  @Setup
+  public void setUp() throws Exception {
+    members = new ArrayList<>(groupSize);
+    encryptedMembers = new ArrayList<>(groupSize);
+    ClientZkGroupCipher cipher = new ClientZkGroupCipher(groupParams);
+    for (int i = 0; i < groupSize; i++) {
+      ServiceId member = new ServiceId.Aci(UUID.randomUUID());
+      members.add(member);
+      encryptedMembers.add(cipher.encrypt(member));
+    }
+
+    localUser = (ServiceId.Aci) members.get(0);
+
+    Instant expiration = Instant.now().truncatedTo(ChronoUnit.DAYS).plus(2, ChronoUnit.DAYS);
+    response =
+        GroupSendEndorsementsResponse.issue(
+            encryptedMembers, GroupSendDerivedKeyPair.forExpiration(expiration, serverParams));
+    executor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+
+    ReceivedEndorsements received =
+        response.receive(members, localUser, groupParams, serverPublicParams);
+    index = new GroupSendEndorsementIndex(members, received);
+    recipients = new ArrayList<>();
+    recipientEndorsements = new ArrayList<>();
+    for (int i = 1; i < groupSize; i++) {
+      if (i % 7 != 3) {
+        recipients.add(members.get(i));
+        recipientEndorsements.add(received.endorsements().get(i));
+      }
+    }
+  }
+
+  @TearDown
+  public void tearDown() {
+    executor.shutdown();
+  }
+
+  @Benchmark
+  public ReceivedEndorsements benchmarkReceiveWithServiceIds() throws Exception {
+    return response.receive(members, localUser, groupParams, serverPublicParams);
+  }
+
+  @Benchmark
+  public ReceivedEndorsements benchmarkReceiveWithCiphertexts() throws Exception {
+    return response.receive(encryptedMembers, encryptedMembers.get(0), serverPublicParams);
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(GROUP_COUNT)
+  public void benchmarkReceiveSeveralGroupsSerially(Blackhole blackhole) throws Exception {
+    for (int i = 0; i < GROUP_COUNT; i++) {
+      blackhole.consume(response.receive(members, localUser, groupParams, serverPublicParams));
+    }
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(GROUP_COUNT)
+  public void benchmarkReceiveSeveralGroupsOnExecutor(Blackhole blackhole) throws Exception {
+    List<CompletableFuture<ReceivedEndorsements>> futures = new ArrayList<>(GROUP_COUNT);
+    for (int i = 0; i < GROUP_COUNT; i++) {
+      futures.add(response.receive(members, localUser, groupParams, serverPublicParams, executor));
+    }
+    for (CompletableFuture<ReceivedEndorsements> future : futures) {
+      blackhole.consume(future.get());
+    }
+  }
+
+  @Benchmark
+  public GroupSendEndorsement benchmarkCombineSubset() {
+    return GroupSendEndorsement.combine(recipientEndorsements);
+  }
+
+  @Benchmark
+  public GroupSendEndorsement benchmarkCombineSubsetWithIndex() {
+    return index.combine(recipients);
+  }
+}
@@ -0,0 +1,81 @@
+//
+// Copyright 2026 Signal Messenger, LLC.
+// SPDX-License-Identifier: AGPL-3.0-only
+//
+
+package org.signal.libsignal.benchmarks;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.signal.libsignal.protocol.incrementalmac.ChunkSizeChoice;
+import org.signal.libsignal.protocol.incrementalmac.IncrementalMacInputStream;
+import org.signal.libsignal.protocol.incrementalmac.IncrementalMacOutputStream;
+
+/**
+ * Measures validating a whole attachment through {@link IncrementalMacInputStream}. Compare the
+ * score against {@code dataSize} to get bytes per second.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class IncrementalMacStreams {
+  @Param({"65536", "4194304"})
+  public int dataSize;
+
+  @Param({"8192"})
+  public int readSize;
+
+  private final byte[] key = new byte[32];
+  private ChunkSizeChoice sizeChoice;
+  private byte[] data;
+  private byte[] digest;
+  private byte[] readBuffer;
+
+  @Setup
+  public void setUp() throws IOException {
+    ThreadLocalRandom.current().nextBytes(key);
+    data = new byte[dataSize];
+    ThreadLocalRandom.current().nextBytes(data);
+    sizeChoice = ChunkSizeChoice.inferChunkSize(dataSize);
+    readBuffer = new byte[readSize];
+
+    ByteArrayOutputStream digestStream = new ByteArrayOutputStream();
+    try (OutputStream out =
+        new IncrementalMacOutputStream(
+            OutputStream.nullOutputStream(), key, sizeChoice, digestStream)) {
+      out.write(data);
+    }
+    digest = digestStream.toByteArray();
+  }
+
+  @Benchmark
+  public int benchmarkValidate() throws IOException {
+    int total = 0;
+    try (IncrementalMacInputStream in =
+        new IncrementalMacInputStream(new ByteArrayInputStream(data), key, sizeChoice, digest)) {
+      int read;
+      while ((read = in.read(readBuffer)) != -1) {
+        total += read;
+      }
+    }
+    return total;
+  }
+}
@@ -0,0 +1,80 @@
+//
+// Copyright 2026 Signal Messenger, LLC.
+// SPDX-License-Identifier: AGPL-3.0-only
+//
+
+package org.signal.libsignal.benchmarks;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.signal.libsignal.protocol.IdentityKeyPair;
+import org.signal.libsignal.protocol.kem.KEMKeyPair;
+import org.signal.libsignal.protocol.kem.KEMKeyType;
+import org.signal.libsignal.protocol.state.KyberPreKeyRecord;
+import org.signal.libsignal.protocol.state.KyberPreKeyStore;
+import org.signal.libsignal.protocol.state.impl.CompactKyberPreKeyStore;
+import org.signal.libsignal.protocol.state.impl.InMemoryKyberPreKeyStore;
+
+/** Compares {@link InMemoryKyberPreKeyStore} with {@link CompactKyberPreKeyStore}. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class KyberPreKeyStores {
+  @Param({"InMemoryKyberPreKeyStore", "CompactKyberPreKeyStore"})
+  public String storeType;
+
+  @Param({"100"})
+  public int keyCount;
+
+  private KyberPreKeyStore store;
+  private int nextUsedId;
+
+  @Setup
+  public void setUp() {
+    switch (storeType) {
+      case "InMemoryKyberPreKeyStore":
+        store = new InMemoryKyberPreKeyStore();
+        break;
+      case "CompactKyberPreKeyStore":
+        store = new CompactKyberPreKeyStore(Duration.ofDays(30));
+        break;
+      default:
+        throw new IllegalArgumentException(storeType);
+    }
+
+    IdentityKeyPair identityKeyPair = IdentityKeyPair.generate();
+    for (int id = 1; id <= keyCount; id++) {
+      KEMKeyPair keyPair = KEMKeyPair.generate(KEMKeyType.KYBER_1024);
+      byte[] signature =
+          identityKeyPair.getPrivateKey().calculateSignature(keyPair.getPublicKey().serialize());
+      store.storeKyberPreKey(id, new KyberPreKeyRecord(id, 0, keyPair, signature));
+    }
+    nextUsedId = keyCount + 1;
+  }
+
+  @Benchmark
+  public KyberPreKeyRecord benchmarkLoad() throws Exception {
+    return store.loadKyberPreKey(ThreadLocalRandom.current().nextInt(keyCount) + 1);
+  }
+
+  // Marks a new ID each time, so the cost of tracking a growing number of used IDs shows up.
+  @Benchmark
+  public void benchmarkMarkUsed() {
+    store.markKyberPreKeyUsed(nextUsedId++ & 0xFFFFFF);
+  }
+}
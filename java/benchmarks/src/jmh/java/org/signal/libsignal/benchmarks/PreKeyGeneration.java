@@ -0,0 +1,78 @@
+//
+// Copyright 2026 Signal Messenger, LLC.
+// SPDX-License-Identifier: AGPL-3.0-only
+//
+
+package org.signal.libsignal.benchmarks;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.signal.libsignal.protocol.IdentityKeyPair;
+import org.signal.libsignal.protocol.kem.KEMKeyPair;
+import org.signal.libsignal.protocol.kem.KEMKeyType;
+import org.signal.libsignal.protocol.state.KyberPreKeyRecord;
+import org.signal.libsignal.protocol.state.PreKeyPool;
+import org.signal.libsignal.protocol.state.impl.InMemorySignalProtocolStore;
+
+/**
+ * Compares generating a Kyber pre-key on the calling thread with taking one from a {@link
+ * PreKeyPool} that generates in the background. The pool benchmark measures latency as seen by
+ * the caller; it falls back to inline generation whenever the background thread can't keep up.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PreKeyGeneration {
+  private final IdentityKeyPair identityKeyPair = IdentityKeyPair.generate();
+
+  private ExecutorService executor;
+  private PreKeyPool pool;
+  private int nextId = 1;
+
+  @Setup
+  public void setUp() {
+    executor = Executors.newSingleThreadExecutor();
+    // Don't keep the taken keys around; the inline benchmark doesn't store them either.
+    InMemorySignalProtocolStore store =
+        new InMemorySignalProtocolStore(identityKeyPair, 1) {
+          @Override
+          public void storeKyberPreKey(int kyberPreKeyId, KyberPreKeyRecord record) {}
+        };
+    pool = new PreKeyPool(identityKeyPair, store, 100, 50, executor);
+    pool.fill();
+  }
+
+  @TearDown
+  public void tearDown() {
+    executor.shutdown();
+  }
+
+  @Benchmark
+  public KyberPreKeyRecord benchmarkGenerateKyberPreKeyInline() {
+    KEMKeyPair keyPair = KEMKeyPair.generate(KEMKeyType.KYBER_1024);
+    byte[] signature =
+        identityKeyPair.getPrivateKey().calculateSignature(keyPair.getPublicKey().serialize());
+    return new KyberPreKeyRecord(nextId++, System.currentTimeMillis(), keyPair, signature);
+  }
+
+  @Benchmark
+  public List<KyberPreKeyRecord> benchmarkTakeKyberPreKeyFromPool() {
+    return pool.takeKyberPreKeys(nextId++ & 0xFFFFFF, 1);
+  }
+}
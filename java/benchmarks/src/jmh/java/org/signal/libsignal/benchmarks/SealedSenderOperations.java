@@ -0,0 +1,117 @@
+//
+// Copyright 2026 Signal Messenger, LLC.
+// SPDX-License-Identifier: AGPL-3.0-only
+//
+
+package org.signal.libsignal.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.signal.libsignal.metadata.SealedSessionCipher;
+import org.signal.libsignal.metadata.certificate.SenderCertificate;
+import org.signal.libsignal.metadata.certificate.ServerCertificate;
+import org.signal.libsignal.metadata.protocol.UnidentifiedSenderMessageContent;
+import org.signal.libsignal.protocol.SignalProtocolAddress;
+import org.signal.libsignal.protocol.ecc.Curve;
+import org.signal.libsignal.protocol.ecc.ECKeyPair;
+import org.signal.libsignal.protocol.groups.GroupCipher;
+import org.signal.libsignal.protocol.groups.GroupSessionBuilder;
+import org.signal.libsignal.protocol.state.impl.InMemorySignalProtocolStore;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SealedSenderOperations {
+  @Param({"1", "10", "100", "5000"})
+  public int recipientCount;
+
+  private static final int DEVICES_PER_CHUNK = 500;
+
+  private final UUID aliceUuid = UUID.randomUUID();
+
+  private SealedSessionCipher aliceCipher;
+  private SenderCertificate senderCertificate;
+  private List<SignalProtocolAddress> recipients;
+  private UnidentifiedSenderMessageContent groupContent;
+  private final byte[] message = new byte[256];
+  private ExecutorService executor;
+
+  @Setup
+  public void setUp() throws Exception {
+    InMemorySignalProtocolStore aliceStore = Sessions.newStore();
+    aliceCipher = new SealedSessionCipher(aliceStore, aliceUuid, "+14151111111", 1);
+
+    recipients = new ArrayList<>(recipientCount);
+    for (int i = 0; i < recipientCount; i++) {
+      SignalProtocolAddress recipient = new SignalProtocolAddress(UUID.randomUUID().toString(), 1);
+      Sessions.initializeSession(aliceStore, Sessions.newStore(), recipient);
+      recipients.add(recipient);
+    }
+
+    ECKeyPair trustRoot = Curve.generateKeyPair();
+    ECKeyPair serverKey = Curve.generateKeyPair();
+    ServerCertificate serverCertificate =
+        new ServerCertificate(trustRoot.getPrivateKey(), 1, serverKey.getPublicKey());
+    senderCertificate =
+        serverCertificate.issue(
+            serverKey.getPrivateKey(),
+            aliceUuid.toString(),
+            Optional.of("+14151111111"),
+            1,
+            aliceStore.getIdentityKeyPair().getPublicKey().getPublicKey(),
+            Long.MAX_VALUE);
+
+    SignalProtocolAddress aliceAddress = new SignalProtocolAddress(aliceUuid.toString(), 1);
+    UUID distributionId = UUID.randomUUID();
+    new GroupSessionBuilder(aliceStore).create(aliceAddress, distributionId);
+    groupContent =
+        new UnidentifiedSenderMessageContent(
+            new GroupCipher(aliceStore, aliceAddress).encrypt(distributionId, message),
+            senderCertificate,
+            UnidentifiedSenderMessageContent.CONTENT_HINT_IMPLICIT,
+            Optional.of(new byte[] {42, 43}));
+
+    executor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+  }
+
+  @TearDown
+  public void tearDown() {
+    executor.shutdown();
+  }
+
+  @Benchmark
+  public byte[] benchmarkEncrypt() throws Exception {
+    return aliceCipher.encrypt(recipients.get(0), senderCertificate, message);
+  }
+
+  @Benchmark
+  public byte[] benchmarkMultiRecipientEncrypt() throws Exception {
+    return aliceCipher.multiRecipientEncrypt(recipients, groupContent);
+  }
+
+  @Benchmark
+  public List<byte[]> benchmarkMultiRecipientEncryptInChunks() throws Exception {
+    return aliceCipher.multiRecipientEncryptInChunks(
+        recipients, groupContent, DEVICES_PER_CHUNK, executor);
+  }
+}
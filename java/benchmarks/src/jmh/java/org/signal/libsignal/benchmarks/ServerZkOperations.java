@@ -0,0 +1,168 @@
+//
+// Copyright 2026 Signal Messenger, LLC.
+// SPDX-License-Identifier: AGPL-3.0-only
+//
+
+package org.signal.libsignal.benchmarks;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.signal.libsignal.protocol.ServiceId;
+import org.signal.libsignal.zkgroup.ServerPublicParams;
+import org.signal.libsignal.zkgroup.ServerSecretParams;
+import org.signal.libsignal.zkgroup.ServerZkPresentationVerifier;
+import org.signal.libsignal.zkgroup.auth.AuthCredentialPresentation;
+import org.signal.libsignal.zkgroup.auth.AuthCredentialWithPni;
+import org.signal.libsignal.zkgroup.auth.AuthCredentialWithPniResponse;
+import org.signal.libsignal.zkgroup.auth.ClientZkAuthOperations;
+import org.signal.libsignal.zkgroup.auth.ServerZkAuthOperations;
+import org.signal.libsignal.zkgroup.groups.ClientZkGroupCipher;
+import org.signal.libsignal.zkgroup.groups.GroupPublicParams;
+import org.signal.libsignal.zkgroup.groups.GroupSecretParams;
+import org.signal.libsignal.zkgroup.groups.UuidCiphertext;
+import org.signal.libsignal.zkgroup.groupsend.GroupSendDerivedKeyPair;
+import org.signal.libsignal.zkgroup.groupsend.GroupSendDerivedKeyPairProvider;
+import org.signal.libsignal.zkgroup.groupsend.GroupSendEndorsement;
+import org.signal.libsignal.zkgroup.groupsend.GroupSendEndorsementsResponse;
+import org.signal.libsignal.zkgroup.groupsend.GroupSendEndorsementsResponseCache;
+import org.signal.libsignal.zkgroup.groupsend.GroupSendFullToken;
+
+/** The zkgroup operations a chat server performs: issuing credentials and verifying them. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ServerZkOperations {
+  @Param({"10", "100", "1000"})
+  public int groupSize;
+
+  private final Instant now = Instant.now().truncatedTo(ChronoUnit.DAYS);
+  private final Instant expiration = now.plus(2, ChronoUnit.DAYS);
+
+  private final ServerSecretParams serverParams = ServerSecretParams.generate();
+  private final ServerPublicParams serverPublicParams = serverParams.getPublicParams();
+  private final GroupSecretParams groupParams = GroupSecretParams.generate();
+  private final GroupPublicParams groupPublicParams = groupParams.getPublicParams();
+  private final byte[] serializedGroupPublicParams = groupPublicParams.serialize();
+  private final ServerZkAuthOperations serverZkAuthOperations =
+      new ServerZkAuthOperations(serverParams);
+  private final ServerZkPresentationVerifier presentationVerifier =
+      new ServerZkPresentationVerifier(serverParams);
+  private final GroupSendDerivedKeyPairProvider keyPairProvider =
+      new GroupSendDerivedKeyPairProvider(serverParams);
+  private final GroupSendEndorsementsResponseCache endorsementsCache =
+      new GroupSendEndorsementsResponseCache(16);
+  private final byte[] groupId = groupPublicParams.getGroupIdentifier().serialize();
+
+  private final ServiceId.Aci aci = new ServiceId.Aci(UUID.randomUUID());
+  private final ServiceId.Pni pni = new ServiceId.Pni(UUID.randomUUID());
+
+  private AuthCredentialPresentation authCredentialPresentation;
+  private List<UuidCiphertext> encryptedMembers;
+  private GroupSendDerivedKeyPair keyPair;
+  private List<ServiceId> recipients;
+  private GroupSendFullToken fullToken;
+
+  @Setup
+  public void setUp() throws Exception {
+    ClientZkAuthOperations clientZkAuthOperations =
+        new ClientZkAuthOperations(serverPublicParams);
+    AuthCredentialWithPni authCredential =
+        clientZkAuthOperations.receiveAuthCredentialWithPniAsServiceId(
+            aci,
+            pni,
+            now.getEpochSecond(),
+            serverZkAuthOperations.issueAuthCredentialWithPniZkc(aci, pni, now));
+    authCredentialPresentation =
+        clientZkAuthOperations.createAuthCredentialPresentation(groupParams, authCredential);
+
+    List<ServiceId> members = new ArrayList<>(groupSize);
+    members.add(aci);
+    for (int i = 1; i < groupSize; i++) {
+      members.add(new ServiceId.Aci(UUID.randomUUID()));
+    }
+    ClientZkGroupCipher groupCipher = new ClientZkGroupCipher(groupParams);
+    encryptedMembers = new ArrayList<>(groupSize);
+    for (ServiceId member : members) {
+      encryptedMembers.add(groupCipher.encrypt(member));
+    }
+
+    keyPair = GroupSendDerivedKeyPair.forExpiration(expiration, serverParams);
+    GroupSendEndorsementsResponse response =
+        GroupSendEndorsementsResponse.issue(encryptedMembers, keyPair);
+    List<GroupSendEndorsement> endorsements =
+        response.receive(members, aci, now, groupParams, serverPublicParams).endorsements();
+
+    recipients = members.subList(1, groupSize);
+    fullToken =
+        GroupSendEndorsement.combine(endorsements.subList(1, groupSize))
+            .toFullToken(groupParams, response.getExpiration());
+  }
+
+  @Benchmark
+  public AuthCredentialWithPniResponse benchmarkIssueAuthCredential() {
+    return serverZkAuthOperations.issueAuthCredentialWithPniZkc(aci, pni, now);
+  }
+
+  @Benchmark
+  public void benchmarkVerifyAuthCredentialPresentation() throws Exception {
+    serverZkAuthOperations.verifyAuthCredentialPresentation(
+        groupPublicParams, authCredentialPresentation, now);
+  }
+
+  /** What a server does when it keeps group params in serialized form. */
+  @Benchmark
+  public void benchmarkVerifyAuthCredentialPresentationFromSerializedParams() throws Exception {
+    serverZkAuthOperations.verifyAuthCredentialPresentation(
+        new GroupPublicParams(serializedGroupPublicParams), authCredentialPresentation, now);
+  }
+
+  @Benchmark
+  public void benchmarkVerifyAuthCredentialPresentationWithVerifier() throws Exception {
+    presentationVerifier.verifyAuthCredentialPresentation(
+        serializedGroupPublicParams, authCredentialPresentation, now);
+  }
+
+  @Benchmark
+  public GroupSendDerivedKeyPair benchmarkDeriveGroupSendKeyPair() {
+    return GroupSendDerivedKeyPair.forExpiration(expiration, serverParams);
+  }
+
+  @Benchmark
+  public GroupSendDerivedKeyPair benchmarkGroupSendKeyPairFromProvider() {
+    return keyPairProvider.forExpiration(expiration);
+  }
+
+  @Benchmark
+  public GroupSendEndorsementsResponse benchmarkIssueGroupSendEndorsements() {
+    return GroupSendEndorsementsResponse.issue(encryptedMembers, keyPair);
+  }
+
+  /** Issuing to a group whose membership hasn't changed since the last request. */
+  @Benchmark
+  public GroupSendEndorsementsResponse benchmarkIssueGroupSendEndorsementsCached() {
+    return endorsementsCache.issue(groupId, encryptedMembers, keyPair);
+  }
+
+  @Benchmark
+  public void benchmarkVerifyGroupSendFullToken() throws Exception {
+    fullToken.verify(recipients, now, keyPair);
+  }
+}
@@ -0,0 +1,89 @@
+//
+// Copyright 2026 Signal Messenger, LLC.
+// SPDX-License-Identifier: AGPL-3.0-only
+//
+
+package org.signal.libsignal.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.signal.libsignal.protocol.SessionCipher;
+import org.signal.libsignal.protocol.SignalProtocolAddress;
+import org.signal.libsignal.protocol.message.CiphertextMessage;
+import org.signal.libsignal.protocol.message.PreKeySignalMessage;
+import org.signal.libsignal.protocol.message.SignalMessage;
+import org.signal.libsignal.protocol.state.impl.InMemorySignalProtocolStore;
+import org.signal.libsignal.protocol.util.BatchResult;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SessionCipherOperations {
+  private static final int BATCH_SIZE = 16;
+
+  @Param({"128", "4096"})
+  public int messageSize;
+
+  private final SignalProtocolAddress aliceAddress = new SignalProtocolAddress("+14151111111", 1);
+  private final SignalProtocolAddress bobAddress = new SignalProtocolAddress("+14152222222", 1);
+
+  private SessionCipher aliceCipher;
+  private SessionCipher bobCipher;
+  private byte[] message;
+  private List<byte[]> batch;
+
+  @Setup
+  public void setUp() throws Exception {
+    InMemorySignalProtocolStore aliceStore = Sessions.newStore();
+    InMemorySignalProtocolStore bobStore = Sessions.newStore();
+    Sessions.initializeSession(aliceStore, bobStore, bobAddress);
+
+    aliceCipher = new SessionCipher(aliceStore, bobAddress);
+    bobCipher = new SessionCipher(bobStore, aliceAddress);
+
+    message = new byte[messageSize];
+    batch = new ArrayList<>(BATCH_SIZE);
+    for (int i = 0; i < BATCH_SIZE; i++) {
+      batch.add(message);
+    }
+
+    // Complete the handshake so that the benchmarks see ordinary SignalMessages.
+    CiphertextMessage first = aliceCipher.encrypt(message);
+    bobCipher.decrypt(new PreKeySignalMessage(first.serialize()));
+    CiphertextMessage reply = bobCipher.encrypt(message);
+    aliceCipher.decrypt(new SignalMessage(reply.serialize()));
+  }
+
+  @Benchmark
+  public CiphertextMessage benchmarkEncrypt() throws Exception {
+    return aliceCipher.encrypt(message);
+  }
+
+  @Benchmark
+  public byte[] benchmarkEncryptAndDecrypt() throws Exception {
+    CiphertextMessage ciphertext = aliceCipher.encrypt(message);
+    return bobCipher.decrypt(new SignalMessage(ciphertext.serialize()));
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(BATCH_SIZE)
+  public List<BatchResult<CiphertextMessage>> benchmarkEncryptBatch() {
+    return aliceCipher.encryptBatch(batch);
+  }
+}
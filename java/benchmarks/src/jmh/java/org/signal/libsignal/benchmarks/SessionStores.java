@@ -0,0 +1,145 @@
+//
+// Copyright 2026 Signal Messenger, LLC.
+// SPDX-License-Identifier: AGPL-3.0-only
+//
+
+package org.signal.libsignal.benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.signal.libsignal.protocol.IdentityKey;
+import org.signal.libsignal.protocol.IdentityKeyPair;
+import org.signal.libsignal.protocol.SignalProtocolAddress;
+import org.signal.libsignal.protocol.ecc.Curve;
+import org.signal.libsignal.protocol.ecc.ECKeyPair;
+import org.signal.libsignal.protocol.state.SessionRecord;
+import org.signal.libsignal.protocol.state.SessionStore;
+import org.signal.libsignal.protocol.state.impl.ConcurrentInMemorySessionStore;
+import org.signal.libsignal.protocol.state.impl.FileSignalProtocolStore;
+import org.signal.libsignal.protocol.state.impl.InMemorySessionStore;
+
+/**
+ * Compares the single-lock {@link InMemorySessionStore} with the striped concurrent store, and with
+ * the durable {@link FileSignalProtocolStore}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SessionStores {
+  @Param({"InMemorySessionStore", "ConcurrentInMemorySessionStore", "FileSignalProtocolStore"})
+  public String storeType;
+
+  @Param({"1000"})
+  public int recipientCount;
+
+  @Param({"3"})
+  public int devicesPerRecipient;
+
+  private SessionStore store;
+  private SignalProtocolAddress[] addresses;
+  private String[] names;
+  private SessionRecord record;
+  private File directory;
+
+  @Setup
+  public void setUp() throws IOException {
+    switch (storeType) {
+      case "InMemorySessionStore":
+        store = new InMemorySessionStore();
+        break;
+      case "ConcurrentInMemorySessionStore":
+        store = new ConcurrentInMemorySessionStore();
+        break;
+      case "FileSignalProtocolStore":
+        directory = Files.createTempDirectory("session-stores").toFile();
+        store = new FileSignalProtocolStore(directory, IdentityKeyPair.generate(), 1);
+        break;
+      default:
+        throw new IllegalArgumentException(storeType);
+    }
+
+    record = newSessionRecord();
+    names = new String[recipientCount];
+    addresses = new SignalProtocolAddress[recipientCount * devicesPerRecipient];
+    for (int i = 0; i < recipientCount; i++) {
+      names[i] = "+1415" + String.format("%07d", i);
+      for (int deviceId = 1; deviceId <= devicesPerRecipient; deviceId++) {
+        SignalProtocolAddress address = new SignalProtocolAddress(names[i], deviceId);
+        addresses[i * devicesPerRecipient + deviceId - 1] = address;
+        store.storeSession(address, record);
+      }
+    }
+  }
+
+  @TearDown
+  public void tearDown() throws IOException {
+    if (store instanceof FileSignalProtocolStore fileStore) {
+      fileStore.close();
+      for (File file : directory.listFiles()) {
+        file.delete();
+      }
+      directory.delete();
+    }
+  }
+
+  private static SessionRecord newSessionRecord() {
+    ECKeyPair aliceIdentityKeyPair = Curve.generateKeyPair();
+    IdentityKeyPair aliceIdentityKey =
+        new IdentityKeyPair(
+            new IdentityKey(aliceIdentityKeyPair.getPublicKey()),
+            aliceIdentityKeyPair.getPrivateKey());
+    ECKeyPair bobIdentityKeyPair = Curve.generateKeyPair();
+    ECKeyPair bobBaseKey = Curve.generateKeyPair();
+
+    return SessionRecord.initializeAliceSession(
+        aliceIdentityKey,
+        Curve.generateKeyPair(),
+        new IdentityKey(bobIdentityKeyPair.getPublicKey()),
+        bobBaseKey.getPublicKey(),
+        bobBaseKey.getPublicKey());
+  }
+
+  private SignalProtocolAddress randomAddress() {
+    return addresses[ThreadLocalRandom.current().nextInt(addresses.length)];
+  }
+
+  @Benchmark
+  public SessionRecord benchmarkLoadAndStore() {
+    SignalProtocolAddress address = randomAddress();
+    SessionRecord loaded = store.loadSession(address);
+    store.storeSession(address, record);
+    return loaded;
+  }
+
+  @Benchmark
+  @Threads(8)
+  public SessionRecord benchmarkLoadAndStoreContended() {
+    return benchmarkLoadAndStore();
+  }
+
+  @Benchmark
+  @Threads(8)
+  public List<Integer> benchmarkGetSubDeviceSessionsContended() {
+    return store.getSubDeviceSessions(names[ThreadLocalRandom.current().nextInt(names.length)]);
+  }
+}
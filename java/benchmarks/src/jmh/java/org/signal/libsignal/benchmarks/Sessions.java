@@ -0,0 +1,82 @@
+//
+// Copyright 2026 Signal Messenger, LLC.
+// SPDX-License-Identifier: AGPL-3.0-only
+//
+
+package org.signal.libsignal.benchmarks;
+
+import org.signal.libsignal.protocol.IdentityKeyPair;
+import org.signal.libsignal.protocol.InvalidKeyException;
+import org.signal.libsignal.protocol.SessionBuilder;
+import org.signal.libsignal.protocol.SignalProtocolAddress;
+import org.signal.libsignal.protocol.UntrustedIdentityException;
+import org.signal.libsignal.protocol.ecc.Curve;
+import org.signal.libsignal.protocol.ecc.ECKeyPair;
+import org.signal.libsignal.protocol.kem.KEMKeyPair;
+import org.signal.libsignal.protocol.kem.KEMKeyType;
+import org.signal.libsignal.protocol.state.KyberPreKeyRecord;
+import org.signal.libsignal.protocol.state.PreKeyBundle;
+import org.signal.libsignal.protocol.state.PreKeyRecord;
+import org.signal.libsignal.protocol.state.SignedPreKeyRecord;
+import org.signal.libsignal.protocol.state.impl.InMemorySignalProtocolStore;
+import org.signal.libsignal.protocol.util.KeyHelper;
+
+/** Helpers for setting up stores with established sessions, shared by the benchmarks. */
+final class Sessions {
+  private static final int PRE_KEY_ID = 1;
+  private static final int SIGNED_PRE_KEY_ID = 2;
+  private static final int KYBER_PRE_KEY_ID = 3;
+
+  private Sessions() {}
+
+  static InMemorySignalProtocolStore newStore() {
+    return new InMemorySignalProtocolStore(
+        IdentityKeyPair.generate(), KeyHelper.generateRegistrationId(false));
+  }
+
+  /**
+   * Has {@code sender} start a session with {@code recipient} from a freshly generated pre-key
+   * bundle. The recipient's pre-keys are saved so it can decrypt the first message.
+   */
+  static void initializeSession(
+      InMemorySignalProtocolStore sender,
+      InMemorySignalProtocolStore recipient,
+      SignalProtocolAddress recipientAddress)
+      throws InvalidKeyException, UntrustedIdentityException {
+    IdentityKeyPair recipientIdentity = recipient.getIdentityKeyPair();
+
+    ECKeyPair preKey = Curve.generateKeyPair();
+    ECKeyPair signedPreKey = Curve.generateKeyPair();
+    byte[] signedPreKeySignature =
+        Curve.calculateSignature(
+            recipientIdentity.getPrivateKey(), signedPreKey.getPublicKey().serialize());
+    KEMKeyPair kyberPreKey = KEMKeyPair.generate(KEMKeyType.KYBER_1024);
+    byte[] kyberPreKeySignature =
+        Curve.calculateSignature(
+            recipientIdentity.getPrivateKey(), kyberPreKey.getPublicKey().serialize());
+
+    PreKeyBundle bundle =
+        new PreKeyBundle(
+            recipient.getLocalRegistrationId(),
+            recipientAddress.getDeviceId(),
+            PRE_KEY_ID,
+            preKey.getPublicKey(),
+            SIGNED_PRE_KEY_ID,
+            signedPreKey.getPublicKey(),
+            signedPreKeySignature,
+            recipientIdentity.getPublicKey(),
+            KYBER_PRE_KEY_ID,
+            kyberPreKey.getPublicKey(),
+            kyberPreKeySignature);
+    new SessionBuilder(sender, recipientAddress).process(bundle);
+
+    long now = System.currentTimeMillis();
+    recipient.storePreKey(PRE_KEY_ID, new PreKeyRecord(PRE_KEY_ID, preKey));
+    recipient.storeSignedPreKey(
+        SIGNED_PRE_KEY_ID,
+        new SignedPreKeyRecord(SIGNED_PRE_KEY_ID, now, signedPreKey, signedPreKeySignature));
+    recipient.storeKyberPreKey(
+        KYBER_PRE_KEY_ID,
+        new KyberPreKeyRecord(KYBER_PRE_KEY_ID, now, kyberPreKey, kyberPreKeySignature));
+  }
+}
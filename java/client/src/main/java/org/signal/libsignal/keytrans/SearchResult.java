@@ -15,12 +15,7 @@ import org.signal.libsignal.protocol.ServiceId.Aci;
 /** Result of a key transparency search operation. */
 public class SearchResult extends NativeHandleGuard.SimpleOwner {
   public SearchResult(long nativeHandle) {
-    super(nativeHandle);
-  }
-
-  @Override
-  protected void release(long nativeHandle) {
-    Native.SearchResult_Destroy(nativeHandle);
+    super(nativeHandle, Native::SearchResult_Destroy);
   }
 
   public IdentityKey getAciIdentityKey() {
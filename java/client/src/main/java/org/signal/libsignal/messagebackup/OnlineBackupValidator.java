@@ -46,12 +46,8 @@ public class OnlineBackupValidator extends NativeHandleGuard.SimpleOwner impleme
     super(
         filterExceptions(
             ValidationError.class,
-            () -> Native.OnlineBackupValidator_New(backupInfo, purpose.ordinal())));
-  }
-
-  @Override
-  protected void release(long nativeHandle) {
-    Native.OnlineBackupValidator_Destroy(nativeHandle);
+            () -> Native.OnlineBackupValidator_New(backupInfo, purpose.ordinal())),
+        Native::OnlineBackupValidator_Destroy);
   }
 
   /**
@@ -0,0 +1,123 @@
+//
+// Copyright 2026 Signal Messenger, LLC.
+// SPDX-License-Identifier: AGPL-3.0-only
+//
+
+package org.signal.libsignal.metadata;
+
+import java.util.UUID;
+import java.util.concurrent.Executor;
+import org.signal.libsignal.internal.CompletableFuture;
+import org.signal.libsignal.internal.PrefetchedProtocolStore;
+import org.signal.libsignal.metadata.certificate.CertificateValidator;
+import org.signal.libsignal.metadata.certificate.SenderCertificate;
+import org.signal.libsignal.metadata.protocol.UnidentifiedSenderMessageContent;
+import org.signal.libsignal.protocol.SignalProtocolAddress;
+import org.signal.libsignal.protocol.groups.state.SenderKeyStore;
+import org.signal.libsignal.protocol.message.CiphertextMessage;
+import org.signal.libsignal.protocol.message.PreKeySignalMessage;
+import org.signal.libsignal.protocol.state.AsyncSignalProtocolStore;
+import org.signal.libsignal.protocol.state.IdentityKeyStore;
+
+/**
+ * A {@link SealedSessionCipher} for asynchronous stores.
+ *
+ * <p>Works the same way as {@link org.signal.libsignal.protocol.AsyncSessionCipher}: what each
+ * step needs is loaded from the stores first, the cryptography runs on {@code executor}, and the
+ * writes are passed on afterwards. Decryption takes two such steps, since which session to load
+ * is only known once the outer layer has been removed.
+ *
+ * <p>Sender keys, used by group messages, still come from a synchronous {@link SenderKeyStore},
+ * which is called on the executor's thread. As with {@code AsyncSessionCipher}, the asynchronous
+ * store must complete its futures without needing {@code executor}.
+ */
+public class AsyncSealedSessionCipher {
+
+  private final AsyncSignalProtocolStore store;
+  private final SenderKeyStore senderKeyStore;
+  private final UUID localUuid;
+  private final String localE164Address;
+  private final int localDeviceId;
+  private final Executor executor;
+
+  /**
+   * @param senderKeyStore serves sender keys for group messages
+   * @param executor runs the cryptography
+   */
+  public AsyncSealedSessionCipher(
+      AsyncSignalProtocolStore store,
+      SenderKeyStore senderKeyStore,
+      UUID localUuid,
+      String localE164Address,
+      int localDeviceId,
+      Executor executor) {
+    this.store = store;
+    this.senderKeyStore = senderKeyStore;
+    this.localUuid = localUuid;
+    this.localE164Address = localE164Address;
+    this.localDeviceId = localDeviceId;
+    this.executor = executor;
+  }
+
+  private PrefetchedProtocolStore.WithSenderKeys newStore() {
+    return new PrefetchedProtocolStore.WithSenderKeys(
+        store, store, store, store, store, senderKeyStore);
+  }
+
+  private SealedSessionCipher cipherFor(PrefetchedProtocolStore.WithSenderKeys prefetched) {
+    return new SealedSessionCipher(prefetched, localUuid, localE164Address, localDeviceId);
+  }
+
+  /**
+   * @see SealedSessionCipher#encrypt(SignalProtocolAddress, SenderCertificate, byte[])
+   */
+  public CompletableFuture<byte[]> encrypt(
+      SignalProtocolAddress destinationAddress,
+      SenderCertificate senderCertificate,
+      byte[] paddedPlaintext) {
+    PrefetchedProtocolStore.WithSenderKeys prefetched = newStore();
+    prefetched.prefetchSession(destinationAddress, IdentityKeyStore.Direction.SENDING);
+    prefetched.prefetchIdentityKeyPair();
+    return prefetched.run(
+        executor,
+        ignored ->
+            cipherFor(prefetched).encrypt(destinationAddress, senderCertificate, paddedPlaintext));
+  }
+
+  /**
+   * @see SealedSessionCipher#decrypt(CertificateValidator, byte[], long)
+   */
+  public CompletableFuture<SealedSessionCipher.DecryptionResult> decrypt(
+      CertificateValidator validator, byte[] ciphertext, long timestamp) {
+    PrefetchedProtocolStore.WithSenderKeys unsealing = newStore();
+    unsealing.prefetchIdentityKeyPair();
+    return unsealing
+        .run(executor, ignored -> cipherFor(unsealing).unseal(validator, ciphertext, timestamp))
+        .thenCompose(this::decryptContent);
+  }
+
+  private CompletableFuture<SealedSessionCipher.DecryptionResult> decryptContent(
+      UnidentifiedSenderMessageContent content) {
+    SignalProtocolAddress sender =
+        new SignalProtocolAddress(
+            content.getSenderCertificate().getSenderUuid(),
+            content.getSenderCertificate().getSenderDeviceId());
+    PrefetchedProtocolStore.WithSenderKeys prefetched = newStore();
+    switch (content.getType()) {
+      case CiphertextMessage.WHISPER_TYPE:
+        prefetched.prefetchSession(sender, IdentityKeyStore.Direction.RECEIVING);
+        break;
+      case CiphertextMessage.PREKEY_TYPE:
+        try {
+          prefetched.prefetchForPreKeyMessage(
+              sender, new PreKeySignalMessage(content.getContent()));
+        } catch (Exception e) {
+          // Leave it to decryptContent to report the invalid message.
+        }
+        break;
+      default:
+        break;
+    }
+    return prefetched.run(executor, ignored -> cipherFor(prefetched).decryptContent(content));
+  }
+}
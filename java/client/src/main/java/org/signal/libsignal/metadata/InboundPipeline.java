@@ -0,0 +1,437 @@
+//
+// Copyright 2026 Signal Messenger, LLC.
+// SPDX-License-Identifier: AGPL-3.0-only
+//
+
+package org.signal.libsignal.metadata;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import org.signal.libsignal.internal.CompletableFuture;
+import org.signal.libsignal.metadata.certificate.CertificateValidator;
+import org.signal.libsignal.metadata.certificate.SenderCertificate;
+import org.signal.libsignal.metadata.protocol.UnidentifiedSenderMessageContent;
+import org.signal.libsignal.protocol.SessionCipher;
+import org.signal.libsignal.protocol.SignalProtocolAddress;
+import org.signal.libsignal.protocol.groups.GroupCipher;
+import org.signal.libsignal.protocol.message.CiphertextMessage;
+import org.signal.libsignal.protocol.message.PlaintextContent;
+import org.signal.libsignal.protocol.message.PreKeySignalMessage;
+import org.signal.libsignal.protocol.message.SignalMessage;
+import org.signal.libsignal.protocol.state.SignalProtocolStore;
+
+/**
+ * Decrypts incoming messages on an {@link Executor}, one at a time for each sender but with
+ * different senders in parallel.
+ *
+ * <p>Each message is handed to the cipher for its type: {@link SessionCipher} for {@link
+ * CiphertextMessage#WHISPER_TYPE} and {@link CiphertextMessage#PREKEY_TYPE}, {@link GroupCipher}
+ * for {@link CiphertextMessage#SENDERKEY_TYPE}, {@link PlaintextContent} for {@link
+ * CiphertextMessage#PLAINTEXT_CONTENT_TYPE}, and {@link SealedSessionCipher} for sealed sender
+ * messages. Messages from the same sender are decrypted in the order they were submitted, so the
+ * session and sender key updates of one message are always seen by the next. Because messages
+ * from different senders are decrypted concurrently, the store must be thread-safe.
+ *
+ * <p>Sealed sender messages don't reveal their sender until their outer layer is removed. Those
+ * layers are removed in parallel, and the messages then join their senders' queues in the order
+ * they were submitted. Only sealed messages are ordered against each other this way; a sealed
+ * message and an unsealed one from the same sender may be decrypted in either order.
+ *
+ * <p>At most {@code maxPending} messages may be waiting or in progress at once, and at most
+ * {@code maxPendingPerSender} of them may be waiting for any one (known) sender. Submitting a
+ * message beyond either limit blocks until a message finishes, which slows the receiver down to
+ * the rate at which messages can be decrypted.
+ *
+ * <p>The time messages spend in each stage is collected in {@link StageMetrics}.
+ */
+public class InboundPipeline {
+
+  /** Timings for one stage of the pipeline. */
+  public static final class StageMetrics {
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong totalNanos = new AtomicLong();
+    private final AtomicLong maxNanos = new AtomicLong();
+
+    private StageMetrics() {}
+
+    private void record(long nanos) {
+      count.incrementAndGet();
+      totalNanos.addAndGet(nanos);
+      long max = maxNanos.get();
+      while (nanos > max && !maxNanos.compareAndSet(max, nanos)) {
+        max = maxNanos.get();
+      }
+    }
+
+    /** Returns the number of messages that have passed through the stage, including failures. */
+    public long getCount() {
+      return count.get();
+    }
+
+    /** Returns the total time messages have spent in the stage, in nanoseconds. */
+    public long getTotalNanos() {
+      return totalNanos.get();
+    }
+
+    /** Returns the mean time one message spent in the stage, in nanoseconds, or 0 if none have. */
+    public long getAverageNanos() {
+      long count = this.count.get();
+      return count == 0 ? 0 : totalNanos.get() / count;
+    }
+
+    /** Returns the longest time one message spent in the stage, in nanoseconds. */
+    public long getMaxNanos() {
+      return maxNanos.get();
+    }
+  }
+
+  private interface Decryption<T> {
+    T decrypt() throws Exception;
+  }
+
+  /**
+   * Identifies a sender's lane. Unlike {@link SignalProtocolAddress}, comparing these doesn't call
+   * into native code, so it is cheap to do while holding the lock.
+   */
+  private record Sender(String name, int deviceId) {}
+
+  private final class Task<T> {
+    final Sender sender;
+    final Decryption<T> decryption;
+    final CompletableFuture<T> result;
+    long enqueuedNanos;
+
+    Task(Sender sender, Decryption<T> decryption, CompletableFuture<T> result) {
+      this.sender = sender;
+      this.decryption = decryption;
+      this.result = result;
+    }
+
+    void run() {
+      long start = System.nanoTime();
+      queueMetrics.record(start - enqueuedNanos);
+      T value;
+      try {
+        value = decryption.decrypt();
+      } catch (Exception e) {
+        decryptMetrics.record(System.nanoTime() - start);
+        result.completeExceptionally(e);
+        return;
+      } catch (Error e) {
+        decryptMetrics.record(System.nanoTime() - start);
+        result.completeExceptionally(e);
+        throw e;
+      }
+      decryptMetrics.record(System.nanoTime() - start);
+      result.complete(value);
+    }
+  }
+
+  /** The messages waiting for one sender. */
+  private final class Lane {
+    final Sender sender;
+    final ArrayDeque<Task<?>> queue = new ArrayDeque<>();
+    boolean scheduled = false;
+
+    Lane(Sender sender) {
+      this.sender = sender;
+    }
+  }
+
+  private final SignalProtocolStore store;
+  private final SealedSessionCipher sealedSessionCipher;
+  private final Executor executor;
+  private final int maxPending;
+  private final int maxPendingPerSender;
+
+  private final StageMetrics unsealMetrics = new StageMetrics();
+  private final StageMetrics queueMetrics = new StageMetrics();
+  private final StageMetrics decryptMetrics = new StageMetrics();
+
+  private final ReentrantLock lock = new ReentrantLock();
+  private final Condition spaceAvailable = lock.newCondition();
+  // Guarded by lock.
+  private final Map<Sender, Lane> lanes = new HashMap<>();
+  private int pending = 0;
+  private long nextSealedSequence = 0;
+  private long nextSealedToDispatch = 0;
+  // Unsealed messages waiting for earlier sealed messages, by sequence number. A null task marks a
+  // message that failed to unseal.
+  private final TreeMap<Long, Task<?>> unsealed = new TreeMap<>();
+
+  /**
+   * @param store the store used for unsealed messages
+   * @param sealedSessionCipher the cipher for sealed sender messages, which should use the same
+   *     store; may be null if sealed sender messages are not submitted
+   * @param executor runs the decryptions
+   * @param maxPending the most messages that may be waiting or in progress
+   * @param maxPendingPerSender the most messages that may be waiting for one sender
+   */
+  public InboundPipeline(
+      SignalProtocolStore store,
+      SealedSessionCipher sealedSessionCipher,
+      Executor executor,
+      int maxPending,
+      int maxPendingPerSender) {
+    if (maxPending < 1 || maxPendingPerSender < 1) {
+      throw new IllegalArgumentException("queue limits must be positive");
+    }
+    this.store = store;
+    this.sealedSessionCipher = sealedSessionCipher;
+    this.executor = executor;
+    this.maxPending = maxPending;
+    this.maxPendingPerSender = maxPendingPerSender;
+  }
+
+  /**
+   * Queues a message for decryption, waiting for room if the pipeline is full.
+   *
+   * @param sender the address the message came from
+   * @param messageType one of the {@link CiphertextMessage} types
+   * @param ciphertext the serialized message
+   * @return a future for the plaintext, which fails with the exception the cipher threw
+   * @throws IllegalArgumentException if {@code messageType} is not a known type
+   */
+  public CompletableFuture<byte[]> submit(
+      SignalProtocolAddress sender, int messageType, byte[] ciphertext)
+      throws InterruptedException {
+    Decryption<byte[]> decryption;
+    switch (messageType) {
+      case CiphertextMessage.WHISPER_TYPE:
+        decryption = () -> new SessionCipher(store, sender).decrypt(new SignalMessage(ciphertext));
+        break;
+      case CiphertextMessage.PREKEY_TYPE:
+        decryption =
+            () -> new SessionCipher(store, sender).decrypt(new PreKeySignalMessage(ciphertext));
+        break;
+      case CiphertextMessage.SENDERKEY_TYPE:
+        decryption = () -> new GroupCipher(store, sender).decrypt(ciphertext);
+        break;
+      case CiphertextMessage.PLAINTEXT_CONTENT_TYPE:
+        decryption = () -> new PlaintextContent(ciphertext).getBody();
+        break;
+      default:
+        throw new IllegalArgumentException("unknown message type " + messageType);
+    }
+
+    Sender key = new Sender(sender.getName(), sender.getDeviceId());
+    Task<byte[]> task = new Task<>(key, decryption, new CompletableFuture<>());
+    Lane toSchedule;
+    lock.lockInterruptibly();
+    try {
+      while (pending >= maxPending || queuedFor(key) >= maxPendingPerSender) {
+        spaceAvailable.await();
+      }
+      pending++;
+      toSchedule = enqueue(task);
+    } finally {
+      lock.unlock();
+    }
+    schedule(toSchedule);
+    return task.result;
+  }
+
+  /**
+   * Queues a sealed sender message for decryption, waiting for room if the pipeline is full.
+   *
+   * @return a future for the result, which fails with the exception {@link
+   *     SealedSessionCipher#decrypt} would have thrown
+   * @throws IllegalStateException if the pipeline has no {@link SealedSessionCipher}
+   * @see SealedSessionCipher#decrypt(CertificateValidator, byte[], long)
+   */
+  public CompletableFuture<SealedSessionCipher.DecryptionResult> submitSealed(
+      CertificateValidator validator, byte[] ciphertext, long timestamp)
+      throws InterruptedException {
+    if (sealedSessionCipher == null) {
+      throw new IllegalStateException("no SealedSessionCipher was provided");
+    }
+
+    long sequence;
+    lock.lockInterruptibly();
+    try {
+      while (pending >= maxPending) {
+        spaceAvailable.await();
+      }
+      pending++;
+      sequence = nextSealedSequence++;
+    } finally {
+      lock.unlock();
+    }
+
+    CompletableFuture<SealedSessionCipher.DecryptionResult> result = new CompletableFuture<>();
+    try {
+      executor.execute(() -> unseal(sequence, validator, ciphertext, timestamp, result));
+    } catch (RejectedExecutionException e) {
+      result.completeExceptionally(e);
+      dispatchSealed(sequence, null);
+    }
+    return result;
+  }
+
+  /** Returns the number of messages waiting or in progress. */
+  public int getPendingCount() {
+    lock.lock();
+    try {
+      return pending;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /** Returns the time spent removing the outer layer of sealed sender messages. */
+  public StageMetrics getUnsealMetrics() {
+    return unsealMetrics;
+  }
+
+  /** Returns the time messages spent waiting for earlier messages from the same sender. */
+  public StageMetrics getQueueMetrics() {
+    return queueMetrics;
+  }
+
+  /** Returns the time spent decrypting messages. */
+  public StageMetrics getDecryptMetrics() {
+    return decryptMetrics;
+  }
+
+  private void unseal(
+      long sequence,
+      CertificateValidator validator,
+      byte[] ciphertext,
+      long timestamp,
+      CompletableFuture<SealedSessionCipher.DecryptionResult> result) {
+    long start = System.nanoTime();
+    Task<SealedSessionCipher.DecryptionResult> task = null;
+    try {
+      UnidentifiedSenderMessageContent content =
+          sealedSessionCipher.unseal(validator, ciphertext, timestamp);
+      SenderCertificate certificate = content.getSenderCertificate();
+      Sender sender = new Sender(certificate.getSenderUuid(), certificate.getSenderDeviceId());
+      task = new Task<>(sender, () -> sealedSessionCipher.decryptContent(content), result);
+    } catch (Exception e) {
+      result.completeExceptionally(e);
+    } catch (Error e) {
+      result.completeExceptionally(e);
+      throw e;
+    } finally {
+      unsealMetrics.record(System.nanoTime() - start);
+      dispatchSealed(sequence, task);
+    }
+  }
+
+  /** Moves unsealed messages to their senders' queues, in the order they were submitted. */
+  private void dispatchSealed(long sequence, Task<?> task) {
+    List<Lane> toSchedule = new ArrayList<>();
+    lock.lock();
+    try {
+      unsealed.put(sequence, task);
+      while (unsealed.containsKey(nextSealedToDispatch)) {
+        Task<?> next = unsealed.remove(nextSealedToDispatch++);
+        if (next == null) {
+          pending--;
+          spaceAvailable.signalAll();
+        } else {
+          Lane lane = enqueue(next);
+          if (lane != null) {
+            toSchedule.add(lane);
+          }
+        }
+      }
+    } finally {
+      lock.unlock();
+    }
+    for (Lane lane : toSchedule) {
+      schedule(lane);
+    }
+  }
+
+  private int queuedFor(Sender sender) {
+    Lane lane = lanes.get(sender);
+    return lane == null ? 0 : lane.queue.size();
+  }
+
+  /**
+   * Adds a task to its sender's queue. Must be called with the lock held.
+   *
+   * @return the lane if it needs to be scheduled, which must be done after releasing the lock
+   */
+  private Lane enqueue(Task<?> task) {
+    Lane lane = lanes.get(task.sender);
+    if (lane == null) {
+      lane = new Lane(task.sender);
+      lanes.put(task.sender, lane);
+    }
+    task.enqueuedNanos = System.nanoTime();
+    lane.queue.add(task);
+    if (lane.scheduled) {
+      return null;
+    }
+    lane.scheduled = true;
+    return lane;
+  }
+
+  private void schedule(Lane lane) {
+    if (lane == null) {
+      return;
+    }
+    try {
+      executor.execute(() -> runNext(lane));
+    } catch (RejectedExecutionException e) {
+      List<Task<?>> rejected;
+      lock.lock();
+      try {
+        rejected = new ArrayList<>(lane.queue);
+        lane.queue.clear();
+        lane.scheduled = false;
+        lanes.remove(lane.sender);
+        pending -= rejected.size();
+        spaceAvailable.signalAll();
+      } finally {
+        lock.unlock();
+      }
+      for (Task<?> task : rejected) {
+        task.result.completeExceptionally(e);
+      }
+    }
+  }
+
+  /** Runs the next task for a sender, then yields the thread so that other senders get a turn. */
+  private void runNext(Lane lane) {
+    Task<?> task;
+    lock.lock();
+    try {
+      task = lane.queue.poll();
+    } finally {
+      lock.unlock();
+    }
+
+    try {
+      task.run();
+    } finally {
+      boolean more;
+      lock.lock();
+      try {
+        pending--;
+        spaceAvailable.signalAll();
+        more = !lane.queue.isEmpty();
+        if (!more) {
+          lane.scheduled = false;
+          lanes.remove(lane.sender);
+        }
+      } finally {
+        lock.unlock();
+      }
+      if (more) {
+        schedule(lane);
+      }
+    }
+  }
+}
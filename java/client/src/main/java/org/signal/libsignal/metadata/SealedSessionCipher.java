@@ -8,12 +8,19 @@ package org.signal.libsignal.metadata;
 import static org.signal.libsignal.internal.FilterExceptions.filterExceptions;
 
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
 import org.signal.libsignal.internal.Native;
 import org.signal.libsignal.internal.NativeHandleGuard;
+import org.signal.libsignal.internal.ParsedSessionStore;
 import org.signal.libsignal.metadata.certificate.CertificateValidator;
 import org.signal.libsignal.metadata.certificate.SenderCertificate;
 import org.signal.libsignal.metadata.protocol.UnidentifiedSenderMessageContent;
@@ -70,7 +77,7 @@ public class SealedSessionCipher {
                   Native.SessionCipher_EncryptMessage(
                       paddedPlaintext,
                       addressGuard.nativeHandle(),
-                      this.signalProtocolStore,
+                      ParsedSessionStore.wrap(this.signalProtocolStore),
                       this.signalProtocolStore,
                       Instant.now().toEpochMilli()));
       UnidentifiedSenderMessageContent content =
@@ -182,6 +189,203 @@ public class SealedSessionCipher {
     }
   }
 
+  /**
+   * Encrypts {@code content} for a large number of recipients as several independent
+   * multi-recipient messages, encrypted in parallel on {@code executor}.
+   *
+   * @see #multiRecipientEncryptInChunks(List, List, UnidentifiedSenderMessageContent, List, int,
+   *     Executor)
+   */
+  public List<byte[]> multiRecipientEncryptInChunks(
+      List<SignalProtocolAddress> recipients,
+      UnidentifiedSenderMessageContent content,
+      int maxDevicesPerMessage,
+      Executor executor)
+      throws InvalidKeyException,
+          InvalidRegistrationIdException,
+          NoSessionException,
+          UntrustedIdentityException {
+    List<SessionRecord> recipientSessions =
+        this.signalProtocolStore.loadExistingSessions(recipients);
+    return multiRecipientEncryptInChunks(
+        recipients,
+        recipientSessions,
+        content,
+        Collections.emptyList(),
+        maxDevicesPerMessage,
+        executor);
+  }
+
+  /**
+   * Encrypts {@code content} for a large number of recipients as several independent
+   * multi-recipient messages, encrypted in parallel on {@code executor}.
+   *
+   * <p>This does <em>not</em> produce a single message. The recipients are split into chunks, and
+   * each chunk becomes a complete multi-recipient message with its own shared secret and its own
+   * copy of the encrypted content, the same as {@link #multiRecipientEncrypt(List, List,
+   * UnidentifiedSenderMessageContent, List)} would produce for that subset of the recipients. That
+   * has costs beyond the encryption itself:
+   *
+   * <ul>
+   *   <li>Each message must be sent in its own request, so a send that would have been one request
+   *       becomes one per chunk.
+   *   <li>Each request needs its own authorization for its subset of the recipients; for a group
+   *       send, that means a separate group send token combined from that chunk's endorsements.
+   *   <li>The content is encrypted once per chunk, and every message carries a copy of it.
+   * </ul>
+   *
+   * <p>Use this only when a single message would take too long to encrypt on one thread, with
+   * chunks of at least a few hundred devices. All devices of one recipient are kept in the same
+   * chunk, so a chunk may exceed {@code maxDevicesPerMessage} only when a single recipient has more
+   * devices than that. Every chunk lists all of {@code excludedRecipients}. Because the chunks are
+   * encrypted concurrently, the store must allow concurrent reads of identity keys.
+   *
+   * @return one message per chunk, ordered by the first appearance of each chunk's recipients in
+   *     {@code recipients}
+   * @throws IllegalArgumentException if {@code maxDevicesPerMessage} is not positive
+   */
+  public List<byte[]> multiRecipientEncryptInChunks(
+      List<SignalProtocolAddress> recipients,
+      List<SessionRecord> recipientSessions,
+      UnidentifiedSenderMessageContent content,
+      List<ServiceId> excludedRecipients,
+      int maxDevicesPerMessage,
+      Executor executor)
+      throws InvalidKeyException,
+          InvalidRegistrationIdException,
+          NoSessionException,
+          UntrustedIdentityException {
+    if (recipients.size() != recipientSessions.size()) {
+      throw new IllegalArgumentException("Size of recipients and sessions do not match");
+    }
+    if (maxDevicesPerMessage <= 0) {
+      throw new IllegalArgumentException("maxDevicesPerMessage must be positive");
+    }
+
+    List<List<Integer>> chunks = chunkByRecipient(recipients, maxDevicesPerMessage);
+    if (chunks.size() <= 1) {
+      return Collections.singletonList(
+          multiRecipientEncrypt(recipients, recipientSessions, content, excludedRecipients));
+    }
+
+    int count = chunks.size();
+    byte[][] results = new byte[count][];
+    Throwable[] failures = new Throwable[count];
+    CountDownLatch remaining = new CountDownLatch(count);
+
+    int submitted = 0;
+    try {
+      for (; submitted < count; submitted++) {
+        final List<Integer> chunk = chunks.get(submitted);
+        final int index = submitted;
+        executor.execute(
+            () -> {
+              try {
+                List<SignalProtocolAddress> chunkRecipients = new ArrayList<>(chunk.size());
+                List<SessionRecord> chunkSessions = new ArrayList<>(chunk.size());
+                for (int i : chunk) {
+                  chunkRecipients.add(recipients.get(i));
+                  chunkSessions.add(recipientSessions.get(i));
+                }
+                results[index] =
+                    multiRecipientEncrypt(
+                        chunkRecipients, chunkSessions, content, excludedRecipients);
+              } catch (Exception | Error e) {
+                failures[index] = e;
+              } finally {
+                remaining.countDown();
+              }
+            });
+      }
+    } finally {
+      // Never return while submitted chunks might still be using the sessions' native handles.
+      for (int i = submitted; i < count; i++) {
+        remaining.countDown();
+      }
+      awaitUninterruptibly(remaining);
+    }
+
+    for (Throwable failure : failures) {
+      if (failure != null) {
+        rethrowMultiRecipientEncryptFailure(failure);
+      }
+    }
+    return Arrays.asList(results);
+  }
+
+  /**
+   * Splits the indexes of {@code recipients} into chunks of at most {@code maxDevices}, keeping
+   * the devices of each recipient together.
+   */
+  private static List<List<Integer>> chunkByRecipient(
+      List<SignalProtocolAddress> recipients, int maxDevices) {
+    Map<String, List<Integer>> devicesByRecipient = new LinkedHashMap<>();
+    for (int i = 0; i < recipients.size(); i++) {
+      String name = recipients.get(i).getName();
+      List<Integer> devices = devicesByRecipient.get(name);
+      if (devices == null) {
+        devices = new ArrayList<>();
+        devicesByRecipient.put(name, devices);
+      }
+      devices.add(i);
+    }
+
+    List<List<Integer>> chunks = new ArrayList<>();
+    List<Integer> current = new ArrayList<>();
+    for (List<Integer> devices : devicesByRecipient.values()) {
+      if (!current.isEmpty() && current.size() + devices.size() > maxDevices) {
+        chunks.add(current);
+        current = new ArrayList<>();
+      }
+      current.addAll(devices);
+    }
+    if (!current.isEmpty()) {
+      chunks.add(current);
+    }
+    return chunks;
+  }
+
+  private static void rethrowMultiRecipientEncryptFailure(Throwable failure)
+      throws InvalidKeyException,
+          InvalidRegistrationIdException,
+          NoSessionException,
+          UntrustedIdentityException {
+    if (failure instanceof InvalidKeyException) {
+      throw (InvalidKeyException) failure;
+    }
+    if (failure instanceof InvalidRegistrationIdException) {
+      throw (InvalidRegistrationIdException) failure;
+    }
+    if (failure instanceof NoSessionException) {
+      throw (NoSessionException) failure;
+    }
+    if (failure instanceof UntrustedIdentityException) {
+      throw (UntrustedIdentityException) failure;
+    }
+    if (failure instanceof RuntimeException) {
+      throw (RuntimeException) failure;
+    }
+    if (failure instanceof Error) {
+      throw (Error) failure;
+    }
+    throw new AssertionError(failure);
+  }
+
+  private static void awaitUninterruptibly(CountDownLatch latch) {
+    boolean interrupted = false;
+    while (true) {
+      try {
+        latch.await();
+        break;
+      } catch (InterruptedException e) {
+        interrupted = true;
+      }
+    }
+    if (interrupted) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
   // For testing only.
   static byte[] multiRecipientMessageForSingleRecipient(byte[] message) {
     return filterExceptions(
@@ -200,16 +404,35 @@ public class SealedSessionCipher {
           ProtocolInvalidKeyIdException,
           ProtocolUntrustedIdentityException,
           SelfSendException {
-    UnidentifiedSenderMessageContent content;
+    return decryptContent(unseal(validator, ciphertext, timestamp));
+  }
+
+  /** Decrypts the outer layer of a sealed sender message and validates the sender certificate. */
+  UnidentifiedSenderMessageContent unseal(
+      CertificateValidator validator, byte[] ciphertext, long timestamp)
+      throws InvalidMetadataMessageException {
     try {
-      content =
+      UnidentifiedSenderMessageContent content =
           new UnidentifiedSenderMessageContent(
               Native.SealedSessionCipher_DecryptToUsmc(ciphertext, this.signalProtocolStore));
       validator.validate(content.getSenderCertificate(), timestamp);
+      return content;
     } catch (Exception e) {
       throw new InvalidMetadataMessageException(e);
     }
+  }
 
+  /** Decrypts the message inside {@link #unseal unsealed} content. */
+  DecryptionResult decryptContent(UnidentifiedSenderMessageContent content)
+      throws ProtocolInvalidMessageException,
+          ProtocolInvalidKeyException,
+          ProtocolNoSessionException,
+          ProtocolLegacyMessageException,
+          ProtocolInvalidVersionException,
+          ProtocolDuplicateMessageException,
+          ProtocolInvalidKeyIdException,
+          ProtocolUntrustedIdentityException,
+          SelfSendException {
     boolean isLocalE164 =
         localE164Address != null
             && localE164Address.equals(content.getSenderCertificate().getSenderE164().orElse(null));
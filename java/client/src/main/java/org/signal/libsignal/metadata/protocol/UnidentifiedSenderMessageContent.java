@@ -9,6 +9,7 @@ import static org.signal.libsignal.internal.FilterExceptions.filterExceptions;
 
 import java.util.Optional;
 import org.signal.libsignal.internal.Native;
+import org.signal.libsignal.internal.NativeCleaner;
 import org.signal.libsignal.internal.NativeHandleGuard;
 import org.signal.libsignal.metadata.InvalidMetadataMessageException;
 import org.signal.libsignal.metadata.certificate.InvalidCertificateException;
@@ -23,14 +24,10 @@ public class UnidentifiedSenderMessageContent implements NativeHandleGuard.Owner
 
   private final long unsafeHandle;
 
-  @Override
-  @SuppressWarnings("deprecation")
-  protected void finalize() {
-    Native.UnidentifiedSenderMessageContent_Destroy(this.unsafeHandle);
-  }
-
   public UnidentifiedSenderMessageContent(long nativeHandle) {
     this.unsafeHandle = nativeHandle;
+    NativeCleaner.register(
+        this, this.unsafeHandle, Native::UnidentifiedSenderMessageContent_Destroy);
   }
 
   public long unsafeNativeHandleWithoutGuard() {
@@ -44,6 +41,8 @@ public class UnidentifiedSenderMessageContent implements NativeHandleGuard.Owner
     } catch (Exception e) {
       throw new InvalidMetadataMessageException(e);
     }
+    NativeCleaner.register(
+        this, this.unsafeHandle, Native::UnidentifiedSenderMessageContent_Destroy);
   }
 
   public UnidentifiedSenderMessageContent(
@@ -58,6 +57,8 @@ public class UnidentifiedSenderMessageContent implements NativeHandleGuard.Owner
                   Native.UnidentifiedSenderMessageContent_New(
                       message, certificateGuard.nativeHandle(), contentHint, groupId.orElse(null)));
     }
+    NativeCleaner.register(
+        this, this.unsafeHandle, Native::UnidentifiedSenderMessageContent_Destroy);
   }
 
   public int getType() {
@@ -27,7 +27,8 @@ public class AuthenticatedChatConnection extends ChatConnection {
       final TokioAsyncContext tokioAsyncContext,
       long nativeHandle,
       ChatConnectionListener listener) {
-    super(tokioAsyncContext, nativeHandle, listener);
+    super(
+        tokioAsyncContext, nativeHandle, Native::AuthenticatedChatConnection_Destroy, listener);
   }
 
   static CompletableFuture<AuthenticatedChatConnection> connect(
@@ -123,7 +124,7 @@ public class AuthenticatedChatConnection extends ChatConnection {
     private TokioAsyncContext tokioContext;
 
     private FakeChatRemote(TokioAsyncContext tokioContext, long nativeHandle) {
-      super(nativeHandle);
+      super(nativeHandle, NativeTesting::FakeChatRemoteEnd_Destroy);
       this.tokioContext = tokioContext;
     }
 
@@ -148,11 +149,6 @@ public class AuthenticatedChatConnection extends ChatConnection {
                 }
               });
     }
-
-    @Override
-    protected void release(long nativeHandle) {
-      NativeTesting.FakeChatRemoteEnd_Destroy(nativeHandle);
-    }
   }
 
   // Implementing these abstract methods from ChatConnection allows AuthenticatedChatConnection
@@ -179,9 +175,4 @@ public class AuthenticatedChatConnection extends ChatConnection {
     return Native.AuthenticatedChatConnection_send(
         nativeAsyncContextHandle, nativeChatConnectionHandle, nativeRequestHandle, timeoutMillis);
   }
-
-  @Override
-  protected void release(long nativeChatConnectionHandle) {
-    Native.AuthenticatedChatConnection_Destroy(nativeChatConnectionHandle);
-  }
 }
@@ -8,6 +8,7 @@ package org.signal.libsignal.net;
 import java.lang.ref.WeakReference;
 import java.net.MalformedURLException;
 import java.util.Map;
+import java.util.function.LongConsumer;
 import org.signal.libsignal.internal.CompletableFuture;
 import org.signal.libsignal.internal.FilterExceptions;
 import org.signal.libsignal.internal.Native;
@@ -27,8 +28,9 @@ public abstract class ChatConnection extends NativeHandleGuard.SimpleOwner {
   protected ChatConnection(
       final TokioAsyncContext tokioAsyncContext,
       final long nativeHandle,
+      final LongConsumer release,
       final ChatConnectionListener chatListener) {
-    super(nativeHandle);
+    super(nativeHandle, release);
     this.tokioAsyncContext = tokioAsyncContext;
     this.chatListener = chatListener;
   }
@@ -168,16 +170,12 @@ public abstract class ChatConnection extends NativeHandleGuard.SimpleOwner {
       super(
           FilterExceptions.filterExceptions(
               MalformedURLException.class,
-              () -> Native.HttpRequest_new(method, pathAndQuery, body)));
+              () -> Native.HttpRequest_new(method, pathAndQuery, body)),
+          Native::HttpRequest_Destroy);
     }
 
     InternalRequest(long handle) {
-      super(handle);
-    }
-
-    @Override
-    protected void release(final long nativeHandle) {
-      Native.HttpRequest_Destroy(nativeHandle);
+      super(handle, Native::HttpRequest_Destroy);
     }
 
     public void addHeader(final String name, final String value) {
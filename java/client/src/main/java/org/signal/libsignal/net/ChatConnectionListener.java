@@ -55,14 +55,10 @@ public interface ChatConnectionListener {
     private final TokioAsyncContext asyncContext;
 
     ServerMessageAck(TokioAsyncContext context, long nativeHandle) {
-      super(nativeHandle);
+      super(nativeHandle, Native::ServerMessageAck_Destroy);
       asyncContext = context;
     }
 
-    protected void release(long nativeHandle) {
-      Native.ServerMessageAck_Destroy(nativeHandle);
-    }
-
     /**
      * Responds to the server, confirming delivery of an incoming message.
      *
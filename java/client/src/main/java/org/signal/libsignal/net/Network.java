@@ -253,7 +253,7 @@ public class Network {
     private final Environment environment;
 
     private ConnectionManager(Environment env, String userAgent) {
-      super(Native.ConnectionManager_new(env.value, userAgent));
+      super(Native.ConnectionManager_new(env.value, userAgent), Native::ConnectionManager_Destroy);
       this.environment = env;
     }
 
@@ -301,10 +301,5 @@ public class Network {
     private void setCensorshipCircumventionEnabled(boolean enabled) {
       guardedRun(h -> Native.ConnectionManager_set_censorship_circumvention_enabled(h, enabled));
     }
-
-    @Override
-    protected void release(final long nativeHandle) {
-      Native.ConnectionManager_Destroy(nativeHandle);
-    }
   }
 }
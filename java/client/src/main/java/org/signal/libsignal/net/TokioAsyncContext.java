@@ -11,16 +11,11 @@ import org.signal.libsignal.internal.NativeHandleGuard;
 
 class TokioAsyncContext extends NativeHandleGuard.SimpleOwner {
   TokioAsyncContext() {
-    super(Native.TokioAsyncContext_new());
+    super(Native.TokioAsyncContext_new(), Native::TokioAsyncContext_Destroy);
   }
 
   @SuppressWarnings("unchecked")
   CompletableFuture<Class<Object>> loadClassAsync(String className) {
     return (CompletableFuture<Class<Object>>) Native.AsyncLoadClass(this, className);
   }
-
-  @Override
-  protected void release(final long nativeHandle) {
-    Native.TokioAsyncContext_Destroy(nativeHandle);
-  }
 }
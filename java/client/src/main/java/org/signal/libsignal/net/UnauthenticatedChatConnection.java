@@ -25,7 +25,8 @@ public class UnauthenticatedChatConnection extends ChatConnection {
       long nativeHandle,
       ChatConnectionListener listener,
       Network.Environment ktEnvironment) {
-    super(tokioAsyncContext, nativeHandle, listener);
+    super(
+        tokioAsyncContext, nativeHandle, Native::UnauthenticatedChatConnection_Destroy, listener);
     this.keyTransparencyClient = new KeyTransparencyClient(this, tokioAsyncContext, ktEnvironment);
   }
 
@@ -84,9 +85,4 @@ public class UnauthenticatedChatConnection extends ChatConnection {
     return Native.UnauthenticatedChatConnection_send(
         nativeAsyncContextHandle, nativeChatConnectionHandle, nativeRequestHandle, timeoutMillis);
   }
-
-  @Override
-  protected void release(long nativeChatConnectionHandle) {
-    Native.UnauthenticatedChatConnection_Destroy(nativeChatConnectionHandle);
-  }
 }
@@ -0,0 +1,196 @@
+//
+// Copyright 2026 Signal Messenger, LLC.
+// SPDX-License-Identifier: AGPL-3.0-only
+//
+
+package org.signal.libsignal.metadata;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.junit.After;
+import org.junit.Test;
+import org.signal.libsignal.internal.CompletableFuture;
+import org.signal.libsignal.metadata.certificate.CertificateValidator;
+import org.signal.libsignal.metadata.certificate.SenderCertificate;
+import org.signal.libsignal.metadata.certificate.ServerCertificate;
+import org.signal.libsignal.protocol.IdentityKey;
+import org.signal.libsignal.protocol.InvalidMessageException;
+import org.signal.libsignal.protocol.PQXDHBundleFactory;
+import org.signal.libsignal.protocol.SessionBuilder;
+import org.signal.libsignal.protocol.SessionCipher;
+import org.signal.libsignal.protocol.SignalProtocolAddress;
+import org.signal.libsignal.protocol.ecc.Curve;
+import org.signal.libsignal.protocol.ecc.ECKeyPair;
+import org.signal.libsignal.protocol.message.CiphertextMessage;
+import org.signal.libsignal.protocol.state.IdentityKeyStore;
+
+public class InboundPipelineTest {
+
+  private static final SignalProtocolAddress BOB_ADDRESS =
+      new SignalProtocolAddress("e80f7bbe-5b94-471e-bd8c-2173654ea3d1", 1);
+
+  /** The in-memory identity store isn't thread-safe on its own. */
+  private static class SynchronizedStore extends TestInMemorySignalProtocolStore {
+    @Override
+    public synchronized boolean saveIdentity(
+        SignalProtocolAddress address, IdentityKey identityKey) {
+      return super.saveIdentity(address, identityKey);
+    }
+
+    @Override
+    public synchronized boolean isTrustedIdentity(
+        SignalProtocolAddress address,
+        IdentityKey identityKey,
+        IdentityKeyStore.Direction direction) {
+      return super.isTrustedIdentity(address, identityKey, direction);
+    }
+
+    @Override
+    public synchronized IdentityKey getIdentity(SignalProtocolAddress address) {
+      return super.getIdentity(address);
+    }
+  }
+
+  private final ExecutorService executor = Executors.newFixedThreadPool(4);
+
+  @After
+  public void tearDown() {
+    executor.shutdownNow();
+  }
+
+  @Test
+  public void testDecryptsMessagesFromManySenders() throws Exception {
+    SynchronizedStore bobStore = new SynchronizedStore();
+    InboundPipeline pipeline = new InboundPipeline(bobStore, null, executor, 4, 2);
+
+    int senderCount = 3;
+    int messageCount = 5;
+    List<SessionCipher> senders = new ArrayList<>();
+    for (int i = 0; i < senderCount; i++) {
+      TestInMemorySignalProtocolStore senderStore = new TestInMemorySignalProtocolStore();
+      new SessionBuilder(senderStore, BOB_ADDRESS)
+          .process(new PQXDHBundleFactory().createBundle(bobStore));
+      senders.add(new SessionCipher(senderStore, BOB_ADDRESS));
+    }
+
+    List<CompletableFuture<byte[]>> results = new ArrayList<>();
+    for (int j = 0; j < messageCount; j++) {
+      for (int i = 0; i < senderCount; i++) {
+        CiphertextMessage message = senders.get(i).encrypt(("message " + i + "." + j).getBytes());
+        SignalProtocolAddress sender = new SignalProtocolAddress("sender" + i, 1);
+        results.add(pipeline.submit(sender, message.getType(), message.serialize()));
+      }
+    }
+
+    for (int j = 0; j < messageCount; j++) {
+      for (int i = 0; i < senderCount; i++) {
+        byte[] plaintext = results.get(j * senderCount + i).get(10, TimeUnit.SECONDS);
+        assertArrayEquals(("message " + i + "." + j).getBytes(), plaintext);
+      }
+    }
+    assertEquals(senderCount * messageCount, pipeline.getDecryptMetrics().getCount());
+    assertEquals(senderCount * messageCount, pipeline.getQueueMetrics().getCount());
+    assertEquals(0, pipeline.getUnsealMetrics().getCount());
+  }
+
+  @Test
+  public void testSubmitBlocksWhenFull() throws Exception {
+    BlockingQueue<Runnable> tasks = new ArrayBlockingQueue<>(4);
+    InboundPipeline pipeline =
+        new InboundPipeline(new TestInMemorySignalProtocolStore(), null, tasks::add, 1, 1);
+    SignalProtocolAddress sender = new SignalProtocolAddress("sender", 1);
+    byte[] invalid = new byte[] {0};
+
+    CompletableFuture<byte[]> first =
+        pipeline.submit(sender, CiphertextMessage.PLAINTEXT_CONTENT_TYPE, invalid);
+    CountDownLatch submitted = new CountDownLatch(1);
+    Thread second =
+        new Thread(
+            () -> {
+              try {
+                pipeline.submit(sender, CiphertextMessage.PLAINTEXT_CONTENT_TYPE, invalid);
+                submitted.countDown();
+              } catch (InterruptedException e) {
+                // The test failed already.
+              }
+            });
+    second.start();
+    assertFalse(submitted.await(100, TimeUnit.MILLISECONDS));
+    assertEquals(1, pipeline.getPendingCount());
+
+    tasks.take().run();
+    ExecutionException e = assertThrows(ExecutionException.class, () -> first.get());
+    assertTrue(e.getCause() instanceof InvalidMessageException);
+    assertTrue(submitted.await(10, TimeUnit.SECONDS));
+    second.join();
+  }
+
+  @Test
+  public void testRejectsUnknownMessageType() {
+    InboundPipeline pipeline =
+        new InboundPipeline(new TestInMemorySignalProtocolStore(), null, executor, 1, 1);
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> pipeline.submit(new SignalProtocolAddress("sender", 1), 42, new byte[0]));
+  }
+
+  @Test
+  public void testDecryptsSealedSenderMessages() throws Exception {
+    SynchronizedStore bobStore = new SynchronizedStore();
+    TestInMemorySignalProtocolStore aliceStore = new TestInMemorySignalProtocolStore();
+    new SessionBuilder(aliceStore, BOB_ADDRESS)
+        .process(new PQXDHBundleFactory().createBundle(bobStore));
+
+    UUID aliceUuid = UUID.fromString("9d0652a3-dcc3-4d11-975f-74d61598733f");
+    ECKeyPair trustRoot = Curve.generateKeyPair();
+    ECKeyPair serverKey = Curve.generateKeyPair();
+    SenderCertificate senderCertificate =
+        new ServerCertificate(trustRoot.getPrivateKey(), 1, serverKey.getPublicKey())
+            .issue(
+                serverKey.getPrivateKey(),
+                aliceUuid.toString(),
+                Optional.empty(),
+                1,
+                aliceStore.getIdentityKeyPair().getPublicKey().getPublicKey(),
+                31337);
+    SealedSessionCipher aliceCipher = new SealedSessionCipher(aliceStore, aliceUuid, null, 1);
+
+    SealedSessionCipher bobCipher =
+        new SealedSessionCipher(bobStore, UUID.fromString(BOB_ADDRESS.getName()), null, 1);
+    InboundPipeline pipeline = new InboundPipeline(bobStore, bobCipher, executor, 4, 2);
+    CertificateValidator validator = new CertificateValidator(trustRoot.getPublicKey());
+
+    List<CompletableFuture<SealedSessionCipher.DecryptionResult>> results = new ArrayList<>();
+    for (int i = 0; i < 5; i++) {
+      byte[] ciphertext =
+          aliceCipher.encrypt(BOB_ADDRESS, senderCertificate, ("message " + i).getBytes());
+      results.add(pipeline.submitSealed(validator, ciphertext, 31335));
+    }
+    results.add(pipeline.submitSealed(validator, new byte[] {0}, 31335));
+
+    for (int i = 0; i < 5; i++) {
+      SealedSessionCipher.DecryptionResult result = results.get(i).get(10, TimeUnit.SECONDS);
+      assertArrayEquals(("message " + i).getBytes(), result.getPaddedMessage());
+      assertEquals(aliceUuid.toString(), result.getSenderUuid());
+    }
+    ExecutionException e =
+        assertThrows(ExecutionException.class, () -> results.get(5).get(10, TimeUnit.SECONDS));
+    assertTrue(e.getCause() instanceof InvalidMetadataMessageException);
+    assertEquals(6, pipeline.getUnsealMetrics().getCount());
+  }
+}
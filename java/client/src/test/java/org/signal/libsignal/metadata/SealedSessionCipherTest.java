@@ -9,8 +9,11 @@ import static org.junit.Assert.assertNotEquals;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import junit.framework.TestCase;
 import org.signal.libsignal.metadata.SealedSessionCipher.DecryptionResult;
 import org.signal.libsignal.metadata.certificate.CertificateValidator;
@@ -513,6 +516,86 @@ public class SealedSessionCipherTest extends TestCase {
     byte[] aliceMessage = aliceCipher.multiRecipientEncrypt(addresses, usmcFromAlice);
   }
 
+  public void testEncryptGroupInChunks() throws Exception {
+    TestInMemorySignalProtocolStore aliceStore = new TestInMemorySignalProtocolStore();
+    TestInMemorySignalProtocolStore bobStore = new TestInMemorySignalProtocolStore();
+    TestInMemorySignalProtocolStore carolStore = new TestInMemorySignalProtocolStore();
+    SignalProtocolAddress bobAddress =
+        new SignalProtocolAddress("e80f7bbe-5b94-471e-bd8c-2173654ea3d1", 1);
+    SignalProtocolAddress bobSecondAddress =
+        new SignalProtocolAddress("e80f7bbe-5b94-471e-bd8c-2173654ea3d1", 2);
+    SignalProtocolAddress carolAddress =
+        new SignalProtocolAddress("38381c3b-2606-4ca7-9310-7cb927f2ab4a", 1);
+
+    initializeSessions(aliceStore, bobStore, bobAddress);
+    initializeSessions(aliceStore, bobStore, bobSecondAddress);
+    initializeSessions(aliceStore, carolStore, carolAddress);
+
+    ECKeyPair trustRoot = Curve.generateKeyPair();
+    SenderCertificate senderCertificate =
+        createCertificateFor(
+            trustRoot,
+            UUID.fromString("9d0652a3-dcc3-4d11-975f-74d61598733f"),
+            "+14151111111",
+            1,
+            aliceStore.getIdentityKeyPair().getPublicKey().getPublicKey(),
+            31337);
+    SealedSessionCipher aliceCipher =
+        new SealedSessionCipher(
+            aliceStore, UUID.fromString("9d0652a3-dcc3-4d11-975f-74d61598733f"), "+14151111111", 1);
+
+    SignalProtocolAddress senderAddress =
+        new SignalProtocolAddress("9d0652a3-dcc3-4d11-975f-74d61598733f", 1);
+    UUID distributionId = UUID.fromString("d1d1d1d1-7000-11eb-b32a-33b8a8a487a6");
+    SenderKeyDistributionMessage distributionMessage =
+        new GroupSessionBuilder(aliceStore).create(senderAddress, distributionId);
+    new GroupSessionBuilder(bobStore).process(senderAddress, distributionMessage);
+    new GroupSessionBuilder(carolStore).process(senderAddress, distributionMessage);
+
+    CiphertextMessage ciphertextFromAlice =
+        new GroupCipher(aliceStore, senderAddress)
+            .encrypt(distributionId, "smert ze smert".getBytes());
+    UnidentifiedSenderMessageContent usmcFromAlice =
+        new UnidentifiedSenderMessageContent(
+            ciphertextFromAlice,
+            senderCertificate,
+            UnidentifiedSenderMessageContent.CONTENT_HINT_IMPLICIT,
+            Optional.of(new byte[] {42, 43}));
+
+    // Bob's devices stay together even though they exceed the chunk size.
+    List<SignalProtocolAddress> recipients =
+        Arrays.asList(bobAddress, carolAddress, bobSecondAddress);
+    ExecutorService executor = Executors.newFixedThreadPool(2);
+    List<byte[]> chunks;
+    try {
+      chunks = aliceCipher.multiRecipientEncryptInChunks(recipients, usmcFromAlice, 1, executor);
+    } finally {
+      executor.shutdown();
+    }
+    assertEquals(2, chunks.size());
+
+    CertificateValidator validator = new CertificateValidator(trustRoot.getPublicKey());
+    SealedSessionCipher bobCipher =
+        new SealedSessionCipher(
+            bobStore, UUID.fromString("e80f7bbe-5b94-471e-bd8c-2173654ea3d1"), "+14152222222", 1);
+    DecryptionResult bobPlaintext =
+        bobCipher.decrypt(
+            validator,
+            SealedSessionCipher.multiRecipientMessageForSingleRecipient(chunks.get(0)),
+            31335);
+    assertEquals("smert ze smert", new String(bobPlaintext.getPaddedMessage()));
+
+    SealedSessionCipher carolCipher =
+        new SealedSessionCipher(
+            carolStore, UUID.fromString("38381c3b-2606-4ca7-9310-7cb927f2ab4a"), null, 1);
+    DecryptionResult carolPlaintext =
+        carolCipher.decrypt(
+            validator,
+            SealedSessionCipher.multiRecipientMessageForSingleRecipient(chunks.get(1)),
+            31335);
+    assertEquals("smert ze smert", new String(carolPlaintext.getPaddedMessage()));
+  }
+
   public void testEncryptGroupWithMissingSession()
       throws UntrustedIdentityException,
           InvalidKeyException,
@@ -77,6 +77,40 @@ public class SenderCertificateTest extends TestCase {
     }
   }
 
+  public void testCachedValidation() throws InvalidCertificateException, InvalidKeyException {
+    ECKeyPair key = Curve.generateKeyPair();
+    UUID uuid = UUID.fromString("9d0652a3-dcc3-4d11-975f-74d61598733f");
+    SenderCertificate senderCertificate =
+        createCertificateFor(trustRoot, uuid, "+14151111111", 31338, key.getPublicKey(), 31337);
+    CertificateValidator validator = new CertificateValidator(trustRoot.getPublicKey(), 1);
+
+    validator.validate(senderCertificate, 31335);
+    assertEquals(1, validator.getCachedCertificateCount());
+    validator.validate(new SenderCertificate(senderCertificate.getSerialized()), 31336);
+    assertEquals(1, validator.getCachedCertificateCount());
+
+    try {
+      validator.validate(senderCertificate, 31338);
+      throw new AssertionError();
+    } catch (InvalidCertificateException e) {
+      // good
+    }
+
+    byte[] badSignature = senderCertificate.getSerialized();
+    badSignature[badSignature.length - 1] ^= 1;
+    try {
+      validator.validate(new SenderCertificate(badSignature), 31336);
+      throw new AssertionError();
+    } catch (InvalidCertificateException e) {
+      // good
+    }
+
+    SenderCertificate otherCertificate =
+        createCertificateFor(trustRoot, uuid, "+14151111111", 31339, key.getPublicKey(), 31337);
+    validator.validate(otherCertificate, 31336);
+    assertEquals(1, validator.getCachedCertificateCount());
+  }
+
   public void testGetSenderAci()
       throws InvalidCertificateException, InvalidKeyException, ServiceId.InvalidServiceIdException {
     ECKeyPair key = Curve.generateKeyPair();
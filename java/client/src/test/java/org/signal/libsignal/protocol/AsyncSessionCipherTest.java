@@ -0,0 +1,331 @@
+//
+// Copyright 2026 Signal Messenger, LLC.
+// SPDX-License-Identifier: AGPL-3.0-only
+//
+
+package org.signal.libsignal.protocol;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.junit.After;
+import org.junit.Test;
+import org.signal.libsignal.internal.CompletableFuture;
+import org.signal.libsignal.internal.PrefetchedProtocolStore;
+import org.signal.libsignal.protocol.message.CiphertextMessage;
+import org.signal.libsignal.protocol.message.PreKeySignalMessage;
+import org.signal.libsignal.protocol.message.SignalMessage;
+import org.signal.libsignal.protocol.state.AsyncSignalProtocolStore;
+import org.signal.libsignal.protocol.state.IdentityKeyStore;
+import org.signal.libsignal.protocol.state.KyberPreKeyRecord;
+import org.signal.libsignal.protocol.state.PreKeyBundle;
+import org.signal.libsignal.protocol.state.PreKeyRecord;
+import org.signal.libsignal.protocol.state.SessionRecord;
+import org.signal.libsignal.protocol.state.SignalProtocolStore;
+import org.signal.libsignal.protocol.state.SignedPreKeyRecord;
+
+public class AsyncSessionCipherTest {
+
+  private static final SignalProtocolAddress ALICE_ADDRESS =
+      new SignalProtocolAddress("+14151111111", 1);
+  private static final SignalProtocolAddress BOB_ADDRESS =
+      new SignalProtocolAddress("+14152222222", 1);
+
+  private final ExecutorService storage = Executors.newSingleThreadExecutor();
+  private final ExecutorService crypto = Executors.newFixedThreadPool(2);
+
+  @After
+  public void tearDown() {
+    storage.shutdownNow();
+    crypto.shutdownNow();
+  }
+
+  /** Serves a synchronous store from another thread. */
+  private class AsyncStore implements AsyncSignalProtocolStore {
+    private final SignalProtocolStore store;
+    RuntimeException storeSessionFailure;
+
+    AsyncStore(SignalProtocolStore store) {
+      this.store = store;
+    }
+
+    private <T> CompletableFuture<T> submit(Callable<T> task) {
+      CompletableFuture<T> future = new CompletableFuture<>();
+      storage.execute(
+          () -> {
+            try {
+              future.complete(task.call());
+            } catch (Exception e) {
+              future.completeExceptionally(e);
+            }
+          });
+      return future;
+    }
+
+    @Override
+    public CompletableFuture<IdentityKeyPair> getIdentityKeyPair() {
+      return submit(store::getIdentityKeyPair);
+    }
+
+    @Override
+    public CompletableFuture<Integer> getLocalRegistrationId() {
+      return submit(store::getLocalRegistrationId);
+    }
+
+    @Override
+    public CompletableFuture<Boolean> saveIdentity(
+        SignalProtocolAddress address, IdentityKey identityKey) {
+      return submit(() -> store.saveIdentity(address, identityKey));
+    }
+
+    @Override
+    public CompletableFuture<Boolean> isTrustedIdentity(
+        SignalProtocolAddress address,
+        IdentityKey identityKey,
+        IdentityKeyStore.Direction direction) {
+      return submit(() -> store.isTrustedIdentity(address, identityKey, direction));
+    }
+
+    @Override
+    public CompletableFuture<IdentityKey> getIdentity(SignalProtocolAddress address) {
+      return submit(() -> store.getIdentity(address));
+    }
+
+    @Override
+    public CompletableFuture<SessionRecord> loadSession(SignalProtocolAddress address) {
+      return submit(() -> store.loadSession(address));
+    }
+
+    @Override
+    public CompletableFuture<List<Integer>> getSubDeviceSessions(String name) {
+      return submit(() -> store.getSubDeviceSessions(name));
+    }
+
+    @Override
+    public CompletableFuture<Void> storeSession(
+        SignalProtocolAddress address, SessionRecord record) {
+      return submit(
+          () -> {
+            if (storeSessionFailure != null) {
+              throw storeSessionFailure;
+            }
+            store.storeSession(address, record);
+            return null;
+          });
+    }
+
+    @Override
+    public CompletableFuture<Void> deleteSession(SignalProtocolAddress address) {
+      return submit(
+          () -> {
+            store.deleteSession(address);
+            return null;
+          });
+    }
+
+    @Override
+    public CompletableFuture<Void> deleteAllSessions(String name) {
+      return submit(
+          () -> {
+            store.deleteAllSessions(name);
+            return null;
+          });
+    }
+
+    @Override
+    public CompletableFuture<PreKeyRecord> loadPreKey(int preKeyId) {
+      return submit(() -> store.loadPreKey(preKeyId));
+    }
+
+    @Override
+    public CompletableFuture<Void> storePreKey(int preKeyId, PreKeyRecord record) {
+      return submit(
+          () -> {
+            store.storePreKey(preKeyId, record);
+            return null;
+          });
+    }
+
+    @Override
+    public CompletableFuture<Boolean> containsPreKey(int preKeyId) {
+      return submit(() -> store.containsPreKey(preKeyId));
+    }
+
+    @Override
+    public CompletableFuture<Void> removePreKey(int preKeyId) {
+      return submit(
+          () -> {
+            store.removePreKey(preKeyId);
+            return null;
+          });
+    }
+
+    @Override
+    public CompletableFuture<SignedPreKeyRecord> loadSignedPreKey(int signedPreKeyId) {
+      return submit(() -> store.loadSignedPreKey(signedPreKeyId));
+    }
+
+    @Override
+    public CompletableFuture<List<SignedPreKeyRecord>> loadSignedPreKeys() {
+      return submit(store::loadSignedPreKeys);
+    }
+
+    @Override
+    public CompletableFuture<Void> storeSignedPreKey(
+        int signedPreKeyId, SignedPreKeyRecord record) {
+      return submit(
+          () -> {
+            store.storeSignedPreKey(signedPreKeyId, record);
+            return null;
+          });
+    }
+
+    @Override
+    public CompletableFuture<Boolean> containsSignedPreKey(int signedPreKeyId) {
+      return submit(() -> store.containsSignedPreKey(signedPreKeyId));
+    }
+
+    @Override
+    public CompletableFuture<Void> removeSignedPreKey(int signedPreKeyId) {
+      return submit(
+          () -> {
+            store.removeSignedPreKey(signedPreKeyId);
+            return null;
+          });
+    }
+
+    @Override
+    public CompletableFuture<KyberPreKeyRecord> loadKyberPreKey(int kyberPreKeyId) {
+      return submit(() -> store.loadKyberPreKey(kyberPreKeyId));
+    }
+
+    @Override
+    public CompletableFuture<List<KyberPreKeyRecord>> loadKyberPreKeys() {
+      return submit(store::loadKyberPreKeys);
+    }
+
+    @Override
+    public CompletableFuture<Void> storeKyberPreKey(int kyberPreKeyId, KyberPreKeyRecord record) {
+      return submit(
+          () -> {
+            store.storeKyberPreKey(kyberPreKeyId, record);
+            return null;
+          });
+    }
+
+    @Override
+    public CompletableFuture<Boolean> containsKyberPreKey(int kyberPreKeyId) {
+      return submit(() -> store.containsKyberPreKey(kyberPreKeyId));
+    }
+
+    @Override
+    public CompletableFuture<Void> markKyberPreKeyUsed(int kyberPreKeyId) {
+      return submit(
+          () -> {
+            store.markKyberPreKeyUsed(kyberPreKeyId);
+            return null;
+          });
+    }
+  }
+
+  @Test
+  public void testRoundTrip() throws Exception {
+    SignalProtocolStore aliceStore = new TestInMemorySignalProtocolStore();
+    SignalProtocolStore bobStore = new TestInMemorySignalProtocolStore();
+    PreKeyBundle bobBundle = new PQXDHBundleFactory().createBundle(bobStore);
+    new SessionBuilder(aliceStore, BOB_ADDRESS).process(bobBundle);
+
+    AsyncSessionCipher aliceCipher =
+        new AsyncSessionCipher(new AsyncStore(aliceStore), BOB_ADDRESS, crypto);
+    AsyncSessionCipher bobCipher =
+        new AsyncSessionCipher(new AsyncStore(bobStore), ALICE_ADDRESS, crypto);
+
+    byte[] originalMessage = "smert ze smert".getBytes();
+    CiphertextMessage outgoing = aliceCipher.encrypt(originalMessage).get();
+    assertEquals(CiphertextMessage.PREKEY_TYPE, outgoing.getType());
+
+    byte[] plaintext = bobCipher.decrypt(new PreKeySignalMessage(outgoing.serialize())).get();
+    assertArrayEquals(originalMessage, plaintext);
+    assertTrue(bobStore.containsSession(ALICE_ADDRESS));
+    assertFalse(bobStore.containsPreKey(bobBundle.getPreKeyId()));
+
+    byte[] reply = "smert ze smert ze smert".getBytes();
+    CiphertextMessage bobOutgoing = bobCipher.encrypt(reply).get();
+    assertEquals(CiphertextMessage.WHISPER_TYPE, bobOutgoing.getType());
+    assertArrayEquals(
+        reply, aliceCipher.decrypt(new SignalMessage(bobOutgoing.serialize())).get());
+  }
+
+  @Test
+  public void testStoreFailure() throws Exception {
+    SignalProtocolStore aliceStore = new TestInMemorySignalProtocolStore();
+    SignalProtocolStore bobStore = new TestInMemorySignalProtocolStore();
+    new SessionBuilder(aliceStore, BOB_ADDRESS)
+        .process(new PQXDHBundleFactory().createBundle(bobStore));
+    byte[] sessionBefore = aliceStore.loadSession(BOB_ADDRESS).serialize();
+
+    AsyncStore asyncAliceStore = new AsyncStore(aliceStore);
+    asyncAliceStore.storeSessionFailure = new IllegalStateException("disk full");
+    AsyncSessionCipher aliceCipher = new AsyncSessionCipher(asyncAliceStore, BOB_ADDRESS, crypto);
+
+    ExecutionException e =
+        assertThrows(ExecutionException.class, () -> aliceCipher.encrypt(new byte[] {1}).get());
+    assertSame(asyncAliceStore.storeSessionFailure, e.getCause());
+    assertArrayEquals(sessionBefore, aliceStore.loadSession(BOB_ADDRESS).serialize());
+  }
+
+  @Test
+  public void testPrefetchedStoreSeesRecordedWrites() throws Exception {
+    SignalProtocolStore aliceStore = new TestInMemorySignalProtocolStore();
+    SignalProtocolStore bobStore = new TestInMemorySignalProtocolStore();
+    PreKeyBundle bobBundle = new PQXDHBundleFactory().createBundle(bobStore);
+    new SessionBuilder(aliceStore, BOB_ADDRESS).process(bobBundle);
+    int preKeyId = bobBundle.getPreKeyId();
+
+    AsyncStore asyncAliceStore = new AsyncStore(aliceStore);
+    AsyncStore asyncBobStore = new AsyncStore(bobStore);
+    PrefetchedProtocolStore alice =
+        new PrefetchedProtocolStore(
+            asyncAliceStore, asyncAliceStore, asyncAliceStore, asyncAliceStore, asyncAliceStore);
+    PrefetchedProtocolStore bob =
+        new PrefetchedProtocolStore(
+            asyncBobStore, asyncBobStore, asyncBobStore, asyncBobStore, asyncBobStore);
+
+    alice
+        .run(
+            crypto,
+            s -> {
+              assertTrue(s.containsSession(BOB_ADDRESS));
+              s.deleteAllSessions(BOB_ADDRESS.getName());
+              assertFalse(s.containsSession(BOB_ADDRESS));
+              return null;
+            })
+        .get();
+    assertFalse(aliceStore.containsSession(BOB_ADDRESS));
+
+    bob.run(
+            crypto,
+            s -> {
+              assertTrue(s.containsPreKey(preKeyId));
+              s.removePreKey(preKeyId);
+              assertFalse(s.containsPreKey(preKeyId));
+              assertThrows(InvalidKeyIdException.class, () -> s.loadPreKey(preKeyId));
+              int signedPreKeyCount = s.loadSignedPreKeys().size();
+              s.removeSignedPreKey(bobBundle.getSignedPreKeyId());
+              assertEquals(signedPreKeyCount - 1, s.loadSignedPreKeys().size());
+              return null;
+            })
+        .get();
+    assertFalse(bobStore.containsPreKey(preKeyId));
+    assertFalse(bobStore.containsSignedPreKey(bobBundle.getSignedPreKeyId()));
+  }
+}
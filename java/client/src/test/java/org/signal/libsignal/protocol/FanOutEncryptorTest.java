@@ -0,0 +1,166 @@
+//
+// Copyright 2026 Signal Messenger, LLC.
+// SPDX-License-Identifier: AGPL-3.0-only
+//
+
+package org.signal.libsignal.protocol;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThrows;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.After;
+import org.junit.Test;
+import org.signal.libsignal.protocol.ecc.Curve;
+import org.signal.libsignal.protocol.ecc.ECKeyPair;
+import org.signal.libsignal.protocol.message.CiphertextMessage;
+import org.signal.libsignal.protocol.message.SignalMessage;
+import org.signal.libsignal.protocol.state.IdentityKeyStore;
+import org.signal.libsignal.protocol.state.SessionRecord;
+import org.signal.libsignal.protocol.state.impl.ConcurrentInMemorySessionStore;
+import org.signal.libsignal.protocol.util.BatchResult;
+
+public class FanOutEncryptorTest {
+  private static final String ALICE_NAME = "+14159999999";
+  private static final String BOB_NAME = "+14158888888";
+  private static final int DEVICE_COUNT = 5;
+
+  private final ExecutorService executor = Executors.newFixedThreadPool(4);
+
+  @After
+  public void tearDown() {
+    executor.shutdown();
+  }
+
+  @Test
+  public void testFanOut() throws Exception {
+    Fixture fixture = new Fixture();
+    FanOutEncryptor encryptor =
+        new FanOutEncryptor(fixture.aliceSessions, fixture.aliceIdentities, executor);
+
+    byte[] plaintext = "to every device".getBytes();
+    List<BatchResult<CiphertextMessage>> results =
+        encryptor.encrypt(fixture.bobAddresses, plaintext);
+    assertEquals(DEVICE_COUNT, results.size());
+    for (int i = 0; i < DEVICE_COUNT; i++) {
+      assertArrayEquals(plaintext, fixture.decryptOnBobDevice(i, results.get(i).getValue()));
+    }
+  }
+
+  @Test
+  public void testConcurrentFanOutsToSameDevices() throws Exception {
+    Fixture fixture = new Fixture();
+    FanOutEncryptor encryptor =
+        new FanOutEncryptor(fixture.aliceSessions, fixture.aliceIdentities, executor);
+
+    ExecutorService senders = Executors.newFixedThreadPool(4);
+    try {
+      List<Future<List<BatchResult<CiphertextMessage>>>> sends = new ArrayList<>();
+      for (int i = 0; i < 8; i++) {
+        byte[] plaintext = ("message " + i).getBytes();
+        sends.add(senders.submit(() -> encryptor.encrypt(fixture.bobAddresses, plaintext)));
+      }
+
+      // If two sends had used the same session state at once, Bob would see duplicates here.
+      for (int i = 0; i < sends.size(); i++) {
+        List<BatchResult<CiphertextMessage>> results = sends.get(i).get();
+        for (int device = 0; device < DEVICE_COUNT; device++) {
+          assertArrayEquals(
+              ("message " + i).getBytes(),
+              fixture.decryptOnBobDevice(device, results.get(device).getValue()));
+        }
+      }
+    } finally {
+      senders.shutdown();
+    }
+  }
+
+  @Test
+  public void testMissingSessionFailsWholeFanOut() throws Exception {
+    Fixture fixture = new Fixture();
+    FanOutEncryptor encryptor =
+        new FanOutEncryptor(fixture.aliceSessions, fixture.aliceIdentities, executor);
+
+    List<SignalProtocolAddress> addresses = new ArrayList<>(fixture.bobAddresses);
+    addresses.add(new SignalProtocolAddress(BOB_NAME, DEVICE_COUNT + 1));
+    assertThrows(NoSessionException.class, () -> encryptor.encrypt(addresses, new byte[] {1}));
+
+    List<SignalProtocolAddress> duplicated =
+        Arrays.asList(fixture.bobAddresses.get(0), new SignalProtocolAddress(BOB_NAME, 1));
+    assertThrows(
+        IllegalArgumentException.class, () -> encryptor.encrypt(duplicated, new byte[] {1}));
+  }
+
+  private static class Fixture {
+    final ConcurrentInMemorySessionStore aliceSessions = new ConcurrentInMemorySessionStore();
+    final IdentityKeyStore aliceIdentities = new SynchronizedIdentityKeyStore();
+    final List<SignalProtocolAddress> bobAddresses = new ArrayList<>();
+    final List<SessionCipher> bobCiphers = new ArrayList<>();
+
+    Fixture() throws InvalidKeyException {
+      SignalProtocolAddress aliceAddress = new SignalProtocolAddress(ALICE_NAME, 1);
+      for (int deviceId = 1; deviceId <= DEVICE_COUNT; deviceId++) {
+        SignalProtocolAddress bobAddress = new SignalProtocolAddress(BOB_NAME, deviceId);
+        TestInMemorySignalProtocolStore bobStore = new TestInMemorySignalProtocolStore();
+
+        ECKeyPair aliceIdentityKeyPair = Curve.generateKeyPair();
+        IdentityKeyPair aliceIdentityKey =
+            new IdentityKeyPair(
+                new IdentityKey(aliceIdentityKeyPair.getPublicKey()),
+                aliceIdentityKeyPair.getPrivateKey());
+        ECKeyPair aliceBaseKey = Curve.generateKeyPair();
+        IdentityKeyPair bobIdentityKey = bobStore.getIdentityKeyPair();
+        ECKeyPair bobBaseKey = Curve.generateKeyPair();
+
+        aliceSessions.storeSession(
+            bobAddress,
+            SessionRecord.initializeAliceSession(
+                aliceIdentityKey,
+                aliceBaseKey,
+                bobIdentityKey.getPublicKey(),
+                bobBaseKey.getPublicKey(),
+                bobBaseKey.getPublicKey()));
+        bobStore.storeSession(
+            aliceAddress,
+            SessionRecord.initializeBobSession(
+                bobIdentityKey,
+                bobBaseKey,
+                bobBaseKey,
+                aliceIdentityKey.getPublicKey(),
+                aliceBaseKey.getPublicKey()));
+
+        bobAddresses.add(bobAddress);
+        bobCiphers.add(new SessionCipher(bobStore, aliceAddress));
+      }
+    }
+
+    synchronized byte[] decryptOnBobDevice(int device, CiphertextMessage message) throws Exception {
+      return bobCiphers.get(device).decrypt(new SignalMessage(message.serialize()));
+    }
+  }
+
+  private static class SynchronizedIdentityKeyStore extends TestInMemoryIdentityKeyStore {
+    @Override
+    public synchronized boolean saveIdentity(
+        SignalProtocolAddress address, IdentityKey identityKey) {
+      return super.saveIdentity(address, identityKey);
+    }
+
+    @Override
+    public synchronized boolean isTrustedIdentity(
+        SignalProtocolAddress address, IdentityKey identityKey, Direction direction) {
+      return super.isTrustedIdentity(address, identityKey, direction);
+    }
+
+    @Override
+    public synchronized IdentityKey getIdentity(SignalProtocolAddress address) {
+      return super.getIdentity(address);
+    }
+  }
+}
@@ -19,6 +19,7 @@ import org.signal.libsignal.protocol.message.CiphertextMessage;
 import org.signal.libsignal.protocol.message.SignalMessage;
 import org.signal.libsignal.protocol.state.SessionRecord;
 import org.signal.libsignal.protocol.state.SignalProtocolStore;
+import org.signal.libsignal.protocol.util.BatchResult;
 
 public class SessionCipherTest extends TestCase {
 
@@ -141,6 +142,80 @@ public class SessionCipherTest extends TestCase {
     }
   }
 
+  public void testBatchEncryptDecrypt() throws Exception {
+    PairOfSessions sessions = initializeSessionsV3();
+
+    SignalProtocolAddress aliceAddress = new SignalProtocolAddress("+14159999999", 1);
+    SignalProtocolAddress bobAddress = new SignalProtocolAddress("+141588888888", 1);
+
+    CountingStore aliceStore = new CountingStore();
+    CountingStore bobStore = new CountingStore();
+    aliceStore.storeSession(bobAddress, sessions.aliceSession);
+    bobStore.storeSession(aliceAddress, sessions.bobSession);
+    aliceStore.storeCount = 0;
+    bobStore.storeCount = 0;
+
+    SessionCipher aliceCipher = new SessionCipher(aliceStore, bobAddress);
+    SessionCipher bobCipher = new SessionCipher(bobStore, aliceAddress);
+
+    List<byte[]> plaintexts = new ArrayList<>();
+    for (int i = 0; i < 10; i++) {
+      plaintexts.add(("batch message " + i).getBytes());
+    }
+
+    List<BatchResult<CiphertextMessage>> encrypted = aliceCipher.encryptBatch(plaintexts);
+    assertEquals(plaintexts.size(), encrypted.size());
+    assertEquals(1, aliceStore.storeCount);
+
+    List<SignalMessage> ciphertexts = new ArrayList<>();
+    for (BatchResult<CiphertextMessage> result : encrypted) {
+      ciphertexts.add(new SignalMessage(result.getValue().serialize()));
+    }
+    // Deliver out of order, with one duplicate.
+    Collections.reverse(ciphertexts);
+    ciphertexts.add(ciphertexts.get(0));
+
+    List<BatchResult<byte[]>> decrypted = bobCipher.decryptBatch(ciphertexts);
+    assertEquals(ciphertexts.size(), decrypted.size());
+    assertEquals(1, bobStore.storeCount);
+    for (int i = 0; i < plaintexts.size(); i++) {
+      assertTrue(
+          Arrays.equals(plaintexts.get(plaintexts.size() - 1 - i), decrypted.get(i).getValue()));
+    }
+    assertTrue(decrypted.get(plaintexts.size()).getError() instanceof DuplicateMessageException);
+
+    // The stored session reflects the whole batch.
+    byte[] followUp = "after the batch".getBytes();
+    assertTrue(
+        Arrays.equals(
+            followUp,
+            bobCipher.decrypt(new SignalMessage(aliceCipher.encrypt(followUp).serialize()))));
+  }
+
+  public void testBatchEncryptWithoutSession() throws Exception {
+    SignalProtocolStore aliceStore = new TestInMemorySignalProtocolStore();
+    SessionCipher aliceCipher =
+        new SessionCipher(aliceStore, new SignalProtocolAddress("+14159999999", 1));
+
+    List<BatchResult<CiphertextMessage>> results =
+        aliceCipher.encryptBatch(Arrays.asList("one".getBytes(), "two".getBytes()));
+    assertEquals(2, results.size());
+    for (BatchResult<CiphertextMessage> result : results) {
+      assertFalse(result.isSuccess());
+      assertTrue(result.getError() instanceof NoSessionException);
+    }
+  }
+
+  private static class CountingStore extends TestInMemorySignalProtocolStore {
+    int storeCount = 0;
+
+    @Override
+    public void storeSession(SignalProtocolAddress address, SessionRecord record) {
+      storeCount++;
+      super.storeSession(address, record);
+    }
+  }
+
   private void runInteraction(SessionRecord aliceSessionRecord, SessionRecord bobSessionRecord)
       throws DuplicateMessageException,
           LegacyMessageException,
@@ -5,9 +5,11 @@
 
 package org.signal.libsignal.protocol;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
 
 import org.junit.Test;
 import org.signal.libsignal.protocol.state.KyberPreKeyRecord;
@@ -27,6 +29,35 @@ public class SessionRecordTest {
     assertEquals(empty_record.getSessionVersion(), 0);
   }
 
+  @Test
+  public void testLazyDeserialization() throws Exception {
+    SessionRecord fresh = new SessionRecord();
+    fresh.archiveCurrentState();
+    assertTrue(fresh.isModified());
+    byte[] serialized = fresh.serialize();
+
+    SessionRecord lazy = SessionRecord.deserializeLazily(serialized);
+    assertFalse(lazy.isModified());
+    assertArrayEquals(serialized, lazy.serialize());
+    assertEquals(0, lazy.getSessionVersion());
+    assertFalse(lazy.isModified());
+
+    SessionRecord eager = new SessionRecord(serialized);
+    assertFalse(eager.isModified());
+    eager.archiveCurrentState();
+    assertTrue(eager.isModified());
+    assertEquals(0, eager.getSessionVersion());
+  }
+
+  @Test
+  public void testLazyDeserializationOfBadRecord() {
+    byte[] invalid = new byte[] {0};
+    SessionRecord record = SessionRecord.deserializeLazily(invalid);
+    // The bytes are passed through unchecked until the record is used.
+    assertArrayEquals(invalid, record.serialize());
+    assertThrows(IllegalStateException.class, () -> record.getSessionVersion());
+  }
+
   @Test
   public void testBadPreKeyRecords() throws Exception {
     assertThrows(InvalidMessageException.class, () -> new PreKeyRecord(new byte[] {0}));
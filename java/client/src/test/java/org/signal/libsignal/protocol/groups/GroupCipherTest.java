@@ -14,6 +14,7 @@ import static org.junit.Assert.fail;
 import java.security.SecureRandom;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Random;
@@ -27,8 +28,10 @@ import org.signal.libsignal.protocol.LegacyMessageException;
 import org.signal.libsignal.protocol.NoSessionException;
 import org.signal.libsignal.protocol.SignalProtocolAddress;
 import org.signal.libsignal.protocol.groups.state.InMemorySenderKeyStore;
+import org.signal.libsignal.protocol.groups.state.SenderKeyRecord;
 import org.signal.libsignal.protocol.message.CiphertextMessage;
 import org.signal.libsignal.protocol.message.SenderKeyDistributionMessage;
+import org.signal.libsignal.protocol.util.BatchResult;
 
 public class GroupCipherTest {
 
@@ -357,6 +360,106 @@ public class GroupCipherTest {
     }
   }
 
+  @Test
+  public void testBatchDecrypt() throws Exception {
+    InMemorySenderKeyStore aliceStore = new InMemorySenderKeyStore();
+    CountingSenderKeyStore bobStore = new CountingSenderKeyStore();
+
+    GroupCipher aliceGroupCipher = new GroupCipher(aliceStore, SENDER_ADDRESS);
+    GroupCipher bobGroupCipher = new GroupCipher(bobStore, SENDER_ADDRESS);
+
+    SenderKeyDistributionMessage aliceDistributionMessage =
+        new GroupSessionBuilder(aliceStore).create(SENDER_ADDRESS, DISTRIBUTION_ID);
+    new GroupSessionBuilder(bobStore).process(SENDER_ADDRESS, aliceDistributionMessage);
+
+    List<byte[]> plaintexts = new ArrayList<>();
+    List<byte[]> ciphertexts = new ArrayList<>();
+    for (int i = 0; i < 10; i++) {
+      byte[] plaintext = ("batch message " + i).getBytes();
+      plaintexts.add(plaintext);
+      ciphertexts.add(aliceGroupCipher.encrypt(DISTRIBUTION_ID, plaintext).serialize());
+    }
+
+    // One message was already delivered on its own.
+    assertArrayEquals(plaintexts.get(4), bobGroupCipher.decrypt(ciphertexts.get(4)));
+
+    // Deliver the rest out of order, with a duplicate and a corrupted message.
+    List<byte[]> batch = new ArrayList<>(ciphertexts);
+    Collections.reverse(batch);
+    batch.add(ciphertexts.get(0));
+    byte[] corrupted = ciphertexts.get(0).clone();
+    corrupted[corrupted.length - 1] ^= 1;
+    batch.add(corrupted);
+
+    bobStore.loadCount = 0;
+    bobStore.storeCount = 0;
+    List<BatchResult<byte[]>> results = bobGroupCipher.decryptBatch(batch);
+    assertEquals(batch.size(), results.size());
+    assertEquals(1, bobStore.loadCount);
+    assertEquals(1, bobStore.storeCount);
+
+    for (int i = 0; i < plaintexts.size(); i++) {
+      BatchResult<byte[]> result = results.get(plaintexts.size() - 1 - i);
+      if (i == 4) {
+        assertTrue(result.getError() instanceof DuplicateMessageException);
+      } else {
+        assertArrayEquals(plaintexts.get(i), result.getValue());
+      }
+    }
+    assertTrue(results.get(plaintexts.size()).getError() instanceof DuplicateMessageException);
+    assertTrue(results.get(plaintexts.size() + 1).getError() instanceof InvalidMessageException);
+
+    // The stored record reflects the whole batch.
+    try {
+      bobGroupCipher.decrypt(ciphertexts.get(7));
+      fail("should have been a duplicate");
+    } catch (DuplicateMessageException e) {
+      // good
+    }
+    byte[] followUp = "after the batch".getBytes();
+    assertArrayEquals(
+        followUp,
+        bobGroupCipher.decrypt(aliceGroupCipher.encrypt(DISTRIBUTION_ID, followUp).serialize()));
+  }
+
+  @Test
+  public void testBatchDecryptWithoutSession() throws Exception {
+    InMemorySenderKeyStore aliceStore = new InMemorySenderKeyStore();
+    CountingSenderKeyStore bobStore = new CountingSenderKeyStore();
+    new GroupSessionBuilder(aliceStore).create(SENDER_ADDRESS, DISTRIBUTION_ID);
+
+    GroupCipher aliceGroupCipher = new GroupCipher(aliceStore, SENDER_ADDRESS);
+    byte[] ciphertext =
+        aliceGroupCipher.encrypt(DISTRIBUTION_ID, "smert ze smert".getBytes()).serialize();
+
+    GroupCipher bobGroupCipher = new GroupCipher(bobStore, SENDER_ADDRESS);
+    List<BatchResult<byte[]>> results =
+        bobGroupCipher.decryptBatch(Arrays.asList(ciphertext, ciphertext));
+    assertEquals(2, results.size());
+    assertTrue(results.get(0).getError() instanceof NoSessionException);
+    assertTrue(results.get(1).getError() instanceof NoSessionException);
+    assertEquals(1, bobStore.loadCount);
+    assertEquals(0, bobStore.storeCount);
+  }
+
+  private static class CountingSenderKeyStore extends InMemorySenderKeyStore {
+    int loadCount = 0;
+    int storeCount = 0;
+
+    @Override
+    public void storeSenderKey(
+        SignalProtocolAddress sender, UUID distributionId, SenderKeyRecord record) {
+      storeCount++;
+      super.storeSenderKey(sender, distributionId, record);
+    }
+
+    @Override
+    public SenderKeyRecord loadSenderKey(SignalProtocolAddress sender, UUID distributionId) {
+      loadCount++;
+      return super.loadSenderKey(sender, distributionId);
+    }
+  }
+
   private int randomInt() {
     return new SecureRandom().nextInt(Integer.MAX_VALUE);
   }
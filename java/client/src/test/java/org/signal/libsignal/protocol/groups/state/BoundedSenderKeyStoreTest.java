@@ -0,0 +1,166 @@
+//
+// Copyright 2026 Signal Messenger, LLC.
+// SPDX-License-Identifier: AGPL-3.0-only
+//
+
+package org.signal.libsignal.protocol.groups.state;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.Test;
+import org.signal.libsignal.protocol.SignalProtocolAddress;
+import org.signal.libsignal.protocol.groups.GroupCipher;
+import org.signal.libsignal.protocol.groups.GroupSessionBuilder;
+import org.signal.libsignal.protocol.message.SenderKeyDistributionMessage;
+
+public class BoundedSenderKeyStoreTest {
+
+  private static final SignalProtocolAddress SENDER = new SignalProtocolAddress("+14150001111", 1);
+
+  private static SenderKeyRecord newRecord() {
+    InMemorySenderKeyStore store = new InMemorySenderKeyStore();
+    UUID distributionId = UUID.randomUUID();
+    new GroupSessionBuilder(store).create(SENDER, distributionId);
+    return store.loadSenderKey(SENDER, distributionId);
+  }
+
+  @Test
+  public void testStoreAndLoadReturnsCopies() {
+    BoundedSenderKeyStore store = new BoundedSenderKeyStore(10, Duration.ofHours(1));
+    UUID distributionId = UUID.randomUUID();
+    assertNull(store.loadSenderKey(SENDER, distributionId));
+
+    SenderKeyRecord record = newRecord();
+    store.storeSenderKey(SENDER, distributionId, record);
+    SenderKeyRecord loaded = store.loadSenderKey(SENDER, distributionId);
+    assertNotSame(record, loaded);
+    assertArrayEquals(record.serialize(), loaded.serialize());
+    assertNull(store.loadSenderKey(new SignalProtocolAddress("+14150001111", 2), distributionId));
+
+    assertEquals(1, store.getHitCount());
+    assertEquals(2, store.getMissCount());
+  }
+
+  @Test
+  public void testEvictsLeastRecentlyUsedToBackingStore() {
+    InMemorySenderKeyStore backing = new InMemorySenderKeyStore();
+    BoundedSenderKeyStore store =
+        new BoundedSenderKeyStore(2, Duration.ofHours(1), backing, 1, System::nanoTime);
+    UUID first = UUID.randomUUID();
+    UUID second = UUID.randomUUID();
+    UUID third = UUID.randomUUID();
+    SenderKeyRecord firstRecord = newRecord();
+
+    store.storeSenderKey(SENDER, first, firstRecord);
+    store.storeSenderKey(SENDER, second, newRecord());
+    assertNotNull(store.loadSenderKey(SENDER, first));
+    store.storeSenderKey(SENDER, third, newRecord());
+
+    // "second" was the least recently used.
+    assertEquals(2, store.size());
+    assertEquals(1, store.getEvictionCount());
+    assertNotNull(backing.loadSenderKey(SENDER, second));
+    assertNull(backing.loadSenderKey(SENDER, first));
+
+    // Loading it again brings it back from the backing store, evicting "first".
+    assertNotNull(store.loadSenderKey(SENDER, second));
+    assertEquals(2, store.getEvictionCount());
+    assertArrayEquals(firstRecord.serialize(), backing.loadSenderKey(SENDER, first).serialize());
+  }
+
+  @Test
+  public void testFlushWritesResidentRecords() {
+    InMemorySenderKeyStore backing = new InMemorySenderKeyStore();
+    BoundedSenderKeyStore store = new BoundedSenderKeyStore(10, Duration.ofHours(1), backing);
+    UUID distributionId = UUID.randomUUID();
+    SenderKeyRecord record = newRecord();
+
+    store.storeSenderKey(SENDER, distributionId, record);
+    assertNull(backing.loadSenderKey(SENDER, distributionId));
+
+    store.flush();
+    assertArrayEquals(
+        record.serialize(), backing.loadSenderKey(SENDER, distributionId).serialize());
+    assertEquals(1, store.size());
+    assertEquals(0, store.getEvictionCount());
+  }
+
+  @Test
+  public void testEvictsIdleRecords() {
+    AtomicLong now = new AtomicLong();
+    BoundedSenderKeyStore store =
+        new BoundedSenderKeyStore(10, Duration.ofSeconds(60), null, 1, now::get);
+    UUID stale = UUID.randomUUID();
+    UUID fresh = UUID.randomUUID();
+
+    store.storeSenderKey(SENDER, stale, newRecord());
+    now.addAndGet(Duration.ofSeconds(45).toNanos());
+    store.storeSenderKey(SENDER, fresh, newRecord());
+    now.addAndGet(Duration.ofSeconds(30).toNanos());
+
+    store.evictIdleRecords();
+    assertEquals(1, store.size());
+    assertNull(store.loadSenderKey(SENDER, stale));
+    assertNotNull(store.loadSenderKey(SENDER, fresh));
+
+    // Using a record keeps it alive.
+    now.addAndGet(Duration.ofSeconds(45).toNanos());
+    assertNotNull(store.loadSenderKey(SENDER, fresh));
+    now.addAndGet(Duration.ofSeconds(61).toNanos());
+    assertNull(store.loadSenderKey(SENDER, fresh));
+    assertEquals(2, store.getEvictionCount());
+  }
+
+  @Test
+  public void testConcurrentGroupCiphers() throws Exception {
+    BoundedSenderKeyStore senderStore = new BoundedSenderKeyStore(100, Duration.ofHours(1));
+    BoundedSenderKeyStore receiverStore = new BoundedSenderKeyStore(100, Duration.ofHours(1));
+    List<UUID> distributionIds = new ArrayList<>();
+    for (int i = 0; i < 8; i++) {
+      UUID distributionId = UUID.randomUUID();
+      SenderKeyDistributionMessage distributionMessage =
+          new GroupSessionBuilder(senderStore).create(SENDER, distributionId);
+      new GroupSessionBuilder(receiverStore)
+          .process(SENDER, new SenderKeyDistributionMessage(distributionMessage.serialize()));
+      distributionIds.add(distributionId);
+    }
+
+    ExecutorService executor = Executors.newFixedThreadPool(distributionIds.size());
+    try {
+      List<Future<?>> futures = new ArrayList<>();
+      for (UUID distributionId : distributionIds) {
+        futures.add(
+            executor.submit(
+                () -> {
+                  GroupCipher sender = new GroupCipher(senderStore, SENDER);
+                  GroupCipher receiver = new GroupCipher(receiverStore, SENDER);
+                  for (int i = 0; i < 20; i++) {
+                    byte[] plaintext = new byte[] {(byte) i};
+                    assertArrayEquals(
+                        plaintext,
+                        receiver.decrypt(sender.encrypt(distributionId, plaintext).serialize()));
+                  }
+                  return null;
+                }));
+      }
+      for (Future<?> future : futures) {
+        future.get();
+      }
+    } finally {
+      executor.shutdown();
+    }
+    assertEquals(distributionIds.size(), receiverStore.size());
+  }
+}
@@ -0,0 +1,141 @@
+//
+// Copyright 2026 Signal Messenger, LLC.
+// SPDX-License-Identifier: AGPL-3.0-only
+//
+
+package org.signal.libsignal.protocol.state;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.Executor;
+import org.junit.Test;
+import org.signal.libsignal.protocol.IdentityKeyPair;
+import org.signal.libsignal.protocol.ecc.ECPublicKey;
+import org.signal.libsignal.protocol.state.impl.InMemorySignalProtocolStore;
+import org.signal.libsignal.protocol.util.Medium;
+
+public class PreKeyPoolTest {
+
+  /** Runs tasks only when asked to, so tests can see what has been scheduled. */
+  private static class QueueExecutor implements Executor {
+    final Queue<Runnable> tasks = new ArrayDeque<>();
+
+    @Override
+    public void execute(Runnable task) {
+      tasks.add(task);
+    }
+
+    void runAll() {
+      while (!tasks.isEmpty()) {
+        tasks.poll().run();
+      }
+    }
+  }
+
+  private final IdentityKeyPair identityKeyPair = IdentityKeyPair.generate();
+  private final InMemorySignalProtocolStore store =
+      new InMemorySignalProtocolStore(identityKeyPair, 5);
+
+  @Test
+  public void testFillAndTake() throws Exception {
+    QueueExecutor executor = new QueueExecutor();
+    PreKeyPool pool = new PreKeyPool(identityKeyPair, store, 4, 2, executor);
+    pool.fill();
+    assertEquals(3, executor.tasks.size());
+    executor.runAll();
+    assertEquals(4, pool.getAvailablePreKeyCount());
+    assertEquals(4, pool.getAvailableKyberPreKeyCount());
+
+    List<PreKeyRecord> preKeys = pool.takePreKeys(10, 2);
+    assertEquals(2, preKeys.size());
+    assertEquals(10, preKeys.get(0).getId());
+    assertEquals(11, preKeys.get(1).getId());
+    assertTrue(store.containsPreKey(10));
+    assertTrue(store.containsPreKey(11));
+    // Still at the low-water mark, so nothing new is scheduled.
+    assertTrue(executor.tasks.isEmpty());
+
+    ECPublicKey identityKey = identityKeyPair.getPublicKey().getPublicKey();
+    List<KyberPreKeyRecord> kyberPreKeys = pool.takeKyberPreKeys(20, 3);
+    assertEquals(3, kyberPreKeys.size());
+    for (KyberPreKeyRecord record : kyberPreKeys) {
+      assertTrue(store.containsKyberPreKey(record.getId()));
+      assertTrue(
+          identityKey.verifySignature(
+              record.getKeyPair().getPublicKey().serialize(), record.getSignature()));
+    }
+    assertEquals(1, pool.getAvailableKyberPreKeyCount());
+    assertEquals(1, executor.tasks.size());
+    executor.runAll();
+    assertEquals(4, pool.getAvailableKyberPreKeyCount());
+
+    SignedPreKeyRecord signedPreKey = pool.takeSignedPreKey(30);
+    assertTrue(store.containsSignedPreKey(30));
+    assertTrue(
+        identityKey.verifySignature(
+            signedPreKey.getKeyPair().getPublicKey().serialize(), signedPreKey.getSignature()));
+
+    assertEquals(0, pool.getPreKeyMetrics().getInlineCount());
+    assertEquals(0, pool.getKyberPreKeyMetrics().getInlineCount());
+    assertEquals(4, pool.getPreKeyMetrics().getGeneratedCount());
+    assertEquals(7, pool.getKyberPreKeyMetrics().getGeneratedCount());
+    assertEquals(1, pool.getSignedPreKeyMetrics().getGeneratedCount());
+    assertTrue(pool.getKyberPreKeyMetrics().getAverageNanos() > 0);
+    assertTrue(
+        pool.getKyberPreKeyMetrics().getMaxNanos()
+            >= pool.getKyberPreKeyMetrics().getAverageNanos());
+  }
+
+  @Test
+  public void testTakeMoreThanAvailable() {
+    QueueExecutor executor = new QueueExecutor();
+    PreKeyPool pool = new PreKeyPool(identityKeyPair, store, 2, 1, executor);
+
+    List<PreKeyRecord> preKeys = pool.takePreKeys(Medium.MAX_VALUE, 3);
+    assertEquals(Medium.MAX_VALUE, preKeys.get(0).getId());
+    assertEquals(1, preKeys.get(1).getId());
+    assertEquals(2, preKeys.get(2).getId());
+    assertEquals(3, pool.getPreKeyMetrics().getInlineCount());
+
+    // Only one refill is scheduled no matter how often the pool is drained before it runs.
+    pool.takePreKeys(3, 1);
+    assertEquals(1, executor.tasks.size());
+    executor.runAll();
+    assertEquals(2, pool.getAvailablePreKeyCount());
+  }
+
+  @Test
+  public void testGeneratesOnBackgroundThread() throws Exception {
+    List<Thread> threads = new ArrayList<>();
+    Executor executor =
+        task -> {
+          Thread thread = new Thread(task);
+          threads.add(thread);
+          thread.start();
+        };
+    PreKeyPool pool = new PreKeyPool(identityKeyPair, store, 3, 3, executor);
+    pool.fill();
+    for (Thread thread : threads) {
+      thread.join();
+    }
+    assertEquals(3, pool.getAvailableKyberPreKeyCount());
+    assertEquals(3, pool.takeKyberPreKeys(1, 3).size());
+    assertEquals(0, pool.getKyberPreKeyMetrics().getInlineCount());
+  }
+
+  @Test
+  public void testInvalidSizes() {
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> new PreKeyPool(identityKeyPair, store, 0, 0, Runnable::run));
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> new PreKeyPool(identityKeyPair, store, 4, 5, Runnable::run));
+  }
+}
@@ -0,0 +1,175 @@
+//
+// Copyright 2026 Signal Messenger, LLC.
+// SPDX-License-Identifier: AGPL-3.0-only
+//
+
+package org.signal.libsignal.protocol.state;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import org.junit.After;
+import org.junit.Test;
+import org.signal.libsignal.protocol.NoSessionException;
+import org.signal.libsignal.protocol.SignalProtocolAddress;
+import org.signal.libsignal.protocol.state.impl.InMemorySessionStore;
+
+public class WriteBehindSessionStoreTest {
+
+  private static class CountingSessionStore extends InMemorySessionStore {
+    int stores = 0;
+    int deletes = 0;
+    CountDownLatch stored = new CountDownLatch(1);
+
+    @Override
+    public synchronized void storeSession(SignalProtocolAddress address, SessionRecord record) {
+      super.storeSession(address, record);
+      stores++;
+      stored.countDown();
+    }
+
+    @Override
+    public synchronized void deleteSession(SignalProtocolAddress address) {
+      super.deleteSession(address);
+      deletes++;
+    }
+  }
+
+  private static final SignalProtocolAddress ALICE_1 = new SignalProtocolAddress("alice", 1);
+  private static final SignalProtocolAddress ALICE_2 = new SignalProtocolAddress("alice", 2);
+  private static final SignalProtocolAddress ALICE_3 = new SignalProtocolAddress("alice", 3);
+  private static final SignalProtocolAddress ALICE_4 = new SignalProtocolAddress("alice", 4);
+
+  private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+  private final CountingSessionStore delegate = new CountingSessionStore();
+
+  @After
+  public void tearDown() {
+    scheduler.shutdownNow();
+  }
+
+  @Test
+  public void testCoalescesWritesUntilFlush() throws Exception {
+    WriteBehindSessionStore store =
+        new WriteBehindSessionStore(delegate, Duration.ofHours(1), scheduler);
+    delegate.storeSession(ALICE_2, new SessionRecord());
+    delegate.stores = 0;
+
+    for (int i = 0; i < 3; i++) {
+      store.storeSession(ALICE_1, new SessionRecord());
+    }
+    store.deleteSession(ALICE_2);
+    assertEquals(2, store.getPendingCount());
+    assertEquals(2, store.getCoalescedWriteCount());
+    assertEquals(0, delegate.stores);
+
+    assertNotNull(store.loadSession(ALICE_1));
+    assertTrue(store.containsSession(ALICE_1));
+    assertNull(store.loadSession(ALICE_2));
+    assertFalse(store.containsSession(ALICE_2));
+    assertTrue(delegate.containsSession(ALICE_2));
+    assertThrows(
+        NoSessionException.class,
+        () -> store.loadExistingSessions(Arrays.asList(ALICE_1, ALICE_2)));
+
+    store.flush();
+    assertEquals(0, store.getPendingCount());
+    assertEquals(1, delegate.stores);
+    assertEquals(1, delegate.deletes);
+    assertTrue(delegate.containsSession(ALICE_1));
+    assertFalse(delegate.containsSession(ALICE_2));
+    assertEquals(1, store.loadExistingSessions(Collections.singletonList(ALICE_1)).size());
+  }
+
+  @Test
+  public void testFlushesInBackground() throws Exception {
+    WriteBehindSessionStore store =
+        new WriteBehindSessionStore(delegate, Duration.ofMillis(10), scheduler);
+    store.storeSession(ALICE_1, new SessionRecord());
+    assertTrue(delegate.stored.await(10, TimeUnit.SECONDS));
+    assertTrue(delegate.containsSession(ALICE_1));
+  }
+
+  @Test
+  public void testSubDeviceSessions() {
+    WriteBehindSessionStore store =
+        new WriteBehindSessionStore(delegate, Duration.ofHours(1), scheduler);
+    delegate.storeSession(ALICE_2, new SessionRecord());
+    delegate.storeSession(ALICE_3, new SessionRecord());
+
+    store.storeSession(ALICE_1, new SessionRecord());
+    store.storeSession(ALICE_4, new SessionRecord());
+    store.deleteSession(ALICE_3);
+    List<Integer> deviceIds = store.getSubDeviceSessions("alice");
+    Collections.sort(deviceIds);
+    assertEquals(Arrays.asList(2, 4), deviceIds);
+  }
+
+  @Test
+  public void testDeleteAllSessionsDropsBufferedWrites() {
+    WriteBehindSessionStore store =
+        new WriteBehindSessionStore(delegate, Duration.ofHours(1), scheduler);
+    SignalProtocolAddress bob = new SignalProtocolAddress("bob", 2);
+    store.storeSession(ALICE_2, new SessionRecord());
+    store.storeSession(bob, new SessionRecord());
+
+    store.deleteAllSessions("bob");
+    assertEquals(1, store.getPendingCount());
+    assertTrue(store.getSubDeviceSessions("bob").isEmpty());
+    store.flush();
+    assertFalse(delegate.containsSession(bob));
+    assertTrue(delegate.containsSession(ALICE_2));
+  }
+
+  @Test
+  public void testDeleteAllSessionsKeepsBufferedWritesIfDelegateFails() {
+    InMemorySessionStore failing =
+        new InMemorySessionStore() {
+          @Override
+          public void deleteAllSessions(String name) {
+            throw new IllegalStateException("unavailable");
+          }
+        };
+    WriteBehindSessionStore store =
+        new WriteBehindSessionStore(failing, Duration.ofHours(1), scheduler);
+    store.storeSession(ALICE_1, new SessionRecord());
+
+    assertThrows(IllegalStateException.class, () -> store.deleteAllSessions("alice"));
+    assertEquals(1, store.getPendingCount());
+    store.flush();
+    assertTrue(failing.containsSession(ALICE_1));
+  }
+
+  @Test
+  public void testWriteThroughView() {
+    WriteBehindSessionStore store =
+        new WriteBehindSessionStore(delegate, Duration.ofHours(1), scheduler);
+    SessionStore writeThrough = store.writeThrough();
+    store.storeSession(ALICE_1, new SessionRecord());
+    store.storeSession(ALICE_2, new SessionRecord());
+    assertEquals(2, store.getPendingCount());
+
+    writeThrough.storeSession(ALICE_1, new SessionRecord());
+    assertEquals(1, store.getPendingCount());
+    assertEquals(1, delegate.stores);
+    assertTrue(delegate.containsSession(ALICE_1));
+    assertTrue(writeThrough.containsSession(ALICE_2));
+
+    writeThrough.deleteSession(ALICE_2);
+    assertEquals(0, store.getPendingCount());
+    assertEquals(1, delegate.deletes);
+    assertFalse(store.containsSession(ALICE_2));
+  }
+}
@@ -0,0 +1,91 @@
+//
+// Copyright 2026 Signal Messenger, LLC.
+// SPDX-License-Identifier: AGPL-3.0-only
+//
+
+package org.signal.libsignal.protocol.state.impl;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.Test;
+import org.signal.libsignal.protocol.IdentityKeyPair;
+import org.signal.libsignal.protocol.InvalidKeyIdException;
+import org.signal.libsignal.protocol.kem.KEMKeyPair;
+import org.signal.libsignal.protocol.kem.KEMKeyType;
+import org.signal.libsignal.protocol.state.KyberPreKeyRecord;
+
+public class CompactKyberPreKeyStoreTest {
+
+  private static final IdentityKeyPair IDENTITY_KEY = IdentityKeyPair.generate();
+
+  private static KyberPreKeyRecord newRecord(int id) {
+    KEMKeyPair keyPair = KEMKeyPair.generate(KEMKeyType.KYBER_1024);
+    byte[] signature =
+        IDENTITY_KEY.getPrivateKey().calculateSignature(keyPair.getPublicKey().serialize());
+    return new KyberPreKeyRecord(id, System.currentTimeMillis(), keyPair, signature);
+  }
+
+  @Test
+  public void testLoadReturnsCachedRecord() throws Exception {
+    CompactKyberPreKeyStore store = new CompactKyberPreKeyStore(Duration.ofDays(1));
+    KyberPreKeyRecord record = newRecord(1);
+    store.storeKyberPreKey(1, record);
+    store.storeKyberPreKey(2, newRecord(2));
+
+    assertTrue(store.containsKyberPreKey(1));
+    assertSame(record, store.loadKyberPreKey(1));
+    assertArrayEquals(record.serialize(), store.loadKyberPreKey(1).serialize());
+    assertEquals(2, store.loadKyberPreKeys().size());
+    assertThrows(InvalidKeyIdException.class, () -> store.loadKyberPreKey(3));
+  }
+
+  @Test
+  public void testOneTimeAndLastResortKeys() throws Exception {
+    CompactKyberPreKeyStore store = new CompactKyberPreKeyStore(Duration.ofDays(1));
+    store.storeKyberPreKey(1, newRecord(1));
+    store.storeLastResortKyberPreKey(0xFFFFFF, newRecord(0xFFFFFF));
+
+    store.markKyberPreKeyUsed(1);
+    assertFalse(store.containsKyberPreKey(1));
+    assertTrue(store.hasKyberPreKeyBeenUsed(1));
+
+    store.markKyberPreKeyUsed(0xFFFFFF);
+    assertTrue(store.containsKyberPreKey(0xFFFFFF));
+    assertTrue(store.hasKyberPreKeyBeenUsed(0xFFFFFF));
+    assertFalse(store.hasKyberPreKeyBeenUsed(0xFFFFFE));
+
+    store.removeKyberPreKey(0xFFFFFF);
+    assertFalse(store.containsKyberPreKey(0xFFFFFF));
+  }
+
+  @Test
+  public void testUsedIdsExpire() {
+    AtomicLong now = new AtomicLong();
+    CompactKyberPreKeyStore store = new CompactKyberPreKeyStore(Duration.ofHours(1), now::get);
+    store.markKyberPreKeyUsed(5);
+    now.addAndGet(Duration.ofMinutes(30).toNanos());
+    store.markKyberPreKeyUsed(-1);
+
+    // Both are remembered for at least the retention period...
+    now.addAndGet(Duration.ofMinutes(45).toNanos());
+    assertTrue(store.hasKyberPreKeyBeenUsed(5));
+    assertTrue(store.hasKyberPreKeyBeenUsed(-1));
+
+    // ...and forgotten by twice that.
+    now.addAndGet(Duration.ofMinutes(50).toNanos());
+    assertFalse(store.hasKyberPreKeyBeenUsed(5));
+    assertFalse(store.hasKyberPreKeyBeenUsed(-1));
+
+    // A long gap clears everything at once.
+    store.markKyberPreKeyUsed(7);
+    now.addAndGet(Duration.ofHours(5).toNanos());
+    assertFalse(store.hasKyberPreKeyBeenUsed(7));
+  }
+}
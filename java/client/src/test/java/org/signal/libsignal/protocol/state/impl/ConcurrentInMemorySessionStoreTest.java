@@ -0,0 +1,123 @@
+//
+// Copyright 2026 Signal Messenger, LLC.
+// SPDX-License-Identifier: AGPL-3.0-only
+//
+
+package org.signal.libsignal.protocol.state.impl;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.Test;
+import org.signal.libsignal.protocol.NoSessionException;
+import org.signal.libsignal.protocol.SignalProtocolAddress;
+import org.signal.libsignal.protocol.state.SessionRecord;
+
+public class ConcurrentInMemorySessionStoreTest {
+
+  @Test
+  public void testStoreAndLoad() {
+    ConcurrentInMemorySessionStore store = new ConcurrentInMemorySessionStore();
+    SignalProtocolAddress address = new SignalProtocolAddress("+14151111111", 1);
+
+    assertFalse(store.containsSession(address));
+    assertNull(store.loadSession(address));
+
+    SessionRecord record = new SessionRecord();
+    store.storeSession(address, record);
+
+    assertTrue(store.containsSession(address));
+    SessionRecord loaded = store.loadSession(new SignalProtocolAddress("+14151111111", 1));
+    assertNotSame(record, loaded);
+    assertArrayEquals(record.serialize(), loaded.serialize());
+    assertNotSame(loaded, store.loadSession(address));
+    assertNull(store.loadSession(new SignalProtocolAddress("+14151111111", 2)));
+  }
+
+  @Test
+  public void testLoadExistingSessions() throws Exception {
+    ConcurrentInMemorySessionStore store = new ConcurrentInMemorySessionStore();
+    SignalProtocolAddress first = new SignalProtocolAddress("+14151111111", 1);
+    SignalProtocolAddress second = new SignalProtocolAddress("+14152222222", 1);
+    SignalProtocolAddress missing = new SignalProtocolAddress("+14153333333", 1);
+
+    store.storeSession(first, new SessionRecord());
+    store.storeSession(second, new SessionRecord());
+
+    assertEquals(2, store.loadExistingSessions(Arrays.asList(first, second)).size());
+
+    NoSessionException e =
+        assertThrows(
+            NoSessionException.class,
+            () -> store.loadExistingSessions(Arrays.asList(first, missing)));
+    assertEquals(missing, e.getAddress());
+  }
+
+  @Test
+  public void testSubDevicesAndDeletion() {
+    ConcurrentInMemorySessionStore store = new ConcurrentInMemorySessionStore();
+    String name = "+14151111111";
+    for (int deviceId = 1; deviceId <= 4; deviceId++) {
+      store.storeSession(new SignalProtocolAddress(name, deviceId), new SessionRecord());
+    }
+    store.storeSession(new SignalProtocolAddress("+14152222222", 2), new SessionRecord());
+
+    List<Integer> subDevices = store.getSubDeviceSessions(name);
+    Collections.sort(subDevices);
+    assertArrayEquals(new Integer[] {2, 3, 4}, subDevices.toArray());
+
+    store.deleteSession(new SignalProtocolAddress(name, 3));
+    subDevices = store.getSubDeviceSessions(name);
+    Collections.sort(subDevices);
+    assertArrayEquals(new Integer[] {2, 4}, subDevices.toArray());
+
+    store.deleteAllSessions(name);
+    assertTrue(store.getSubDeviceSessions(name).isEmpty());
+    assertFalse(store.containsSession(new SignalProtocolAddress(name, 1)));
+    assertTrue(store.containsSession(new SignalProtocolAddress("+14152222222", 2)));
+  }
+
+  @Test
+  public void testConcurrentStores() throws Exception {
+    ConcurrentInMemorySessionStore store = new ConcurrentInMemorySessionStore(4);
+    int threads = 8;
+    int devicesPerThread = 50;
+
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+    try {
+      List<Future<?>> futures = new ArrayList<>();
+      for (int t = 0; t < threads; t++) {
+        String name = "+1415000000" + t;
+        futures.add(
+            executor.submit(
+                () -> {
+                  for (int deviceId = 1; deviceId <= devicesPerThread; deviceId++) {
+                    store.storeSession(
+                        new SignalProtocolAddress(name, deviceId), new SessionRecord());
+                  }
+                }));
+      }
+      for (Future<?> future : futures) {
+        future.get();
+      }
+    } finally {
+      executor.shutdown();
+    }
+
+    for (int t = 0; t < threads; t++) {
+      assertEquals(devicesPerThread - 1, store.getSubDeviceSessions("+1415000000" + t).size());
+    }
+  }
+}
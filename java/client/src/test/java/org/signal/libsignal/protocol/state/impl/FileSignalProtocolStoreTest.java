@@ -0,0 +1,131 @@
+//
+// Copyright 2026 Signal Messenger, LLC.
+// SPDX-License-Identifier: AGPL-3.0-only
+//
+
+package org.signal.libsignal.protocol.state.impl;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.UUID;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.signal.libsignal.protocol.IdentityKey;
+import org.signal.libsignal.protocol.IdentityKeyPair;
+import org.signal.libsignal.protocol.InvalidKeyIdException;
+import org.signal.libsignal.protocol.NoSessionException;
+import org.signal.libsignal.protocol.SignalProtocolAddress;
+import org.signal.libsignal.protocol.ecc.Curve;
+import org.signal.libsignal.protocol.groups.GroupCipher;
+import org.signal.libsignal.protocol.groups.GroupSessionBuilder;
+import org.signal.libsignal.protocol.message.SenderKeyDistributionMessage;
+import org.signal.libsignal.protocol.state.PreKeyRecord;
+import org.signal.libsignal.protocol.state.SessionRecord;
+
+public class FileSignalProtocolStoreTest {
+
+  private static final SignalProtocolAddress ALICE = new SignalProtocolAddress("+14151111111", 1);
+  private static final SignalProtocolAddress ALICE_2 = new SignalProtocolAddress("+14151111111", 2);
+  private static final SignalProtocolAddress BOB = new SignalProtocolAddress("+14152222222", 1);
+
+  @Rule public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  private final IdentityKeyPair identityKeyPair = IdentityKeyPair.generate();
+
+  @Test
+  public void testPersistsAcrossReopen() throws Exception {
+    File directory = temporaryFolder.newFolder();
+    IdentityKey aliceIdentity = IdentityKeyPair.generate().getPublicKey();
+    SessionRecord session = new SessionRecord();
+    PreKeyRecord preKey = new PreKeyRecord(7, Curve.generateKeyPair());
+
+    try (FileSignalProtocolStore store =
+        new FileSignalProtocolStore(directory, identityKeyPair, 5)) {
+      assertTrue(store.saveIdentity(ALICE, aliceIdentity));
+      assertFalse(store.saveIdentity(ALICE, aliceIdentity));
+      store.storeSession(ALICE, session);
+      store.storeSession(ALICE_2, session);
+      store.storeSession(BOB, session);
+      store.storePreKey(7, preKey);
+      store.storePreKey(8, preKey);
+      store.removePreKey(8);
+      store.markKyberPreKeyUsed(3);
+    }
+
+    try (FileSignalProtocolStore store =
+        new FileSignalProtocolStore(directory, identityKeyPair, 5)) {
+      assertEquals(aliceIdentity, store.getIdentity(ALICE));
+      assertTrue(store.isTrustedIdentity(ALICE, aliceIdentity, null));
+      assertFalse(store.isTrustedIdentity(ALICE, IdentityKeyPair.generate().getPublicKey(), null));
+      assertArrayEquals(session.serialize(), store.loadSession(ALICE).serialize());
+      assertEquals(Collections.singletonList(2), store.getSubDeviceSessions(ALICE.getName()));
+      assertEquals(3, store.loadExistingSessions(Arrays.asList(ALICE, ALICE_2, BOB)).size());
+      assertArrayEquals(preKey.serialize(), store.loadPreKey(7).serialize());
+      assertFalse(store.containsPreKey(8));
+      assertThrows(InvalidKeyIdException.class, () -> store.loadPreKey(8));
+      assertTrue(store.hasKyberPreKeyBeenUsed(3));
+      assertFalse(store.hasKyberPreKeyBeenUsed(4));
+
+      store.deleteAllSessions(ALICE.getName());
+      assertNull(store.loadSession(ALICE));
+      assertTrue(store.containsSession(BOB));
+      assertThrows(
+          NoSessionException.class, () -> store.loadExistingSessions(Arrays.asList(ALICE, BOB)));
+    }
+  }
+
+  @Test
+  public void testRejectsSecondStoreForDirectory() throws Exception {
+    File directory = temporaryFolder.newFolder();
+    try (FileSignalProtocolStore store =
+        new FileSignalProtocolStore(directory, identityKeyPair, 5)) {
+      assertThrows(
+          IOException.class, () -> new FileSignalProtocolStore(directory, identityKeyPair, 5));
+      store.storeSession(ALICE, new SessionRecord());
+    }
+
+    try (FileSignalProtocolStore store =
+        new FileSignalProtocolStore(directory, identityKeyPair, 5)) {
+      assertTrue(store.containsSession(ALICE));
+    }
+  }
+
+  @Test
+  public void testSenderKeysSurviveReopen() throws Exception {
+    File directory = temporaryFolder.newFolder();
+    UUID distributionId = UUID.randomUUID();
+    InMemorySignalProtocolStore aliceStore = new InMemorySignalProtocolStore(identityKeyPair, 1);
+    GroupCipher aliceCipher = new GroupCipher(aliceStore, ALICE);
+    SenderKeyDistributionMessage distributionMessage =
+        new GroupSessionBuilder(aliceStore).create(ALICE, distributionId);
+
+    byte[] first = aliceCipher.encrypt(distributionId, "first".getBytes()).serialize();
+    byte[] second = aliceCipher.encrypt(distributionId, "second".getBytes()).serialize();
+
+    try (FileSignalProtocolStore bobStore =
+        new FileSignalProtocolStore(directory, identityKeyPair, 2, 64 * 1024)) {
+      new GroupSessionBuilder(bobStore).process(ALICE, distributionMessage);
+      assertArrayEquals("first".getBytes(), new GroupCipher(bobStore, ALICE).decrypt(first));
+    }
+
+    try (FileSignalProtocolStore bobStore =
+        new FileSignalProtocolStore(directory, identityKeyPair, 2, 64 * 1024)) {
+      GroupCipher bobCipher = new GroupCipher(bobStore, ALICE);
+      assertArrayEquals("second".getBytes(), bobCipher.decrypt(second));
+      // Compacting keeps the latest record.
+      bobStore.compact();
+      byte[] third = aliceCipher.encrypt(distributionId, "third".getBytes()).serialize();
+      assertArrayEquals("third".getBytes(), bobCipher.decrypt(third));
+    }
+  }
+}
@@ -0,0 +1,206 @@
+//
+// Copyright 2026 Signal Messenger, LLC.
+// SPDX-License-Identifier: AGPL-3.0-only
+//
+
+package org.signal.libsignal.protocol.state.impl;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class SegmentLogTest {
+  // Frame header, op, and key length.
+  private static final int FRAME_OVERHEAD = 13;
+
+  @Rule public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  private static byte[] bytes(String s) {
+    return s.getBytes(StandardCharsets.UTF_8);
+  }
+
+  private File firstSegment(File directory) {
+    return new File(directory, "segment-0000000000000001.log");
+  }
+
+  @Test
+  public void testPutGetDeleteAndReopen() throws Exception {
+    File directory = temporaryFolder.newFolder();
+    SegmentLog log = new SegmentLog(directory, 4096);
+    log.put(bytes("a"), bytes("first"));
+    log.put(bytes("b"), bytes("second"));
+    log.put(bytes("a"), bytes("third"));
+    log.put(bytes("c"), new byte[0]);
+    log.deleteAll(Arrays.asList(bytes("b"), bytes("missing")));
+
+    assertArrayEquals(bytes("third"), log.get(bytes("a")));
+    assertNull(log.get(bytes("b")));
+    assertFalse(log.contains(bytes("b")));
+    assertArrayEquals(new byte[0], log.get(bytes("c")));
+    log.close();
+    assertThrows(IllegalStateException.class, () -> log.get(bytes("a")));
+
+    SegmentLog reopened = new SegmentLog(directory, 4096);
+    assertArrayEquals(bytes("third"), reopened.get(bytes("a")));
+    assertNull(reopened.get(bytes("b")));
+    assertTrue(reopened.contains(bytes("c")));
+    reopened.close();
+  }
+
+  @Test
+  public void testKeysInGroup() throws Exception {
+    File directory = temporaryFolder.newFolder();
+    // Groups each key by everything up to its last '/'.
+    SegmentLog.Grouping grouping =
+        key -> {
+          String name = new String(key, StandardCharsets.UTF_8);
+          return Arrays.asList(bytes(name.substring(0, name.lastIndexOf('/') + 1)));
+        };
+    SegmentLog log = new SegmentLog(directory, 256, grouping);
+    log.put(bytes("session/alice/1"), bytes("x"));
+    log.put(bytes("session/alice/2"), bytes("x"));
+    log.put(bytes("session/alice/2"), bytes("y"));
+    log.put(bytes("session/bob/1"), bytes("x"));
+    log.deleteAll(Arrays.asList(bytes("session/bob/1")));
+    assertEquals(2, log.keysInGroup(bytes("session/alice/")).size());
+    assertEquals(0, log.keysInGroup(bytes("session/bob/")).size());
+
+    log.compact();
+    assertEquals(2, log.keysInGroup(bytes("session/alice/")).size());
+    assertArrayEquals(bytes("y"), log.get(bytes("session/alice/2")));
+    log.close();
+
+    SegmentLog reopened = new SegmentLog(directory, 256, grouping);
+    Set<String> keys = new HashSet<>();
+    for (byte[] key : reopened.keysInGroup(bytes("session/alice/"))) {
+      keys.add(new String(key, StandardCharsets.UTF_8));
+    }
+    assertEquals(new HashSet<>(Arrays.asList("session/alice/1", "session/alice/2")), keys);
+    assertEquals(0, reopened.keysInGroup(bytes("session/bob/")).size());
+    reopened.close();
+  }
+
+  @Test
+  public void testRollsAndCompacts() throws Exception {
+    File directory = temporaryFolder.newFolder();
+    int segmentSize = 256;
+    SegmentLog log = new SegmentLog(directory, segmentSize);
+    byte[] value = new byte[50];
+    for (int i = 0; i < 200; i++) {
+      value[0] = (byte) i;
+      log.put(bytes("key" + (i % 3)), value);
+    }
+    // Three live values fit in one segment, so compaction keeps the log small.
+    assertTrue(log.getSegmentCount() <= 3);
+    assertEquals(3, directory.listFiles().length);
+
+    log.compact();
+    assertEquals(1, log.getSegmentCount());
+    assertEquals(1, directory.listFiles().length);
+    log.close();
+
+    SegmentLog reopened = new SegmentLog(directory, segmentSize);
+    assertEquals((byte) 199, reopened.get(bytes("key1"))[0]);
+    assertEquals((byte) 198, reopened.get(bytes("key0"))[0]);
+    assertEquals((byte) 197, reopened.get(bytes("key2"))[0]);
+    assertThrows(IllegalArgumentException.class, () -> reopened.put(bytes("big"), new byte[256]));
+    reopened.close();
+  }
+
+  @Test
+  public void testRecoversFromInterruptedWrite() throws Exception {
+    File directory = temporaryFolder.newFolder();
+    SegmentLog log = new SegmentLog(directory, 4096);
+    log.put(bytes("a"), bytes("kept"));
+    log.put(bytes("b"), bytes("torn"));
+    log.close();
+
+    // Damage the second frame, as if the process died while writing it.
+    int secondFrame = FRAME_OVERHEAD + 1 + 4;
+    try (RandomAccessFile file = new RandomAccessFile(firstSegment(directory), "rw")) {
+      file.seek(secondFrame + FRAME_OVERHEAD + 2);
+      file.write('X');
+    }
+
+    SegmentLog recovered = new SegmentLog(directory, 4096);
+    assertArrayEquals(bytes("kept"), recovered.get(bytes("a")));
+    assertNull(recovered.get(bytes("b")));
+    recovered.put(bytes("c"), bytes("after"));
+    recovered.close();
+
+    SegmentLog reopened = new SegmentLog(directory, 4096);
+    assertArrayEquals(bytes("kept"), reopened.get(bytes("a")));
+    assertNull(reopened.get(bytes("b")));
+    assertArrayEquals(bytes("after"), reopened.get(bytes("c")));
+    reopened.close();
+  }
+
+  @Test
+  public void testRejectsCorruptionBeforeNewestSegment() throws Exception {
+    File directory = temporaryFolder.newFolder();
+    SegmentLog log = new SegmentLog(directory, 64);
+    log.put(bytes("a"), new byte[40]);
+    log.put(bytes("b"), new byte[40]);
+    assertEquals(2, log.getSegmentCount());
+    log.close();
+
+    try (RandomAccessFile file = new RandomAccessFile(firstSegment(directory), "rw")) {
+      file.seek(FRAME_OVERHEAD + 2);
+      file.write(1);
+    }
+    assertThrows(IOException.class, () -> new SegmentLog(directory, 64));
+  }
+
+  @Test
+  public void testConcurrentWriters() throws Exception {
+    File directory = temporaryFolder.newFolder();
+    SegmentLog log = new SegmentLog(directory, 4096);
+    ExecutorService executor = Executors.newFixedThreadPool(8);
+    try {
+      List<Future<?>> futures = new ArrayList<>();
+      for (int thread = 0; thread < 8; thread++) {
+        int threadIndex = thread;
+        futures.add(
+            executor.submit(
+                () -> {
+                  for (int i = 0; i < 50; i++) {
+                    log.put(bytes(threadIndex + "/" + i), bytes("value " + i));
+                  }
+                }));
+      }
+      for (Future<?> future : futures) {
+        future.get();
+      }
+    } finally {
+      executor.shutdown();
+    }
+    log.close();
+
+    SegmentLog reopened = new SegmentLog(directory, 4096);
+    for (int thread = 0; thread < 8; thread++) {
+      for (int i = 0; i < 50; i++) {
+        assertArrayEquals(bytes("value " + i), reopened.get(bytes(thread + "/" + i)));
+      }
+    }
+    reopened.close();
+  }
+}
@@ -6,16 +6,25 @@
 package org.signal.libsignal.zkgroup.integrationtests;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
 
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import org.junit.Test;
+import org.signal.libsignal.internal.CompletableFuture;
 import org.signal.libsignal.protocol.ServiceId;
 import org.signal.libsignal.protocol.util.Hex;
 import org.signal.libsignal.zkgroup.SecureRandomTest;
@@ -27,8 +36,11 @@ import org.signal.libsignal.zkgroup.groups.GroupMasterKey;
 import org.signal.libsignal.zkgroup.groups.GroupSecretParams;
 import org.signal.libsignal.zkgroup.groups.UuidCiphertext;
 import org.signal.libsignal.zkgroup.groupsend.GroupSendDerivedKeyPair;
+import org.signal.libsignal.zkgroup.groupsend.GroupSendDerivedKeyPairProvider;
 import org.signal.libsignal.zkgroup.groupsend.GroupSendEndorsement;
+import org.signal.libsignal.zkgroup.groupsend.GroupSendEndorsementIndex;
 import org.signal.libsignal.zkgroup.groupsend.GroupSendEndorsementsResponse;
+import org.signal.libsignal.zkgroup.groupsend.GroupSendEndorsementsResponseCache;
 import org.signal.libsignal.zkgroup.groupsend.GroupSendFullToken;
 
 public final class GroupSendEndorsementTest extends SecureRandomTest {
@@ -231,6 +243,126 @@ public final class GroupSendEndorsementTest extends SecureRandomTest {
     }
   }
 
+  @Test
+  public void testDerivedKeyPairProvider() throws Exception {
+    ServiceId.Aci aliceServiceId = new ServiceId.Aci(UUID.randomUUID());
+    ServiceId.Aci bobServiceId = new ServiceId.Aci(UUID.randomUUID());
+    List<ServiceId> members = Arrays.asList(aliceServiceId, bobServiceId);
+
+    ServerSecretParams serverSecretParams =
+        ServerSecretParams.generate(createSecureRandom(TEST_ARRAY_32));
+    GroupSecretParams groupSecretParams =
+        GroupSecretParams.deriveFromMasterKey(new GroupMasterKey(TEST_ARRAY_32_1));
+    ClientZkGroupCipher cipher = new ClientZkGroupCipher(groupSecretParams);
+    List<UuidCiphertext> groupCiphertexts =
+        members.stream().map(cipher::encrypt).collect(Collectors.toList());
+
+    GroupSendDerivedKeyPairProvider provider =
+        new GroupSendDerivedKeyPairProvider(serverSecretParams);
+    Instant expiration = Instant.now().truncatedTo(ChronoUnit.DAYS).plus(2, ChronoUnit.DAYS);
+    GroupSendDerivedKeyPair keyPair = provider.forExpiration(expiration);
+    assertSame(keyPair, provider.forExpiration(expiration));
+    assertEquals(GroupSendDerivedKeyPair.forExpiration(expiration, serverSecretParams), keyPair);
+    assertNotEquals(keyPair, provider.forExpiration(expiration.plus(1, ChronoUnit.DAYS)));
+
+    GroupSendFullToken bobToken =
+        GroupSendEndorsementsResponse.issue(groupCiphertexts, keyPair)
+            .receive(
+                members, aliceServiceId, groupSecretParams, serverSecretParams.getPublicParams())
+            .combinedEndorsement()
+            .toFullToken(groupSecretParams, expiration);
+
+    provider.verify(bobToken, Arrays.asList(bobServiceId));
+    assertThrows(
+        "wrong user",
+        VerificationFailedException.class,
+        () -> provider.verify(bobToken, Arrays.asList(aliceServiceId)));
+    assertThrows(
+        "expired",
+        VerificationFailedException.class,
+        () ->
+            provider.verify(
+                bobToken, Arrays.asList(bobServiceId), expiration.plus(1, ChronoUnit.SECONDS)));
+  }
+
+  @Test
+  public void testDerivedKeyPairProviderIgnoresUnalignedExpirations() throws Exception {
+    ServerSecretParams serverSecretParams =
+        ServerSecretParams.generate(createSecureRandom(TEST_ARRAY_32));
+    GroupSendDerivedKeyPairProvider provider =
+        new GroupSendDerivedKeyPairProvider(serverSecretParams);
+    Instant expiration = Instant.now().truncatedTo(ChronoUnit.DAYS).plus(2, ChronoUnit.DAYS);
+
+    for (int i = 1; i <= 10; i++) {
+      Instant unaligned = expiration.plus(i, ChronoUnit.SECONDS);
+      assertEquals(
+          GroupSendDerivedKeyPair.forExpiration(unaligned, serverSecretParams),
+          provider.forExpiration(unaligned));
+    }
+    assertEquals(0, provider.getCachedKeyPairCount());
+
+    provider.forExpiration(expiration);
+    assertEquals(1, provider.getCachedKeyPairCount());
+    provider.forExpiration(expiration.plus(1, ChronoUnit.HOURS));
+    assertEquals(1, provider.getCachedKeyPairCount());
+  }
+
+  @Test
+  public void testEndorsementsResponseCache() throws Exception {
+    ServiceId.Aci aliceServiceId = new ServiceId.Aci(UUID.randomUUID());
+    ServiceId.Aci bobServiceId = new ServiceId.Aci(UUID.randomUUID());
+    ServiceId.Aci eveServiceId = new ServiceId.Aci(UUID.randomUUID());
+
+    ServerSecretParams serverSecretParams =
+        ServerSecretParams.generate(createSecureRandom(TEST_ARRAY_32));
+    GroupSecretParams groupSecretParams =
+        GroupSecretParams.deriveFromMasterKey(new GroupMasterKey(TEST_ARRAY_32_1));
+    byte[] groupId = groupSecretParams.getPublicParams().getGroupIdentifier().serialize();
+    ClientZkGroupCipher cipher = new ClientZkGroupCipher(groupSecretParams);
+    UuidCiphertext aliceCiphertext = cipher.encrypt(aliceServiceId);
+    UuidCiphertext bobCiphertext = cipher.encrypt(bobServiceId);
+    UuidCiphertext eveCiphertext = cipher.encrypt(eveServiceId);
+
+    Instant expiration = Instant.now().truncatedTo(ChronoUnit.DAYS).plus(2, ChronoUnit.DAYS);
+    GroupSendDerivedKeyPair keyPair =
+        GroupSendDerivedKeyPair.forExpiration(expiration, serverSecretParams);
+    GroupSendEndorsementsResponseCache cache =
+        new GroupSendEndorsementsResponseCache(16, createSecureRandom(TEST_ARRAY_32_2));
+
+    GroupSendEndorsementsResponse response =
+        cache.issue(groupId, Arrays.asList(aliceCiphertext, bobCiphertext), keyPair);
+    assertSame(
+        response, cache.issue(groupId, Arrays.asList(bobCiphertext, aliceCiphertext), keyPair));
+    response.receive(
+        Arrays.asList(bobCiphertext, aliceCiphertext),
+        bobCiphertext,
+        serverSecretParams.getPublicParams());
+
+    // A membership change requires a new response.
+    GroupSendEndorsementsResponse newResponse =
+        cache.issue(groupId, Arrays.asList(aliceCiphertext, bobCiphertext, eveCiphertext), keyPair);
+    assertNotSame(response, newResponse);
+    newResponse.receive(
+        Arrays.asList(aliceCiphertext, bobCiphertext, eveCiphertext),
+        eveCiphertext,
+        serverSecretParams.getPublicParams());
+
+    // So does a new expiration.
+    GroupSendDerivedKeyPair laterKeyPair =
+        GroupSendDerivedKeyPair.forExpiration(
+            expiration.plus(1, ChronoUnit.DAYS), serverSecretParams);
+    GroupSendEndorsementsResponse laterResponse =
+        cache.issue(
+            groupId, Arrays.asList(aliceCiphertext, bobCiphertext, eveCiphertext), laterKeyPair);
+    assertEquals(expiration.plus(1, ChronoUnit.DAYS), laterResponse.getExpiration());
+
+    cache.invalidate(groupId);
+    assertNotSame(
+        laterResponse,
+        cache.issue(
+            groupId, Arrays.asList(aliceCiphertext, bobCiphertext, eveCiphertext), laterKeyPair));
+  }
+
   @Test
   public void test1000PersonGroup() throws Exception {
     // SERVER
@@ -271,6 +403,100 @@ public final class GroupSendEndorsementTest extends SecureRandomTest {
     response.receive(Arrays.asList(encryptedMembers), encryptedMembers[0], serverPublicParams);
   }
 
+  @Test
+  public void testReceiveOnExecutor() throws Exception {
+    ServerSecretParams serverSecretParams =
+        ServerSecretParams.generate(createSecureRandom(TEST_ARRAY_32));
+    ServerPublicParams serverPublicParams = serverSecretParams.getPublicParams();
+    GroupSecretParams groupSecretParams =
+        GroupSecretParams.deriveFromMasterKey(new GroupMasterKey(TEST_ARRAY_32_1));
+
+    List<ServiceId> members = new ArrayList<>();
+    for (int i = 0; i < 100; ++i) {
+      members.add(new ServiceId.Aci(UUID.randomUUID()));
+    }
+    ServiceId.Aci localUser = (ServiceId.Aci) members.get(0);
+    ClientZkGroupCipher cipher = new ClientZkGroupCipher(groupSecretParams);
+    List<UuidCiphertext> encryptedMembers =
+        members.stream().map(cipher::encrypt).collect(Collectors.toList());
+
+    Instant expiration = Instant.now().truncatedTo(ChronoUnit.DAYS).plus(2, ChronoUnit.DAYS);
+    GroupSendDerivedKeyPair keyPair =
+        GroupSendDerivedKeyPair.forExpiration(expiration, serverSecretParams);
+    GroupSendEndorsementsResponse response =
+        GroupSendEndorsementsResponse.issue(encryptedMembers, keyPair);
+
+    ExecutorService executor = Executors.newFixedThreadPool(2);
+    try {
+      GroupSendEndorsementsResponse.ReceivedEndorsements expected =
+          response.receive(members, localUser, groupSecretParams, serverPublicParams);
+
+      CompletableFuture<GroupSendEndorsementsResponse.ReceivedEndorsements> withServiceIds =
+          response.receive(members, localUser, groupSecretParams, serverPublicParams, executor);
+      CompletableFuture<GroupSendEndorsementsResponse.ReceivedEndorsements> withCiphertexts =
+          response.receive(encryptedMembers, encryptedMembers.get(0), serverPublicParams, executor);
+      assertEquals(expected, withServiceIds.get());
+      assertEquals(expected, withCiphertexts.get());
+
+      CompletableFuture<GroupSendEndorsementsResponse.ReceivedEndorsements> missingMember =
+          response.receive(
+              members.subList(0, 99), localUser, groupSecretParams, serverPublicParams, executor);
+      ExecutionException e = assertThrows(ExecutionException.class, () -> missingMember.get());
+      assertTrue(e.getCause() instanceof VerificationFailedException);
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  @Test
+  public void testEndorsementIndex() throws Exception {
+    ServerSecretParams serverSecretParams =
+        ServerSecretParams.generate(createSecureRandom(TEST_ARRAY_32));
+    GroupSecretParams groupSecretParams =
+        GroupSecretParams.deriveFromMasterKey(new GroupMasterKey(TEST_ARRAY_32_1));
+
+    List<ServiceId> members = new ArrayList<>();
+    for (int i = 0; i < 20; ++i) {
+      members.add(new ServiceId.Aci(UUID.randomUUID()));
+    }
+    ServiceId.Aci localUser = (ServiceId.Aci) members.get(0);
+    ClientZkGroupCipher cipher = new ClientZkGroupCipher(groupSecretParams);
+    Instant expiration = Instant.now().truncatedTo(ChronoUnit.DAYS).plus(2, ChronoUnit.DAYS);
+    GroupSendDerivedKeyPair keyPair =
+        GroupSendDerivedKeyPair.forExpiration(expiration, serverSecretParams);
+    GroupSendEndorsementsResponse.ReceivedEndorsements receivedEndorsements =
+        GroupSendEndorsementsResponse.issue(
+                members.stream().map(cipher::encrypt).collect(Collectors.toList()), keyPair)
+            .receive(members, localUser, groupSecretParams, serverSecretParams.getPublicParams());
+    List<GroupSendEndorsement> endorsements = receivedEndorsements.endorsements();
+
+    GroupSendEndorsementIndex index = new GroupSendEndorsementIndex(members, receivedEndorsements);
+
+    // Everyone but me matches the combined endorsement from the response.
+    assertEquals(receivedEndorsements.combinedEndorsement(), index.combine(members.subList(1, 20)));
+
+    // A few members, most members, and a scattered half of the group.
+    List<List<Integer>> subsets =
+        Arrays.asList(
+            Arrays.asList(3),
+            Arrays.asList(2, 11, 19),
+            Arrays.asList(0, 1, 2, 3, 4, 5, 6, 7, 8, 10, 11, 12, 13, 14, 15, 16, 17, 18),
+            Arrays.asList(0, 2, 4, 6, 8, 10, 12, 14, 16, 18));
+    for (List<Integer> subset : subsets) {
+      List<ServiceId> recipients = subset.stream().map(members::get).collect(Collectors.toList());
+      GroupSendEndorsement expected =
+          GroupSendEndorsement.combine(
+              subset.stream().map(endorsements::get).collect(Collectors.toList()));
+      assertEquals(expected, index.combine(recipients));
+
+      index.toFullToken(recipients, groupSecretParams, expiration).verify(recipients, keyPair);
+    }
+
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> index.combine(Arrays.asList(new ServiceId.Aci(UUID.randomUUID()))));
+  }
+
   @Test
   public void test1PersonGroup() throws Exception {
     // SERVER
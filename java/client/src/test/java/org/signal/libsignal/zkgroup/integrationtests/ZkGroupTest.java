@@ -7,6 +7,7 @@ package org.signal.libsignal.zkgroup.integrationtests;
 
 import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
 
 import java.io.UnsupportedEncodingException;
 import java.time.Instant;
@@ -23,6 +24,7 @@ import org.signal.libsignal.zkgroup.NotarySignature;
 import org.signal.libsignal.zkgroup.SecureRandomTest;
 import org.signal.libsignal.zkgroup.ServerPublicParams;
 import org.signal.libsignal.zkgroup.ServerSecretParams;
+import org.signal.libsignal.zkgroup.ServerZkPresentationVerifier;
 import org.signal.libsignal.zkgroup.VerificationFailedException;
 import org.signal.libsignal.zkgroup.auth.AuthCredentialPresentation;
 import org.signal.libsignal.zkgroup.auth.AuthCredentialWithPni;
@@ -539,6 +541,82 @@ public final class ZkGroupTest extends SecureRandomTest {
     }
   }
 
+  @Test
+  public void testPresentationVerifierCachesGroupParams()
+      throws VerificationFailedException, InvalidInputException {
+    Aci aci = new Aci(TEST_UUID);
+    Pni pni = new Pni(TEST_UUID_1);
+    Instant redemptionInstant = Instant.now().truncatedTo(ChronoUnit.DAYS);
+
+    ServerSecretParams serverSecretParams =
+        ServerSecretParams.generate(createSecureRandom(TEST_ARRAY_32));
+    ServerZkAuthOperations serverZkAuth = new ServerZkAuthOperations(serverSecretParams);
+    ServerZkPresentationVerifier verifier = new ServerZkPresentationVerifier(serverSecretParams, 2);
+
+    GroupSecretParams groupSecretParams =
+        GroupSecretParams.deriveFromMasterKey(new GroupMasterKey(TEST_ARRAY_32_1));
+    byte[] serializedGroupPublicParams = groupSecretParams.getPublicParams().serialize();
+
+    ClientZkAuthOperations clientZkAuthCipher =
+        new ClientZkAuthOperations(serverSecretParams.getPublicParams());
+    AuthCredentialWithPni authCredential =
+        clientZkAuthCipher.receiveAuthCredentialWithPniAsServiceId(
+            aci,
+            pni,
+            redemptionInstant.getEpochSecond(),
+            serverZkAuth.issueAuthCredentialWithPniZkc(
+                createSecureRandom(TEST_ARRAY_32_2), aci, pni, redemptionInstant));
+    AuthCredentialPresentation presentation =
+        clientZkAuthCipher.createAuthCredentialPresentation(
+            createSecureRandom(TEST_ARRAY_32_5), groupSecretParams, authCredential);
+
+    verifier.verifyAuthCredentialPresentation(serializedGroupPublicParams, presentation);
+    verifier.verifyAuthCredentialPresentation(serializedGroupPublicParams, presentation);
+    assertEquals(1, verifier.getCachedGroupCount());
+    assertSame(
+        verifier.getGroupPublicParams(serializedGroupPublicParams),
+        verifier.getGroupPublicParams(serializedGroupPublicParams.clone()));
+
+    try {
+      verifier.verifyAuthCredentialPresentation(
+          serializedGroupPublicParams,
+          presentation,
+          redemptionInstant.plus(2, ChronoUnit.DAYS).plus(1, ChronoUnit.SECONDS));
+      throw new AssertionError("verifyAuthCredentialPresentation should fail");
+    } catch (VerificationFailedException e) {
+      // good
+    }
+
+    // Presentations for one group don't verify against another group's params.
+    byte[] otherGroupPublicParams =
+        GroupSecretParams.generate(createSecureRandom(TEST_ARRAY_32_3))
+            .getPublicParams()
+            .serialize();
+    try {
+      verifier.verifyAuthCredentialPresentation(otherGroupPublicParams, presentation);
+      throw new AssertionError("verifyAuthCredentialPresentation should fail for another group");
+    } catch (VerificationFailedException e) {
+      // good
+    }
+
+    // The cache is bounded.
+    verifier.getGroupPublicParams(
+        GroupSecretParams.generate(createSecureRandom(TEST_ARRAY_32_4))
+            .getPublicParams()
+            .serialize());
+    assertEquals(2, verifier.getCachedGroupCount());
+
+    byte[] invalidGroupPublicParams = new byte[serializedGroupPublicParams.length];
+    Arrays.fill(invalidGroupPublicParams, (byte) -127);
+    try {
+      verifier.verifyAuthCredentialPresentation(invalidGroupPublicParams, presentation);
+      throw new AssertionError("invalid group params should be rejected");
+    } catch (InvalidInputException e) {
+      // good
+    }
+    assertEquals(2, verifier.getCachedGroupCount());
+  }
+
   @Test
   public void testGroupIdentifier() throws VerificationFailedException {
     GroupSecretParams groupSecretParams =
@@ -0,0 +1,38 @@
+//
+// Copyright 2026 Signal Messenger, LLC.
+// SPDX-License-Identifier: AGPL-3.0-only
+//
+
+package org.signal.libsignal.internal;
+
+/**
+ * Bridges libsignal's {@link CompletableFuture} to {@link java.util.concurrent.CompletableFuture}.
+ *
+ * <p>This lives in the server library because {@code java.util.concurrent.CompletableFuture} is
+ * only available on Android from API level 24, and the shared sources support API level 21.
+ */
+public final class JavaFutures {
+  private JavaFutures() {}
+
+  /**
+   * Returns a {@link java.util.concurrent.CompletableFuture} that completes the same way as {@code
+   * future}.
+   *
+   * <p>The result is completed by whichever thread completes {@code future}, without going through
+   * an executor. Cancelling the result does not affect {@code future}.
+   */
+  public static <T> java.util.concurrent.CompletableFuture<T> toJavaFuture(
+      CompletableFuture<T> future) {
+    java.util.concurrent.CompletableFuture<T> javaFuture =
+        new java.util.concurrent.CompletableFuture<>();
+    future.whenComplete(
+        (value, throwable) -> {
+          if (throwable != null) {
+            javaFuture.completeExceptionally(throwable);
+          } else {
+            javaFuture.complete(value);
+          }
+        });
+    return javaFuture;
+  }
+}
@@ -5,11 +5,17 @@
 
 package org.signal.libsignal.protocol;
 
+import java.io.IOException;
+import java.nio.BufferOverflowException;
+import java.nio.BufferUnderflowException;
 import java.nio.ByteBuffer;
+import java.nio.channels.GatheringByteChannel;
+import java.nio.channels.WritableByteChannel;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.UUID;
 import java.util.stream.IntStream;
 import java.util.stream.Stream;
 import org.signal.libsignal.internal.Native;
@@ -113,6 +119,156 @@ public class SealedSenderMultiRecipientMessage {
         Native.SealedSender_MultiRecipientParseSentMessage(input);
   }
 
+  /**
+   * Receives the recipients of an SSv2 SentMessage one at a time.
+   *
+   * @see #forEachRecipient
+   */
+  public interface RecipientVisitor {
+    /**
+     * Called for each recipient entry that lists at least one device.
+     *
+     * <p>To avoid allocating per recipient, {@code devices} and {@code registrationIds} are reused
+     * between calls. Only the first {@code deviceCount} elements are meaningful, and only until
+     * this method returns.
+     *
+     * @param offsetOfRecipientSpecificKeyMaterial the offset of this recipient's key material,
+     *     relative to the start of the message
+     */
+    void visitRecipient(
+        ServiceId serviceId,
+        byte[] devices,
+        short[] registrationIds,
+        int deviceCount,
+        int offsetOfRecipientSpecificKeyMaterial);
+
+    /**
+     * Called for each recipient that was explicitly excluded from the message.
+     *
+     * <p>The default implementation does nothing.
+     */
+    default void visitExcludedRecipient(ServiceId serviceId) {}
+  }
+
+  /**
+   * Parses the input as an SSv2 SentMessage, passing each recipient to {@code visitor} as it is
+   * read instead of collecting them into a map.
+   *
+   * <p>This is meant for code that only needs a single pass over the recipients of very large
+   * messages. Unlike {@link #parse}:
+   *
+   * <ul>
+   *   <li>A recipient whose devices are split across several entries is visited once per entry.
+   *   <li>Recipients that are listed both as excluded and with devices, or are excluded more than
+   *       once, are not rejected. Callers that care must check this themselves.
+   *   <li>Recipients are visited before the rest of the message has been checked. If this method
+   *       throws, the recipients already visited must be discarded.
+   * </ul>
+   *
+   * <p>{@code input} is read from its current position to its limit and is not modified. All
+   * offsets are relative to its position, so they line up with {@link #serialized()} when the
+   * buffer wraps the whole message.
+   *
+   * @return the offset of the data shared by all recipients, for use with the offsets passed to
+   *     {@link RecipientVisitor#visitRecipient}
+   * @throws InvalidVersionException if the version of the sealed sender message is unrecognized
+   * @throws InvalidMessageException if the message is malformed
+   */
+  public static int forEachRecipient(ByteBuffer input, RecipientVisitor visitor)
+      throws InvalidMessageException, InvalidVersionException {
+    final ByteBuffer buffer = input.duplicate();
+    final int start = buffer.position();
+    if (!buffer.hasRemaining()) {
+      throw new InvalidMessageException("Message was empty");
+    }
+
+    final byte version = buffer.get();
+    if (version != SENT_MESSAGE_VERSION_UUID && version != SENT_MESSAGE_VERSION_SERVICE_ID) {
+      throw new InvalidVersionException("Unknown sealed sender version " + version);
+    }
+
+    try {
+      final long recipientCount = readVarint32(buffer);
+      byte[] devices = new byte[8];
+      short[] registrationIds = new short[8];
+      final byte[] serviceIdBytes = new byte[SERVICE_ID_FIXED_WIDTH_LENGTH];
+
+      for (long i = 0; i < recipientCount; i++) {
+        final ServiceId serviceId;
+        if (version == SENT_MESSAGE_VERSION_UUID) {
+          // The original version of SSv2 assumed ACIs here, and only encoded the raw UUID.
+          serviceId = new ServiceId.Aci(new UUID(buffer.getLong(), buffer.getLong()));
+        } else {
+          buffer.get(serviceIdBytes);
+          serviceId = ServiceId.parseFromFixedWidthBinary(serviceIdBytes.clone());
+        }
+
+        int deviceCount = 0;
+        while (true) {
+          final int deviceId = buffer.get() & 0xFF;
+          if (deviceId == 0) {
+            if (deviceCount != 0) {
+              throw new InvalidMessageException("device ID 0 in a list of devices");
+            }
+            break;
+          }
+          if (deviceId > MAX_VALID_DEVICE_ID) {
+            throw new InvalidMessageException("invalid device ID");
+          }
+          final int registrationIdAndHasMore = buffer.getShort() & 0xFFFF;
+          if (deviceCount == devices.length) {
+            devices = Arrays.copyOf(devices, deviceCount * 2);
+            registrationIds = Arrays.copyOf(registrationIds, deviceCount * 2);
+          }
+          devices[deviceCount] = (byte) deviceId;
+          registrationIds[deviceCount] = (short) (registrationIdAndHasMore & 0x3FFF);
+          deviceCount++;
+          if ((registrationIdAndHasMore & 0x8000) == 0) {
+            break;
+          }
+        }
+
+        if (deviceCount == 0) {
+          visitor.visitExcludedRecipient(serviceId);
+          continue;
+        }
+
+        final int offsetOfKeyMaterial = buffer.position() - start;
+        if (buffer.remaining() < RECIPIENT_KEY_MATERIAL_LENGTH) {
+          throw new InvalidMessageException("truncated key material");
+        }
+        buffer.position(buffer.position() + RECIPIENT_KEY_MATERIAL_LENGTH);
+        visitor.visitRecipient(
+            serviceId, devices, registrationIds, deviceCount, offsetOfKeyMaterial);
+      }
+    } catch (BufferUnderflowException e) {
+      throw new InvalidMessageException("truncated message");
+    } catch (ServiceId.InvalidServiceIdException e) {
+      throw new InvalidMessageException("invalid service ID");
+    }
+
+    if (buffer.remaining() < SHARED_PUBLIC_KEY_LENGTH) {
+      throw new InvalidMessageException("truncated message");
+    }
+    return buffer.position() - start;
+  }
+
+  /** Reads a protobuf-style varint that must fit in an unsigned 32-bit integer. */
+  private static long readVarint32(ByteBuffer buffer) throws InvalidMessageException {
+    long result = 0;
+    for (int shift = 0; shift < 64; shift += 7) {
+      final byte next = buffer.get();
+      result |= (long) (next & 0x7F) << shift;
+      if ((next & 0x80) == 0) {
+        if (result > 0xFFFFFFFFL || result < 0) {
+          throw new InvalidMessageException("recipient count too large");
+        }
+        return result;
+      }
+    }
+    throw new InvalidMessageException("invalid varint");
+  }
+
   private SealedSenderMultiRecipientMessage(
       byte[] fullMessageData,
       Map<ServiceId, Recipient> recipients,
@@ -167,15 +323,90 @@ public class SealedSenderMultiRecipientMessage {
    * <p>The same payload should be sent to all of the recipient's devices.
    */
   public byte[] messageForRecipient(Recipient recipient) {
-    final int lengthOfSharedData = fullMessageData.length - offsetOfSharedData;
     final ByteBuffer bbuf = ByteBuffer.allocate(messageSizeForRecipient(recipient));
-    bbuf.put((byte) 0x22); // The "original" Sealed Sender V2 version
-    bbuf.put(
+    writeMessageForRecipient(recipient, bbuf);
+    return bbuf.array();
+  }
+
+  /**
+   * Returns the Sealed Sender V2 "ReceivedMessage" payload for a particular recipient as a sequence
+   * of read-only buffers, without copying any message data.
+   *
+   * <p>Concatenating the remaining bytes of the returned buffers produces the same bytes as {@link
+   * #messageForRecipient(Recipient)}. The buffers are views onto {@link #serialized()}; the last
+   * one is the payload shared by all recipients. Each call returns fresh buffer objects, so callers
+   * may consume them independently (for example with {@link
+   * GatheringByteChannel#write(ByteBuffer[])}).
+   */
+  public ByteBuffer[] messageBuffersForRecipient(Recipient recipient) {
+    return new ByteBuffer[] {
+      ByteBuffer.wrap(RECIPIENT_MESSAGE_VERSION).asReadOnlyBuffer(),
+      ByteBuffer.wrap(
+              fullMessageData,
+              recipient.offsetOfRecipientSpecificKeyMaterial,
+              recipient.lengthOfRecipientSpecificKeyMaterial)
+          .slice()
+          .asReadOnlyBuffer(),
+      ByteBuffer.wrap(
+              fullMessageData, offsetOfSharedData, fullMessageData.length - offsetOfSharedData)
+          .slice()
+          .asReadOnlyBuffer(),
+    };
+  }
+
+  /**
+   * Writes the Sealed Sender V2 "ReceivedMessage" payload for a particular recipient into {@code
+   * destination}, starting at its current position.
+   *
+   * <p>On return the position of {@code destination} has advanced past the payload.
+   *
+   * @return the number of bytes written, which is always {@link #messageSizeForRecipient}
+   * @throws BufferOverflowException if {@code destination} does not have enough space
+   *     remaining; in this case nothing is written
+   */
+  public int writeMessageForRecipient(Recipient recipient, ByteBuffer destination) {
+    final int lengthOfSharedData = fullMessageData.length - offsetOfSharedData;
+    final int size = messageSizeForRecipient(recipient);
+    if (destination.remaining() < size) {
+      throw new BufferOverflowException();
+    }
+    destination.put(RECIPIENT_MESSAGE_VERSION);
+    destination.put(
         fullMessageData,
         recipient.offsetOfRecipientSpecificKeyMaterial,
         recipient.lengthOfRecipientSpecificKeyMaterial);
-    bbuf.put(fullMessageData, offsetOfSharedData, lengthOfSharedData);
-    return bbuf.array();
+    destination.put(fullMessageData, offsetOfSharedData, lengthOfSharedData);
+    return size;
+  }
+
+  /**
+   * Writes the Sealed Sender V2 "ReceivedMessage" payload for a particular recipient to {@code
+   * channel}, without copying the message into an intermediate buffer.
+   *
+   * <p>If {@code channel} is a {@link GatheringByteChannel}, the pieces of the payload are written
+   * with gathering writes. This method blocks until the whole payload has been written, so it
+   * should not be used with non-blocking channels.
+   *
+   * @return the number of bytes written, which is always {@link #messageSizeForRecipient}
+   */
+  public long writeMessageForRecipient(Recipient recipient, WritableByteChannel channel)
+      throws IOException {
+    final ByteBuffer[] buffers = messageBuffersForRecipient(recipient);
+    final int size = messageSizeForRecipient(recipient);
+    long written = 0;
+    if (channel instanceof GatheringByteChannel) {
+      final GatheringByteChannel gatheringChannel = (GatheringByteChannel) channel;
+      while (written < size) {
+        written += gatheringChannel.write(buffers);
+      }
+    } else {
+      for (ByteBuffer buffer : buffers) {
+        while (buffer.hasRemaining()) {
+          written += channel.write(buffer);
+        }
+      }
+    }
+    return written;
   }
 
   /**
@@ -189,6 +420,17 @@ public class SealedSenderMultiRecipientMessage {
         + lengthOfSharedData;
   }
 
+  // The "original" Sealed Sender V2 version, used for all per-recipient payloads.
+  private static final byte[] RECIPIENT_MESSAGE_VERSION = {0x22};
+
+  // These must be kept in sync with the SSv2 format as parsed on the Rust side.
+  private static final byte SENT_MESSAGE_VERSION_UUID = 0x22;
+  private static final byte SENT_MESSAGE_VERSION_SERVICE_ID = 0x23;
+  private static final int SERVICE_ID_FIXED_WIDTH_LENGTH = 17;
+  private static final int MAX_VALID_DEVICE_ID = 127;
+  private static final int RECIPIENT_KEY_MATERIAL_LENGTH = 32 + 16; // C_i and AT_i
+  private static final int SHARED_PUBLIC_KEY_LENGTH = 32; // e_pub
+
   private static final byte SERIALIZED_RECIPIENT_VIEW_VERSION = 0x01;
   private static final byte[] ZERO_DEVICE_IDS = new byte[0];
   private static final short[] ZERO_REGISTRATION_IDS = new short[0];
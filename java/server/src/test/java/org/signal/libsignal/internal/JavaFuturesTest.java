@@ -0,0 +1,37 @@
+//
+// Copyright 2026 Signal Messenger, LLC.
+// SPDX-License-Identifier: AGPL-3.0-only
+//
+
+package org.signal.libsignal.internal;
+
+import static org.junit.Assert.*;
+
+import java.util.concurrent.ExecutionException;
+import org.junit.Test;
+
+public class JavaFuturesTest {
+  @Test
+  public void testToJavaFuture() throws Exception {
+    var future = new CompletableFuture<Integer>();
+    var javaFuture = JavaFutures.toJavaFuture(future);
+    assertFalse(javaFuture.isDone());
+
+    future.complete(42);
+    assertTrue(javaFuture.isDone());
+    assertEquals(42, javaFuture.get().intValue());
+
+    assertEquals(42, JavaFutures.toJavaFuture(future).get().intValue());
+  }
+
+  @Test
+  public void testToJavaFutureFailure() throws Exception {
+    var future = new CompletableFuture<Integer>();
+    var javaFuture = JavaFutures.toJavaFuture(future);
+    var exception = new RuntimeException("oh no");
+    future.completeExceptionally(exception);
+
+    ExecutionException e = assertThrows(ExecutionException.class, () -> javaFuture.get());
+    assertEquals(exception, e.getCause());
+  }
+}
@@ -9,10 +9,19 @@ import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
 
 import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.BufferOverflowException;
 import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.GatheringByteChannel;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import org.junit.Test;
 import org.signal.libsignal.protocol.util.Hex;
 import org.signal.libsignal.protocol.util.Pair;
@@ -54,6 +63,137 @@ public class SealedSenderMultiRecipientMessageTest {
     } catch (final Exception e) {
       throw new AssertionError("Should not have thrown", e);
     }
+
+    final ByteArrayOutputStream gathered = new ByteArrayOutputStream();
+    for (ByteBuffer buffer : message.messageBuffersForRecipient(recipient)) {
+      assertTrue(buffer.isReadOnly());
+      while (buffer.hasRemaining()) {
+        gathered.write(buffer.get());
+      }
+    }
+    assertArrayEquals(expectedContents, gathered.toByteArray());
+
+    final ByteBuffer destination = ByteBuffer.allocate(expectedContents.length + 2);
+    destination.put((byte) 0x55);
+    assertEquals(expectedContents.length, message.writeMessageForRecipient(recipient, destination));
+    assertEquals(1 + expectedContents.length, destination.position());
+    assertArrayEquals(
+        expectedContents, Arrays.copyOfRange(destination.array(), 1, 1 + expectedContents.length));
+    assertThrows(
+        BufferOverflowException.class,
+        () -> message.writeMessageForRecipient(recipient, destination));
+    assertEquals(1 + expectedContents.length, destination.position());
+
+    try {
+      final ByteArrayOutputStream written = new ByteArrayOutputStream();
+      assertEquals(
+          expectedContents.length,
+          message.writeMessageForRecipient(recipient, Channels.newChannel(written)));
+      assertArrayEquals(expectedContents, written.toByteArray());
+
+      final TrickleGatheringChannel gatheringChannel = new TrickleGatheringChannel();
+      assertEquals(
+          expectedContents.length, message.writeMessageForRecipient(recipient, gatheringChannel));
+      assertArrayEquals(expectedContents, gatheringChannel.output.toByteArray());
+    } catch (final IOException e) {
+      throw new AssertionError("Should not have thrown", e);
+    }
+  }
+
+  /**
+   * Checks that {@link SealedSenderMultiRecipientMessage#forEachRecipient} sees the same recipients
+   * as {@link SealedSenderMultiRecipientMessage#parse}, even when the message doesn't start at the
+   * beginning of a direct buffer.
+   */
+  private void assertStreamingParseMatches(final byte[] input) throws Exception {
+    final SealedSenderMultiRecipientMessage message =
+        SealedSenderMultiRecipientMessage.parse(input);
+
+    final ByteBuffer buffer = ByteBuffer.allocateDirect(input.length + 3);
+    buffer.put(new byte[] {1, 2, 3}).put(input).position(3);
+
+    final Map<ServiceId, List<Pair<Byte, Short>>> devices = new LinkedHashMap<>();
+    final Map<ServiceId, Integer> keyMaterialOffsets = new LinkedHashMap<>();
+    final List<ServiceId> excluded = new ArrayList<>();
+    final int offsetOfSharedData =
+        SealedSenderMultiRecipientMessage.forEachRecipient(
+            buffer,
+            new SealedSenderMultiRecipientMessage.RecipientVisitor() {
+              @Override
+              public void visitRecipient(
+                  ServiceId serviceId,
+                  byte[] deviceIds,
+                  short[] registrationIds,
+                  int deviceCount,
+                  int offsetOfRecipientSpecificKeyMaterial) {
+                final List<Pair<Byte, Short>> entries =
+                    devices.computeIfAbsent(serviceId, k -> new ArrayList<>());
+                for (int i = 0; i < deviceCount; i++) {
+                  entries.add(new Pair<>(deviceIds[i], registrationIds[i]));
+                }
+                keyMaterialOffsets.putIfAbsent(serviceId, offsetOfRecipientSpecificKeyMaterial);
+              }
+
+              @Override
+              public void visitExcludedRecipient(ServiceId serviceId) {
+                excluded.add(serviceId);
+              }
+            });
+    assertEquals(3, buffer.position());
+
+    assertEquals(message.getExcludedRecipients(), excluded);
+    assertEquals(
+        new ArrayList<>(message.getRecipients().keySet()), new ArrayList<>(devices.keySet()));
+    for (Map.Entry<ServiceId, SealedSenderMultiRecipientMessage.Recipient> entry :
+        message.getRecipients().entrySet()) {
+      assertArrayEquals(
+          entry.getValue().getDevicesAndRegistrationIds().toArray(),
+          devices.get(entry.getKey()).toArray());
+
+      final int keyMaterialOffset = keyMaterialOffsets.get(entry.getKey());
+      final ByteArrayOutputStream expected = new ByteArrayOutputStream();
+      expected.write(0x22);
+      expected.write(input, keyMaterialOffset, 48);
+      expected.write(input, offsetOfSharedData, input.length - offsetOfSharedData);
+      assertArrayEquals(expected.toByteArray(), message.messageForRecipient(entry.getValue()));
+    }
+  }
+
+  /** A gathering channel that accepts only a few bytes per write, to exercise partial writes. */
+  private static class TrickleGatheringChannel implements GatheringByteChannel {
+    final ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+    @Override
+    public long write(ByteBuffer[] srcs, int offset, int length) {
+      int budget = 7;
+      long written = 0;
+      for (int i = offset; i < offset + length && budget > 0; i++) {
+        while (srcs[i].hasRemaining() && budget > 0) {
+          output.write(srcs[i].get());
+          budget--;
+          written++;
+        }
+      }
+      return written;
+    }
+
+    @Override
+    public long write(ByteBuffer[] srcs) {
+      return write(srcs, 0, srcs.length);
+    }
+
+    @Override
+    public int write(ByteBuffer src) {
+      return (int) write(new ByteBuffer[] {src});
+    }
+
+    @Override
+    public boolean isOpen() {
+      return true;
+    }
+
+    @Override
+    public void close() {}
   }
 
   @Test
@@ -78,6 +218,7 @@ public class SealedSenderMultiRecipientMessageTest {
             // Shared data
             SHARED_BYTES);
 
+    assertStreamingParseMatches(input);
     SealedSenderMultiRecipientMessage message = SealedSenderMultiRecipientMessage.parse(input);
     assertEquals(message.getRecipients().size(), 2);
 
@@ -393,6 +534,7 @@ public class SealedSenderMultiRecipientMessageTest {
             // Shared data
             SHARED_BYTES);
 
+    assertStreamingParseMatches(input);
     SealedSenderMultiRecipientMessage message = SealedSenderMultiRecipientMessage.parse(input);
     assertEquals(message.getRecipients().size(), 2);
 
@@ -456,6 +598,7 @@ public class SealedSenderMultiRecipientMessageTest {
             // Shared data
             SHARED_BYTES);
 
+    assertStreamingParseMatches(input);
     SealedSenderMultiRecipientMessage message = SealedSenderMultiRecipientMessage.parse(input);
     assertEquals(message.getRecipients().size(), 2);
 
@@ -603,6 +746,55 @@ public class SealedSenderMultiRecipientMessageTest {
         () -> SealedSenderMultiRecipientMessage.parse(new byte[] {0x77}));
   }
 
+  @Test
+  public void streamingParseRejectsMalformedMessages() throws Exception {
+    final SealedSenderMultiRecipientMessage.RecipientVisitor ignore =
+        (serviceId, devices, registrationIds, deviceCount, offset) -> {};
+
+    assertThrows(
+        InvalidMessageException.class,
+        () -> SealedSenderMultiRecipientMessage.forEachRecipient(ByteBuffer.allocate(0), ignore));
+    assertThrows(
+        InvalidVersionException.class,
+        () ->
+            SealedSenderMultiRecipientMessage.forEachRecipient(
+                ByteBuffer.wrap(new byte[] {0x2F}), ignore));
+
+    final byte[] deviceIdZeroInList =
+        Hex.fromStringsCondensedAssert(
+            VERSION_SERVICE_ID_AWARE,
+            "01",
+            ACI_MARKER,
+            ALICE_UUID_BYTES,
+            "0191aa",
+            "00",
+            ALICE_KEY_MATERIAL,
+            SHARED_BYTES);
+    assertThrows(
+        InvalidMessageException.class,
+        () ->
+            SealedSenderMultiRecipientMessage.forEachRecipient(
+                ByteBuffer.wrap(deviceIdZeroInList), ignore));
+
+    final byte[] full =
+        Hex.fromStringsCondensedAssert(
+            VERSION_SERVICE_ID_AWARE,
+            "01",
+            ACI_MARKER,
+            ALICE_UUID_BYTES,
+            "0111aa",
+            ALICE_KEY_MATERIAL,
+            SHARED_BYTES);
+    SealedSenderMultiRecipientMessage.forEachRecipient(ByteBuffer.wrap(full), ignore);
+    for (int truncatedLength : new int[] {1, 10, 20, 40, full.length - SHARED_BYTES.length() / 2}) {
+      assertThrows(
+          InvalidMessageException.class,
+          () ->
+              SealedSenderMultiRecipientMessage.forEachRecipient(
+                  ByteBuffer.wrap(full, 0, truncatedLength), ignore));
+    }
+  }
+
   @Test
   public void wayTooManyRecipients() throws Exception {
     var count = 25000;
@@ -622,6 +814,7 @@ public class SealedSenderMultiRecipientMessageTest {
     }
     input.write(zeros);
 
+    assertStreamingParseMatches(input.toByteArray());
     var message = SealedSenderMultiRecipientMessage.parse(input.toByteArray());
     assertEquals(message.getRecipients().size(), count);
   }
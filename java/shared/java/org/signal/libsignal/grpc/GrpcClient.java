@@ -8,12 +8,14 @@ package org.signal.libsignal.grpc;
 import java.util.List;
 import java.util.Map;
 import org.signal.libsignal.internal.Native;
+import org.signal.libsignal.internal.NativeCleaner;
 import org.signal.libsignal.internal.NativeHandleGuard;
 
-public class GrpcClient implements NativeHandleGuard.Owner {
+public class GrpcClient implements NativeHandleGuard.Owner, AutoCloseable {
   private static final String DEFAULT_TARGET = "https://grpcproxy.gluonhq.net:443";
 
-  private final long unsafeHandle;
+  private long unsafeHandle;
+  private final NativeCleaner.Cleanable cleanable;
 
   public GrpcClient() throws Exception {
     this(DEFAULT_TARGET);
@@ -21,12 +23,7 @@ public class GrpcClient implements NativeHandleGuard.Owner {
 
   public GrpcClient(String target) throws Exception {
     this.unsafeHandle = Native.GrpcClient_New(target);
-  }
-
-  @Override
-  @SuppressWarnings("deprecation")
-  protected void finalize() {
-    Native.GrpcClient_Destroy(this.unsafeHandle);
+    this.cleanable = NativeCleaner.register(this, this.unsafeHandle, Native::GrpcClient_Destroy);
   }
 
   public long unsafeNativeHandleWithoutGuard() {
@@ -48,4 +45,10 @@ public class GrpcClient implements NativeHandleGuard.Owner {
       String method, String urlFragment, byte[] body, Map<String, List<String>> headers) throws Exception {
     Native.GrpcClient_SendMessageOnStream(this.unsafeHandle, method, urlFragment, body, headers);
   }
+
+  @Override
+  public void close() {
+    this.unsafeHandle = 0;
+    cleanable.clean();
+  }
 }
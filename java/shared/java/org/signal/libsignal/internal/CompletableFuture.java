@@ -6,105 +6,148 @@
 package org.signal.libsignal.internal;
 
 import java.util.ArrayList;
-import java.util.List;
 import java.util.concurrent.CancellationException;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+import java.util.concurrent.locks.LockSupport;
 import java.util.function.BiConsumer;
 import java.util.function.Consumer;
 import java.util.function.Function;
 
-/** A stripped-down, Android-21-compatible version of java.util.concurrent.CompletableFuture. */
+/**
+ * A stripped-down, Android-21-compatible version of java.util.concurrent.CompletableFuture.
+ *
+ * <p>This class takes no locks. Until the future completes, its state is a stack of pending
+ * completers; completing swaps the stack for the outcome with a single compare-and-set, and then
+ * runs the completers on the completing thread in the order they were added. Blocked {@link #get}
+ * calls wait by parking rather than on a monitor.
+ */
 public class CompletableFuture<T> implements Future<T> {
-  private boolean completed;
-  private T result;
-  private Throwable exception;
-  private List<ThenApplyCompleter<T>> consumers;
+  @SuppressWarnings("rawtypes")
+  private static final AtomicReferenceFieldUpdater<CompletableFuture, Object> STATE =
+      AtomicReferenceFieldUpdater.newUpdater(CompletableFuture.class, Object.class, "state");
+
+  /**
+   * Either an {@link Outcome} once the future has completed, or otherwise the most recently added
+   * {@link Completer} (or {@code null} if there are none).
+   */
+  private volatile Object state;
 
   @CalledFromNative
-  public CompletableFuture() {
-    this.consumers = new ArrayList<>();
-  }
+  public CompletableFuture() {}
 
   @Override
-  public synchronized boolean cancel(boolean mayInterruptIfRunning) {
+  public boolean cancel(boolean mayInterruptIfRunning) {
     // We do not currently support cancellation.
     return false;
   }
 
   @Override
-  public synchronized boolean isCancelled() {
+  public boolean isCancelled() {
     return false;
   }
 
   @Override
-  public synchronized boolean isDone() {
-    return completed;
+  public boolean isDone() {
+    return state instanceof Outcome;
   }
 
   @CalledFromNative
-  public synchronized boolean complete(T result) {
-    if (completed) return false;
-
-    this.result = result;
-    this.completed = true;
-
-    notifyAll();
-
-    for (ThenApplyCompleter<T> completer : this.consumers) {
-      completer.complete.accept(result);
-    }
-
-    return true;
+  public boolean complete(T result) {
+    return completeWith(new Outcome(result, null));
   }
 
   @CalledFromNative
-  public synchronized boolean completeExceptionally(Throwable throwable) {
-    if (completed) return false;
-
+  public boolean completeExceptionally(Throwable throwable) {
     if (throwable == null) {
       throwable = new AssertionError("Future failed, but no exception provided");
     }
+    return completeWith(new Outcome(null, throwable));
+  }
 
-    this.exception = throwable;
-    this.completed = true;
-
-    notifyAll();
-
-    for (ThenApplyCompleter<T> completer : this.consumers) {
-      completer.completeExceptionally.accept(throwable);
+  private boolean completeWith(Outcome outcome) {
+    Object current;
+    do {
+      current = state;
+      if (current instanceof Outcome) {
+        return false;
+      }
+    } while (!STATE.compareAndSet(this, current, outcome));
+
+    // The stack is now detached from the future, but a waiter that is giving up may still be
+    // unlinking itself from it, so the links are only read here, never rewritten. Collect the
+    // completers so they run in the order they were added.
+    @SuppressWarnings("unchecked")
+    Completer<T> head = (Completer<T>) current;
+    if (head == null) {
+      return true;
+    }
+    if (head.next == null) {
+      head.run(outcome);
+      return true;
+    }
+    ArrayList<Completer<T>> pending = new ArrayList<>();
+    for (Completer<T> node = head; node != null; node = node.next) {
+      pending.add(node);
+    }
+    for (int i = pending.size() - 1; i >= 0; i--) {
+      pending.get(i).run(outcome);
     }
-
     return true;
   }
 
   @Override
-  public synchronized T get()
-      throws CancellationException, ExecutionException, InterruptedException {
-    while (!completed) wait();
-
-    if (exception != null) throw new ExecutionException(exception);
-
-    return result;
+  public T get() throws CancellationException, ExecutionException, InterruptedException {
+    Outcome outcome = awaitOutcome(false, 0);
+    return outcome.get();
   }
 
   @Override
-  public synchronized T get(long timeout, TimeUnit unit)
+  public T get(long timeout, TimeUnit unit)
       throws CancellationException, ExecutionException, InterruptedException, TimeoutException {
-    long deadlineMillis = System.currentTimeMillis() + unit.toMillis(timeout);
-
-    while (!completed) {
-      long remainingMillis = deadlineMillis - System.currentTimeMillis();
-      if (remainingMillis <= 0) {
-        throw new TimeoutException();
-      }
+    Outcome outcome = awaitOutcome(true, unit.toNanos(timeout));
+    if (outcome == null) {
+      throw new TimeoutException();
+    }
+    return outcome.get();
+  }
 
-      wait(remainingMillis);
+  /** Returns the outcome once the future is complete, or {@code null} if the timeout elapses. */
+  private Outcome awaitOutcome(boolean timed, long timeoutNanos) throws InterruptedException {
+    Object current = state;
+    if (current instanceof Outcome) {
+      return (Outcome) current;
     }
+    if (timed && timeoutNanos <= 0) {
+      return null;
+    }
+
+    // If we give up early, we clear the waiter's thread and unlink it from the stack, so that
+    // repeated timed gets on a long-lived future don't pile up.
+    Waiter<T> waiter = new Waiter<>(Thread.currentThread());
+    addCompleter(waiter);
 
-    return get();
+    long deadlineNanos = timed ? System.nanoTime() + timeoutNanos : 0;
+    while (!((current = state) instanceof Outcome)) {
+      if (Thread.interrupted()) {
+        removeWaiter(waiter);
+        throw new InterruptedException();
+      }
+      if (timed) {
+        long remainingNanos = deadlineNanos - System.nanoTime();
+        if (remainingNanos <= 0) {
+          removeWaiter(waiter);
+          return null;
+        }
+        LockSupport.parkNanos(this, remainingNanos);
+      } else {
+        LockSupport.park(this);
+      }
+    }
+    return (Outcome) current;
   }
 
   /**
@@ -202,29 +245,88 @@ public class CompletableFuture<T> implements Future<T> {
     return future;
   }
 
-  private void addCompleter(ThenApplyCompleter<T> completer) {
-    T result;
-    Throwable exception;
-    synchronized (this) {
-      if (!this.completed) {
-        this.consumers.add(completer);
+  private void addCompleter(Completer<T> completer) {
+    Object current;
+    do {
+      current = state;
+      if (current instanceof Outcome) {
+        // This future has already completed, so perform the appropriate action now.
+        completer.run((Outcome) current);
         return;
       }
-      result = this.result;
-      exception = this.exception;
+      @SuppressWarnings("unchecked")
+      Completer<T> head = (Completer<T>) current;
+      completer.next = head;
+    } while (!STATE.compareAndSet(this, current, completer));
+  }
+
+  /**
+   * Marks {@code waiter} as cancelled and unlinks every cancelled waiter from the stack.
+   *
+   * <p>Only cancelled waiters are ever unlinked and new completers are only pushed at the head, so
+   * a stale link read here can at worst keep a cancelled waiter around; it can never skip a live
+   * completer. If the future completes meanwhile, the stack is left to the completing thread.
+   */
+  private void removeWaiter(Waiter<T> waiter) {
+    waiter.thread = null;
+    retry:
+    for (; ; ) {
+      Object current = state;
+      if (current instanceof Outcome) {
+        return;
+      }
+      @SuppressWarnings("unchecked")
+      Completer<T> node = (Completer<T>) current;
+      Completer<T> pred = null;
+      while (node != null) {
+        Completer<T> next = node.next;
+        if (!node.isCancelled()) {
+          pred = node;
+        } else if (pred != null) {
+          pred.next = next;
+          if (pred.isCancelled()) {
+            // Our predecessor was cancelled too, and may already be unlinked; start over.
+            continue retry;
+          }
+        } else if (!STATE.compareAndSet(this, node, next)) {
+          continue retry;
+        }
+        node = next;
+      }
+      return;
+    }
+  }
+
+  /** The result of a completed future: a value, or the exception it failed with. */
+  private static final class Outcome {
+    private final Object result;
+    private final Throwable exception;
+
+    private Outcome(Object result, Throwable exception) {
+      this.result = result;
+      this.exception = exception;
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T get() throws ExecutionException {
+      if (exception != null) throw new ExecutionException(exception);
+      return (T) result;
     }
+  }
+
+  /** An action waiting for the future to complete, linked into the stack of pending actions. */
+  private abstract static class Completer<T> {
+    private volatile Completer<T> next;
 
-    // If this future has already completed, perform the appropriate action now.
-    // This is done outside of the synchronized block to prevent deadlocks and
-    // holding the lock for a potentially long period.
-    if (exception != null) {
-      completer.completeExceptionally.accept(exception);
-    } else {
-      completer.complete.accept(result);
+    abstract void run(Outcome outcome);
+
+    /** Whether this completer has given up and can be unlinked without running it. */
+    boolean isCancelled() {
+      return false;
     }
   }
 
-  private static class ThenApplyCompleter<T> {
+  private static class ThenApplyCompleter<T> extends Completer<T> {
     private ThenApplyCompleter(
         Consumer<? super T> complete, Consumer<Throwable> completeExceptionally) {
       this.complete = complete;
@@ -233,5 +335,38 @@ public class CompletableFuture<T> implements Future<T> {
 
     private Consumer<? super T> complete;
     private Consumer<Throwable> completeExceptionally;
+
+    @Override
+    @SuppressWarnings("unchecked")
+    void run(Outcome outcome) {
+      if (outcome.exception != null) {
+        completeExceptionally.accept(outcome.exception);
+      } else {
+        complete.accept((T) outcome.result);
+      }
+    }
+  }
+
+  /** Wakes up a thread blocked in {@link #get}. */
+  private static class Waiter<T> extends Completer<T> {
+    private volatile Thread thread;
+
+    private Waiter(Thread thread) {
+      this.thread = thread;
+    }
+
+    @Override
+    void run(Outcome outcome) {
+      Thread waiting = thread;
+      if (waiting != null) {
+        thread = null;
+        LockSupport.unpark(waiting);
+      }
+    }
+
+    @Override
+    boolean isCancelled() {
+      return thread == null;
+    }
   }
 }
@@ -0,0 +1,133 @@
+//
+// Copyright 2026 Signal Messenger, LLC.
+// SPDX-License-Identifier: AGPL-3.0-only
+//
+
+package org.signal.libsignal.internal;
+
+import java.lang.ref.PhantomReference;
+import java.lang.ref.ReferenceQueue;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongConsumer;
+import org.signal.libsignal.protocol.logging.Log;
+
+/**
+ * Releases Rust objects once their Java wrappers are no longer reachable, or earlier on request.
+ *
+ * <p>This does the job of {@code java.lang.ref.Cleaner}, which is not available on all the
+ * platforms we support. Unlike {@code finalize()}, it doesn't delay the collection of the wrapper
+ * itself, and a wrapper can release its Rust object deterministically by calling {@link
+ * Cleanable#clean()} from its {@code close()} method.
+ *
+ * <p>The cleaner also keeps a count of the live Rust objects owned by each wrapper type, which
+ * long-running processes can use to keep an eye on native memory.
+ */
+public final class NativeCleaner {
+  private static final String TAG = NativeCleaner.class.getSimpleName();
+
+  private static final ReferenceQueue<Object> queue = new ReferenceQueue<>();
+
+  // Keeps each Cleanable reachable until it has run; otherwise it would be collected along with its
+  // owner and never enqueued.
+  private static final Set<Cleanable> pending =
+      Collections.newSetFromMap(new ConcurrentHashMap<Cleanable, Boolean>());
+
+  private static final ConcurrentMap<Class<?>, AtomicLong> liveCounts = new ConcurrentHashMap<>();
+
+  static {
+    Thread thread = new Thread(NativeCleaner::processQueue, "libsignal-native-cleaner");
+    thread.setDaemon(true);
+    thread.start();
+  }
+
+  private NativeCleaner() {}
+
+  /** A registered native handle, which can be released early with {@link #clean}. */
+  public static final class Cleanable extends PhantomReference<Object> {
+    private final long nativeHandle;
+    private final LongConsumer release;
+    private final AtomicLong liveCount;
+
+    private Cleanable(
+        Object owner, long nativeHandle, LongConsumer release, AtomicLong liveCount) {
+      super(owner, queue);
+      this.nativeHandle = nativeHandle;
+      this.release = release;
+      this.liveCount = liveCount;
+    }
+
+    /**
+     * Releases the native handle, unless that has already happened.
+     *
+     * <p>The caller is responsible for making sure the handle is no longer in use, including on
+     * other threads.
+     */
+    public void clean() {
+      if (pending.remove(this)) {
+        clear();
+        liveCount.decrementAndGet();
+        release.accept(nativeHandle);
+      }
+    }
+  }
+
+  /**
+   * Arranges for {@code release} to be called with {@code nativeHandle} once {@code owner} is no
+   * longer reachable.
+   *
+   * <p>{@code release} must not refer to {@code owner}, or the owner will never be released; a
+   * method reference like {@code Native::SessionRecord_Destroy} is typical.
+   */
+  public static Cleanable register(Object owner, long nativeHandle, LongConsumer release) {
+    Class<?> type = owner.getClass();
+    AtomicLong liveCount = liveCounts.get(type);
+    if (liveCount == null) {
+      liveCount = liveCounts.computeIfAbsent(type, t -> new AtomicLong());
+    }
+
+    Cleanable cleanable = new Cleanable(owner, nativeHandle, release, liveCount);
+    if (nativeHandle != 0) {
+      liveCount.incrementAndGet();
+      pending.add(cleanable);
+    }
+    return cleanable;
+  }
+
+  /** Returns the number of native handles owned by live instances of exactly {@code type}. */
+  public static long liveHandleCount(Class<?> type) {
+    AtomicLong liveCount = liveCounts.get(type);
+    return liveCount == null ? 0 : liveCount.get();
+  }
+
+  /**
+   * Returns a snapshot of the number of live native handles for each wrapper type that has ever
+   * been registered.
+   */
+  public static Map<Class<?>, Long> liveHandleCounts() {
+    Map<Class<?>, Long> result = new HashMap<>();
+    for (Map.Entry<Class<?>, AtomicLong> entry : liveCounts.entrySet()) {
+      result.put(entry.getKey(), entry.getValue().get());
+    }
+    return result;
+  }
+
+  private static void processQueue() {
+    while (true) {
+      try {
+        ((Cleanable) queue.remove()).clean();
+      } catch (InterruptedException e) {
+        // Keep going; this is a daemon thread, so it won't keep the process alive.
+      } catch (Throwable t) {
+        // Errors too, like an UnsatisfiedLinkError from the release function: if this thread died,
+        // nothing would ever be released again.
+        Log.e(TAG, "failed to release native handle", t);
+      }
+    }
+  }
+}
@@ -12,13 +12,13 @@ import java.util.function.LongFunction;
  * Provides access to a Rust object handle while keeping the Java wrapper alive.
  *
  * <p>Intended for use with try-with-resources syntax. NativeHandleGuard prevents the Java wrapper
- * from being finalized, which would destroy the Rust object, while the handle is in use. To use it,
+ * from being collected, which would destroy the Rust object, while the handle is in use. To use it,
  * the Java wrapper type should conform to the {@link NativeHandleGuard.Owner} interface.
  *
- * <p>Note that it is not necessary to use NativeHandleGuard in the implementation of {@code
- * finalize} itself. The point of NativeHandleGuard is to delay finalization while the Rust object
- * is being used; once finalization has begun, there can be no other uses of the Rust object from
- * Java.
+ * <p>Note that it is not necessary to use NativeHandleGuard when releasing the Rust object. The
+ * point of NativeHandleGuard is to delay cleanup (see {@link NativeCleaner}) while the Rust object
+ * is being used; once the wrapper is unreachable, there can be no other uses of the Rust object
+ * from Java.
  */
 public class NativeHandleGuard implements AutoCloseable {
   /**
@@ -32,27 +32,25 @@ public class NativeHandleGuard implements AutoCloseable {
     }
   }
 
+  /** A wrapper that owns a single Rust object, which is released when it becomes unreachable. */
   public abstract static class SimpleOwner implements Owner {
 
     private final long nativeHandle;
 
-    protected SimpleOwner(final long nativeHandle) {
+    /**
+     * @param release destroys the Rust object. It must not refer to the new owner, so it is usually
+     *     a method reference like {@code Native::Foo_Destroy}.
+     */
+    protected SimpleOwner(final long nativeHandle, final LongConsumer release) {
       this.nativeHandle = nativeHandle;
+      NativeCleaner.register(this, nativeHandle, release);
     }
 
-    protected abstract void release(long nativeHandle);
-
     @Override
     public long unsafeNativeHandleWithoutGuard() {
       return nativeHandle;
     }
 
-    @Override
-    @SuppressWarnings("deprecation")
-    protected void finalize() {
-      release(this.nativeHandle);
-    }
-
     public <T> T guardedMap(final LongFunction<T> function) {
       try (final NativeHandleGuard guard = new NativeHandleGuard(this)) {
         return function.apply(guard.nativeHandle());
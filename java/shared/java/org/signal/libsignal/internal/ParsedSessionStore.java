@@ -0,0 +1,75 @@
+//
+// Copyright 2026 Signal Messenger, LLC.
+// SPDX-License-Identifier: AGPL-3.0-only
+//
+
+package org.signal.libsignal.internal;
+
+import java.util.List;
+import org.signal.libsignal.protocol.NoSessionException;
+import org.signal.libsignal.protocol.SignalProtocolAddress;
+import org.signal.libsignal.protocol.state.SessionRecord;
+import org.signal.libsignal.protocol.state.SessionStore;
+
+/**
+ * Makes sure every record loaded from a store has been parsed before native code sees it.
+ *
+ * <p>Native code reads a loaded record's handle field directly rather than through {@link
+ * SessionRecord#unsafeNativeHandleWithoutGuard}, so a record from {@link
+ * SessionRecord#deserializeLazily} would otherwise look like a missing session. Wrap any session
+ * store before passing it to a native function.
+ */
+public class ParsedSessionStore implements SessionStore {
+  private final SessionStore delegate;
+
+  public static SessionStore wrap(SessionStore store) {
+    if (store instanceof ParsedSessionStore) {
+      return store;
+    }
+    return new ParsedSessionStore(store);
+  }
+
+  private ParsedSessionStore(SessionStore delegate) {
+    this.delegate = delegate;
+  }
+
+  @Override
+  public SessionRecord loadSession(SignalProtocolAddress address) {
+    SessionRecord record = delegate.loadSession(address);
+    if (record != null) {
+      record.unsafeNativeHandleWithoutGuard();
+    }
+    return record;
+  }
+
+  @Override
+  public List<SessionRecord> loadExistingSessions(List<SignalProtocolAddress> addresses)
+      throws NoSessionException {
+    return delegate.loadExistingSessions(addresses);
+  }
+
+  @Override
+  public List<Integer> getSubDeviceSessions(String name) {
+    return delegate.getSubDeviceSessions(name);
+  }
+
+  @Override
+  public void storeSession(SignalProtocolAddress address, SessionRecord record) {
+    delegate.storeSession(address, record);
+  }
+
+  @Override
+  public boolean containsSession(SignalProtocolAddress address) {
+    return delegate.containsSession(address);
+  }
+
+  @Override
+  public void deleteSession(SignalProtocolAddress address) {
+    delegate.deleteSession(address);
+  }
+
+  @Override
+  public void deleteAllSessions(String name) {
+    delegate.deleteAllSessions(name);
+  }
+}
@@ -0,0 +1,727 @@
+//
+// Copyright 2026 Signal Messenger, LLC.
+// SPDX-License-Identifier: AGPL-3.0-only
+//
+
+package org.signal.libsignal.internal;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
+import org.signal.libsignal.protocol.IdentityKey;
+import org.signal.libsignal.protocol.IdentityKeyPair;
+import org.signal.libsignal.protocol.InvalidKeyIdException;
+import org.signal.libsignal.protocol.NoSessionException;
+import org.signal.libsignal.protocol.SignalProtocolAddress;
+import org.signal.libsignal.protocol.groups.state.SenderKeyRecord;
+import org.signal.libsignal.protocol.groups.state.SenderKeyStore;
+import org.signal.libsignal.protocol.message.PreKeySignalMessage;
+import org.signal.libsignal.protocol.state.AsyncIdentityKeyStore;
+import org.signal.libsignal.protocol.state.AsyncKyberPreKeyStore;
+import org.signal.libsignal.protocol.state.AsyncPreKeyStore;
+import org.signal.libsignal.protocol.state.AsyncSessionStore;
+import org.signal.libsignal.protocol.state.AsyncSignedPreKeyStore;
+import org.signal.libsignal.protocol.state.IdentityKeyStore;
+import org.signal.libsignal.protocol.state.KyberPreKeyRecord;
+import org.signal.libsignal.protocol.state.KyberPreKeyStore;
+import org.signal.libsignal.protocol.state.PreKeyRecord;
+import org.signal.libsignal.protocol.state.PreKeyStore;
+import org.signal.libsignal.protocol.state.SessionRecord;
+import org.signal.libsignal.protocol.state.SessionStore;
+import org.signal.libsignal.protocol.state.SignalProtocolStore;
+import org.signal.libsignal.protocol.state.SignedPreKeyRecord;
+import org.signal.libsignal.protocol.state.SignedPreKeyStore;
+
+/**
+ * Synchronous stores that serve values loaded ahead of time from asynchronous stores, so that
+ * native code, which calls its stores synchronously, doesn't have to wait on storage.
+ *
+ * <p>Call the {@code prefetch} methods for everything an operation will need, then {@link #run}
+ * the operation. A read that wasn't prefetched falls back to blocking on the asynchronous store,
+ * on the operation's thread; the asynchronous stores must therefore not need that thread to
+ * complete their futures. Writes are recorded, and passed on to the asynchronous stores in order
+ * once the operation is done, whether or not it succeeded, just as they would have been made with
+ * synchronous stores. Later reads in the same operation see the recorded writes.
+ *
+ * <p>Use {@link WithSenderKeys} where a full {@link SignalProtocolStore} is needed; its sender
+ * keys aren't prefetched, and go straight to the given {@link SenderKeyStore}.
+ *
+ * <p>Each instance serves a single operation.
+ */
+public class PrefetchedProtocolStore
+    implements IdentityKeyStore, PreKeyStore, SessionStore, SignedPreKeyStore, KyberPreKeyStore {
+
+  /** A {@link PrefetchedProtocolStore} that also serves sender keys. */
+  public static class WithSenderKeys extends PrefetchedProtocolStore
+      implements SignalProtocolStore {
+    private final SenderKeyStore senderKeyStore;
+
+    public WithSenderKeys(
+        AsyncSessionStore sessionStore,
+        AsyncIdentityKeyStore identityKeyStore,
+        AsyncPreKeyStore preKeyStore,
+        AsyncSignedPreKeyStore signedPreKeyStore,
+        AsyncKyberPreKeyStore kyberPreKeyStore,
+        SenderKeyStore senderKeyStore) {
+      super(sessionStore, identityKeyStore, preKeyStore, signedPreKeyStore, kyberPreKeyStore);
+      this.senderKeyStore = senderKeyStore;
+    }
+
+    @Override
+    public void storeSenderKey(
+        SignalProtocolAddress sender, UUID distributionId, SenderKeyRecord record) {
+      senderKeyStore.storeSenderKey(sender, distributionId, record);
+    }
+
+    @Override
+    public SenderKeyRecord loadSenderKey(SignalProtocolAddress sender, UUID distributionId) {
+      return senderKeyStore.loadSenderKey(sender, distributionId);
+    }
+  }
+
+  /** An operation to run against the prefetched values. */
+  public interface Operation<T> {
+    T run(PrefetchedProtocolStore store) throws Exception;
+  }
+
+  /** The outcome of a load: a value, or the exception it failed with. */
+  private static final class Loaded<T> {
+    final T value;
+    final Throwable error;
+
+    Loaded(T value, Throwable error) {
+      this.value = value;
+      this.error = error;
+    }
+  }
+
+  private static final class Trust {
+    final IdentityKey identityKey;
+    final Loaded<Boolean> trusted;
+
+    Trust(IdentityKey identityKey, Loaded<Boolean> trusted) {
+      this.identityKey = identityKey;
+      this.trusted = trusted;
+    }
+  }
+
+  private final AsyncSessionStore sessionStore;
+  private final AsyncIdentityKeyStore identityKeyStore;
+  private final AsyncPreKeyStore preKeyStore;
+  private final AsyncSignedPreKeyStore signedPreKeyStore;
+  private final AsyncKyberPreKeyStore kyberPreKeyStore;
+
+  // All guarded by this.
+  private final List<CompletableFuture<Void>> prefetches = new ArrayList<>();
+  private final Map<SignalProtocolAddress, Loaded<SessionRecord>> sessions = new HashMap<>();
+  private final Set<String> deletedSessionNames = new HashSet<>();
+  private final Map<SignalProtocolAddress, Trust> sendingTrust = new HashMap<>();
+  private final Map<SignalProtocolAddress, Trust> receivingTrust = new HashMap<>();
+  private final Map<Integer, Loaded<PreKeyRecord>> preKeys = new HashMap<>();
+  private final Map<Integer, Loaded<SignedPreKeyRecord>> signedPreKeys = new HashMap<>();
+  private final Map<Integer, Loaded<KyberPreKeyRecord>> kyberPreKeys = new HashMap<>();
+  private Loaded<IdentityKeyPair> identityKeyPair;
+  private Loaded<Integer> localRegistrationId;
+  private final List<Supplier<CompletableFuture<Void>>> writes = new ArrayList<>();
+  private Throwable storeFailure;
+
+  public PrefetchedProtocolStore(
+      AsyncSessionStore sessionStore,
+      AsyncIdentityKeyStore identityKeyStore,
+      AsyncPreKeyStore preKeyStore,
+      AsyncSignedPreKeyStore signedPreKeyStore,
+      AsyncKyberPreKeyStore kyberPreKeyStore) {
+    this.sessionStore = sessionStore;
+    this.identityKeyStore = identityKeyStore;
+    this.preKeyStore = preKeyStore;
+    this.signedPreKeyStore = signedPreKeyStore;
+    this.kyberPreKeyStore = kyberPreKeyStore;
+  }
+
+  /**
+   * Loads the session for {@code address} and, if {@code direction} is not {@code null}, whether
+   * the session's remote identity key is trusted in that direction.
+   */
+  public void prefetchSession(SignalProtocolAddress address, IdentityKeyStore.Direction direction) {
+    CompletableFuture<Void> done = new CompletableFuture<>();
+    capture(sessionStore.loadSession(address))
+        .thenApply(
+            loaded -> {
+              synchronized (this) {
+                sessions.put(address, loaded);
+              }
+              IdentityKey identityKey = null;
+              if (direction != null && loaded.value != null) {
+                try {
+                  identityKey = loaded.value.getRemoteIdentityKey();
+                } catch (RuntimeException e) {
+                  // Leave it to the operation to report.
+                }
+              }
+              if (identityKey == null) {
+                done.complete(null);
+              } else {
+                fetchTrust(address, identityKey, direction).thenApply(done::complete);
+              }
+              return null;
+            });
+    addPrefetch(done);
+  }
+
+  /** Loads whether {@code identityKey} is trusted for {@code address} in {@code direction}. */
+  public void prefetchTrust(
+      SignalProtocolAddress address,
+      IdentityKey identityKey,
+      IdentityKeyStore.Direction direction) {
+    addPrefetch(fetchTrust(address, identityKey, direction));
+  }
+
+  private CompletableFuture<Void> fetchTrust(
+      SignalProtocolAddress address,
+      IdentityKey identityKey,
+      IdentityKeyStore.Direction direction) {
+    return capture(identityKeyStore.isTrustedIdentity(address, identityKey, direction))
+        .thenApply(
+            loaded -> {
+              synchronized (this) {
+                trustFor(direction).put(address, new Trust(identityKey, loaded));
+              }
+              return null;
+            });
+  }
+
+  public void prefetchIdentityKeyPair() {
+    addPrefetch(
+        capture(identityKeyStore.getIdentityKeyPair())
+            .thenApply(
+                loaded -> {
+                  synchronized (this) {
+                    identityKeyPair = loaded;
+                  }
+                  return null;
+                }));
+  }
+
+  public void prefetchLocalRegistrationId() {
+    addPrefetch(
+        capture(identityKeyStore.getLocalRegistrationId())
+            .thenApply(
+                loaded -> {
+                  synchronized (this) {
+                    localRegistrationId = loaded;
+                  }
+                  return null;
+                }));
+  }
+
+  public void prefetchPreKey(int preKeyId) {
+    addPrefetch(into(preKeys, preKeyId, preKeyStore.loadPreKey(preKeyId)));
+  }
+
+  public void prefetchSignedPreKey(int signedPreKeyId) {
+    addPrefetch(
+        into(signedPreKeys, signedPreKeyId, signedPreKeyStore.loadSignedPreKey(signedPreKeyId)));
+  }
+
+  public void prefetchKyberPreKey(int kyberPreKeyId) {
+    addPrefetch(into(kyberPreKeys, kyberPreKeyId, kyberPreKeyStore.loadKyberPreKey(kyberPreKeyId)));
+  }
+
+  /** Loads everything needed to decrypt {@code message} from {@code address}. */
+  public void prefetchForPreKeyMessage(SignalProtocolAddress address, PreKeySignalMessage message) {
+    prefetchSession(address, null);
+    prefetchTrust(address, message.getIdentityKey(), IdentityKeyStore.Direction.RECEIVING);
+    prefetchIdentityKeyPair();
+    prefetchLocalRegistrationId();
+    prefetchSignedPreKey(message.getSignedPreKeyId());
+    if (message.getPreKeyId().isPresent()) {
+      prefetchPreKey(message.getPreKeyId().get());
+    }
+    Integer kyberPreKeyId = kyberPreKeyIdOf(message.serialize());
+    if (kyberPreKeyId != null) {
+      prefetchKyberPreKey(kyberPreKeyId);
+    }
+  }
+
+  /**
+   * Once everything has been prefetched, runs {@code operation} on {@code executor}, then passes
+   * on the writes it made.
+   *
+   * @return a future for the operation's result. If the operation throws, the future fails with
+   *     that exception, or with the store's own exception if a store failure caused it. Otherwise,
+   *     if a write fails, the future fails with the write's exception.
+   */
+  public <T> CompletableFuture<T> run(Executor executor, Operation<T> operation) {
+    CompletableFuture<T> result = new CompletableFuture<>();
+    whenPrefetched()
+        .thenApply(
+            ignored -> {
+              executor.execute(() -> runNow(operation, result));
+              return null;
+            })
+        .whenComplete(
+            (ignored, error) -> {
+              if (error != null) {
+                // The executor rejected the operation.
+                result.completeExceptionally(error);
+              }
+            });
+    return result;
+  }
+
+  private <T> void runNow(Operation<T> operation, CompletableFuture<T> result) {
+    T value = null;
+    Throwable failure = null;
+    try {
+      value = operation.run(this);
+    } catch (Exception | Error e) {
+      synchronized (this) {
+        failure = storeFailure != null ? storeFailure : e;
+      }
+    }
+
+    T finalValue = value;
+    Throwable finalFailure = failure;
+    writeBack()
+        .whenComplete(
+            (ignored, writeFailure) -> {
+              if (finalFailure != null) {
+                result.completeExceptionally(finalFailure);
+              } else if (writeFailure != null) {
+                result.completeExceptionally(writeFailure);
+              } else {
+                result.complete(finalValue);
+              }
+            });
+  }
+
+  private CompletableFuture<Void> whenPrefetched() {
+    List<CompletableFuture<Void>> pending;
+    synchronized (this) {
+      pending = new ArrayList<>(prefetches);
+    }
+    CompletableFuture<Void> all = completed();
+    for (CompletableFuture<Void> prefetch : pending) {
+      all = all.thenCompose(ignored -> prefetch);
+    }
+    return all;
+  }
+
+  private CompletableFuture<Void> writeBack() {
+    List<Supplier<CompletableFuture<Void>>> pending;
+    synchronized (this) {
+      pending = new ArrayList<>(writes);
+      writes.clear();
+    }
+    CompletableFuture<Void> all = completed();
+    for (Supplier<CompletableFuture<Void>> write : pending) {
+      all = all.thenCompose(ignored -> write.get());
+    }
+    return all;
+  }
+
+  private static CompletableFuture<Void> completed() {
+    CompletableFuture<Void> future = new CompletableFuture<>();
+    future.complete(null);
+    return future;
+  }
+
+  /** Returns a future that completes normally with the outcome of {@code future}. */
+  private static <T> CompletableFuture<Loaded<T>> capture(CompletableFuture<T> future) {
+    CompletableFuture<Loaded<T>> captured = new CompletableFuture<>();
+    future.whenComplete((value, error) -> captured.complete(new Loaded<>(value, error)));
+    return captured;
+  }
+
+  private <T> CompletableFuture<Void> into(
+      Map<Integer, Loaded<T>> map, int id, CompletableFuture<T> future) {
+    return capture(future)
+        .thenApply(
+            loaded -> {
+              synchronized (this) {
+                map.put(id, loaded);
+              }
+              return null;
+            });
+  }
+
+  private synchronized void addPrefetch(CompletableFuture<Void> prefetch) {
+    prefetches.add(prefetch);
+  }
+
+  private synchronized void addWrite(Supplier<CompletableFuture<Void>> write) {
+    writes.add(write);
+  }
+
+  private Map<SignalProtocolAddress, Trust> trustFor(IdentityKeyStore.Direction direction) {
+    return direction == IdentityKeyStore.Direction.SENDING ? sendingTrust : receivingTrust;
+  }
+
+  /** Waits for a load that wasn't prefetched. */
+  private static <T> Loaded<T> await(CompletableFuture<T> future) {
+    try {
+      return new Loaded<>(future.get(), null);
+    } catch (ExecutionException e) {
+      return new Loaded<>(null, e.getCause());
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return new Loaded<>(null, e);
+    }
+  }
+
+  private <T> T valueOf(Loaded<T> loaded) {
+    if (loaded.error == null) {
+      return loaded.value;
+    }
+    synchronized (this) {
+      if (storeFailure == null) {
+        storeFailure = loaded.error;
+      }
+    }
+    if (loaded.error instanceof RuntimeException) {
+      throw (RuntimeException) loaded.error;
+    }
+    if (loaded.error instanceof Error) {
+      throw (Error) loaded.error;
+    }
+    throw new IllegalStateException("store failed", loaded.error);
+  }
+
+  private <T> T keyValueOf(Loaded<T> loaded) throws InvalidKeyIdException {
+    if (loaded.error instanceof InvalidKeyIdException) {
+      throw (InvalidKeyIdException) loaded.error;
+    }
+    return valueOf(loaded);
+  }
+
+  /**
+   * Returns whether a key is present according to what this store has seen, or {@code null} if
+   * the asynchronous store has to be asked.
+   */
+  private synchronized <T> Boolean containsKey(Map<Integer, Loaded<T>> map, int id) {
+    Loaded<T> loaded = map.get(id);
+    if (loaded == null) {
+      return null;
+    }
+    if (loaded.error instanceof InvalidKeyIdException) {
+      return false;
+    }
+    return loaded.error == null ? true : null;
+  }
+
+  /** Records that a key is gone, so that later reads in this operation don't find it. */
+  private synchronized <T> void removeKey(Map<Integer, Loaded<T>> map, int id) {
+    map.put(id, new Loaded<>(null, new InvalidKeyIdException("removed: " + id)));
+  }
+
+  /**
+   * Passes on the writes recorded so far, for a read whose result they might change but which
+   * can't be answered from what this store has seen.
+   */
+  private void awaitWrites() {
+    valueOf(await(writeBack()));
+  }
+
+  /**
+   * Returns the Kyber pre-key ID in a serialized {@link PreKeySignalMessage}, or {@code null} if
+   * there is none.
+   *
+   * <p>This is only a hint for prefetching, so anything unexpected just returns {@code null}.
+   */
+  static Integer kyberPreKeyIdOf(byte[] serialized) {
+    final int kyberPreKeyIdField = 7;
+    // Skip the version byte; the rest is a protobuf message.
+    int[] position = {1};
+    while (position[0] < serialized.length) {
+      long tag = readVarint(serialized, position);
+      if (tag < 0) {
+        return null;
+      }
+      int wireType = (int) (tag & 7);
+      if (wireType == 0) {
+        long value = readVarint(serialized, position);
+        if (value < 0) {
+          return null;
+        }
+        if ((tag >>> 3) == kyberPreKeyIdField) {
+          return (int) value;
+        }
+      } else if (wireType == 2) {
+        long length = readVarint(serialized, position);
+        if (length < 0 || length > serialized.length - position[0]) {
+          return null;
+        }
+        position[0] += (int) length;
+      } else {
+        return null;
+      }
+    }
+    return null;
+  }
+
+  /** Reads an unsigned varint of up to 63 bits, or returns -1 if it is malformed. */
+  private static long readVarint(byte[] bytes, int[] position) {
+    long result = 0;
+    for (int shift = 0; shift < 63; shift += 7) {
+      if (position[0] >= bytes.length) {
+        return -1;
+      }
+      byte b = bytes[position[0]++];
+      result |= (long) (b & 0x7f) << shift;
+      if (b >= 0) {
+        return result;
+      }
+    }
+    return -1;
+  }
+
+  // IdentityKeyStore
+
+  @Override
+  public IdentityKeyPair getIdentityKeyPair() {
+    Loaded<IdentityKeyPair> loaded;
+    synchronized (this) {
+      loaded = identityKeyPair;
+    }
+    return valueOf(loaded != null ? loaded : await(identityKeyStore.getIdentityKeyPair()));
+  }
+
+  @Override
+  public int getLocalRegistrationId() {
+    Loaded<Integer> loaded;
+    synchronized (this) {
+      loaded = localRegistrationId;
+    }
+    return valueOf(loaded != null ? loaded : await(identityKeyStore.getLocalRegistrationId()));
+  }
+
+  /**
+   * Records the identity to be saved once the operation is done.
+   *
+   * @return {@code false}; native code doesn't use the result.
+   */
+  @Override
+  public boolean saveIdentity(SignalProtocolAddress address, IdentityKey identityKey) {
+    addWrite(() -> identityKeyStore.saveIdentity(address, identityKey).thenApply(changed -> null));
+    return false;
+  }
+
+  @Override
+  public boolean isTrustedIdentity(
+      SignalProtocolAddress address,
+      IdentityKey identityKey,
+      IdentityKeyStore.Direction direction) {
+    Trust trust;
+    synchronized (this) {
+      trust = trustFor(direction).get(address);
+    }
+    if (trust == null || !trust.identityKey.equals(identityKey)) {
+      return valueOf(await(identityKeyStore.isTrustedIdentity(address, identityKey, direction)));
+    }
+    return valueOf(trust.trusted);
+  }
+
+  @Override
+  public IdentityKey getIdentity(SignalProtocolAddress address) {
+    return valueOf(await(identityKeyStore.getIdentity(address)));
+  }
+
+  // SessionStore
+
+  @Override
+  public SessionRecord loadSession(SignalProtocolAddress address) {
+    Loaded<SessionRecord> loaded;
+    synchronized (this) {
+      loaded = sessions.get(address);
+      if (loaded == null && deletedSessionNames.contains(address.getName())) {
+        return null;
+      }
+    }
+    return valueOf(loaded != null ? loaded : await(sessionStore.loadSession(address)));
+  }
+
+  @Override
+  public List<SessionRecord> loadExistingSessions(List<SignalProtocolAddress> addresses)
+      throws NoSessionException {
+    List<SessionRecord> records = new ArrayList<>(addresses.size());
+    for (SignalProtocolAddress address : addresses) {
+      SessionRecord record = loadSession(address);
+      if (record == null) {
+        throw new NoSessionException(address, "no session for " + address);
+      }
+      records.add(record);
+    }
+    return records;
+  }
+
+  /** Passes on the writes recorded so far, then asks the asynchronous store. */
+  @Override
+  public List<Integer> getSubDeviceSessions(String name) {
+    awaitWrites();
+    return valueOf(await(sessionStore.getSubDeviceSessions(name)));
+  }
+
+  /** Records the session to be stored once the operation is done. */
+  @Override
+  public void storeSession(SignalProtocolAddress address, SessionRecord record) {
+    synchronized (this) {
+      sessions.put(address, new Loaded<>(record, null));
+    }
+    addWrite(() -> sessionStore.storeSession(address, record));
+  }
+
+  @Override
+  public boolean containsSession(SignalProtocolAddress address) {
+    return loadSession(address) != null;
+  }
+
+  /** Records the session to be deleted once the operation is done. */
+  @Override
+  public void deleteSession(SignalProtocolAddress address) {
+    synchronized (this) {
+      sessions.put(address, new Loaded<>(null, null));
+    }
+    addWrite(() -> sessionStore.deleteSession(address));
+  }
+
+  /** Records the sessions to be deleted once the operation is done. */
+  @Override
+  public void deleteAllSessions(String name) {
+    synchronized (this) {
+      Iterator<SignalProtocolAddress> addresses = sessions.keySet().iterator();
+      while (addresses.hasNext()) {
+        if (addresses.next().getName().equals(name)) {
+          addresses.remove();
+        }
+      }
+      deletedSessionNames.add(name);
+    }
+    addWrite(() -> sessionStore.deleteAllSessions(name));
+  }
+
+  // PreKeyStore
+
+  @Override
+  public PreKeyRecord loadPreKey(int preKeyId) throws InvalidKeyIdException {
+    Loaded<PreKeyRecord> loaded;
+    synchronized (this) {
+      loaded = preKeys.get(preKeyId);
+    }
+    return keyValueOf(loaded != null ? loaded : await(preKeyStore.loadPreKey(preKeyId)));
+  }
+
+  /** Records the pre-key to be stored once the operation is done. */
+  @Override
+  public void storePreKey(int preKeyId, PreKeyRecord record) {
+    synchronized (this) {
+      preKeys.put(preKeyId, new Loaded<>(record, null));
+    }
+    addWrite(() -> preKeyStore.storePreKey(preKeyId, record));
+  }
+
+  @Override
+  public boolean containsPreKey(int preKeyId) {
+    Boolean contains = containsKey(preKeys, preKeyId);
+    return contains != null ? contains : valueOf(await(preKeyStore.containsPreKey(preKeyId)));
+  }
+
+  /** Records the pre-key to be removed once the operation is done. */
+  @Override
+  public void removePreKey(int preKeyId) {
+    removeKey(preKeys, preKeyId);
+    addWrite(() -> preKeyStore.removePreKey(preKeyId));
+  }
+
+  // SignedPreKeyStore
+
+  @Override
+  public SignedPreKeyRecord loadSignedPreKey(int signedPreKeyId) throws InvalidKeyIdException {
+    Loaded<SignedPreKeyRecord> loaded;
+    synchronized (this) {
+      loaded = signedPreKeys.get(signedPreKeyId);
+    }
+    return keyValueOf(
+        loaded != null ? loaded : await(signedPreKeyStore.loadSignedPreKey(signedPreKeyId)));
+  }
+
+  /** Passes on the writes recorded so far, then asks the asynchronous store. */
+  @Override
+  public List<SignedPreKeyRecord> loadSignedPreKeys() {
+    awaitWrites();
+    return valueOf(await(signedPreKeyStore.loadSignedPreKeys()));
+  }
+
+  /** Records the signed pre-key to be stored once the operation is done. */
+  @Override
+  public void storeSignedPreKey(int signedPreKeyId, SignedPreKeyRecord record) {
+    synchronized (this) {
+      signedPreKeys.put(signedPreKeyId, new Loaded<>(record, null));
+    }
+    addWrite(() -> signedPreKeyStore.storeSignedPreKey(signedPreKeyId, record));
+  }
+
+  @Override
+  public boolean containsSignedPreKey(int signedPreKeyId) {
+    Boolean contains = containsKey(signedPreKeys, signedPreKeyId);
+    return contains != null
+        ? contains
+        : valueOf(await(signedPreKeyStore.containsSignedPreKey(signedPreKeyId)));
+  }
+
+  /** Records the signed pre-key to be removed once the operation is done. */
+  @Override
+  public void removeSignedPreKey(int signedPreKeyId) {
+    removeKey(signedPreKeys, signedPreKeyId);
+    addWrite(() -> signedPreKeyStore.removeSignedPreKey(signedPreKeyId));
+  }
+
+  // KyberPreKeyStore
+
+  @Override
+  public KyberPreKeyRecord loadKyberPreKey(int kyberPreKeyId) throws InvalidKeyIdException {
+    Loaded<KyberPreKeyRecord> loaded;
+    synchronized (this) {
+      loaded = kyberPreKeys.get(kyberPreKeyId);
+    }
+    return keyValueOf(
+        loaded != null ? loaded : await(kyberPreKeyStore.loadKyberPreKey(kyberPreKeyId)));
+  }
+
+  /** Passes on the writes recorded so far, then asks the asynchronous store. */
+  @Override
+  public List<KyberPreKeyRecord> loadKyberPreKeys() {
+    awaitWrites();
+    return valueOf(await(kyberPreKeyStore.loadKyberPreKeys()));
+  }
+
+  /** Records the Kyber pre-key to be stored once the operation is done. */
+  @Override
+  public void storeKyberPreKey(int kyberPreKeyId, KyberPreKeyRecord record) {
+    synchronized (this) {
+      kyberPreKeys.put(kyberPreKeyId, new Loaded<>(record, null));
+    }
+    addWrite(() -> kyberPreKeyStore.storeKyberPreKey(kyberPreKeyId, record));
+  }
+
+  @Override
+  public boolean containsKyberPreKey(int kyberPreKeyId) {
+    Boolean contains = containsKey(kyberPreKeys, kyberPreKeyId);
+    return contains != null
+        ? contains
+        : valueOf(await(kyberPreKeyStore.containsKyberPreKey(kyberPreKeyId)));
+  }
+
+  /** Records the Kyber pre-key to be marked used once the operation is done. */
+  @Override
+  public void markKyberPreKeyUsed(int kyberPreKeyId) {
+    addWrite(() -> kyberPreKeyStore.markKyberPreKeyUsed(kyberPreKeyId));
+  }
+}
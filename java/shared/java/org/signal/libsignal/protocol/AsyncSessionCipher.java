@@ -0,0 +1,136 @@
+//
+// Copyright 2026 Signal Messenger, LLC.
+// SPDX-License-Identifier: AGPL-3.0-only
+//
+
+package org.signal.libsignal.protocol;
+
+import java.time.Instant;
+import java.util.concurrent.Executor;
+import org.signal.libsignal.internal.CompletableFuture;
+import org.signal.libsignal.internal.PrefetchedProtocolStore;
+import org.signal.libsignal.protocol.message.CiphertextMessage;
+import org.signal.libsignal.protocol.message.PreKeySignalMessage;
+import org.signal.libsignal.protocol.message.SignalMessage;
+import org.signal.libsignal.protocol.state.AsyncIdentityKeyStore;
+import org.signal.libsignal.protocol.state.AsyncKyberPreKeyStore;
+import org.signal.libsignal.protocol.state.AsyncPreKeyStore;
+import org.signal.libsignal.protocol.state.AsyncSessionStore;
+import org.signal.libsignal.protocol.state.AsyncSignalProtocolStore;
+import org.signal.libsignal.protocol.state.AsyncSignedPreKeyStore;
+import org.signal.libsignal.protocol.state.IdentityKeyStore;
+
+/**
+ * A {@link SessionCipher} for asynchronous stores.
+ *
+ * <p>Each operation first loads what it needs from the stores, without blocking any thread, and
+ * then runs the encryption or decryption on {@code executor}. When that is done, the operation's
+ * writes are passed on to the stores, and the returned future completes once they have finished.
+ * A small executor can therefore keep up with many operations whose storage is slow.
+ *
+ * <p>Should the cryptography need something that wasn't loaded up front, such as the trust
+ * decision for an archived session's identity key, it waits on the store on the executor's
+ * thread. The stores must therefore complete their futures without needing {@code executor}: a
+ * store that runs its callbacks on the same executor can deadlock once all of its threads are
+ * waiting.
+ *
+ * <p>Like {@link SessionCipher}, this doesn't order operations: start an operation for a remote
+ * address only once the previous one for the same address has completed, or the later one may
+ * not see the earlier one's session changes.
+ *
+ * <p>On failure, the returned future fails with the exception the corresponding {@link
+ * SessionCipher} method would have thrown, or with the store's exception if a store failed.
+ */
+public class AsyncSessionCipher {
+
+  private final AsyncSessionStore sessionStore;
+  private final AsyncIdentityKeyStore identityKeyStore;
+  private final AsyncPreKeyStore preKeyStore;
+  private final AsyncSignedPreKeyStore signedPreKeyStore;
+  private final AsyncKyberPreKeyStore kyberPreKeyStore;
+  private final SignalProtocolAddress remoteAddress;
+  private final Executor executor;
+
+  /**
+   * @param executor runs the cryptography
+   */
+  public AsyncSessionCipher(
+      AsyncSessionStore sessionStore,
+      AsyncPreKeyStore preKeyStore,
+      AsyncSignedPreKeyStore signedPreKeyStore,
+      AsyncKyberPreKeyStore kyberPreKeyStore,
+      AsyncIdentityKeyStore identityKeyStore,
+      SignalProtocolAddress remoteAddress,
+      Executor executor) {
+    this.sessionStore = sessionStore;
+    this.preKeyStore = preKeyStore;
+    this.signedPreKeyStore = signedPreKeyStore;
+    this.kyberPreKeyStore = kyberPreKeyStore;
+    this.identityKeyStore = identityKeyStore;
+    this.remoteAddress = remoteAddress;
+    this.executor = executor;
+  }
+
+  public AsyncSessionCipher(
+      AsyncSignalProtocolStore store, SignalProtocolAddress remoteAddress, Executor executor) {
+    this(store, store, store, store, store, remoteAddress, executor);
+  }
+
+  private PrefetchedProtocolStore newStore() {
+    return new PrefetchedProtocolStore(
+        sessionStore, identityKeyStore, preKeyStore, signedPreKeyStore, kyberPreKeyStore);
+  }
+
+  private SessionCipher cipherFor(PrefetchedProtocolStore prefetched) {
+    return new SessionCipher(
+        prefetched, prefetched, prefetched, prefetched, prefetched, remoteAddress);
+  }
+
+  /**
+   * Encrypt a message.
+   *
+   * @see SessionCipher#encrypt(byte[])
+   */
+  public CompletableFuture<CiphertextMessage> encrypt(byte[] paddedMessage) {
+    return encrypt(paddedMessage, Instant.now());
+  }
+
+  /**
+   * Encrypt a message.
+   *
+   * <p>You should only use this overload if you need to test session expiration explicitly.
+   *
+   * @see SessionCipher#encrypt(byte[], Instant)
+   */
+  public CompletableFuture<CiphertextMessage> encrypt(byte[] paddedMessage, Instant now) {
+    PrefetchedProtocolStore store = newStore();
+    store.prefetchSession(remoteAddress, IdentityKeyStore.Direction.SENDING);
+    return store.run(
+        executor,
+        prefetched -> cipherFor(prefetched).encrypt(paddedMessage, now));
+  }
+
+  /**
+   * Decrypt a message.
+   *
+   * @see SessionCipher#decrypt(PreKeySignalMessage)
+   */
+  public CompletableFuture<byte[]> decrypt(PreKeySignalMessage ciphertext) {
+    PrefetchedProtocolStore store = newStore();
+    store.prefetchForPreKeyMessage(remoteAddress, ciphertext);
+    return store.run(
+        executor, prefetched -> cipherFor(prefetched).decrypt(ciphertext));
+  }
+
+  /**
+   * Decrypt a message.
+   *
+   * @see SessionCipher#decrypt(SignalMessage)
+   */
+  public CompletableFuture<byte[]> decrypt(SignalMessage ciphertext) {
+    PrefetchedProtocolStore store = newStore();
+    store.prefetchSession(remoteAddress, IdentityKeyStore.Direction.RECEIVING);
+    return store.run(
+        executor, prefetched -> cipherFor(prefetched).decrypt(ciphertext));
+  }
+}
@@ -0,0 +1,101 @@
+//
+// Copyright 2026 Signal Messenger, LLC.
+// SPDX-License-Identifier: AGPL-3.0-only
+//
+
+package org.signal.libsignal.protocol;
+
+import java.util.List;
+import org.signal.libsignal.protocol.state.SessionRecord;
+import org.signal.libsignal.protocol.state.SessionStore;
+
+/**
+ * Serves a single address's session from memory for the duration of a batch, and writes it back
+ * to the underlying store only once at the end.
+ *
+ * <p>Native code makes its own copy of a loaded record and hands back a new record to store, so
+ * returning the same instance for every load is safe. Deletes go straight to the underlying store
+ * and discard the batch's pending record.
+ */
+class BatchSessionStore implements SessionStore {
+  private final SessionStore delegate;
+  private final SignalProtocolAddress address;
+  private final String name;
+  private final int deviceId;
+  private SessionRecord record;
+  private boolean dirty;
+
+  BatchSessionStore(SessionStore delegate, SignalProtocolAddress address, SessionRecord record) {
+    this.delegate = delegate;
+    this.address = address;
+    this.name = address.getName();
+    this.deviceId = address.getDeviceId();
+    this.record = record;
+  }
+
+  private boolean isBatchAddress(SignalProtocolAddress other) {
+    return other.getDeviceId() == deviceId && other.getName().equals(name);
+  }
+
+  void flush() {
+    if (dirty) {
+      delegate.storeSession(address, record);
+      dirty = false;
+    }
+  }
+
+  @Override
+  public SessionRecord loadSession(SignalProtocolAddress address) {
+    if (isBatchAddress(address)) {
+      return record;
+    }
+    return delegate.loadSession(address);
+  }
+
+  @Override
+  public List<SessionRecord> loadExistingSessions(List<SignalProtocolAddress> addresses)
+      throws NoSessionException {
+    return delegate.loadExistingSessions(addresses);
+  }
+
+  @Override
+  public List<Integer> getSubDeviceSessions(String name) {
+    return delegate.getSubDeviceSessions(name);
+  }
+
+  @Override
+  public void storeSession(SignalProtocolAddress address, SessionRecord record) {
+    if (isBatchAddress(address)) {
+      this.record = record;
+      this.dirty = true;
+    } else {
+      delegate.storeSession(address, record);
+    }
+  }
+
+  @Override
+  public boolean containsSession(SignalProtocolAddress address) {
+    if (isBatchAddress(address)) {
+      return record != null;
+    }
+    return delegate.containsSession(address);
+  }
+
+  @Override
+  public void deleteSession(SignalProtocolAddress address) {
+    if (isBatchAddress(address)) {
+      record = null;
+      dirty = false;
+    }
+    delegate.deleteSession(address);
+  }
+
+  @Override
+  public void deleteAllSessions(String name) {
+    if (this.name.equals(name)) {
+      record = null;
+      dirty = false;
+    }
+    delegate.deleteAllSessions(name);
+  }
+}
@@ -0,0 +1,225 @@
+//
+// Copyright 2026 Signal Messenger, LLC.
+// SPDX-License-Identifier: AGPL-3.0-only
+//
+
+package org.signal.libsignal.protocol;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.locks.ReentrantLock;
+import org.signal.libsignal.protocol.message.CiphertextMessage;
+import org.signal.libsignal.protocol.state.IdentityKeyStore;
+import org.signal.libsignal.protocol.state.SessionRecord;
+import org.signal.libsignal.protocol.state.SessionStore;
+import org.signal.libsignal.protocol.state.SignalProtocolStore;
+import org.signal.libsignal.protocol.util.BatchResult;
+
+/**
+ * Encrypts one message for many devices at once, running the per-device encryptions in parallel.
+ *
+ * <p>All sessions are loaded with a single call to {@link SessionStore#loadExistingSessions}, and
+ * each updated session is stored individually as its encryption finishes. Because stores and
+ * identity checks happen on the executor's threads, the {@link SessionStore} and {@link
+ * IdentityKeyStore} must be thread-safe.
+ *
+ * <p>An encryptor holds a lock covering each address for the whole of a fan-out, so concurrent
+ * calls to {@link #encrypt} on the same encryptor never use the same session at once. Sends that go
+ * through some other path (such as a plain {@link SessionCipher}) are not covered by these locks;
+ * share a single encryptor for everything that sends with a given store. The locks are striped: a
+ * fixed set of them is shared among all addresses, so unrelated fan-outs occasionally wait for each
+ * other, but the encryptor's memory use doesn't grow with the number of addresses.
+ *
+ * <p>Any {@link Executor} may be used. On Java 21 and later, {@code
+ * Executors.newVirtualThreadPerTaskExecutor()} works well for stores that block on I/O.
+ */
+public class FanOutEncryptor {
+
+  // A power of two, so that a stripe can be picked with a mask.
+  private static final int LOCK_STRIPES = 256;
+
+  private final SessionStore sessionStore;
+  private final IdentityKeyStore identityKeyStore;
+  private final Executor executor;
+  private final ReentrantLock[] addressLocks = new ReentrantLock[LOCK_STRIPES];
+
+  public FanOutEncryptor(
+      SessionStore sessionStore, IdentityKeyStore identityKeyStore, Executor executor) {
+    this.sessionStore = sessionStore;
+    this.identityKeyStore = identityKeyStore;
+    this.executor = executor;
+    for (int i = 0; i < addressLocks.length; i++) {
+      addressLocks[i] = new ReentrantLock();
+    }
+  }
+
+  public FanOutEncryptor(SignalProtocolStore store, Executor executor) {
+    this(store, store, executor);
+  }
+
+  /**
+   * Encrypt a message for every address in {@code addresses}.
+   *
+   * @param addresses The devices to encrypt for. Each address may appear only once.
+   * @param paddedMessage The plaintext message bytes, optionally padded to a constant multiple.
+   * @return One result per address, in the same order as {@code addresses}. A failed result holds
+   *     the {@link NoSessionException} or {@link UntrustedIdentityException} that {@link
+   *     SessionCipher#encrypt(byte[])} would have thrown.
+   * @throws NoSessionException if any address does not have an active session. Nothing is
+   *     encrypted in this case.
+   * @throws IllegalArgumentException if an address is repeated.
+   */
+  public List<BatchResult<CiphertextMessage>> encrypt(
+      List<SignalProtocolAddress> addresses, byte[] paddedMessage) throws NoSessionException {
+    return encrypt(addresses, paddedMessage, Instant.now());
+  }
+
+  /**
+   * Encrypt a message for every address in {@code addresses}.
+   *
+   * <p>You should only use this overload if you need to test session expiration explicitly.
+   *
+   * @see #encrypt(List, byte[])
+   */
+  public List<BatchResult<CiphertextMessage>> encrypt(
+      List<SignalProtocolAddress> addresses, byte[] paddedMessage, Instant now)
+      throws NoSessionException {
+    if (addresses.isEmpty()) {
+      return Collections.emptyList();
+    }
+
+    List<ReentrantLock> locks = lockAll(addresses);
+    try {
+      List<SessionRecord> sessions = sessionStore.loadExistingSessions(addresses);
+      return encryptAll(addresses, sessions, paddedMessage, now);
+    } finally {
+      for (ReentrantLock lock : locks) {
+        lock.unlock();
+      }
+    }
+  }
+
+  /**
+   * Acquires the lock stripe for every address, each only once and in a consistent order so that
+   * overlapping fan-outs cannot deadlock.
+   */
+  private List<ReentrantLock> lockAll(List<SignalProtocolAddress> addresses) {
+    int[] stripes = new int[addresses.size()];
+    Set<String> seen = new HashSet<>();
+    for (int i = 0; i < stripes.length; i++) {
+      SignalProtocolAddress address = addresses.get(i);
+      String name = address.getName();
+      int deviceId = address.getDeviceId();
+      if (!seen.add(name + "." + deviceId)) {
+        throw new IllegalArgumentException("duplicate address " + name + "." + deviceId);
+      }
+      int hash = name.hashCode() * 31 + deviceId;
+      stripes[i] = (hash ^ (hash >>> 16)) & (LOCK_STRIPES - 1);
+    }
+    Arrays.sort(stripes);
+
+    List<ReentrantLock> acquired = new ArrayList<>(stripes.length);
+    try {
+      for (int i = 0; i < stripes.length; i++) {
+        if (i > 0 && stripes[i] == stripes[i - 1]) {
+          continue;
+        }
+        ReentrantLock lock = addressLocks[stripes[i]];
+        lock.lock();
+        acquired.add(lock);
+      }
+    } catch (RuntimeException | Error e) {
+      for (ReentrantLock lock : acquired) {
+        lock.unlock();
+      }
+      throw e;
+    }
+    return acquired;
+  }
+
+  private List<BatchResult<CiphertextMessage>> encryptAll(
+      List<SignalProtocolAddress> addresses,
+      List<SessionRecord> sessions,
+      byte[] paddedMessage,
+      Instant now) {
+    int count = addresses.size();
+    // Each task sets its own element; the latch makes the results visible to this thread.
+    List<BatchResult<CiphertextMessage>> results =
+        new ArrayList<>(Collections.<BatchResult<CiphertextMessage>>nCopies(count, null));
+    Error[] fatalError = new Error[1];
+    CountDownLatch remaining = new CountDownLatch(count);
+
+    int submitted = 0;
+    try {
+      for (; submitted < count; submitted++) {
+        final int index = submitted;
+        executor.execute(
+            () -> {
+              try {
+                results.set(
+                    index,
+                    encryptOne(addresses.get(index), sessions.get(index), paddedMessage, now));
+              } catch (Exception e) {
+                results.set(index, BatchResult.failure(e));
+              } catch (Error e) {
+                synchronized (fatalError) {
+                  fatalError[0] = e;
+                }
+              } finally {
+                remaining.countDown();
+              }
+            });
+      }
+    } finally {
+      // Never release the address locks while submitted tasks might still be using the sessions.
+      for (int i = submitted; i < count; i++) {
+        remaining.countDown();
+      }
+      awaitUninterruptibly(remaining);
+    }
+
+    synchronized (fatalError) {
+      if (fatalError[0] != null) {
+        throw fatalError[0];
+      }
+    }
+    return results;
+  }
+
+  private BatchResult<CiphertextMessage> encryptOne(
+      SignalProtocolAddress address, SessionRecord session, byte[] paddedMessage, Instant now) {
+    BatchSessionStore store = new BatchSessionStore(sessionStore, address, session);
+    SessionCipher cipher = new SessionCipher(store, null, null, null, identityKeyStore, address);
+    BatchResult<CiphertextMessage> result;
+    try {
+      result = BatchResult.success(cipher.encrypt(paddedMessage, now));
+    } catch (NoSessionException | UntrustedIdentityException e) {
+      result = BatchResult.failure(e);
+    }
+    // As in SessionCipher.encryptBatch, nothing is stored if anything else was thrown.
+    store.flush();
+    return result;
+  }
+
+  private static void awaitUninterruptibly(CountDownLatch latch) {
+    boolean interrupted = false;
+    while (true) {
+      try {
+        latch.await();
+        break;
+      } catch (InterruptedException e) {
+        interrupted = true;
+      }
+    }
+    if (interrupted) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
@@ -10,6 +10,7 @@ import static org.signal.libsignal.internal.FilterExceptions.filterExceptions;
 import java.time.Instant;
 import org.signal.libsignal.internal.Native;
 import org.signal.libsignal.internal.NativeHandleGuard;
+import org.signal.libsignal.internal.ParsedSessionStore;
 import org.signal.libsignal.protocol.state.IdentityKeyStore;
 import org.signal.libsignal.protocol.state.PreKeyBundle;
 import org.signal.libsignal.protocol.state.PreKeyStore;
@@ -64,7 +65,7 @@ public class SessionBuilder {
       SignedPreKeyStore signedPreKeyStore,
       IdentityKeyStore identityKeyStore,
       SignalProtocolAddress remoteAddress) {
-    this.sessionStore = sessionStore;
+    this.sessionStore = ParsedSessionStore.wrap(sessionStore);
     this.preKeyStore = preKeyStore;
     this.signedPreKeyStore = signedPreKeyStore;
     this.identityKeyStore = identityKeyStore;
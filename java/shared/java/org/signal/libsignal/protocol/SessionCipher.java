@@ -8,8 +8,11 @@ package org.signal.libsignal.protocol;
 import static org.signal.libsignal.internal.FilterExceptions.filterExceptions;
 
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
 import org.signal.libsignal.internal.Native;
 import org.signal.libsignal.internal.NativeHandleGuard;
+import org.signal.libsignal.internal.ParsedSessionStore;
 import org.signal.libsignal.protocol.message.CiphertextMessage;
 import org.signal.libsignal.protocol.message.PreKeySignalMessage;
 import org.signal.libsignal.protocol.message.SignalMessage;
@@ -20,6 +23,7 @@ import org.signal.libsignal.protocol.state.SessionRecord;
 import org.signal.libsignal.protocol.state.SessionStore;
 import org.signal.libsignal.protocol.state.SignalProtocolStore;
 import org.signal.libsignal.protocol.state.SignedPreKeyStore;
+import org.signal.libsignal.protocol.util.BatchResult;
 
 /**
  * The main entry point for Signal Protocol encrypt/decrypt operations.
@@ -55,7 +59,7 @@ public class SessionCipher {
       KyberPreKeyStore kyberPreKeyStore,
       IdentityKeyStore identityKeyStore,
       SignalProtocolAddress remoteAddress) {
-    this.sessionStore = sessionStore;
+    this.sessionStore = ParsedSessionStore.wrap(sessionStore);
     this.preKeyStore = preKeyStore;
     this.identityKeyStore = identityKeyStore;
     this.remoteAddress = remoteAddress;
@@ -181,6 +185,100 @@ public class SessionCipher {
     }
   }
 
+  /**
+   * Encrypt several messages to this recipient, in order.
+   *
+   * <p>The session is loaded from the {@link SessionStore} once before the first message and stored
+   * once after the last one, rather than once per message. The identity store is still consulted
+   * for each message.
+   *
+   * <p>A message that fails to encrypt does not stop the rest of the batch; its result holds the
+   * {@link NoSessionException} or {@link UntrustedIdentityException} that {@link #encrypt(byte[])}
+   * would have thrown.
+   *
+   * <p>If anything else is thrown, including by the store itself, nothing from the batch is stored
+   * and no ciphertexts are returned, so the whole batch can be retried.
+   *
+   * @param paddedMessages The plaintext messages, each optionally padded to a constant multiple.
+   * @return One result per input message, in the same order.
+   */
+  public List<BatchResult<CiphertextMessage>> encryptBatch(List<byte[]> paddedMessages) {
+    return encryptBatch(paddedMessages, Instant.now());
+  }
+
+  /**
+   * Encrypt several messages to this recipient, in order.
+   *
+   * <p>You should only use this overload if you need to test session expiration explicitly.
+   *
+   * @see #encryptBatch(List)
+   */
+  public List<BatchResult<CiphertextMessage>> encryptBatch(
+      List<byte[]> paddedMessages, Instant now) {
+    List<BatchResult<CiphertextMessage>> results = new ArrayList<>(paddedMessages.size());
+    if (paddedMessages.isEmpty()) {
+      return results;
+    }
+
+    BatchSessionStore batchStore =
+        new BatchSessionStore(sessionStore, remoteAddress, sessionStore.loadSession(remoteAddress));
+    SessionCipher batchCipher = withSessionStore(batchStore);
+    for (byte[] paddedMessage : paddedMessages) {
+      try {
+        results.add(BatchResult.success(batchCipher.encrypt(paddedMessage, now)));
+      } catch (NoSessionException | UntrustedIdentityException e) {
+        results.add(BatchResult.failure(e));
+      }
+    }
+    batchStore.flush();
+    return results;
+  }
+
+  /**
+   * Decrypt several messages from this sender, in order.
+   *
+   * <p>The session is loaded from the {@link SessionStore} once before the first message and stored
+   * once after the last one, rather than once per message. The identity store is still consulted
+   * for each message.
+   *
+   * <p>A message that fails to decrypt (including a duplicate) does not stop the rest of the batch;
+   * its result holds the exception that {@link #decrypt(SignalMessage)} would have thrown.
+   *
+   * <p>If anything else is thrown, including by the store itself, nothing from the batch is stored,
+   * so the whole batch can be retried.
+   *
+   * @param ciphertexts The {@link SignalMessage}s to decrypt.
+   * @return One result per input message, in the same order.
+   */
+  public List<BatchResult<byte[]>> decryptBatch(List<SignalMessage> ciphertexts) {
+    List<BatchResult<byte[]>> results = new ArrayList<>(ciphertexts.size());
+    if (ciphertexts.isEmpty()) {
+      return results;
+    }
+
+    BatchSessionStore batchStore =
+        new BatchSessionStore(sessionStore, remoteAddress, sessionStore.loadSession(remoteAddress));
+    SessionCipher batchCipher = withSessionStore(batchStore);
+    for (SignalMessage ciphertext : ciphertexts) {
+      try {
+        results.add(BatchResult.success(batchCipher.decrypt(ciphertext)));
+      } catch (InvalidMessageException
+          | InvalidVersionException
+          | DuplicateMessageException
+          | NoSessionException
+          | UntrustedIdentityException e) {
+        results.add(BatchResult.failure(e));
+      }
+    }
+    batchStore.flush();
+    return results;
+  }
+
+  private SessionCipher withSessionStore(SessionStore store) {
+    return new SessionCipher(
+        store, preKeyStore, signedPreKeyStore, kyberPreKeyStore, identityKeyStore, remoteAddress);
+  }
+
   public int getRemoteRegistrationId() {
     if (!sessionStore.containsSession(remoteAddress)) {
       throw new IllegalStateException(String.format("No session for (%s)!", remoteAddress));
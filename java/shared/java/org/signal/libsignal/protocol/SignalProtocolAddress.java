@@ -6,6 +6,7 @@
 package org.signal.libsignal.protocol;
 
 import org.signal.libsignal.internal.Native;
+import org.signal.libsignal.internal.NativeCleaner;
 import org.signal.libsignal.internal.NativeHandleGuard;
 
 public class SignalProtocolAddress implements NativeHandleGuard.Owner {
@@ -13,6 +14,7 @@ public class SignalProtocolAddress implements NativeHandleGuard.Owner {
 
   public SignalProtocolAddress(String name, int deviceId) {
     this.unsafeHandle = Native.ProtocolAddress_New(name, deviceId);
+    NativeCleaner.register(this, this.unsafeHandle, Native::ProtocolAddress_Destroy);
   }
 
   public SignalProtocolAddress(ServiceId serviceId, int deviceId) {
@@ -21,12 +23,7 @@ public class SignalProtocolAddress implements NativeHandleGuard.Owner {
 
   public SignalProtocolAddress(long unsafeHandle) {
     this.unsafeHandle = unsafeHandle;
-  }
-
-  @Override
-  @SuppressWarnings("deprecation")
-  protected void finalize() {
-    Native.ProtocolAddress_Destroy(this.unsafeHandle);
+    NativeCleaner.register(this, this.unsafeHandle, Native::ProtocolAddress_Destroy);
   }
 
   public String getName() {
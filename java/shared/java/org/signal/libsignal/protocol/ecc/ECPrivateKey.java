@@ -8,6 +8,7 @@ package org.signal.libsignal.protocol.ecc;
 import static org.signal.libsignal.internal.FilterExceptions.filterExceptions;
 
 import org.signal.libsignal.internal.Native;
+import org.signal.libsignal.internal.NativeCleaner;
 import org.signal.libsignal.internal.NativeHandleGuard;
 import org.signal.libsignal.protocol.InvalidKeyException;
 
@@ -22,6 +23,7 @@ public class ECPrivateKey implements NativeHandleGuard.Owner {
     this.unsafeHandle =
         filterExceptions(
             InvalidKeyException.class, () -> Native.ECPrivateKey_Deserialize(privateKey));
+    NativeCleaner.register(this, this.unsafeHandle, Native::ECPrivateKey_Destroy);
   }
 
   public ECPrivateKey(long nativeHandle) {
@@ -29,12 +31,7 @@ public class ECPrivateKey implements NativeHandleGuard.Owner {
       throw new NullPointerException();
     }
     this.unsafeHandle = nativeHandle;
-  }
-
-  @Override
-  @SuppressWarnings("deprecation")
-  protected void finalize() {
-    Native.ECPrivateKey_Destroy(this.unsafeHandle);
+    NativeCleaner.register(this, this.unsafeHandle, Native::ECPrivateKey_Destroy);
   }
 
   public byte[] serialize() {
@@ -44,19 +44,12 @@ public class ECPublicKey extends NativeHandleGuard.SimpleOwner implements Compar
   }
 
   public ECPublicKey(long nativeHandle) {
-    super(nativeHandle);
+    super(nativeHandle, Native::ECPublicKey_Destroy);
     if (nativeHandle == 0) {
       throw new NullPointerException();
     }
   }
 
-  @Override
-  protected void release(long nativeHandle) {
-    if (nativeHandle != 0) {
-      Native.ECPublicKey_Destroy(nativeHandle);
-    }
-  }
-
   public boolean verifySignature(byte[] message, byte[] signature) {
     try (NativeHandleGuard guard = new NativeHandleGuard(this)) {
       return Native.ECPublicKey_Verify(guard.nativeHandle(), message, signature);
@@ -0,0 +1,73 @@
+//
+// Copyright 2026 Signal Messenger, LLC.
+// SPDX-License-Identifier: AGPL-3.0-only
+//
+
+package org.signal.libsignal.protocol.groups;
+
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import org.signal.libsignal.protocol.SignalProtocolAddress;
+import org.signal.libsignal.protocol.groups.state.SenderKeyRecord;
+import org.signal.libsignal.protocol.groups.state.SenderKeyStore;
+
+/**
+ * Serves a single sender's records from memory for the duration of a batch, loading each
+ * distribution's record from the underlying store at most once and writing it back only once at
+ * the end.
+ *
+ * <p>Native code makes its own copy of a loaded record and hands back a new record to store, so
+ * returning the same instance for every load is safe.
+ */
+class BatchSenderKeyStore implements SenderKeyStore {
+  private final SenderKeyStore delegate;
+  private final SignalProtocolAddress sender;
+  private final String name;
+  private final int deviceId;
+  // Values may be null, recording that the underlying store has no record.
+  private final Map<UUID, SenderKeyRecord> records = new HashMap<>();
+  private final Set<UUID> dirty = new LinkedHashSet<>();
+
+  BatchSenderKeyStore(SenderKeyStore delegate, SignalProtocolAddress sender) {
+    this.delegate = delegate;
+    this.sender = sender;
+    this.name = sender.getName();
+    this.deviceId = sender.getDeviceId();
+  }
+
+  private boolean isBatchSender(SignalProtocolAddress other) {
+    return other.getDeviceId() == deviceId && other.getName().equals(name);
+  }
+
+  void flush() {
+    for (UUID distributionId : dirty) {
+      delegate.storeSenderKey(sender, distributionId, records.get(distributionId));
+    }
+    dirty.clear();
+  }
+
+  @Override
+  public void storeSenderKey(
+      SignalProtocolAddress sender, UUID distributionId, SenderKeyRecord record) {
+    if (isBatchSender(sender)) {
+      records.put(distributionId, record);
+      dirty.add(distributionId);
+    } else {
+      delegate.storeSenderKey(sender, distributionId, record);
+    }
+  }
+
+  @Override
+  public SenderKeyRecord loadSenderKey(SignalProtocolAddress sender, UUID distributionId) {
+    if (!isBatchSender(sender)) {
+      return delegate.loadSenderKey(sender, distributionId);
+    }
+    if (!records.containsKey(distributionId)) {
+      records.put(distributionId, delegate.loadSenderKey(sender, distributionId));
+    }
+    return records.get(distributionId);
+  }
+}
@@ -7,6 +7,8 @@ package org.signal.libsignal.protocol.groups;
 
 import static org.signal.libsignal.internal.FilterExceptions.filterExceptions;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.UUID;
 import org.signal.libsignal.internal.Native;
 import org.signal.libsignal.internal.NativeHandleGuard;
@@ -17,6 +19,7 @@ import org.signal.libsignal.protocol.NoSessionException;
 import org.signal.libsignal.protocol.SignalProtocolAddress;
 import org.signal.libsignal.protocol.groups.state.SenderKeyStore;
 import org.signal.libsignal.protocol.message.CiphertextMessage;
+import org.signal.libsignal.protocol.util.BatchResult;
 
 /**
  * The main entry point for Signal Protocol group encrypt/decrypt operations.
@@ -84,4 +87,45 @@ public class GroupCipher {
                   sender.nativeHandle(), senderKeyMessageBytes, this.senderKeyStore));
     }
   }
+
+  /**
+   * Decrypt several SenderKey group messages from this sender, in order.
+   *
+   * <p>Each distribution's record is loaded from the {@link SenderKeyStore} once, the first time a
+   * message for it is seen, and stored once after the last message, rather than once per message.
+   * This is intended for draining a backlog, where most messages come from the same sender and
+   * distribution.
+   *
+   * <p>A message that fails to decrypt does not stop the rest of the batch; its result holds the
+   * exception that {@link #decrypt(byte[])} would have thrown. Messages that arrive out of order
+   * are handled as they would be one at a time, and a message that was already decrypted, whether
+   * earlier in the batch or before it, fails with {@link DuplicateMessageException}.
+   *
+   * <p>If the store itself throws, nothing from the batch is stored, so the whole batch can be
+   * retried.
+   *
+   * @param senderKeyMessages The received ciphertexts.
+   * @return One result per input message, in the same order.
+   */
+  public List<BatchResult<byte[]>> decryptBatch(List<byte[]> senderKeyMessages) {
+    List<BatchResult<byte[]>> results = new ArrayList<>(senderKeyMessages.size());
+    if (senderKeyMessages.isEmpty()) {
+      return results;
+    }
+
+    BatchSenderKeyStore batchStore = new BatchSenderKeyStore(senderKeyStore, sender);
+    GroupCipher batchCipher = new GroupCipher(batchStore, sender);
+    for (byte[] senderKeyMessage : senderKeyMessages) {
+      try {
+        results.add(BatchResult.success(batchCipher.decrypt(senderKeyMessage)));
+      } catch (LegacyMessageException
+          | DuplicateMessageException
+          | InvalidMessageException
+          | NoSessionException e) {
+        results.add(BatchResult.failure(e));
+      }
+    }
+    batchStore.flush();
+    return results;
+  }
 }
@@ -0,0 +1,258 @@
+//
+// Copyright 2026 Signal Messenger, LLC.
+// SPDX-License-Identifier: AGPL-3.0-only
+//
+
+package org.signal.libsignal.protocol.groups.state;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+import org.signal.libsignal.protocol.InvalidMessageException;
+import org.signal.libsignal.protocol.SignalProtocolAddress;
+
+/**
+ * A thread-safe {@link SenderKeyStore} that keeps a bounded number of records in memory.
+ *
+ * <p>Records are evicted when they haven't been used for longer than the configured idle time, or
+ * when the store is full, least recently used first. Evicted records are handed to an optional
+ * backing store, and a record that isn't in memory is looked up there before giving up; without
+ * a backing store, evicted records are simply forgotten.
+ *
+ * <p>Records that are still in memory only reach the backing store when they are evicted or when
+ * {@link #flush} is called. Call {@code flush} before discarding the store, or those records are
+ * lost.
+ *
+ * <p>Records are held in serialized form, and every load returns a fresh copy, as {@link
+ * SenderKeyStore#loadSenderKey} requires. The store is split into segments by sender and
+ * distribution ID, each with its own lock, so unrelated groups rarely contend. The size limit is
+ * applied per segment, so the store may begin evicting slightly before it holds {@code maxRecords}
+ * records in total.
+ *
+ * <p>The backing store is called while the segment lock is held, so that a record that is being
+ * evicted can't be read back from the backing store before it has been written there. It should
+ * not call back into this store.
+ */
+public class BoundedSenderKeyStore implements SenderKeyStore {
+
+  private static final int DEFAULT_SEGMENTS = 16;
+
+  private record Key(String name, int deviceId, UUID distributionId) {}
+
+  private static final class Entry {
+    final byte[] record;
+    long lastUsedNanos;
+
+    Entry(byte[] record, long lastUsedNanos) {
+      this.record = record;
+      this.lastUsedNanos = lastUsedNanos;
+    }
+  }
+
+  private final List<Map<Key, Entry>> segments;
+  private final int maxRecordsPerSegment;
+  private final long maxIdleNanos;
+  private final SenderKeyStore evictedRecordStore;
+  private final LongSupplier nanoTime;
+
+  private final AtomicLong hits = new AtomicLong();
+  private final AtomicLong misses = new AtomicLong();
+  private final AtomicLong evictions = new AtomicLong();
+
+  /**
+   * Creates a store that forgets records once they are evicted.
+   *
+   * @param maxRecords the most records to keep in memory
+   * @param maxIdle how long a record may go unused before it is evicted
+   */
+  public BoundedSenderKeyStore(int maxRecords, Duration maxIdle) {
+    this(maxRecords, maxIdle, null);
+  }
+
+  /**
+   * Creates a store that writes evicted records to {@code evictedRecordStore}, and looks there for
+   * records it doesn't have in memory.
+   *
+   * @param maxRecords the most records to keep in memory
+   * @param maxIdle how long a record may go unused before it is evicted
+   * @param evictedRecordStore where to put evicted records, or {@code null} to drop them
+   */
+  public BoundedSenderKeyStore(
+      int maxRecords, Duration maxIdle, SenderKeyStore evictedRecordStore) {
+    this(
+        maxRecords,
+        maxIdle,
+        evictedRecordStore,
+        Math.min(DEFAULT_SEGMENTS, Math.max(1, maxRecords)),
+        System::nanoTime);
+  }
+
+  BoundedSenderKeyStore(
+      int maxRecords,
+      Duration maxIdle,
+      SenderKeyStore evictedRecordStore,
+      int segmentCount,
+      LongSupplier nanoTime) {
+    if (maxRecords <= 0) {
+      throw new IllegalArgumentException("maxRecords must be positive");
+    }
+    if (maxIdle.isNegative() || maxIdle.isZero()) {
+      throw new IllegalArgumentException("maxIdle must be positive");
+    }
+    this.maxRecordsPerSegment = Math.max(1, maxRecords / segmentCount);
+    this.maxIdleNanos = maxIdle.toNanos();
+    this.evictedRecordStore = evictedRecordStore;
+    this.nanoTime = nanoTime;
+    this.segments = new ArrayList<>(segmentCount);
+    for (int i = 0; i < segmentCount; i++) {
+      // Access order, so the least recently used record is always first.
+      this.segments.add(new LinkedHashMap<>(16, 0.75f, true));
+    }
+  }
+
+  @Override
+  public void storeSenderKey(
+      SignalProtocolAddress sender, UUID distributionId, SenderKeyRecord record) {
+    Key key = new Key(sender.getName(), sender.getDeviceId(), distributionId);
+    byte[] serialized = record.serialize();
+    Map<Key, Entry> segment = segmentFor(key);
+    synchronized (segment) {
+      long now = nanoTime.getAsLong();
+      segment.put(key, new Entry(serialized, now));
+      evictFromSegment(segment, now);
+    }
+  }
+
+  @Override
+  public SenderKeyRecord loadSenderKey(SignalProtocolAddress sender, UUID distributionId) {
+    Key key = new Key(sender.getName(), sender.getDeviceId(), distributionId);
+    Map<Key, Entry> segment = segmentFor(key);
+    byte[] serialized;
+    synchronized (segment) {
+      long now = nanoTime.getAsLong();
+      evictFromSegment(segment, now);
+      Entry entry = segment.get(key);
+      if (entry != null) {
+        hits.incrementAndGet();
+        entry.lastUsedNanos = now;
+        serialized = entry.record;
+      } else {
+        misses.incrementAndGet();
+        if (evictedRecordStore == null) {
+          return null;
+        }
+        SenderKeyRecord record = evictedRecordStore.loadSenderKey(sender, distributionId);
+        if (record == null) {
+          return null;
+        }
+        serialized = record.serialize();
+        segment.put(key, new Entry(serialized, now));
+        evictFromSegment(segment, now);
+        return record;
+      }
+    }
+
+    try {
+      return new SenderKeyRecord(serialized);
+    } catch (InvalidMessageException e) {
+      throw new AssertionError(e);
+    }
+  }
+
+  /** Evicts every record that has been idle for too long, without waiting for the next access. */
+  public void evictIdleRecords() {
+    for (Map<Key, Entry> segment : segments) {
+      synchronized (segment) {
+        evictFromSegment(segment, nanoTime.getAsLong());
+      }
+    }
+  }
+
+  /**
+   * Writes every record held in memory to the backing store, keeping it in memory as well.
+   *
+   * <p>Does nothing if there is no backing store.
+   */
+  public void flush() {
+    if (evictedRecordStore == null) {
+      return;
+    }
+    for (Map<Key, Entry> segment : segments) {
+      synchronized (segment) {
+        for (Map.Entry<Key, Entry> entry : segment.entrySet()) {
+          writeBack(entry.getKey(), entry.getValue());
+        }
+      }
+    }
+  }
+
+  /** Returns the number of records currently held in memory. */
+  public int size() {
+    int size = 0;
+    for (Map<Key, Entry> segment : segments) {
+      synchronized (segment) {
+        size += segment.size();
+      }
+    }
+    return size;
+  }
+
+  /** Returns the number of loads that found their record in memory. */
+  public long getHitCount() {
+    return hits.get();
+  }
+
+  /**
+   * Returns the number of loads that didn't find their record in memory, whether or not it was then
+   * found in the backing store.
+   */
+  public long getMissCount() {
+    return misses.get();
+  }
+
+  /** Returns the number of records evicted from memory, whether for size or for idleness. */
+  public long getEvictionCount() {
+    return evictions.get();
+  }
+
+  private Map<Key, Entry> segmentFor(Key key) {
+    int hash = key.hashCode();
+    hash ^= (hash >>> 16);
+    return segments.get((hash & 0x7fffffff) % segments.size());
+  }
+
+  /** Must be called with the segment's lock held. */
+  private void evictFromSegment(Map<Key, Entry> segment, long now) {
+    Iterator<Map.Entry<Key, Entry>> iterator = segment.entrySet().iterator();
+    while (iterator.hasNext()) {
+      Map.Entry<Key, Entry> eldest = iterator.next();
+      boolean idle = now - eldest.getValue().lastUsedNanos > maxIdleNanos;
+      if (!idle && segment.size() <= maxRecordsPerSegment) {
+        break;
+      }
+      iterator.remove();
+      evictions.incrementAndGet();
+      if (evictedRecordStore != null) {
+        writeBack(eldest.getKey(), eldest.getValue());
+      }
+    }
+  }
+
+  /** Must be called with the segment's lock held. */
+  private void writeBack(Key key, Entry entry) {
+    try {
+      evictedRecordStore.storeSenderKey(
+          new SignalProtocolAddress(key.name(), key.deviceId()),
+          key.distributionId(),
+          new SenderKeyRecord(entry.record));
+    } catch (InvalidMessageException e) {
+      throw new AssertionError(e);
+    }
+  }
+}
@@ -8,6 +8,7 @@ package org.signal.libsignal.protocol.groups.state;
 import static org.signal.libsignal.internal.FilterExceptions.filterExceptions;
 
 import org.signal.libsignal.internal.Native;
+import org.signal.libsignal.internal.NativeCleaner;
 import org.signal.libsignal.internal.NativeHandleGuard;
 import org.signal.libsignal.protocol.InvalidMessageException;
 
@@ -20,14 +21,9 @@ import org.signal.libsignal.protocol.InvalidMessageException;
 public class SenderKeyRecord implements NativeHandleGuard.Owner {
   private final long unsafeHandle;
 
-  @Override
-  @SuppressWarnings("deprecation")
-  protected void finalize() {
-    Native.SenderKeyRecord_Destroy(this.unsafeHandle);
-  }
-
   public SenderKeyRecord(long unsafeHandle) {
     this.unsafeHandle = unsafeHandle;
+    NativeCleaner.register(this, this.unsafeHandle, Native::SenderKeyRecord_Destroy);
   }
 
   // FIXME: This shouldn't be considered a "message".
@@ -35,6 +31,7 @@ public class SenderKeyRecord implements NativeHandleGuard.Owner {
     this.unsafeHandle =
         filterExceptions(
             InvalidMessageException.class, () -> Native.SenderKeyRecord_Deserialize(serialized));
+    NativeCleaner.register(this, this.unsafeHandle, Native::SenderKeyRecord_Destroy);
   }
 
   public byte[] serialize() {
@@ -6,6 +6,7 @@
 package org.signal.libsignal.protocol.kem;
 
 import org.signal.libsignal.internal.Native;
+import org.signal.libsignal.internal.NativeCleaner;
 import org.signal.libsignal.internal.NativeHandleGuard;
 
 public class KEMKeyPair implements NativeHandleGuard.Owner {
@@ -21,12 +22,7 @@ public class KEMKeyPair implements NativeHandleGuard.Owner {
       throw new NullPointerException();
     }
     this.unsafeHandle = nativeHandle;
-  }
-
-  @Override
-  @SuppressWarnings("deprecation")
-  protected void finalize() {
-    Native.KyberKeyPair_Destroy(this.unsafeHandle);
+    NativeCleaner.register(this, this.unsafeHandle, Native::KyberKeyPair_Destroy);
   }
 
   public long unsafeNativeHandleWithoutGuard() {
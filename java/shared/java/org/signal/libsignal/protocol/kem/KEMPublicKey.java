@@ -9,6 +9,7 @@ import static org.signal.libsignal.internal.FilterExceptions.filterExceptions;
 
 import java.util.Arrays;
 import org.signal.libsignal.internal.Native;
+import org.signal.libsignal.internal.NativeCleaner;
 import org.signal.libsignal.internal.NativeHandleGuard;
 import org.signal.libsignal.protocol.InvalidKeyException;
 
@@ -21,6 +22,7 @@ public class KEMPublicKey implements NativeHandleGuard.Owner {
         filterExceptions(
             InvalidKeyException.class,
             () -> Native.KyberPublicKey_DeserializeWithOffset(serialized, offset));
+    NativeCleaner.register(this, this.unsafeHandle, Native::KyberPublicKey_Destroy);
   }
 
   public KEMPublicKey(byte[] serialized) throws InvalidKeyException {
@@ -28,6 +30,7 @@ public class KEMPublicKey implements NativeHandleGuard.Owner {
         filterExceptions(
             InvalidKeyException.class,
             () -> Native.KyberPublicKey_DeserializeWithOffset(serialized, 0));
+    NativeCleaner.register(this, this.unsafeHandle, Native::KyberPublicKey_Destroy);
   }
 
   public KEMPublicKey(long nativeHandle) {
@@ -35,12 +38,7 @@ public class KEMPublicKey implements NativeHandleGuard.Owner {
       throw new NullPointerException();
     }
     this.unsafeHandle = nativeHandle;
-  }
-
-  @Override
-  @SuppressWarnings("deprecation")
-  protected void finalize() {
-    Native.KyberPublicKey_Destroy(this.unsafeHandle);
+    NativeCleaner.register(this, this.unsafeHandle, Native::KyberPublicKey_Destroy);
   }
 
   public byte[] serialize() {
@@ -8,6 +8,7 @@ package org.signal.libsignal.protocol.kem;
 import static org.signal.libsignal.internal.FilterExceptions.filterExceptions;
 
 import org.signal.libsignal.internal.Native;
+import org.signal.libsignal.internal.NativeCleaner;
 import org.signal.libsignal.internal.NativeHandleGuard;
 import org.signal.libsignal.protocol.InvalidKeyException;
 
@@ -18,6 +19,7 @@ public class KEMSecretKey implements NativeHandleGuard.Owner {
     this.unsafeHandle =
         filterExceptions(
             InvalidKeyException.class, () -> Native.KyberSecretKey_Deserialize(privateKey));
+    NativeCleaner.register(this, this.unsafeHandle, Native::KyberSecretKey_Destroy);
   }
 
   public KEMSecretKey(long nativeHandle) {
@@ -25,12 +27,7 @@ public class KEMSecretKey implements NativeHandleGuard.Owner {
       throw new NullPointerException();
     }
     this.unsafeHandle = nativeHandle;
-  }
-
-  @Override
-  @SuppressWarnings("deprecation")
-  protected void finalize() {
-    Native.KyberSecretKey_Destroy(this.unsafeHandle);
+    NativeCleaner.register(this, this.unsafeHandle, Native::KyberSecretKey_Destroy);
   }
 
   public byte[] serialize() {
@@ -9,6 +9,7 @@ import static org.signal.libsignal.internal.FilterExceptions.filterExceptions;
 
 import java.util.Optional;
 import org.signal.libsignal.internal.Native;
+import org.signal.libsignal.internal.NativeCleaner;
 import org.signal.libsignal.internal.NativeHandleGuard;
 import org.signal.libsignal.protocol.InvalidKeyException;
 import org.signal.libsignal.protocol.InvalidMessageException;
@@ -16,13 +17,7 @@ import org.signal.libsignal.protocol.ecc.ECPublicKey;
 
 public final class DecryptionErrorMessage implements NativeHandleGuard.Owner {
 
-  final long unsafeHandle;
-
-  @Override
-  @SuppressWarnings("deprecation")
-  protected void finalize() {
-    Native.DecryptionErrorMessage_Destroy(this.unsafeHandle);
-  }
+  long unsafeHandle;
 
   public long unsafeNativeHandleWithoutGuard() {
     return unsafeHandle;
@@ -30,6 +25,7 @@ public final class DecryptionErrorMessage implements NativeHandleGuard.Owner {
 
   DecryptionErrorMessage(long unsafeHandle) {
     this.unsafeHandle = unsafeHandle;
+    NativeCleaner.register(this, this.unsafeHandle, Native::DecryptionErrorMessage_Destroy);
   }
 
   public DecryptionErrorMessage(byte[] serialized)
@@ -39,6 +35,7 @@ public final class DecryptionErrorMessage implements NativeHandleGuard.Owner {
             InvalidKeyException.class,
             InvalidMessageException.class,
             () -> Native.DecryptionErrorMessage_Deserialize(serialized));
+    NativeCleaner.register(this, this.unsafeHandle, Native::DecryptionErrorMessage_Destroy);
   }
 
   public static DecryptionErrorMessage forOriginalMessage(
@@ -8,20 +8,16 @@ package org.signal.libsignal.protocol.message;
 import static org.signal.libsignal.internal.FilterExceptions.filterExceptions;
 
 import org.signal.libsignal.internal.Native;
+import org.signal.libsignal.internal.NativeCleaner;
 import org.signal.libsignal.internal.NativeHandleGuard;
 import org.signal.libsignal.protocol.InvalidMessageException;
 import org.signal.libsignal.protocol.InvalidVersionException;
 
-public final class PlaintextContent implements CiphertextMessage, NativeHandleGuard.Owner {
+public final class PlaintextContent
+    implements CiphertextMessage, NativeHandleGuard.Owner {
 
   private final long unsafeHandle;
 
-  @Override
-  @SuppressWarnings("deprecation")
-  protected void finalize() {
-    Native.PlaintextContent_Destroy(this.unsafeHandle);
-  }
-
   public long unsafeNativeHandleWithoutGuard() {
     return unsafeHandle;
   }
@@ -30,6 +26,7 @@ public final class PlaintextContent implements CiphertextMessage, NativeHandleGu
   @SuppressWarnings("unused")
   private PlaintextContent(long unsafeHandle) {
     this.unsafeHandle = unsafeHandle;
+    NativeCleaner.register(this, this.unsafeHandle, Native::PlaintextContent_Destroy);
   }
 
   public PlaintextContent(DecryptionErrorMessage message) {
@@ -37,6 +34,7 @@ public final class PlaintextContent implements CiphertextMessage, NativeHandleGu
       this.unsafeHandle =
           Native.PlaintextContent_FromDecryptionErrorMessage(messageGuard.nativeHandle());
     }
+    NativeCleaner.register(this, this.unsafeHandle, Native::PlaintextContent_Destroy);
   }
 
   public PlaintextContent(byte[] serialized)
@@ -46,6 +44,7 @@ public final class PlaintextContent implements CiphertextMessage, NativeHandleGu
             InvalidMessageException.class,
             InvalidVersionException.class,
             () -> Native.PlaintextContent_Deserialize(serialized));
+    NativeCleaner.register(this, this.unsafeHandle, Native::PlaintextContent_Destroy);
   }
 
   @Override
@@ -9,6 +9,7 @@ import static org.signal.libsignal.internal.FilterExceptions.filterExceptions;
 
 import java.util.Optional;
 import org.signal.libsignal.internal.Native;
+import org.signal.libsignal.internal.NativeCleaner;
 import org.signal.libsignal.internal.NativeHandleGuard;
 import org.signal.libsignal.protocol.IdentityKey;
 import org.signal.libsignal.protocol.InvalidKeyException;
@@ -17,16 +18,11 @@ import org.signal.libsignal.protocol.InvalidVersionException;
 import org.signal.libsignal.protocol.LegacyMessageException;
 import org.signal.libsignal.protocol.ecc.ECPublicKey;
 
-public class PreKeySignalMessage implements CiphertextMessage, NativeHandleGuard.Owner {
+public class PreKeySignalMessage
+    implements CiphertextMessage, NativeHandleGuard.Owner {
 
   private final long unsafeHandle;
 
-  @Override
-  @SuppressWarnings("deprecation")
-  protected void finalize() {
-    Native.PreKeySignalMessage_Destroy(this.unsafeHandle);
-  }
-
   public PreKeySignalMessage(byte[] serialized)
       throws InvalidMessageException,
           InvalidVersionException,
@@ -39,10 +35,12 @@ public class PreKeySignalMessage implements CiphertextMessage, NativeHandleGuard
             LegacyMessageException.class,
             InvalidKeyException.class,
             () -> Native.PreKeySignalMessage_Deserialize(serialized));
+    NativeCleaner.register(this, this.unsafeHandle, Native::PreKeySignalMessage_Destroy);
   }
 
   public PreKeySignalMessage(long unsafeHandle) {
     this.unsafeHandle = unsafeHandle;
+    NativeCleaner.register(this, this.unsafeHandle, Native::PreKeySignalMessage_Destroy);
   }
 
   public int getMessageVersion() {
@@ -9,6 +9,7 @@ import static org.signal.libsignal.internal.FilterExceptions.filterExceptions;
 
 import java.util.UUID;
 import org.signal.libsignal.internal.Native;
+import org.signal.libsignal.internal.NativeCleaner;
 import org.signal.libsignal.internal.NativeHandleGuard;
 import org.signal.libsignal.protocol.InvalidKeyException;
 import org.signal.libsignal.protocol.InvalidMessageException;
@@ -20,14 +21,9 @@ public class SenderKeyDistributionMessage implements NativeHandleGuard.Owner {
 
   private final long unsafeHandle;
 
-  @Override
-  @SuppressWarnings("deprecation")
-  protected void finalize() {
-    Native.SenderKeyDistributionMessage_Destroy(this.unsafeHandle);
-  }
-
   public SenderKeyDistributionMessage(long unsafeHandle) {
     this.unsafeHandle = unsafeHandle;
+    NativeCleaner.register(this, this.unsafeHandle, Native::SenderKeyDistributionMessage_Destroy);
   }
 
   public SenderKeyDistributionMessage(byte[] serialized)
@@ -42,6 +38,7 @@ public class SenderKeyDistributionMessage implements NativeHandleGuard.Owner {
             LegacyMessageException.class,
             InvalidKeyException.class,
             () -> Native.SenderKeyDistributionMessage_Deserialize(serialized));
+    NativeCleaner.register(this, this.unsafeHandle, Native::SenderKeyDistributionMessage_Destroy);
   }
 
   public byte[] serialize() {
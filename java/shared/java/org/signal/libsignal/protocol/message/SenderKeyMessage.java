@@ -9,6 +9,7 @@ import static org.signal.libsignal.internal.FilterExceptions.filterExceptions;
 
 import java.util.UUID;
 import org.signal.libsignal.internal.Native;
+import org.signal.libsignal.internal.NativeCleaner;
 import org.signal.libsignal.internal.NativeHandleGuard;
 import org.signal.libsignal.protocol.InvalidMessageException;
 import org.signal.libsignal.protocol.InvalidVersionException;
@@ -19,14 +20,9 @@ public class SenderKeyMessage implements CiphertextMessage, NativeHandleGuard.Ow
 
   private final long unsafeHandle;
 
-  @Override
-  @SuppressWarnings("deprecation")
-  protected void finalize() {
-    Native.SenderKeyMessage_Destroy(this.unsafeHandle);
-  }
-
   public SenderKeyMessage(long unsafeHandle) {
     this.unsafeHandle = unsafeHandle;
+    NativeCleaner.register(this, this.unsafeHandle, Native::SenderKeyMessage_Destroy);
   }
 
   public long unsafeNativeHandleWithoutGuard() {
@@ -41,6 +37,7 @@ public class SenderKeyMessage implements CiphertextMessage, NativeHandleGuard.Ow
             InvalidVersionException.class,
             LegacyMessageException.class,
             () -> Native.SenderKeyMessage_Deserialize(serialized));
+    NativeCleaner.register(this, this.unsafeHandle, Native::SenderKeyMessage_Destroy);
   }
 
   public UUID getDistributionId() {
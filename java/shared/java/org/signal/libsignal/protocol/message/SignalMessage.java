@@ -9,6 +9,7 @@ import static org.signal.libsignal.internal.FilterExceptions.filterExceptions;
 
 import javax.crypto.spec.SecretKeySpec;
 import org.signal.libsignal.internal.Native;
+import org.signal.libsignal.internal.NativeCleaner;
 import org.signal.libsignal.internal.NativeHandleGuard;
 import org.signal.libsignal.protocol.IdentityKey;
 import org.signal.libsignal.protocol.InvalidKeyException;
@@ -21,12 +22,6 @@ import org.signal.libsignal.protocol.util.ByteUtil;
 public class SignalMessage implements CiphertextMessage, NativeHandleGuard.Owner {
   private final long unsafeHandle;
 
-  @Override
-  @SuppressWarnings("deprecation")
-  protected void finalize() {
-    Native.SignalMessage_Destroy(this.unsafeHandle);
-  }
-
   public SignalMessage(byte[] serialized)
       throws InvalidMessageException,
           InvalidVersionException,
@@ -39,10 +34,12 @@ public class SignalMessage implements CiphertextMessage, NativeHandleGuard.Owner
             InvalidKeyException.class,
             LegacyMessageException.class,
             () -> Native.SignalMessage_Deserialize(serialized));
+    NativeCleaner.register(this, this.unsafeHandle, Native::SignalMessage_Destroy);
   }
 
   public SignalMessage(long unsafeHandle) {
     this.unsafeHandle = unsafeHandle;
+    NativeCleaner.register(this, this.unsafeHandle, Native::SignalMessage_Destroy);
   }
 
   public ECPublicKey getSenderRatchetKey() {
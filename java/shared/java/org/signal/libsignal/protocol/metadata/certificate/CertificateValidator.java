@@ -5,6 +5,9 @@
 
 package org.signal.libsignal.metadata.certificate;
 
+import java.nio.ByteBuffer;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import org.signal.libsignal.internal.Native;
 import org.signal.libsignal.internal.NativeHandleGuard;
 import org.signal.libsignal.protocol.InvalidKeyException;
@@ -14,8 +17,39 @@ import org.signal.libsignal.protocol.ecc.ECPublicKey;
 public class CertificateValidator {
   private final ECPublicKey trustRoot;
 
+  // Expiration times of certificates that passed validation, keyed by their serialized form. Null
+  // if caching is off; otherwise guarded by itself.
+  private final Map<ByteBuffer, Long> validated;
+
   public CertificateValidator(ECPublicKey trustRoot) {
+    this(trustRoot, 0);
+  }
+
+  /**
+   * Creates a validator that remembers up to {@code maxCachedCertificates} sender certificates that
+   * passed validation, evicting the least recently used one when it needs to make room.
+   *
+   * <p>A remembered certificate is accepted again without checking its signatures, as long as the
+   * validation time is before its expiration. Since most messages are sent with one of a few
+   * certificates, this saves nearly all signature checks when decrypting sealed sender messages.
+   * Passing 0 turns caching off.
+   */
+  public CertificateValidator(ECPublicKey trustRoot, int maxCachedCertificates) {
+    if (maxCachedCertificates < 0) {
+      throw new IllegalArgumentException("maxCachedCertificates must not be negative");
+    }
     this.trustRoot = trustRoot;
+    if (maxCachedCertificates == 0) {
+      this.validated = null;
+    } else {
+      this.validated =
+          new LinkedHashMap<ByteBuffer, Long>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<ByteBuffer, Long> eldest) {
+              return size() > maxCachedCertificates;
+            }
+          };
+    }
   }
 
   public ECPublicKey getTrustRoot() {
@@ -24,6 +58,28 @@ public class CertificateValidator {
 
   public void validate(SenderCertificate certificate, long validationTime)
       throws InvalidCertificateException {
+    if (validated == null) {
+      validateSignatures(certificate, validationTime);
+      return;
+    }
+
+    ByteBuffer key = ByteBuffer.wrap(certificate.getSerialized());
+    Long expiration;
+    synchronized (validated) {
+      expiration = validated.get(key);
+    }
+    if (expiration != null && validationTime < expiration) {
+      return;
+    }
+
+    validateSignatures(certificate, validationTime);
+    synchronized (validated) {
+      validated.put(key, certificate.getExpiration());
+    }
+  }
+
+  private void validateSignatures(SenderCertificate certificate, long validationTime)
+      throws InvalidCertificateException {
     try (NativeHandleGuard certificateGuard = new NativeHandleGuard(certificate);
         NativeHandleGuard trustRootGuard = new NativeHandleGuard(trustRoot)) {
       if (!Native.SenderCertificate_Validate(
@@ -35,6 +91,16 @@ public class CertificateValidator {
     }
   }
 
+  // VisibleForTesting
+  int getCachedCertificateCount() {
+    if (validated == null) {
+      return 0;
+    }
+    synchronized (validated) {
+      return validated.size();
+    }
+  }
+
   // VisibleForTesting
   void validate(ServerCertificate certificate) throws InvalidCertificateException {
     try {
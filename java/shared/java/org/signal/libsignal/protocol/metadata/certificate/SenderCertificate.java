@@ -9,6 +9,7 @@ import static org.signal.libsignal.internal.FilterExceptions.filterExceptions;
 
 import java.util.Optional;
 import org.signal.libsignal.internal.Native;
+import org.signal.libsignal.internal.NativeCleaner;
 import org.signal.libsignal.internal.NativeHandleGuard;
 import org.signal.libsignal.protocol.ServiceId;
 import org.signal.libsignal.protocol.ecc.ECPublicKey;
@@ -16,12 +17,6 @@ import org.signal.libsignal.protocol.ecc.ECPublicKey;
 public class SenderCertificate implements NativeHandleGuard.Owner {
   private final long unsafeHandle;
 
-  @Override
-  @SuppressWarnings("deprecation")
-  protected void finalize() {
-    Native.SenderCertificate_Destroy(this.unsafeHandle);
-  }
-
   public long unsafeNativeHandleWithoutGuard() {
     return this.unsafeHandle;
   }
@@ -32,10 +27,12 @@ public class SenderCertificate implements NativeHandleGuard.Owner {
     } catch (Exception e) {
       throw new InvalidCertificateException(e);
     }
+    NativeCleaner.register(this, this.unsafeHandle, Native::SenderCertificate_Destroy);
   }
 
   public SenderCertificate(long unsafeHandle) {
     this.unsafeHandle = unsafeHandle;
+    NativeCleaner.register(this, this.unsafeHandle, Native::SenderCertificate_Destroy);
   }
 
   public ServerCertificate getSigner() {
@@ -9,6 +9,7 @@ import static org.signal.libsignal.internal.FilterExceptions.filterExceptions;
 
 import java.util.Optional;
 import org.signal.libsignal.internal.Native;
+import org.signal.libsignal.internal.NativeCleaner;
 import org.signal.libsignal.internal.NativeHandleGuard;
 import org.signal.libsignal.protocol.ServiceId;
 import org.signal.libsignal.protocol.ecc.ECPrivateKey;
@@ -17,14 +18,9 @@ import org.signal.libsignal.protocol.ecc.ECPublicKey;
 public class ServerCertificate implements NativeHandleGuard.Owner {
   private final long unsafeHandle;
 
-  @Override
-  @SuppressWarnings("deprecation")
-  protected void finalize() {
-    Native.ServerCertificate_Destroy(this.unsafeHandle);
-  }
-
   public ServerCertificate(long unsafeHandle) {
     this.unsafeHandle = unsafeHandle;
+    NativeCleaner.register(this, this.unsafeHandle, Native::ServerCertificate_Destroy);
   }
 
   public ServerCertificate(byte[] serialized) throws InvalidCertificateException {
@@ -33,6 +29,7 @@ public class ServerCertificate implements NativeHandleGuard.Owner {
     } catch (Exception e) {
       throw new InvalidCertificateException(e);
     }
+    NativeCleaner.register(this, this.unsafeHandle, Native::ServerCertificate_Destroy);
   }
 
   /** Use {@code trustRoot} to generate and sign a new server certificate containing {@code key}. */
@@ -47,6 +44,7 @@ public class ServerCertificate implements NativeHandleGuard.Owner {
                       serverPublicGuard.nativeHandle(),
                       trustRootPrivateGuard.nativeHandle()));
     }
+    NativeCleaner.register(this, this.unsafeHandle, Native::ServerCertificate_Destroy);
   }
 
   public int getKeyId() {
@@ -0,0 +1,48 @@
+//
+// Copyright 2026 Signal Messenger, LLC.
+// SPDX-License-Identifier: AGPL-3.0-only
+//
+
+package org.signal.libsignal.protocol.state;
+
+import org.signal.libsignal.internal.CompletableFuture;
+import org.signal.libsignal.protocol.IdentityKey;
+import org.signal.libsignal.protocol.IdentityKeyPair;
+import org.signal.libsignal.protocol.SignalProtocolAddress;
+
+/**
+ * An asynchronous counterpart to {@link IdentityKeyStore}.
+ *
+ * @see AsyncSessionStore
+ */
+public interface AsyncIdentityKeyStore {
+
+  /**
+   * @see IdentityKeyStore#getIdentityKeyPair
+   */
+  public CompletableFuture<IdentityKeyPair> getIdentityKeyPair();
+
+  /**
+   * @see IdentityKeyStore#getLocalRegistrationId
+   */
+  public CompletableFuture<Integer> getLocalRegistrationId();
+
+  /**
+   * @return a future for whether an existing, different identity key was replaced.
+   * @see IdentityKeyStore#saveIdentity
+   */
+  public CompletableFuture<Boolean> saveIdentity(
+      SignalProtocolAddress address, IdentityKey identityKey);
+
+  /**
+   * @see IdentityKeyStore#isTrustedIdentity
+   */
+  public CompletableFuture<Boolean> isTrustedIdentity(
+      SignalProtocolAddress address, IdentityKey identityKey, IdentityKeyStore.Direction direction);
+
+  /**
+   * @return a future for the saved identity key, or {@code null} if there is none.
+   * @see IdentityKeyStore#getIdentity
+   */
+  public CompletableFuture<IdentityKey> getIdentity(SignalProtocolAddress address);
+}
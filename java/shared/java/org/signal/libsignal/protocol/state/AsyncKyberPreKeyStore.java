@@ -0,0 +1,44 @@
+//
+// Copyright 2026 Signal Messenger, LLC.
+// SPDX-License-Identifier: AGPL-3.0-only
+//
+
+package org.signal.libsignal.protocol.state;
+
+import java.util.List;
+import org.signal.libsignal.internal.CompletableFuture;
+
+/**
+ * An asynchronous counterpart to {@link KyberPreKeyStore}.
+ *
+ * @see AsyncSessionStore
+ */
+public interface AsyncKyberPreKeyStore {
+
+  /**
+   * @return a future for the record, which fails with {@link
+   *     org.signal.libsignal.protocol.InvalidKeyIdException} if there is none.
+   * @see KyberPreKeyStore#loadKyberPreKey
+   */
+  public CompletableFuture<KyberPreKeyRecord> loadKyberPreKey(int kyberPreKeyId);
+
+  /**
+   * @see KyberPreKeyStore#loadKyberPreKeys
+   */
+  public CompletableFuture<List<KyberPreKeyRecord>> loadKyberPreKeys();
+
+  /**
+   * @see KyberPreKeyStore#storeKyberPreKey
+   */
+  public CompletableFuture<Void> storeKyberPreKey(int kyberPreKeyId, KyberPreKeyRecord record);
+
+  /**
+   * @see KyberPreKeyStore#containsKyberPreKey
+   */
+  public CompletableFuture<Boolean> containsKyberPreKey(int kyberPreKeyId);
+
+  /**
+   * @see KyberPreKeyStore#markKyberPreKeyUsed
+   */
+  public CompletableFuture<Void> markKyberPreKeyUsed(int kyberPreKeyId);
+}
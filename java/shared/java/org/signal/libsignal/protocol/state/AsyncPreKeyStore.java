@@ -0,0 +1,38 @@
+//
+// Copyright 2026 Signal Messenger, LLC.
+// SPDX-License-Identifier: AGPL-3.0-only
+//
+
+package org.signal.libsignal.protocol.state;
+
+import org.signal.libsignal.internal.CompletableFuture;
+
+/**
+ * An asynchronous counterpart to {@link PreKeyStore}.
+ *
+ * @see AsyncSessionStore
+ */
+public interface AsyncPreKeyStore {
+
+  /**
+   * @return a future for the record, which fails with {@link
+   *     org.signal.libsignal.protocol.InvalidKeyIdException} if there is none.
+   * @see PreKeyStore#loadPreKey
+   */
+  public CompletableFuture<PreKeyRecord> loadPreKey(int preKeyId);
+
+  /**
+   * @see PreKeyStore#storePreKey
+   */
+  public CompletableFuture<Void> storePreKey(int preKeyId, PreKeyRecord record);
+
+  /**
+   * @see PreKeyStore#containsPreKey
+   */
+  public CompletableFuture<Boolean> containsPreKey(int preKeyId);
+
+  /**
+   * @see PreKeyStore#removePreKey
+   */
+  public CompletableFuture<Void> removePreKey(int preKeyId);
+}
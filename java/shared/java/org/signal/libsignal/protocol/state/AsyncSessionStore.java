@@ -0,0 +1,51 @@
+//
+// Copyright 2026 Signal Messenger, LLC.
+// SPDX-License-Identifier: AGPL-3.0-only
+//
+
+package org.signal.libsignal.protocol.state;
+
+import java.util.List;
+import org.signal.libsignal.internal.CompletableFuture;
+import org.signal.libsignal.protocol.SignalProtocolAddress;
+
+/**
+ * An asynchronous counterpart to {@link SessionStore}, for use with {@link
+ * org.signal.libsignal.protocol.AsyncSessionCipher}.
+ *
+ * <p>Each method should start its operation and return right away. A failed operation completes
+ * its future exceptionally. The futures must not depend on the executor the cipher runs its
+ * operations on to complete, since that executor may be blocked waiting for them.
+ */
+public interface AsyncSessionStore {
+
+  /**
+   * Loads the {@link SessionRecord} for a remote client.
+   *
+   * @return a future for a copy of the stored record, or {@code null} if there is none.
+   * @see SessionStore#loadSession
+   */
+  public CompletableFuture<SessionRecord> loadSession(SignalProtocolAddress address);
+
+  /**
+   * @see SessionStore#getSubDeviceSessions
+   */
+  public CompletableFuture<List<Integer>> getSubDeviceSessions(String name);
+
+  /**
+   * Commits the {@link SessionRecord} for a remote client to storage.
+   *
+   * @see SessionStore#storeSession
+   */
+  public CompletableFuture<Void> storeSession(SignalProtocolAddress address, SessionRecord record);
+
+  /**
+   * @see SessionStore#deleteSession
+   */
+  public CompletableFuture<Void> deleteSession(SignalProtocolAddress address);
+
+  /**
+   * @see SessionStore#deleteAllSessions
+   */
+  public CompletableFuture<Void> deleteAllSessions(String name);
+}
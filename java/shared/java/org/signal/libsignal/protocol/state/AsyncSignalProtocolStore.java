@@ -0,0 +1,17 @@
+//
+// Copyright 2026 Signal Messenger, LLC.
+// SPDX-License-Identifier: AGPL-3.0-only
+//
+
+package org.signal.libsignal.protocol.state;
+
+/**
+ * An asynchronous counterpart to the parts of {@link SignalProtocolStore} used by sessions; sender
+ * keys are not included.
+ */
+public interface AsyncSignalProtocolStore
+    extends AsyncIdentityKeyStore,
+        AsyncPreKeyStore,
+        AsyncSessionStore,
+        AsyncSignedPreKeyStore,
+        AsyncKyberPreKeyStore {}
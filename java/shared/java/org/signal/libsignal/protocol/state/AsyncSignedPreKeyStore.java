@@ -0,0 +1,44 @@
+//
+// Copyright 2026 Signal Messenger, LLC.
+// SPDX-License-Identifier: AGPL-3.0-only
+//
+
+package org.signal.libsignal.protocol.state;
+
+import java.util.List;
+import org.signal.libsignal.internal.CompletableFuture;
+
+/**
+ * An asynchronous counterpart to {@link SignedPreKeyStore}.
+ *
+ * @see AsyncSessionStore
+ */
+public interface AsyncSignedPreKeyStore {
+
+  /**
+   * @return a future for the record, which fails with {@link
+   *     org.signal.libsignal.protocol.InvalidKeyIdException} if there is none.
+   * @see SignedPreKeyStore#loadSignedPreKey
+   */
+  public CompletableFuture<SignedPreKeyRecord> loadSignedPreKey(int signedPreKeyId);
+
+  /**
+   * @see SignedPreKeyStore#loadSignedPreKeys
+   */
+  public CompletableFuture<List<SignedPreKeyRecord>> loadSignedPreKeys();
+
+  /**
+   * @see SignedPreKeyStore#storeSignedPreKey
+   */
+  public CompletableFuture<Void> storeSignedPreKey(int signedPreKeyId, SignedPreKeyRecord record);
+
+  /**
+   * @see SignedPreKeyStore#containsSignedPreKey
+   */
+  public CompletableFuture<Boolean> containsSignedPreKey(int signedPreKeyId);
+
+  /**
+   * @see SignedPreKeyStore#removeSignedPreKey
+   */
+  public CompletableFuture<Void> removeSignedPreKey(int signedPreKeyId);
+}
@@ -8,6 +8,7 @@ package org.signal.libsignal.protocol.state;
 import static org.signal.libsignal.internal.FilterExceptions.filterExceptions;
 
 import org.signal.libsignal.internal.Native;
+import org.signal.libsignal.internal.NativeCleaner;
 import org.signal.libsignal.internal.NativeHandleGuard;
 import org.signal.libsignal.protocol.InvalidKeyException;
 import org.signal.libsignal.protocol.InvalidMessageException;
@@ -16,17 +17,12 @@ import org.signal.libsignal.protocol.kem.KEMKeyPair;
 public class KyberPreKeyRecord implements NativeHandleGuard.Owner {
   private final long unsafeHandle;
 
-  @Override
-  @SuppressWarnings("deprecation")
-  protected void finalize() {
-    Native.KyberPreKeyRecord_Destroy(this.unsafeHandle);
-  }
-
   public KyberPreKeyRecord(int id, long timestamp, KEMKeyPair keyPair, byte[] signature) {
     try (NativeHandleGuard guard = new NativeHandleGuard(keyPair)) {
       this.unsafeHandle =
           Native.KyberPreKeyRecord_New(id, timestamp, guard.nativeHandle(), signature);
     }
+    NativeCleaner.register(this, this.unsafeHandle, Native::KyberPreKeyRecord_Destroy);
   }
 
   // FIXME: This shouldn't be considered a "message".
@@ -34,6 +30,7 @@ public class KyberPreKeyRecord implements NativeHandleGuard.Owner {
     this.unsafeHandle =
         filterExceptions(
             InvalidMessageException.class, () -> Native.KyberPreKeyRecord_Deserialize(serialized));
+    NativeCleaner.register(this, this.unsafeHandle, Native::KyberPreKeyRecord_Destroy);
   }
 
   public int getId() {
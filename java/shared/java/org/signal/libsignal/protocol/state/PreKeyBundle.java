@@ -8,6 +8,7 @@ package org.signal.libsignal.protocol.state;
 import static org.signal.libsignal.internal.FilterExceptions.filterExceptions;
 
 import org.signal.libsignal.internal.Native;
+import org.signal.libsignal.internal.NativeCleaner;
 import org.signal.libsignal.internal.NativeHandleGuard;
 import org.signal.libsignal.protocol.IdentityKey;
 import org.signal.libsignal.protocol.ecc.ECPublicKey;
@@ -24,12 +25,6 @@ public class PreKeyBundle implements NativeHandleGuard.Owner {
   // -1 is treated as Option<u32>::None by the bridging layer
   public static final int NULL_PRE_KEY_ID = -1;
 
-  @Override
-  @SuppressWarnings("deprecation")
-  protected void finalize() {
-    Native.PreKeyBundle_Destroy(this.unsafeHandle);
-  }
-
   public PreKeyBundle(
       int registrationId,
       int deviceId,
@@ -86,6 +81,7 @@ public class PreKeyBundle implements NativeHandleGuard.Owner {
                       kyberPreKeyPublicGuard.nativeHandle(),
                       kyberSignature));
     }
+    NativeCleaner.register(this, this.unsafeHandle, Native::PreKeyBundle_Destroy);
   }
 
   /**
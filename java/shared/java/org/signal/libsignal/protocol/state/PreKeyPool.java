@@ -0,0 +1,338 @@
+//
+// Copyright 2026 Signal Messenger, LLC.
+// SPDX-License-Identifier: AGPL-3.0-only
+//
+
+package org.signal.libsignal.protocol.state;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import org.signal.libsignal.protocol.IdentityKeyPair;
+import org.signal.libsignal.protocol.ecc.Curve;
+import org.signal.libsignal.protocol.ecc.ECKeyPair;
+import org.signal.libsignal.protocol.kem.KEMKeyPair;
+import org.signal.libsignal.protocol.kem.KEMKeyType;
+import org.signal.libsignal.protocol.util.Medium;
+
+/**
+ * Generates pre-keys ahead of time on a background {@link Executor}, so that refilling the keys
+ * on the server doesn't have to wait for key generation.
+ *
+ * <p>The pool keeps up to {@code targetSize} one-time pre-keys and one-time Kyber pre-keys ready,
+ * plus one signed pre-key. Whenever taking keys leaves fewer than {@code lowWaterMark} of a kind,
+ * the pool starts generating more of that kind in the background. If a request asks for more keys
+ * than are ready, the rest are generated on the calling thread.
+ *
+ * <p>Only the key pairs (and, where needed, their signatures) are generated ahead of time. IDs and
+ * timestamps are assigned when the keys are taken, at which point they are saved to the
+ * appropriate store and returned, ready to upload. The stores are only used from the thread that
+ * takes the keys, so they need not be thread-safe. The pool itself is thread-safe.
+ *
+ * <p>Pre-generated keys only live in memory; keys that haven't been taken are lost when the pool
+ * is discarded.
+ */
+public class PreKeyPool {
+
+  /** Generation timings for one kind of key. */
+  public static final class GenerationMetrics {
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong inlineCount = new AtomicLong();
+    private final AtomicLong totalNanos = new AtomicLong();
+    private final AtomicLong maxNanos = new AtomicLong();
+
+    private GenerationMetrics() {}
+
+    private void record(long nanos, boolean inline) {
+      count.incrementAndGet();
+      if (inline) {
+        inlineCount.incrementAndGet();
+      }
+      totalNanos.addAndGet(nanos);
+      long max = maxNanos.get();
+      while (nanos > max && !maxNanos.compareAndSet(max, nanos)) {
+        max = maxNanos.get();
+      }
+    }
+
+    /** Returns the number of keys generated, in the background or inline. */
+    public long getGeneratedCount() {
+      return count.get();
+    }
+
+    /**
+     * Returns the number of keys that had to be generated on the calling thread because the pool
+     * had run dry.
+     */
+    public long getInlineCount() {
+      return inlineCount.get();
+    }
+
+    /** Returns the total time spent generating keys, in nanoseconds. */
+    public long getTotalNanos() {
+      return totalNanos.get();
+    }
+
+    /** Returns the mean time to generate one key, in nanoseconds, or 0 if none have been. */
+    public long getAverageNanos() {
+      long count = this.count.get();
+      return count == 0 ? 0 : totalNanos.get() / count;
+    }
+
+    /** Returns the longest time taken to generate one key, in nanoseconds. */
+    public long getMaxNanos() {
+      return maxNanos.get();
+    }
+  }
+
+  private static final class SignedKeyPair<K> {
+    final K keyPair;
+    final byte[] signature;
+
+    SignedKeyPair(K keyPair, byte[] signature) {
+      this.keyPair = keyPair;
+      this.signature = signature;
+    }
+  }
+
+  private interface Generator<T> {
+    T generate();
+  }
+
+  private final class Pool<T> {
+    private final Generator<T> generator;
+    private final int targetSize;
+    private final int lowWaterMark;
+    private final GenerationMetrics metrics = new GenerationMetrics();
+
+    // Guarded by this.
+    private final ArrayDeque<T> available = new ArrayDeque<>();
+    private boolean refilling = false;
+
+    Pool(Generator<T> generator, int targetSize, int lowWaterMark) {
+      this.generator = generator;
+      this.targetSize = targetSize;
+      this.lowWaterMark = lowWaterMark;
+    }
+
+    List<T> take(int count) {
+      List<T> taken = new ArrayList<>(count);
+      synchronized (this) {
+        while (taken.size() < count && !available.isEmpty()) {
+          taken.add(available.poll());
+        }
+      }
+      refillIfBelow(lowWaterMark);
+      while (taken.size() < count) {
+        taken.add(generate(true));
+      }
+      return taken;
+    }
+
+    synchronized int size() {
+      return available.size();
+    }
+
+    private T generate(boolean inline) {
+      long start = System.nanoTime();
+      T result = generator.generate();
+      metrics.record(System.nanoTime() - start, inline);
+      return result;
+    }
+
+    void refillIfBelow(int threshold) {
+      synchronized (this) {
+        if (refilling || available.size() >= threshold) {
+          return;
+        }
+        refilling = true;
+      }
+      try {
+        executor.execute(this::refill);
+      } catch (RejectedExecutionException e) {
+        synchronized (this) {
+          refilling = false;
+        }
+      }
+    }
+
+    private void refill() {
+      try {
+        while (true) {
+          synchronized (this) {
+            // Clear the flag under the same lock as the check, so a take that drops below the
+            // low-water mark right after this can schedule another refill.
+            if (available.size() >= targetSize) {
+              refilling = false;
+              return;
+            }
+          }
+          T generated = generate(false);
+          synchronized (this) {
+            available.add(generated);
+          }
+        }
+      } catch (RuntimeException | Error e) {
+        synchronized (this) {
+          refilling = false;
+        }
+        throw e;
+      }
+    }
+  }
+
+  private final IdentityKeyPair identityKeyPair;
+  private final PreKeyStore preKeyStore;
+  private final SignedPreKeyStore signedPreKeyStore;
+  private final KyberPreKeyStore kyberPreKeyStore;
+  private final Executor executor;
+
+  private final Pool<ECKeyPair> preKeys;
+  private final Pool<SignedKeyPair<ECKeyPair>> signedPreKeys;
+  private final Pool<SignedKeyPair<KEMKeyPair>> kyberPreKeys;
+
+  /**
+   * Creates an empty pool. Call {@link #fill} to start generating keys right away; otherwise
+   * generation starts the first time keys are taken.
+   *
+   * @param identityKeyPair the key used to sign signed pre-keys and Kyber pre-keys
+   * @param targetSize how many one-time pre-keys, and how many one-time Kyber pre-keys, to keep
+   *     ready
+   * @param lowWaterMark how few keys of a kind may be left before more are generated; at most
+   *     {@code targetSize}
+   * @param executor where to generate keys in the background
+   */
+  public PreKeyPool(
+      IdentityKeyPair identityKeyPair,
+      PreKeyStore preKeyStore,
+      SignedPreKeyStore signedPreKeyStore,
+      KyberPreKeyStore kyberPreKeyStore,
+      int targetSize,
+      int lowWaterMark,
+      Executor executor) {
+    if (targetSize <= 0) {
+      throw new IllegalArgumentException("targetSize must be positive");
+    }
+    if (lowWaterMark < 0 || lowWaterMark > targetSize) {
+      throw new IllegalArgumentException("lowWaterMark must be between 0 and targetSize");
+    }
+    this.identityKeyPair = identityKeyPair;
+    this.preKeyStore = preKeyStore;
+    this.signedPreKeyStore = signedPreKeyStore;
+    this.kyberPreKeyStore = kyberPreKeyStore;
+    this.executor = executor;
+
+    this.preKeys = new Pool<>(Curve::generateKeyPair, targetSize, lowWaterMark);
+    this.signedPreKeys = new Pool<>(this::generateSignedKeyPair, 1, 1);
+    this.kyberPreKeys = new Pool<>(this::generateKyberKeyPair, targetSize, lowWaterMark);
+  }
+
+  public PreKeyPool(
+      IdentityKeyPair identityKeyPair,
+      SignalProtocolStore store,
+      int targetSize,
+      int lowWaterMark,
+      Executor executor) {
+    this(identityKeyPair, store, store, store, targetSize, lowWaterMark, executor);
+  }
+
+  /** Starts generating keys in the background until every kind is at its target size. */
+  public void fill() {
+    preKeys.refillIfBelow(preKeys.targetSize);
+    signedPreKeys.refillIfBelow(signedPreKeys.targetSize);
+    kyberPreKeys.refillIfBelow(kyberPreKeys.targetSize);
+  }
+
+  /**
+   * Takes {@code count} one-time pre-keys, saves them to the {@link PreKeyStore}, and returns them.
+   *
+   * @param firstId the ID for the first key; later keys take the following IDs, wrapping around
+   *     after {@link Medium#MAX_VALUE} to 1
+   */
+  public List<PreKeyRecord> takePreKeys(int firstId, int count) {
+    List<ECKeyPair> keyPairs = preKeys.take(count);
+    List<PreKeyRecord> records = new ArrayList<>(count);
+    int id = firstId;
+    for (ECKeyPair keyPair : keyPairs) {
+      PreKeyRecord record = new PreKeyRecord(id, keyPair);
+      preKeyStore.storePreKey(id, record);
+      records.add(record);
+      id = nextId(id);
+    }
+    return records;
+  }
+
+  /**
+   * Takes {@code count} one-time Kyber pre-keys, saves them to the {@link KyberPreKeyStore}, and
+   * returns them.
+   *
+   * @param firstId the ID for the first key; later keys take the following IDs, wrapping around
+   *     after {@link Medium#MAX_VALUE} to 1
+   */
+  public List<KyberPreKeyRecord> takeKyberPreKeys(int firstId, int count) {
+    List<SignedKeyPair<KEMKeyPair>> keyPairs = kyberPreKeys.take(count);
+    List<KyberPreKeyRecord> records = new ArrayList<>(count);
+    long timestamp = System.currentTimeMillis();
+    int id = firstId;
+    for (SignedKeyPair<KEMKeyPair> keyPair : keyPairs) {
+      KyberPreKeyRecord record =
+          new KyberPreKeyRecord(id, timestamp, keyPair.keyPair, keyPair.signature);
+      kyberPreKeyStore.storeKyberPreKey(id, record);
+      records.add(record);
+      id = nextId(id);
+    }
+    return records;
+  }
+
+  /** Takes a signed pre-key, saves it to the {@link SignedPreKeyStore}, and returns it. */
+  public SignedPreKeyRecord takeSignedPreKey(int id) {
+    SignedKeyPair<ECKeyPair> keyPair = signedPreKeys.take(1).get(0);
+    SignedPreKeyRecord record =
+        new SignedPreKeyRecord(id, System.currentTimeMillis(), keyPair.keyPair, keyPair.signature);
+    signedPreKeyStore.storeSignedPreKey(id, record);
+    return record;
+  }
+
+  /** Returns how many one-time pre-keys are ready to be taken. */
+  public int getAvailablePreKeyCount() {
+    return preKeys.size();
+  }
+
+  /** Returns how many one-time Kyber pre-keys are ready to be taken. */
+  public int getAvailableKyberPreKeyCount() {
+    return kyberPreKeys.size();
+  }
+
+  public GenerationMetrics getPreKeyMetrics() {
+    return preKeys.metrics;
+  }
+
+  public GenerationMetrics getSignedPreKeyMetrics() {
+    return signedPreKeys.metrics;
+  }
+
+  public GenerationMetrics getKyberPreKeyMetrics() {
+    return kyberPreKeys.metrics;
+  }
+
+  private SignedKeyPair<ECKeyPair> generateSignedKeyPair() {
+    ECKeyPair keyPair = Curve.generateKeyPair();
+    byte[] signature =
+        identityKeyPair.getPrivateKey().calculateSignature(keyPair.getPublicKey().serialize());
+    return new SignedKeyPair<>(keyPair, signature);
+  }
+
+  private SignedKeyPair<KEMKeyPair> generateKyberKeyPair() {
+    KEMKeyPair keyPair = KEMKeyPair.generate(KEMKeyType.KYBER_1024);
+    byte[] signature =
+        identityKeyPair.getPrivateKey().calculateSignature(keyPair.getPublicKey().serialize());
+    return new SignedKeyPair<>(keyPair, signature);
+  }
+
+  private static int nextId(int id) {
+    return id >= Medium.MAX_VALUE ? 1 : id + 1;
+  }
+}
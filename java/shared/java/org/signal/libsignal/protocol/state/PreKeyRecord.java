@@ -8,6 +8,7 @@ package org.signal.libsignal.protocol.state;
 import static org.signal.libsignal.internal.FilterExceptions.filterExceptions;
 
 import org.signal.libsignal.internal.Native;
+import org.signal.libsignal.internal.NativeCleaner;
 import org.signal.libsignal.internal.NativeHandleGuard;
 import org.signal.libsignal.protocol.InvalidKeyException;
 import org.signal.libsignal.protocol.InvalidMessageException;
@@ -18,18 +19,13 @@ import org.signal.libsignal.protocol.ecc.ECPublicKey;
 public class PreKeyRecord implements NativeHandleGuard.Owner {
   private final long unsafeHandle;
 
-  @Override
-  @SuppressWarnings("deprecation")
-  protected void finalize() {
-    Native.PreKeyRecord_Destroy(this.unsafeHandle);
-  }
-
   public PreKeyRecord(int id, ECKeyPair keyPair) {
     try (NativeHandleGuard publicKey = new NativeHandleGuard(keyPair.getPublicKey());
         NativeHandleGuard privateKey = new NativeHandleGuard(keyPair.getPrivateKey()); ) {
       this.unsafeHandle =
           Native.PreKeyRecord_New(id, publicKey.nativeHandle(), privateKey.nativeHandle());
     }
+    NativeCleaner.register(this, this.unsafeHandle, Native::PreKeyRecord_Destroy);
   }
 
   // FIXME: This shouldn't be considered a "message".
@@ -37,6 +33,7 @@ public class PreKeyRecord implements NativeHandleGuard.Owner {
     this.unsafeHandle =
         filterExceptions(
             InvalidMessageException.class, () -> Native.PreKeyRecord_Deserialize(serialized));
+    NativeCleaner.register(this, this.unsafeHandle, Native::PreKeyRecord_Destroy);
   }
 
   public int getId() {
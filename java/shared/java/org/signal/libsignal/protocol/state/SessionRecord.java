@@ -9,6 +9,7 @@ import static org.signal.libsignal.internal.FilterExceptions.filterExceptions;
 
 import java.time.Instant;
 import org.signal.libsignal.internal.Native;
+import org.signal.libsignal.internal.NativeCleaner;
 import org.signal.libsignal.internal.NativeHandleGuard;
 import org.signal.libsignal.protocol.IdentityKey;
 import org.signal.libsignal.protocol.IdentityKeyPair;
@@ -20,31 +21,101 @@ import org.signal.libsignal.protocol.ecc.ECPublicKey;
 /**
  * A SessionRecord encapsulates the state of an ongoing session.
  *
+ * <p>A record created from serialized bytes remembers them, so {@link #serialize} can return them
+ * without re-encoding the record for as long as it hasn't been modified. A record created with
+ * {@link #deserializeLazily} goes further and doesn't parse the bytes until its state is first
+ * needed.
+ *
  * @author Moxie Marlinspike
  */
 public class SessionRecord implements NativeHandleGuard.Owner {
 
-  private final long unsafeHandle;
+  private long unsafeHandle;
 
-  @Override
-  @SuppressWarnings("deprecation")
-  protected void finalize() {
-    Native.SessionRecord_Destroy(this.unsafeHandle);
-  }
+  // Non-null only until a lazily deserialized record is parsed.
+  private volatile byte[] unparsed;
+  // The serialized form of the current state, if known.
+  private volatile byte[] serialized;
+  private volatile boolean modified;
 
   public SessionRecord() {
-    this.unsafeHandle = Native.SessionRecord_NewFresh();
+    this(Native.SessionRecord_NewFresh());
   }
 
   private SessionRecord(long unsafeHandle) {
     this.unsafeHandle = unsafeHandle;
+    NativeCleaner.register(this, this.unsafeHandle, Native::SessionRecord_Destroy);
+    this.modified = true;
+  }
+
+  private SessionRecord(byte[] serialized, boolean parse) throws InvalidMessageException {
+    this.serialized = serialized.clone();
+    if (parse) {
+      this.unsafeHandle =
+          filterExceptions(
+              InvalidMessageException.class,
+              () -> Native.SessionRecord_Deserialize(this.serialized));
+      NativeCleaner.register(this, this.unsafeHandle, Native::SessionRecord_Destroy);
+    } else {
+      this.unparsed = this.serialized;
+    }
   }
 
   // FIXME: This shouldn't be considered a "message".
   public SessionRecord(byte[] serialized) throws InvalidMessageException {
-    this.unsafeHandle =
-        filterExceptions(
-            InvalidMessageException.class, () -> Native.SessionRecord_Deserialize(serialized));
+    this(serialized, true);
+  }
+
+  /**
+   * Creates a record from serialized bytes without parsing them yet.
+   *
+   * <p>Parsing happens the first time the record's state is needed, which may be never: a record
+   * that is only serialized again, or handed back to the store unchanged, is not parsed at all.
+   * Because the bytes are not checked up front, only use this for bytes known to be valid, such
+   * as those a {@link SessionStore} wrote itself. If they turn out to be invalid, the first access
+   * throws {@link IllegalStateException}.
+   */
+  public static SessionRecord deserializeLazily(byte[] serialized) {
+    try {
+      return new SessionRecord(serialized, false);
+    } catch (InvalidMessageException e) {
+      throw new AssertionError(e);
+    }
+  }
+
+  /**
+   * Returns whether this record's state may differ from the bytes it was created from.
+   *
+   * <p>This is {@code false} for a record created from serialized bytes until {@link
+   * #archiveCurrentState} is called, and always {@code true} for a record that wasn't created from
+   * bytes.
+   *
+   * <p>Every record the library itself passes to {@link SessionStore#storeSession} is freshly
+   * created by the native code, so this never lets a store skip one of those writes. It only helps
+   * with records the application loads and stores again itself: a store that gets back an
+   * unmodified record it loaded can skip writing it, as long as the stored session hasn't been
+   * replaced in the meantime.
+   */
+  public boolean isModified() {
+    return modified;
+  }
+
+  private synchronized long parse() {
+    byte[] bytes = unparsed;
+    if (bytes != null) {
+      long handle;
+      try {
+        handle =
+            filterExceptions(
+                InvalidMessageException.class, () -> Native.SessionRecord_Deserialize(bytes));
+      } catch (InvalidMessageException e) {
+        throw new IllegalStateException("invalid serialized session", e);
+      }
+      NativeCleaner.register(this, handle, Native::SessionRecord_Destroy);
+      this.unsafeHandle = handle;
+      this.unparsed = null;
+    }
+    return this.unsafeHandle;
   }
 
   /**
@@ -55,6 +126,8 @@ public class SessionRecord implements NativeHandleGuard.Owner {
     try (NativeHandleGuard guard = new NativeHandleGuard(this)) {
       filterExceptions(() -> Native.SessionRecord_ArchiveCurrentState(guard.nativeHandle()));
     }
+    this.serialized = null;
+    this.modified = true;
   }
 
   public int getSessionVersion() {
@@ -144,9 +217,14 @@ public class SessionRecord implements NativeHandleGuard.Owner {
    * @return a serialized version of the current SessionRecord.
    */
   public byte[] serialize() {
-    try (NativeHandleGuard guard = new NativeHandleGuard(this)) {
-      return filterExceptions(() -> Native.SessionRecord_Serialize(guard.nativeHandle()));
+    byte[] result = this.serialized;
+    if (result == null) {
+      try (NativeHandleGuard guard = new NativeHandleGuard(this)) {
+        result = filterExceptions(() -> Native.SessionRecord_Serialize(guard.nativeHandle()));
+      }
+      this.serialized = result;
     }
+    return result.clone();
   }
 
   // Following functions are for internal or testing use and may be removed in the future:
@@ -240,7 +318,17 @@ public class SessionRecord implements NativeHandleGuard.Owner {
     }
   }
 
+  /**
+   * Returns the native handle, parsing the record first if it was {@linkplain #deserializeLazily
+   * deserialized lazily}.
+   *
+   * <p>Native code that loads a record from a {@link SessionStore} reads the handle field
+   * directly, so the library calls this on each record a store returns before passing it on.
+   */
   public long unsafeNativeHandleWithoutGuard() {
+    if (this.unparsed != null) {
+      return parse();
+    }
     return this.unsafeHandle;
   }
 }
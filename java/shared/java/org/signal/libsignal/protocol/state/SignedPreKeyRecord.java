@@ -8,6 +8,7 @@ package org.signal.libsignal.protocol.state;
 import static org.signal.libsignal.internal.FilterExceptions.filterExceptions;
 
 import org.signal.libsignal.internal.Native;
+import org.signal.libsignal.internal.NativeCleaner;
 import org.signal.libsignal.internal.NativeHandleGuard;
 import org.signal.libsignal.protocol.InvalidKeyException;
 import org.signal.libsignal.protocol.InvalidMessageException;
@@ -18,12 +19,6 @@ import org.signal.libsignal.protocol.ecc.ECPublicKey;
 public class SignedPreKeyRecord implements NativeHandleGuard.Owner {
   private final long unsafeHandle;
 
-  @Override
-  @SuppressWarnings("deprecation")
-  protected void finalize() {
-    Native.SignedPreKeyRecord_Destroy(this.unsafeHandle);
-  }
-
   public SignedPreKeyRecord(int id, long timestamp, ECKeyPair keyPair, byte[] signature) {
     try (NativeHandleGuard publicGuard = new NativeHandleGuard(keyPair.getPublicKey());
         NativeHandleGuard privateGuard = new NativeHandleGuard(keyPair.getPrivateKey()); ) {
@@ -31,6 +26,7 @@ public class SignedPreKeyRecord implements NativeHandleGuard.Owner {
           Native.SignedPreKeyRecord_New(
               id, timestamp, publicGuard.nativeHandle(), privateGuard.nativeHandle(), signature);
     }
+    NativeCleaner.register(this, this.unsafeHandle, Native::SignedPreKeyRecord_Destroy);
   }
 
   // FIXME: This shouldn't be considered a "message".
@@ -38,6 +34,7 @@ public class SignedPreKeyRecord implements NativeHandleGuard.Owner {
     this.unsafeHandle =
         filterExceptions(
             InvalidMessageException.class, () -> Native.SignedPreKeyRecord_Deserialize(serialized));
+    NativeCleaner.register(this, this.unsafeHandle, Native::SignedPreKeyRecord_Destroy);
   }
 
   public int getId() {
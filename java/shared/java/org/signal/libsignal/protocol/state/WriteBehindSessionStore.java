@@ -0,0 +1,361 @@
+//
+// Copyright 2026 Signal Messenger, LLC.
+// SPDX-License-Identifier: AGPL-3.0-only
+//
+
+package org.signal.libsignal.protocol.state;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import org.signal.libsignal.protocol.InvalidMessageException;
+import org.signal.libsignal.protocol.NoSessionException;
+import org.signal.libsignal.protocol.SignalProtocolAddress;
+import org.signal.libsignal.protocol.logging.Log;
+
+/**
+ * A {@link SessionStore} that buffers writes in memory and passes them on to another store in the
+ * background.
+ *
+ * <p>Stores and deletes go to an in-memory overlay, where a later write to an address replaces
+ * any earlier one that hasn't been written out yet. Reads check the overlay before the underlying
+ * store. The first write after a flush schedules another flush on {@code scheduler} no later than
+ * {@code maxFlushDelay} later, which writes everything in the overlay to the underlying store;
+ * call {@link #flush} to do so right away, such as before reporting a message as handled.
+ *
+ * <p>Until a flush completes, buffered writes are only in memory and are lost if the process
+ * exits. If the underlying store fails during a background flush, the writes stay buffered and the
+ * flush is retried after another {@code maxFlushDelay}.
+ *
+ * <p><b>Callers must {@link #flush} before sending any ciphertext encrypted with sessions from this
+ * store.</b> Encrypting advances the session. If that state is lost after the ciphertext has been
+ * sent, the old state is loaded again, and the next message reuses the same message keys. Instead
+ * of flushing, encryption can use the {@link #writeThrough} view of this store, which writes each
+ * session to the underlying store before returning. Losing buffered state after decrypting only
+ * means the message can't be decrypted again.
+ *
+ * <p>The overlay keeps the record it is given rather than a copy, so callers must not modify a
+ * record after storing it. Loads return copies, as {@link SessionStore#loadSession} requires.
+ *
+ * <p>This class is thread-safe if the underlying store is. Writes to the underlying store are
+ * never made concurrently with each other.
+ */
+public class WriteBehindSessionStore implements SessionStore {
+  private static final String TAG = "WriteBehindSessionStore";
+
+  /** A buffered write; a null record means the session was deleted. */
+  private static final class Pending {
+    final SessionRecord record;
+
+    Pending(SessionRecord record) {
+      this.record = record;
+    }
+  }
+
+  private final SessionStore delegate;
+  private final ScheduledExecutorService scheduler;
+  private final long maxFlushDelayNanos;
+
+  // Held while writing to the delegate, so writes reach it in order. Never acquired while holding
+  // the lock on this.
+  private final Object flushLock = new Object();
+
+  // Guarded by this.
+  private final Map<SignalProtocolAddress, Pending> pending = new LinkedHashMap<>();
+  private boolean flushScheduled = false;
+  private long coalescedWriteCount = 0;
+
+  private final SessionStore writeThroughView = new WriteThroughView();
+
+  /**
+   * @param delegate the store to write sessions to
+   * @param maxFlushDelay the longest a write is buffered before a flush starts
+   * @param scheduler runs background flushes
+   */
+  public WriteBehindSessionStore(
+      SessionStore delegate, Duration maxFlushDelay, ScheduledExecutorService scheduler) {
+    if (maxFlushDelay.isNegative()) {
+      throw new IllegalArgumentException("maxFlushDelay must not be negative");
+    }
+    this.delegate = delegate;
+    this.scheduler = scheduler;
+    this.maxFlushDelayNanos = maxFlushDelay.toNanos();
+  }
+
+  /**
+   * Writes all buffered stores and deletes to the underlying store, and waits for them to finish.
+   *
+   * <p>Any exception from the underlying store is rethrown; writes that didn't complete stay
+   * buffered.
+   */
+  public void flush() {
+    synchronized (flushLock) {
+      List<SignalProtocolAddress> addresses;
+      List<Pending> writes;
+      synchronized (this) {
+        addresses = new ArrayList<>(pending.keySet());
+        writes = new ArrayList<>(pending.values());
+      }
+      for (int i = 0; i < addresses.size(); i++) {
+        SignalProtocolAddress address = addresses.get(i);
+        Pending write = writes.get(i);
+        if (write.record == null) {
+          delegate.deleteSession(address);
+        } else {
+          delegate.storeSession(address, write.record);
+        }
+        synchronized (this) {
+          // Leave the entry if it was replaced while being written; the next flush will get it.
+          if (pending.get(address) == write) {
+            pending.remove(address);
+          }
+        }
+      }
+    }
+  }
+
+  /**
+   * Returns a view of this store whose stores and deletes go straight to the underlying store, for
+   * use when encrypting.
+   *
+   * <p>The view reads through this store's buffer, and a write through it replaces any buffered
+   * write for the same address. If the underlying store fails, the exception is rethrown and the
+   * buffer is left as it was.
+   */
+  public SessionStore writeThrough() {
+    return writeThroughView;
+  }
+
+  /** Returns the number of addresses with writes that haven't reached the underlying store. */
+  public synchronized int getPendingCount() {
+    return pending.size();
+  }
+
+  /** Returns the number of writes that replaced a buffered one, saving a write to the store. */
+  public synchronized long getCoalescedWriteCount() {
+    return coalescedWriteCount;
+  }
+
+  private synchronized void buffer(SignalProtocolAddress address, Pending write) {
+    if (pending.put(address, write) != null) {
+      coalescedWriteCount++;
+    }
+    scheduleFlushIfNeeded();
+  }
+
+  private synchronized void scheduleFlushIfNeeded() {
+    if (!flushScheduled) {
+      scheduler.schedule(this::runScheduledFlush, maxFlushDelayNanos, TimeUnit.NANOSECONDS);
+      flushScheduled = true;
+    }
+  }
+
+  private void runScheduledFlush() {
+    synchronized (this) {
+      flushScheduled = false;
+    }
+    try {
+      flush();
+    } catch (RuntimeException e) {
+      Log.w(TAG, "failed to flush sessions; will retry", e);
+      synchronized (this) {
+        if (!pending.isEmpty()) {
+          scheduleFlushIfNeeded();
+        }
+      }
+    }
+  }
+
+  private void writeNow(SignalProtocolAddress address, Pending write) {
+    synchronized (flushLock) {
+      Pending previous;
+      synchronized (this) {
+        previous = pending.put(address, write);
+      }
+      try {
+        if (write.record == null) {
+          delegate.deleteSession(address);
+        } else {
+          delegate.storeSession(address, write.record);
+        }
+      } catch (RuntimeException e) {
+        synchronized (this) {
+          if (pending.get(address) == write) {
+            if (previous == null) {
+              pending.remove(address);
+            } else {
+              pending.put(address, previous);
+            }
+          }
+        }
+        throw e;
+      }
+      synchronized (this) {
+        if (pending.get(address) == write) {
+          pending.remove(address);
+        }
+      }
+    }
+  }
+
+  private static SessionRecord copy(SessionRecord record) {
+    try {
+      return new SessionRecord(record.serialize());
+    } catch (InvalidMessageException e) {
+      throw new AssertionError(e);
+    }
+  }
+
+  // Reads check the overlay before the delegate. An entry is only removed from the overlay once
+  // the delegate has it, so a read that misses the overlay sees the write in the delegate.
+
+  @Override
+  public SessionRecord loadSession(SignalProtocolAddress address) {
+    Pending write;
+    synchronized (this) {
+      write = pending.get(address);
+    }
+    if (write == null) {
+      return delegate.loadSession(address);
+    }
+    return write.record == null ? null : copy(write.record);
+  }
+
+  @Override
+  public List<SessionRecord> loadExistingSessions(List<SignalProtocolAddress> addresses)
+      throws NoSessionException {
+    List<Pending> writes = new ArrayList<>(addresses.size());
+    List<SignalProtocolAddress> unbuffered = new ArrayList<>();
+    synchronized (this) {
+      for (SignalProtocolAddress address : addresses) {
+        Pending write = pending.get(address);
+        if (write != null && write.record == null) {
+          throw new NoSessionException(address, "no session for " + address);
+        }
+        if (write == null) {
+          unbuffered.add(address);
+        }
+        writes.add(write);
+      }
+    }
+
+    Iterator<SessionRecord> loaded =
+        unbuffered.isEmpty() ? null : delegate.loadExistingSessions(unbuffered).iterator();
+    List<SessionRecord> result = new ArrayList<>(addresses.size());
+    for (Pending write : writes) {
+      result.add(write == null ? loaded.next() : copy(write.record));
+    }
+    return result;
+  }
+
+  @Override
+  public List<Integer> getSubDeviceSessions(String name) {
+    Map<Integer, Boolean> buffered = new LinkedHashMap<>();
+    synchronized (this) {
+      for (Map.Entry<SignalProtocolAddress, Pending> entry : pending.entrySet()) {
+        SignalProtocolAddress address = entry.getKey();
+        if (address.getName().equals(name) && address.getDeviceId() != 1) {
+          buffered.put(address.getDeviceId(), entry.getValue().record != null);
+        }
+      }
+    }
+
+    Set<Integer> deviceIds = new LinkedHashSet<>(delegate.getSubDeviceSessions(name));
+    for (Map.Entry<Integer, Boolean> entry : buffered.entrySet()) {
+      if (entry.getValue()) {
+        deviceIds.add(entry.getKey());
+      } else {
+        deviceIds.remove(entry.getKey());
+      }
+    }
+    return new ArrayList<>(deviceIds);
+  }
+
+  @Override
+  public void storeSession(SignalProtocolAddress address, SessionRecord record) {
+    buffer(address, new Pending(record));
+  }
+
+  @Override
+  public boolean containsSession(SignalProtocolAddress address) {
+    Pending write;
+    synchronized (this) {
+      write = pending.get(address);
+    }
+    if (write == null) {
+      return delegate.containsSession(address);
+    }
+    return write.record != null;
+  }
+
+  @Override
+  public void deleteSession(SignalProtocolAddress address) {
+    buffer(address, new Pending(null));
+  }
+
+  /**
+   * Deletes {@code name}'s sessions from the underlying store right away, then drops any buffered
+   * writes for their devices.
+   *
+   * <p>If the underlying store fails, the buffered writes are kept, so they can still be flushed.
+   */
+  @Override
+  public void deleteAllSessions(String name) {
+    synchronized (flushLock) {
+      delegate.deleteAllSessions(name);
+      synchronized (this) {
+        Iterator<SignalProtocolAddress> addresses = pending.keySet().iterator();
+        while (addresses.hasNext()) {
+          if (addresses.next().getName().equals(name)) {
+            addresses.remove();
+          }
+        }
+      }
+    }
+  }
+
+  private final class WriteThroughView implements SessionStore {
+    @Override
+    public SessionRecord loadSession(SignalProtocolAddress address) {
+      return WriteBehindSessionStore.this.loadSession(address);
+    }
+
+    @Override
+    public List<SessionRecord> loadExistingSessions(List<SignalProtocolAddress> addresses)
+        throws NoSessionException {
+      return WriteBehindSessionStore.this.loadExistingSessions(addresses);
+    }
+
+    @Override
+    public List<Integer> getSubDeviceSessions(String name) {
+      return WriteBehindSessionStore.this.getSubDeviceSessions(name);
+    }
+
+    @Override
+    public void storeSession(SignalProtocolAddress address, SessionRecord record) {
+      writeNow(address, new Pending(record));
+    }
+
+    @Override
+    public boolean containsSession(SignalProtocolAddress address) {
+      return WriteBehindSessionStore.this.containsSession(address);
+    }
+
+    @Override
+    public void deleteSession(SignalProtocolAddress address) {
+      writeNow(address, new Pending(null));
+    }
+
+    @Override
+    public void deleteAllSessions(String name) {
+      WriteBehindSessionStore.this.deleteAllSessions(name);
+    }
+  }
+}
@@ -0,0 +1,108 @@
+//
+// Copyright 2026 Signal Messenger, LLC.
+// SPDX-License-Identifier: AGPL-3.0-only
+//
+
+package org.signal.libsignal.protocol.state.impl;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.LongSupplier;
+import org.signal.libsignal.protocol.InvalidKeyIdException;
+import org.signal.libsignal.protocol.state.KyberPreKeyRecord;
+import org.signal.libsignal.protocol.state.KyberPreKeyStore;
+
+/**
+ * A thread-safe in-memory {@link KyberPreKeyStore} meant for high rates of session setup.
+ *
+ * <p>Unlike {@link InMemoryKyberPreKeyStore}, records are kept deserialized, so loading one doesn't
+ * parse it again. The store keeps the instance it is given and returns that same instance from
+ * every load. That is safe because records are immutable, and their native handles are released
+ * only once no caller can still reach them.
+ *
+ * <p>Keys stored with {@link #storeLastResortKyberPreKey} are kept when used. All other keys are
+ * treated as one-time keys, and are removed when used, as {@link #markKyberPreKeyUsed} specifies.
+ * Either way, the ID is remembered as used in a compact bitmap for at least {@code
+ * usedKeyRetention} (and at most twice that), after which {@link #hasKyberPreKeyBeenUsed} forgets
+ * it. Use a retention at least as long as a last-resort key stays in service.
+ */
+public class CompactKyberPreKeyStore implements KyberPreKeyStore {
+
+  private final Map<Integer, KyberPreKeyRecord> records = new HashMap<>();
+  private final Set<Integer> lastResortIds = new HashSet<>();
+  private final ExpiringIdSet used;
+
+  /**
+   * @param usedKeyRetention how long to remember that a key ID has been used
+   */
+  public CompactKyberPreKeyStore(Duration usedKeyRetention) {
+    this(usedKeyRetention, System::nanoTime);
+  }
+
+  CompactKyberPreKeyStore(Duration usedKeyRetention, LongSupplier nanoTime) {
+    if (usedKeyRetention.isNegative() || usedKeyRetention.isZero()) {
+      throw new IllegalArgumentException("usedKeyRetention must be positive");
+    }
+    this.used = new ExpiringIdSet(usedKeyRetention.toNanos(), nanoTime);
+  }
+
+  @Override
+  public synchronized KyberPreKeyRecord loadKyberPreKey(int kyberPreKeyId)
+      throws InvalidKeyIdException {
+    KyberPreKeyRecord record = records.get(kyberPreKeyId);
+    if (record == null) {
+      throw new InvalidKeyIdException("No such KyberPreKeyRecord! " + kyberPreKeyId);
+    }
+    return record;
+  }
+
+  @Override
+  public synchronized List<KyberPreKeyRecord> loadKyberPreKeys() {
+    return new ArrayList<>(records.values());
+  }
+
+  @Override
+  public synchronized void storeKyberPreKey(int kyberPreKeyId, KyberPreKeyRecord record) {
+    records.put(kyberPreKeyId, record);
+    lastResortIds.remove(kyberPreKeyId);
+  }
+
+  /** Stores a last-resort key, which, unlike a one-time key, stays in the store once used. */
+  public synchronized void storeLastResortKyberPreKey(int kyberPreKeyId, KyberPreKeyRecord record) {
+    records.put(kyberPreKeyId, record);
+    lastResortIds.add(kyberPreKeyId);
+  }
+
+  @Override
+  public synchronized boolean containsKyberPreKey(int kyberPreKeyId) {
+    return records.containsKey(kyberPreKeyId);
+  }
+
+  @Override
+  public synchronized void markKyberPreKeyUsed(int kyberPreKeyId) {
+    used.add(kyberPreKeyId);
+    if (!lastResortIds.contains(kyberPreKeyId)) {
+      records.remove(kyberPreKeyId);
+    }
+  }
+
+  /** Removes a key, such as a last-resort key that has been rotated out. */
+  public synchronized void removeKyberPreKey(int kyberPreKeyId) {
+    records.remove(kyberPreKeyId);
+    lastResortIds.remove(kyberPreKeyId);
+  }
+
+  /**
+   * Returns whether {@code kyberPreKeyId} has been marked used within the retention period.
+   *
+   * @see InMemoryKyberPreKeyStore#hasKyberPreKeyBeenUsed
+   */
+  public synchronized boolean hasKyberPreKeyBeenUsed(int kyberPreKeyId) {
+    return used.contains(kyberPreKeyId);
+  }
+}
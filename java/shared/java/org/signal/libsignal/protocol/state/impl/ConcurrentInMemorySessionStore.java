@@ -0,0 +1,152 @@
+//
+// Copyright 2026 Signal Messenger, LLC.
+// SPDX-License-Identifier: AGPL-3.0-only
+//
+
+package org.signal.libsignal.protocol.state.impl;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.signal.libsignal.protocol.InvalidMessageException;
+import org.signal.libsignal.protocol.NoSessionException;
+import org.signal.libsignal.protocol.SignalProtocolAddress;
+import org.signal.libsignal.protocol.state.SessionRecord;
+import org.signal.libsignal.protocol.state.SessionStore;
+
+/**
+ * A thread-safe in-memory {@link SessionStore}, suitable for many concurrent {@link
+ * org.signal.libsignal.protocol.SessionCipher} operations.
+ *
+ * <p>Sessions are indexed first by name and then by device ID, so {@link #getSubDeviceSessions}
+ * and {@link #deleteAllSessions} only touch the sessions for that name. Reads never block. Writes
+ * take one of a fixed set of striped locks chosen by name, so writers for unrelated recipients
+ * rarely contend.
+ *
+ * <p>As with {@link InMemorySessionStore}, records are kept in serialized form, and every load
+ * returns a fresh copy that the caller may modify freely.
+ */
+public class ConcurrentInMemorySessionStore implements SessionStore {
+
+  private static final int DEFAULT_LOCK_STRIPES = 64;
+
+  private final Map<String, Map<Integer, byte[]>> sessions = new ConcurrentHashMap<>();
+  private final Object[] locks;
+
+  public ConcurrentInMemorySessionStore() {
+    this(DEFAULT_LOCK_STRIPES);
+  }
+
+  /**
+   * @param lockStripes the number of locks to spread writes across; higher values reduce
+   *     contention between writers at the cost of a little memory.
+   */
+  public ConcurrentInMemorySessionStore(int lockStripes) {
+    if (lockStripes <= 0) {
+      throw new IllegalArgumentException("lockStripes must be positive");
+    }
+    this.locks = new Object[lockStripes];
+    for (int i = 0; i < lockStripes; i++) {
+      this.locks[i] = new Object();
+    }
+  }
+
+  @Override
+  public SessionRecord loadSession(SignalProtocolAddress address) {
+    Map<Integer, byte[]> devices = sessions.get(address.getName());
+    if (devices == null) {
+      return null;
+    }
+    byte[] serialized = devices.get(address.getDeviceId());
+    if (serialized == null) {
+      return null;
+    }
+    try {
+      return new SessionRecord(serialized);
+    } catch (InvalidMessageException e) {
+      throw new AssertionError(e);
+    }
+  }
+
+  @Override
+  public List<SessionRecord> loadExistingSessions(List<SignalProtocolAddress> addresses)
+      throws NoSessionException {
+    List<SessionRecord> resultSessions = new ArrayList<>(addresses.size());
+    for (SignalProtocolAddress remoteAddress : addresses) {
+      SessionRecord record = loadSession(remoteAddress);
+      if (record == null) {
+        throw new NoSessionException(remoteAddress, "no session for " + remoteAddress);
+      }
+      resultSessions.add(record);
+    }
+    return resultSessions;
+  }
+
+  @Override
+  public List<Integer> getSubDeviceSessions(String name) {
+    Map<Integer, byte[]> devices = sessions.get(name);
+    if (devices == null) {
+      return new ArrayList<>();
+    }
+
+    List<Integer> deviceIds = new ArrayList<>(devices.size());
+    for (Integer deviceId : devices.keySet()) {
+      if (deviceId != 1) {
+        deviceIds.add(deviceId);
+      }
+    }
+    return deviceIds;
+  }
+
+  @Override
+  public void storeSession(SignalProtocolAddress address, SessionRecord record) {
+    String name = address.getName();
+    int deviceId = address.getDeviceId();
+    byte[] serialized = record.serialize();
+    synchronized (lockFor(name)) {
+      Map<Integer, byte[]> devices = sessions.get(name);
+      if (devices == null) {
+        devices = new ConcurrentHashMap<>();
+        sessions.put(name, devices);
+      }
+      devices.put(deviceId, serialized);
+    }
+  }
+
+  @Override
+  public boolean containsSession(SignalProtocolAddress address) {
+    Map<Integer, byte[]> devices = sessions.get(address.getName());
+    return devices != null && devices.containsKey(address.getDeviceId());
+  }
+
+  @Override
+  public void deleteSession(SignalProtocolAddress address) {
+    String name = address.getName();
+    int deviceId = address.getDeviceId();
+    synchronized (lockFor(name)) {
+      Map<Integer, byte[]> devices = sessions.get(name);
+      if (devices == null) {
+        return;
+      }
+      devices.remove(deviceId);
+      if (devices.isEmpty()) {
+        sessions.remove(name);
+      }
+    }
+  }
+
+  @Override
+  public void deleteAllSessions(String name) {
+    synchronized (lockFor(name)) {
+      sessions.remove(name);
+    }
+  }
+
+  private Object lockFor(String name) {
+    // Spread the hash bits the same way HashMap does, so similar names don't share a stripe.
+    int hash = name.hashCode();
+    hash ^= (hash >>> 16);
+    return locks[(hash & 0x7fffffff) % locks.length];
+  }
+}
@@ -0,0 +1,79 @@
+//
+// Copyright 2026 Signal Messenger, LLC.
+// SPDX-License-Identifier: AGPL-3.0-only
+//
+
+package org.signal.libsignal.protocol.state.impl;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+/**
+ * A set of int IDs (treated as unsigned) that forgets each ID some time after it was added.
+ *
+ * <p>IDs are kept in two sparse bitmaps, the current generation and the previous one. Additions go
+ * to the current generation; every {@code retentionNanos} the previous generation is dropped and
+ * the current one takes its place. An ID is therefore remembered for at least {@code
+ * retentionNanos} and at most twice that.
+ *
+ * <p>Each bitmap is split into pages of {@value #PAGE_BITS} bits, allocated only when an ID in
+ * their range is added, so clustered IDs (such as pre-key IDs, which are assigned sequentially)
+ * cost about one bit each.
+ *
+ * <p>Not thread-safe.
+ */
+class ExpiringIdSet {
+  private static final int PAGE_SHIFT = 12;
+  private static final int PAGE_BITS = 1 << PAGE_SHIFT;
+  private static final int WORDS_PER_PAGE = PAGE_BITS / Long.SIZE;
+
+  private final long retentionNanos;
+  private final LongSupplier nanoTime;
+
+  private Map<Integer, long[]> current = new HashMap<>();
+  private Map<Integer, long[]> previous = new HashMap<>();
+  private long currentStartNanos;
+
+  ExpiringIdSet(long retentionNanos, LongSupplier nanoTime) {
+    this.retentionNanos = retentionNanos;
+    this.nanoTime = nanoTime;
+    this.currentStartNanos = nanoTime.getAsLong();
+  }
+
+  void add(int id) {
+    rotateIfNeeded();
+    long[] page = current.get(id >>> PAGE_SHIFT);
+    if (page == null) {
+      page = new long[WORDS_PER_PAGE];
+      current.put(id >>> PAGE_SHIFT, page);
+    }
+    page[(id & (PAGE_BITS - 1)) >>> 6] |= 1L << id;
+  }
+
+  boolean contains(int id) {
+    rotateIfNeeded();
+    return contains(current, id) || contains(previous, id);
+  }
+
+  private static boolean contains(Map<Integer, long[]> bitmap, int id) {
+    long[] page = bitmap.get(id >>> PAGE_SHIFT);
+    return page != null && (page[(id & (PAGE_BITS - 1)) >>> 6] & (1L << id)) != 0;
+  }
+
+  private void rotateIfNeeded() {
+    long now = nanoTime.getAsLong();
+    long elapsed = now - currentStartNanos;
+    if (elapsed < retentionNanos) {
+      return;
+    }
+    if (elapsed < 2 * retentionNanos) {
+      previous = current;
+      currentStartNanos += retentionNanos;
+    } else {
+      previous = new HashMap<>();
+      currentStartNanos = now;
+    }
+    current = new HashMap<>();
+  }
+}
@@ -0,0 +1,443 @@
+//
+// Copyright 2026 Signal Messenger, LLC.
+// SPDX-License-Identifier: AGPL-3.0-only
+//
+
+package org.signal.libsignal.protocol.state.impl;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import org.signal.libsignal.protocol.IdentityKey;
+import org.signal.libsignal.protocol.IdentityKeyPair;
+import org.signal.libsignal.protocol.InvalidKeyException;
+import org.signal.libsignal.protocol.InvalidKeyIdException;
+import org.signal.libsignal.protocol.InvalidMessageException;
+import org.signal.libsignal.protocol.NoSessionException;
+import org.signal.libsignal.protocol.SignalProtocolAddress;
+import org.signal.libsignal.protocol.groups.state.SenderKeyRecord;
+import org.signal.libsignal.protocol.state.KyberPreKeyRecord;
+import org.signal.libsignal.protocol.state.PreKeyRecord;
+import org.signal.libsignal.protocol.state.SessionRecord;
+import org.signal.libsignal.protocol.state.SignalProtocolStore;
+import org.signal.libsignal.protocol.state.SignedPreKeyRecord;
+
+/**
+ * A {@link SignalProtocolStore} that persists everything to a directory on disk.
+ *
+ * <p>Sessions, remote identities, pre-keys, signed pre-keys, Kyber pre-keys (and which of them have
+ * been used), and sender keys all go into one append-only log of memory-mapped segment files.
+ * Reads are served from the mapping without any I/O. Every write is synced to disk before it
+ * returns, but concurrent writers share syncs. Space taken by overwritten and deleted entries is
+ * reclaimed by compaction, which happens automatically as segments fill up, or on demand with
+ * {@link #compact}. A write interrupted by a crash is discarded the next time the store is opened.
+ *
+ * <p>As with {@link InMemorySignalProtocolStore}, the local identity key pair and registration ID
+ * are supplied by the caller and are not stored.
+ *
+ * <p>The store is thread-safe. Only one instance may use a directory at a time, which is enforced
+ * with a lock on a file in the directory, and the store should be {@link #close closed} when it is
+ * no longer needed.
+ */
+public class FileSignalProtocolStore implements SignalProtocolStore, Closeable {
+
+  /** The default size of each segment file, which is also the largest record that can be stored. */
+  public static final int DEFAULT_SEGMENT_SIZE = 64 * 1024 * 1024;
+
+  private static final byte KIND_SESSION = 1;
+  private static final byte KIND_IDENTITY = 2;
+  private static final byte KIND_PRE_KEY = 3;
+  private static final byte KIND_SIGNED_PRE_KEY = 4;
+  private static final byte KIND_KYBER_PRE_KEY = 5;
+  private static final byte KIND_KYBER_PRE_KEY_USED = 6;
+  private static final byte KIND_SENDER_KEY = 7;
+
+  private static final String LOCK_FILE_NAME = "lock";
+
+  private final IdentityKeyPair identityKeyPair;
+  private final int localRegistrationId;
+  // Holds the directory's lock for as long as it is open.
+  private final FileChannel lockChannel;
+  private final SegmentLog log;
+
+  public FileSignalProtocolStore(
+      File directory, IdentityKeyPair identityKeyPair, int registrationId) throws IOException {
+    this(directory, identityKeyPair, registrationId, DEFAULT_SEGMENT_SIZE);
+  }
+
+  public FileSignalProtocolStore(
+      File directory, IdentityKeyPair identityKeyPair, int registrationId, int segmentSize)
+      throws IOException {
+    this.identityKeyPair = identityKeyPair;
+    this.localRegistrationId = registrationId;
+    if (!directory.isDirectory() && !directory.mkdirs()) {
+      throw new IOException("cannot create " + directory);
+    }
+    this.lockChannel = lockDirectory(directory);
+    try {
+      this.log = new SegmentLog(directory, segmentSize, FileSignalProtocolStore::groupsOf);
+    } catch (IOException | RuntimeException e) {
+      lockChannel.close();
+      throw e;
+    }
+  }
+
+  /**
+   * Locks {@code directory} against other stores, in this process or any other.
+   *
+   * @return the channel holding the lock, which releases it when closed
+   * @throws IOException if another store already has the directory open
+   */
+  private static FileChannel lockDirectory(File directory) throws IOException {
+    FileChannel channel =
+        FileChannel.open(
+            new File(directory, LOCK_FILE_NAME).toPath(),
+            StandardOpenOption.CREATE,
+            StandardOpenOption.WRITE);
+    FileLock lock;
+    try {
+      lock = channel.tryLock();
+    } catch (OverlappingFileLockException e) {
+      // Another store in this process holds it.
+      lock = null;
+    } catch (IOException | RuntimeException e) {
+      channel.close();
+      throw e;
+    }
+    if (lock == null) {
+      channel.close();
+      throw new IOException(directory + " is already in use by another store");
+    }
+    return channel;
+  }
+
+  /** Reclaims the space used by overwritten and deleted records now, rather than waiting. */
+  public void compact() {
+    log.compact();
+  }
+
+  @Override
+  public void close() throws IOException {
+    try {
+      log.close();
+    } finally {
+      lockChannel.close();
+    }
+  }
+
+  // Keys
+
+  private static byte[] idKey(byte kind, int id) {
+    return ByteBuffer.allocate(5).put(kind).putInt(id).array();
+  }
+
+  private static byte[] namePrefix(byte kind, String name) {
+    byte[] nameBytes = name.getBytes(StandardCharsets.UTF_8);
+    return ByteBuffer.allocate(5 + nameBytes.length)
+        .put(kind)
+        .putInt(nameBytes.length)
+        .put(nameBytes)
+        .array();
+  }
+
+  private static byte[] addressKey(byte kind, SignalProtocolAddress address) {
+    byte[] prefix = namePrefix(kind, address.getName());
+    return ByteBuffer.allocate(prefix.length + 4).put(prefix).putInt(address.getDeviceId()).array();
+  }
+
+  private static int deviceIdOf(byte[] addressKey) {
+    return ByteBuffer.wrap(addressKey).getInt(addressKey.length - 4);
+  }
+
+  private static byte[] senderKeyKey(SignalProtocolAddress sender, UUID distributionId) {
+    byte[] prefix = addressKey(KIND_SENDER_KEY, sender);
+    return ByteBuffer.allocate(prefix.length + 16)
+        .put(prefix)
+        .putLong(distributionId.getMostSignificantBits())
+        .putLong(distributionId.getLeastSignificantBits())
+        .array();
+  }
+
+  /**
+   * Groups sessions by name, for {@link #getSubDeviceSessions} and {@link #deleteAllSessions}, and
+   * signed and Kyber pre-keys by kind, for loading all of them.
+   */
+  private static List<byte[]> groupsOf(byte[] key) {
+    switch (key[0]) {
+      case KIND_SESSION:
+        return Collections.singletonList(Arrays.copyOf(key, key.length - 4));
+      case KIND_SIGNED_PRE_KEY:
+      case KIND_KYBER_PRE_KEY:
+        return Collections.singletonList(new byte[] {key[0]});
+      default:
+        return Collections.emptyList();
+    }
+  }
+
+  private List<byte[]> valuesOfKind(byte kind) {
+    List<byte[]> values = new ArrayList<>();
+    for (byte[] key : log.keysInGroup(new byte[] {kind})) {
+      byte[] value = log.get(key);
+      if (value != null) {
+        values.add(value);
+      }
+    }
+    return values;
+  }
+
+  // IdentityKeyStore
+
+  @Override
+  public IdentityKeyPair getIdentityKeyPair() {
+    return identityKeyPair;
+  }
+
+  @Override
+  public int getLocalRegistrationId() {
+    return localRegistrationId;
+  }
+
+  @Override
+  public synchronized boolean saveIdentity(SignalProtocolAddress address, IdentityKey identityKey) {
+    IdentityKey existing = getIdentity(address);
+    if (identityKey.equals(existing)) {
+      return false;
+    }
+    log.put(addressKey(KIND_IDENTITY, address), identityKey.serialize());
+    return true;
+  }
+
+  @Override
+  public boolean isTrustedIdentity(
+      SignalProtocolAddress address, IdentityKey identityKey, Direction direction) {
+    IdentityKey trusted = getIdentity(address);
+    return (trusted == null || trusted.equals(identityKey));
+  }
+
+  @Override
+  public IdentityKey getIdentity(SignalProtocolAddress address) {
+    byte[] serialized = log.get(addressKey(KIND_IDENTITY, address));
+    if (serialized == null) {
+      return null;
+    }
+    try {
+      return new IdentityKey(serialized);
+    } catch (InvalidKeyException e) {
+      throw new AssertionError(e);
+    }
+  }
+
+  // PreKeyStore
+
+  @Override
+  public PreKeyRecord loadPreKey(int preKeyId) throws InvalidKeyIdException {
+    byte[] serialized = log.get(idKey(KIND_PRE_KEY, preKeyId));
+    if (serialized == null) {
+      throw new InvalidKeyIdException("No such prekeyrecord!");
+    }
+    try {
+      return new PreKeyRecord(serialized);
+    } catch (InvalidMessageException e) {
+      throw new AssertionError(e);
+    }
+  }
+
+  @Override
+  public void storePreKey(int preKeyId, PreKeyRecord record) {
+    log.put(idKey(KIND_PRE_KEY, preKeyId), record.serialize());
+  }
+
+  @Override
+  public boolean containsPreKey(int preKeyId) {
+    return log.contains(idKey(KIND_PRE_KEY, preKeyId));
+  }
+
+  @Override
+  public void removePreKey(int preKeyId) {
+    log.deleteAll(Collections.singletonList(idKey(KIND_PRE_KEY, preKeyId)));
+  }
+
+  // SessionStore
+
+  @Override
+  public SessionRecord loadSession(SignalProtocolAddress address) {
+    byte[] serialized = log.get(addressKey(KIND_SESSION, address));
+    if (serialized == null) {
+      return null;
+    }
+    try {
+      return new SessionRecord(serialized);
+    } catch (InvalidMessageException e) {
+      throw new AssertionError(e);
+    }
+  }
+
+  @Override
+  public List<SessionRecord> loadExistingSessions(List<SignalProtocolAddress> addresses)
+      throws NoSessionException {
+    List<SessionRecord> sessions = new ArrayList<>(addresses.size());
+    for (SignalProtocolAddress address : addresses) {
+      SessionRecord session = loadSession(address);
+      if (session == null) {
+        throw new NoSessionException(address, "no session for " + address);
+      }
+      sessions.add(session);
+    }
+    return sessions;
+  }
+
+  @Override
+  public List<Integer> getSubDeviceSessions(String name) {
+    List<Integer> deviceIds = new ArrayList<>();
+    for (byte[] key : log.keysInGroup(namePrefix(KIND_SESSION, name))) {
+      int deviceId = deviceIdOf(key);
+      if (deviceId != 1) {
+        deviceIds.add(deviceId);
+      }
+    }
+    return deviceIds;
+  }
+
+  @Override
+  public void storeSession(SignalProtocolAddress address, SessionRecord record) {
+    log.put(addressKey(KIND_SESSION, address), record.serialize());
+  }
+
+  @Override
+  public boolean containsSession(SignalProtocolAddress address) {
+    return log.contains(addressKey(KIND_SESSION, address));
+  }
+
+  @Override
+  public void deleteSession(SignalProtocolAddress address) {
+    log.deleteAll(Collections.singletonList(addressKey(KIND_SESSION, address)));
+  }
+
+  @Override
+  public void deleteAllSessions(String name) {
+    log.deleteAll(log.keysInGroup(namePrefix(KIND_SESSION, name)));
+  }
+
+  // SignedPreKeyStore
+
+  @Override
+  public SignedPreKeyRecord loadSignedPreKey(int signedPreKeyId) throws InvalidKeyIdException {
+    byte[] serialized = log.get(idKey(KIND_SIGNED_PRE_KEY, signedPreKeyId));
+    if (serialized == null) {
+      throw new InvalidKeyIdException("No such SignedPreKeyRecord! " + signedPreKeyId);
+    }
+    try {
+      return new SignedPreKeyRecord(serialized);
+    } catch (InvalidMessageException e) {
+      throw new AssertionError(e);
+    }
+  }
+
+  @Override
+  public List<SignedPreKeyRecord> loadSignedPreKeys() {
+    try {
+      List<SignedPreKeyRecord> results = new ArrayList<>();
+      for (byte[] serialized : valuesOfKind(KIND_SIGNED_PRE_KEY)) {
+        results.add(new SignedPreKeyRecord(serialized));
+      }
+      return results;
+    } catch (InvalidMessageException e) {
+      throw new AssertionError(e);
+    }
+  }
+
+  @Override
+  public void storeSignedPreKey(int signedPreKeyId, SignedPreKeyRecord record) {
+    log.put(idKey(KIND_SIGNED_PRE_KEY, signedPreKeyId), record.serialize());
+  }
+
+  @Override
+  public boolean containsSignedPreKey(int signedPreKeyId) {
+    return log.contains(idKey(KIND_SIGNED_PRE_KEY, signedPreKeyId));
+  }
+
+  @Override
+  public void removeSignedPreKey(int signedPreKeyId) {
+    log.deleteAll(Collections.singletonList(idKey(KIND_SIGNED_PRE_KEY, signedPreKeyId)));
+  }
+
+  // SenderKeyStore
+
+  @Override
+  public void storeSenderKey(
+      SignalProtocolAddress sender, UUID distributionId, SenderKeyRecord record) {
+    log.put(senderKeyKey(sender, distributionId), record.serialize());
+  }
+
+  @Override
+  public SenderKeyRecord loadSenderKey(SignalProtocolAddress sender, UUID distributionId) {
+    byte[] serialized = log.get(senderKeyKey(sender, distributionId));
+    if (serialized == null) {
+      return null;
+    }
+    try {
+      return new SenderKeyRecord(serialized);
+    } catch (InvalidMessageException e) {
+      throw new AssertionError(e);
+    }
+  }
+
+  // KyberPreKeyStore
+
+  @Override
+  public KyberPreKeyRecord loadKyberPreKey(int kyberPreKeyId) throws InvalidKeyIdException {
+    byte[] serialized = log.get(idKey(KIND_KYBER_PRE_KEY, kyberPreKeyId));
+    if (serialized == null) {
+      throw new InvalidKeyIdException("No such KyberPreKeyRecord! " + kyberPreKeyId);
+    }
+    try {
+      return new KyberPreKeyRecord(serialized);
+    } catch (InvalidMessageException e) {
+      throw new AssertionError(e);
+    }
+  }
+
+  @Override
+  public List<KyberPreKeyRecord> loadKyberPreKeys() {
+    try {
+      List<KyberPreKeyRecord> results = new ArrayList<>();
+      for (byte[] serialized : valuesOfKind(KIND_KYBER_PRE_KEY)) {
+        results.add(new KyberPreKeyRecord(serialized));
+      }
+      return results;
+    } catch (InvalidMessageException e) {
+      throw new AssertionError(e);
+    }
+  }
+
+  @Override
+  public void storeKyberPreKey(int kyberPreKeyId, KyberPreKeyRecord record) {
+    log.put(idKey(KIND_KYBER_PRE_KEY, kyberPreKeyId), record.serialize());
+  }
+
+  @Override
+  public boolean containsKyberPreKey(int kyberPreKeyId) {
+    return log.contains(idKey(KIND_KYBER_PRE_KEY, kyberPreKeyId));
+  }
+
+  /** Records that the key has been used. Like {@link InMemoryKyberPreKeyStore}, keeps the key. */
+  @Override
+  public void markKyberPreKeyUsed(int kyberPreKeyId) {
+    log.put(idKey(KIND_KYBER_PRE_KEY_USED, kyberPreKeyId), new byte[0]);
+  }
+
+  public boolean hasKyberPreKeyBeenUsed(int kyberPreKeyId) {
+    return log.contains(idKey(KIND_KYBER_PRE_KEY_USED, kyberPreKeyId));
+  }
+}
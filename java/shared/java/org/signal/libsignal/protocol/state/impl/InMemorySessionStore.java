@@ -18,19 +18,29 @@ import org.signal.libsignal.protocol.state.SessionStore;
 public class InMemorySessionStore implements SessionStore {
 
   private Map<SignalProtocolAddress, byte[]> sessions = new HashMap<>();
+  private final boolean lazyRecords;
 
-  public InMemorySessionStore() {}
+  public InMemorySessionStore() {
+    this(false);
+  }
+
+  /**
+   * @param lazyRecords if true, loaded records are created with {@link
+   *     SessionRecord#deserializeLazily}, so a record that is only stored back unchanged is never
+   *     parsed. Such records must not be passed to native code before they are parsed, which {@link
+   *     org.signal.libsignal.protocol.SessionCipher} and {@link
+   *     org.signal.libsignal.protocol.SessionBuilder} take care of, but other callers may not.
+   */
+  public InMemorySessionStore(boolean lazyRecords) {
+    this.lazyRecords = lazyRecords;
+  }
 
   @Override
   public synchronized SessionRecord loadSession(SignalProtocolAddress remoteAddress) {
-    try {
-      if (containsSession(remoteAddress)) {
-        return new SessionRecord(sessions.get(remoteAddress));
-      } else {
-        return null;
-      }
-    } catch (InvalidMessageException e) {
-      throw new AssertionError(e);
+    if (containsSession(remoteAddress)) {
+      return toRecord(sessions.get(remoteAddress));
+    } else {
+      return null;
     }
   }
 
@@ -43,15 +53,22 @@ public class InMemorySessionStore implements SessionStore {
       if (serialized == null) {
         throw new NoSessionException(remoteAddress, "no session for " + remoteAddress);
       }
-      try {
-        resultSessions.add(new SessionRecord(serialized));
-      } catch (InvalidMessageException e) {
-        throw new AssertionError(e);
-      }
+      resultSessions.add(toRecord(serialized));
     }
     return resultSessions;
   }
 
+  private SessionRecord toRecord(byte[] serialized) {
+    if (lazyRecords) {
+      return SessionRecord.deserializeLazily(serialized);
+    }
+    try {
+      return new SessionRecord(serialized);
+    } catch (InvalidMessageException e) {
+      throw new AssertionError(e);
+    }
+  }
+
   @Override
   public synchronized List<Integer> getSubDeviceSessions(String name) {
     List<Integer> deviceIds = new LinkedList<>();
@@ -0,0 +1,599 @@
+//
+// Copyright 2026 Signal Messenger, LLC.
+// SPDX-License-Identifier: AGPL-3.0-only
+//
+
+package org.signal.libsignal.protocol.state.impl;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.zip.CRC32;
+
+/**
+ * A durable key-value map stored as an append-only log split across memory-mapped segment files.
+ *
+ * <p>Each segment is a file of fixed size, mapped into memory in full. Every change appends a
+ * frame to the newest segment:
+ *
+ * <pre>
+ * int payloadLength | int crc32(payload) | payload = byte op | int keyLength | key | value
+ * </pre>
+ *
+ * <p>An in-memory index maps each live key to where its latest value sits in a segment, so reads
+ * copy straight out of the mapping. If the log is given a {@link Grouping}, it also keeps track of
+ * the live keys in each group, so that they can be listed without scanning the whole index. Writes
+ * return once they are on disk; writers that arrive while another is syncing share the next sync,
+ * so concurrent writers don't each pay for one.
+ *
+ * <p>When appending to a full segment, if less than half of the log is still live, the live values
+ * are first copied into fresh segments and the old ones deleted. The index only switches to the new
+ * segments once they are on disk, so a compaction that fails leaves the log as it was. Deletion
+ * goes oldest first, so a crash partway through leaves a sequence of segments that still replays to
+ * the right state. A segment that can't be deleted yet, such as one that Windows still considers
+ * mapped, stops deletion there, and it and the newer old segments are retried after later
+ * compactions. The directory is synced after segments are created or deleted, so that the files
+ * themselves, and not just their contents, survive a crash.
+ *
+ * <p>On open, segments are replayed in order. An incomplete or corrupt frame at the end of the
+ * newest segment is taken to be a write that was interrupted by a crash; it and everything after
+ * it is discarded. Corruption anywhere else is reported as an error.
+ *
+ * <p>Thread-safe.
+ */
+class SegmentLog {
+  private static final String SEGMENT_PREFIX = "segment-";
+  private static final String SEGMENT_SUFFIX = ".log";
+
+  private static final int FRAME_HEADER_SIZE = 8;
+  private static final int PAYLOAD_HEADER_SIZE = 5;
+  private static final byte OP_PUT = 1;
+  private static final byte OP_DELETE = 2;
+
+  // Windows can't open a directory to sync it; NTFS journals directory changes on its own.
+  private static final boolean CAN_SYNC_DIRECTORY =
+      !System.getProperty("os.name", "").startsWith("Windows");
+
+  /** Assigns keys to groups whose keys can be listed with {@link #keysInGroup}. */
+  interface Grouping {
+    /** Returns the groups {@code key} belongs to, which may be none. */
+    List<byte[]> groupsOf(byte[] key);
+  }
+
+  private static final Grouping NO_GROUPS =
+      new Grouping() {
+        @Override
+        public List<byte[]> groupsOf(byte[] key) {
+          return Collections.emptyList();
+        }
+      };
+
+  private static final class Segment {
+    final long number;
+    final File file;
+    final RandomAccessFile randomAccessFile;
+    final MappedByteBuffer buffer;
+    int writePosition;
+
+    Segment(long number, File file, RandomAccessFile randomAccessFile, MappedByteBuffer buffer) {
+      this.number = number;
+      this.file = file;
+      this.randomAccessFile = randomAccessFile;
+      this.buffer = buffer;
+    }
+
+    void close() throws IOException {
+      randomAccessFile.close();
+    }
+  }
+
+  private static final class Location {
+    final Segment segment;
+    final int valueOffset;
+    final int valueLength;
+    final int frameSize;
+
+    Location(Segment segment, int valueOffset, int valueLength, int frameSize) {
+      this.segment = segment;
+      this.valueOffset = valueOffset;
+      this.valueLength = valueLength;
+      this.frameSize = frameSize;
+    }
+  }
+
+  private final File directory;
+  private final int segmentSize;
+  private final Grouping grouping;
+  private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+  // Guarded by lock.
+  private final List<Segment> segments = new ArrayList<>();
+  private final Map<ByteBuffer, Location> index = new HashMap<>();
+  private final Map<ByteBuffer, Set<ByteBuffer>> groups = new HashMap<>();
+  // Replaced by compaction, but not yet deleted; oldest first.
+  private final List<File> retiredSegments = new ArrayList<>();
+  private long liveBytes;
+  private long appendedSequence;
+  private boolean closed;
+
+  private final Object syncLock = new Object();
+  // Guarded by syncLock.
+  private long durableSequence;
+
+  /** Opens a log without any groups. */
+  SegmentLog(File directory, int segmentSize) throws IOException {
+    this(directory, segmentSize, NO_GROUPS);
+  }
+
+  /**
+   * Opens the log in {@code directory}, creating it if needed, and replays any existing segments.
+   *
+   * @param segmentSize the size of newly created segment files; also the largest entry allowed
+   * @param grouping the groups to keep track of
+   */
+  SegmentLog(File directory, int segmentSize, Grouping grouping) throws IOException {
+    if (segmentSize <= FRAME_HEADER_SIZE + PAYLOAD_HEADER_SIZE) {
+      throw new IllegalArgumentException("segmentSize too small");
+    }
+    if (!directory.isDirectory() && !directory.mkdirs()) {
+      throw new IOException("cannot create " + directory);
+    }
+    this.directory = directory;
+    this.segmentSize = segmentSize;
+    this.grouping = grouping;
+
+    List<Long> numbers = new ArrayList<>();
+    File[] files = directory.listFiles();
+    if (files != null) {
+      for (File file : files) {
+        String name = file.getName();
+        if (name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX)) {
+          String number =
+              name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length());
+          numbers.add(Long.parseLong(number));
+        }
+      }
+    }
+    Collections.sort(numbers);
+
+    try {
+      for (int i = 0; i < numbers.size(); i++) {
+        Segment segment = mapSegment(numbers.get(i), false);
+        segments.add(segment);
+        replay(segment, i == numbers.size() - 1);
+      }
+      if (segments.isEmpty()) {
+        segments.add(mapSegment(1, true));
+        syncDirectory();
+      }
+    } catch (IOException | RuntimeException e) {
+      for (Segment segment : segments) {
+        segment.close();
+      }
+      throw e;
+    }
+  }
+
+  /** Returns the value for {@code key}, or {@code null} if there is none. */
+  byte[] get(byte[] key) {
+    lock.readLock().lock();
+    try {
+      checkOpen();
+      Location location = index.get(ByteBuffer.wrap(key));
+      if (location == null) {
+        return null;
+      }
+      byte[] value = new byte[location.valueLength];
+      ByteBuffer view = location.segment.buffer.duplicate();
+      view.position(location.valueOffset);
+      view.get(value);
+      return value;
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  boolean contains(byte[] key) {
+    lock.readLock().lock();
+    try {
+      checkOpen();
+      return index.containsKey(ByteBuffer.wrap(key));
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /** Returns every key in {@code group}, in no particular order. */
+  List<byte[]> keysInGroup(byte[] group) {
+    List<byte[]> keys = new ArrayList<>();
+    lock.readLock().lock();
+    try {
+      checkOpen();
+      Set<ByteBuffer> members = groups.get(ByteBuffer.wrap(group));
+      if (members != null) {
+        for (ByteBuffer key : members) {
+          keys.add(Arrays.copyOf(key.array(), key.remaining()));
+        }
+      }
+    } finally {
+      lock.readLock().unlock();
+    }
+    return keys;
+  }
+
+  /** Sets the value for {@code key}, returning once the change is on disk. */
+  void put(byte[] key, byte[] value) {
+    long sequence;
+    lock.writeLock().lock();
+    try {
+      checkOpen();
+      sequence = append(OP_PUT, key, value);
+    } finally {
+      lock.writeLock().unlock();
+    }
+    awaitDurable(sequence);
+  }
+
+  /** Removes every key in {@code keys}, returning once the change is on disk. */
+  void deleteAll(Collection<byte[]> keys) {
+    long sequence = 0;
+    lock.writeLock().lock();
+    try {
+      checkOpen();
+      for (byte[] key : keys) {
+        if (index.containsKey(ByteBuffer.wrap(key))) {
+          sequence = append(OP_DELETE, key, new byte[0]);
+        }
+      }
+    } finally {
+      lock.writeLock().unlock();
+    }
+    if (sequence != 0) {
+      awaitDurable(sequence);
+    }
+  }
+
+  /** Copies the live entries into fresh segments and deletes the old ones. */
+  void compact() {
+    lock.writeLock().lock();
+    try {
+      checkOpen();
+      compactLocked();
+    } catch (IOException e) {
+      throw new IllegalStateException("failed to compact " + directory, e);
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /** Returns the number of segment files currently in use. */
+  int getSegmentCount() {
+    lock.readLock().lock();
+    try {
+      return segments.size();
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /** Syncs and closes every segment. Using the log afterwards throws IllegalStateException. */
+  void close() throws IOException {
+    lock.writeLock().lock();
+    try {
+      if (closed) {
+        return;
+      }
+      closed = true;
+      IOException failure = null;
+      for (Segment segment : segments) {
+        try {
+          segment.buffer.force();
+          segment.close();
+        } catch (IOException e) {
+          failure = e;
+        }
+      }
+      if (failure != null) {
+        throw failure;
+      }
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  private void checkOpen() {
+    if (closed) {
+      throw new IllegalStateException("log is closed");
+    }
+  }
+
+  private void awaitDurable(long sequence) {
+    synchronized (syncLock) {
+      if (durableSequence >= sequence) {
+        return;
+      }
+      // Everything before the active segment was synced when the segment filled up (or was
+      // compacted), so syncing the active segment covers every append so far.
+      Segment active;
+      long target;
+      lock.readLock().lock();
+      try {
+        active = segments.get(segments.size() - 1);
+        target = appendedSequence;
+      } finally {
+        lock.readLock().unlock();
+      }
+      active.buffer.force();
+      durableSequence = target;
+    }
+  }
+
+  /** Must be called with the write lock held. Returns the sequence number of the append. */
+  private long append(byte op, byte[] key, byte[] value) {
+    int frameSize = FRAME_HEADER_SIZE + PAYLOAD_HEADER_SIZE + key.length + value.length;
+    if (frameSize > segmentSize) {
+      throw new IllegalArgumentException("entry of " + frameSize + " bytes is too large");
+    }
+    try {
+      Segment active = segments.get(segments.size() - 1);
+      if (active.buffer.capacity() - active.writePosition < frameSize) {
+        active.buffer.force();
+        if (liveBytes * 2 < totalBytes()) {
+          compactLocked();
+          active = segments.get(segments.size() - 1);
+        }
+        if (active.buffer.capacity() - active.writePosition < frameSize) {
+          active = mapSegment(active.number + 1, true);
+          segments.add(active);
+          syncDirectory();
+        }
+      }
+      int frameStart = writeFrame(active, op, key, value);
+      apply(active, frameStart, op, key, value.length);
+    } catch (IOException e) {
+      throw new IllegalStateException("failed to write to " + directory, e);
+    }
+    return ++appendedSequence;
+  }
+
+  /** Writes a frame at the end of {@code segment}, returning where it starts. */
+  private int writeFrame(Segment segment, byte op, byte[] key, byte[] value) {
+    byte[] payload = new byte[PAYLOAD_HEADER_SIZE + key.length + value.length];
+    ByteBuffer.wrap(payload).put(op).putInt(key.length).put(key).put(value);
+    CRC32 crc = new CRC32();
+    crc.update(payload, 0, payload.length);
+
+    int start = segment.writePosition;
+    ByteBuffer view = segment.buffer.duplicate();
+    view.position(start);
+    view.putInt(payload.length).putInt((int) crc.getValue()).put(payload);
+    segment.writePosition = view.position();
+    return start;
+  }
+
+  /** Updates the index for a frame at {@code frameStart} in {@code segment}. */
+  private void apply(Segment segment, int frameStart, byte op, byte[] key, int valueLength) {
+    int frameSize = FRAME_HEADER_SIZE + PAYLOAD_HEADER_SIZE + key.length + valueLength;
+    ByteBuffer indexKey = ByteBuffer.wrap(key);
+    Location previous;
+    if (op == OP_PUT) {
+      int valueOffset = frameStart + frameSize - valueLength;
+      previous = index.put(indexKey, new Location(segment, valueOffset, valueLength, frameSize));
+      liveBytes += frameSize;
+      if (previous == null) {
+        for (byte[] group : grouping.groupsOf(key)) {
+          ByteBuffer groupKey = ByteBuffer.wrap(group);
+          Set<ByteBuffer> members = groups.get(groupKey);
+          if (members == null) {
+            members = new HashSet<>();
+            groups.put(groupKey, members);
+          }
+          members.add(indexKey);
+        }
+      }
+    } else {
+      previous = index.remove(indexKey);
+      if (previous != null) {
+        for (byte[] group : grouping.groupsOf(key)) {
+          ByteBuffer groupKey = ByteBuffer.wrap(group);
+          Set<ByteBuffer> members = groups.get(groupKey);
+          if (members != null && members.remove(indexKey) && members.isEmpty()) {
+            groups.remove(groupKey);
+          }
+        }
+      }
+    }
+    if (previous != null) {
+      liveBytes -= previous.frameSize;
+    }
+  }
+
+  private long totalBytes() {
+    long total = 0;
+    for (Segment segment : segments) {
+      total += segment.writePosition;
+    }
+    return total;
+  }
+
+  /** Must be called with the write lock held. */
+  private void compactLocked() throws IOException {
+    List<Segment> newSegments = new ArrayList<>();
+    // The live keys and their sizes stay the same, so only their locations change.
+    Map<ByteBuffer, Location> newIndex = new HashMap<>();
+    try {
+      Segment target = mapSegment(segments.get(segments.size() - 1).number + 1, true);
+      newSegments.add(target);
+      for (Map.Entry<ByteBuffer, Location> entry : index.entrySet()) {
+        Location location = entry.getValue();
+        byte[] key = entry.getKey().array();
+        byte[] value = new byte[location.valueLength];
+        ByteBuffer view = location.segment.buffer.duplicate();
+        view.position(location.valueOffset);
+        view.get(value);
+
+        if (target.buffer.capacity() - target.writePosition < location.frameSize) {
+          target.buffer.force();
+          target = mapSegment(target.number + 1, true);
+          newSegments.add(target);
+        }
+        int frameStart = writeFrame(target, OP_PUT, key, value);
+        newIndex.put(
+            entry.getKey(),
+            new Location(
+                target,
+                frameStart + location.frameSize - location.valueLength,
+                location.valueLength,
+                location.frameSize));
+      }
+      target.buffer.force();
+      // The new segments must be in the directory before any old one goes.
+      syncDirectory();
+    } catch (IOException | RuntimeException e) {
+      // Nothing refers to the new segments yet, so drop them and keep using the old ones. Mark
+      // each as empty first, in case it can't be deleted: replayed after the old segments, its
+      // copies of older values would otherwise win.
+      for (Segment segment : newSegments) {
+        try {
+          segment.buffer.putInt(0, 0);
+          segment.buffer.force();
+          segment.close();
+        } catch (IOException | RuntimeException ignored) {
+          // We're already failing.
+        }
+        segment.file.delete();
+      }
+      throw e;
+    }
+
+    index.putAll(newIndex);
+    for (Segment segment : segments) {
+      segment.close();
+      retiredSegments.add(segment.file);
+    }
+    segments.clear();
+    segments.addAll(newSegments);
+    deleteRetiredSegments();
+  }
+
+  /**
+   * Deletes replaced segments, oldest first, stopping at the first one that can't be deleted yet.
+   *
+   * <p>Stopping keeps the remaining old segments contiguous, so they still replay correctly before
+   * the new ones if the log is reopened before they are gone. On Windows, a file can't be deleted
+   * while it is mapped, and a mapping is only released once its buffer is garbage collected.
+   */
+  private void deleteRetiredSegments() throws IOException {
+    boolean deletedAny = false;
+    while (!retiredSegments.isEmpty()) {
+      File file = retiredSegments.get(0);
+      if (!file.delete() && file.exists()) {
+        break;
+      }
+      retiredSegments.remove(0);
+      deletedAny = true;
+    }
+    if (deletedAny) {
+      syncDirectory();
+    }
+  }
+
+  /** Makes changes to the directory's entries, such as a new or deleted segment, durable. */
+  private void syncDirectory() throws IOException {
+    if (!CAN_SYNC_DIRECTORY) {
+      return;
+    }
+    try (FileChannel channel = FileChannel.open(directory.toPath(), StandardOpenOption.READ)) {
+      channel.force(true);
+    }
+  }
+
+  private Segment mapSegment(long number, boolean create) throws IOException {
+    String name = String.format("%s%016d%s", SEGMENT_PREFIX, number, SEGMENT_SUFFIX);
+    File file = new File(directory, name);
+    if (create && file.exists()) {
+      throw new IOException(file + " already exists");
+    }
+    RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw");
+    try {
+      if (create) {
+        randomAccessFile.setLength(segmentSize);
+      }
+      MappedByteBuffer buffer =
+          randomAccessFile
+              .getChannel()
+              .map(FileChannel.MapMode.READ_WRITE, 0, randomAccessFile.length());
+      return new Segment(number, file, randomAccessFile, buffer);
+    } catch (IOException | RuntimeException e) {
+      randomAccessFile.close();
+      throw e;
+    }
+  }
+
+  /** Rebuilds the index from {@code segment}, and finds where the next frame should go. */
+  private void replay(Segment segment, boolean isNewest) throws IOException {
+    ByteBuffer view = segment.buffer.duplicate();
+    int position = 0;
+    while (true) {
+      String problem = null;
+      int remaining = view.capacity() - position;
+      if (remaining < FRAME_HEADER_SIZE) {
+        break;
+      }
+      int payloadLength = view.getInt(position);
+      if (payloadLength == 0) {
+        break;
+      }
+      if (payloadLength < PAYLOAD_HEADER_SIZE || payloadLength > remaining - FRAME_HEADER_SIZE) {
+        problem = "bad frame length";
+      } else {
+        byte[] payload = new byte[payloadLength];
+        view.position(position + FRAME_HEADER_SIZE);
+        view.get(payload);
+        CRC32 crc = new CRC32();
+        crc.update(payload, 0, payload.length);
+        ByteBuffer payloadView = ByteBuffer.wrap(payload);
+        byte op = payloadView.get();
+        int keyLength = payloadView.getInt();
+        if ((int) crc.getValue() != view.getInt(position + 4)) {
+          problem = "checksum mismatch";
+        } else if ((op != OP_PUT && op != OP_DELETE)
+            || keyLength < 0
+            || keyLength > payloadLength - PAYLOAD_HEADER_SIZE) {
+          problem = "bad frame contents";
+        } else {
+          byte[] key =
+              Arrays.copyOfRange(payload, PAYLOAD_HEADER_SIZE, PAYLOAD_HEADER_SIZE + keyLength);
+          apply(segment, position, op, key, payloadLength - PAYLOAD_HEADER_SIZE - keyLength);
+          position += FRAME_HEADER_SIZE + payloadLength;
+          continue;
+        }
+      }
+
+      if (!isNewest) {
+        throw new IOException(problem + " at offset " + position + " of " + segment.file);
+      }
+      // An interrupted write. Clear it out so that it can't be mistaken for a frame later.
+      for (int i = position; i < view.capacity(); i++) {
+        view.put(i, (byte) 0);
+      }
+      segment.buffer.force();
+      break;
+    }
+    segment.writePosition = position;
+  }
+}
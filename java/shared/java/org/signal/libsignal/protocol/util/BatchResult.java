@@ -0,0 +1,57 @@
+//
+// Copyright 2026 Signal Messenger, LLC.
+// SPDX-License-Identifier: AGPL-3.0-only
+//
+
+package org.signal.libsignal.protocol.util;
+
+/**
+ * The outcome of one item in a batch operation: either a value or the exception that the
+ * equivalent single-item operation would have thrown.
+ */
+public final class BatchResult<T> {
+  private final T value;
+  private final Exception error;
+
+  private BatchResult(T value, Exception error) {
+    this.value = value;
+    this.error = error;
+  }
+
+  public static <T> BatchResult<T> success(T value) {
+    return new BatchResult<>(value, null);
+  }
+
+  public static <T> BatchResult<T> failure(Exception error) {
+    if (error == null) {
+      throw new NullPointerException("error");
+    }
+    return new BatchResult<>(null, error);
+  }
+
+  public boolean isSuccess() {
+    return error == null;
+  }
+
+  /**
+   * Returns the value produced for this item.
+   *
+   * @throws IllegalStateException if this item failed; use {@link #getError} to find out why.
+   */
+  public T getValue() {
+    if (error != null) {
+      throw new IllegalStateException("batch item failed", error);
+    }
+    return value;
+  }
+
+  /** Returns the exception for this item, or {@code null} if it succeeded. */
+  public Exception getError() {
+    return error;
+  }
+
+  @Override
+  public String toString() {
+    return isSuccess() ? "success(" + value + ")" : "failure(" + error + ")";
+  }
+}
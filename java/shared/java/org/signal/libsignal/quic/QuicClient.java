@@ -7,11 +7,13 @@ package org.signal.libsignal.quic;
 
 import java.util.Map;
 import org.signal.libsignal.internal.Native;
+import org.signal.libsignal.internal.NativeCleaner;
 
-public class QuicClient {
+public class QuicClient implements AutoCloseable {
   private static final String DEFAULT_TARGET = "grpcproxy.gluonhq.net:7443";
 
-  private final long unsafeHandle;
+  private long unsafeHandle;
+  private final NativeCleaner.Cleanable cleanable;
 
   public QuicClient() throws Exception {
     this(DEFAULT_TARGET);
@@ -19,12 +21,7 @@ public class QuicClient {
 
   public QuicClient(String target) throws Exception {
     this.unsafeHandle = Native.QuicClient_New(target);
-  }
-
-  @Override
-  @SuppressWarnings("deprecation")
-  protected void finalize() {
-    Native.QuicClient_Destroy(this.unsafeHandle);
+    this.cleanable = NativeCleaner.register(this, this.unsafeHandle, Native::QuicClient_Destroy);
   }
 
   public long unsafeNativeHandleWithoutGuard() {
@@ -43,4 +40,10 @@ public class QuicClient {
   public void writeMessageOnStream(byte[] payload) throws Exception {
     Native.QuicClient_WriteMessageOnStream(this.unsafeHandle, payload);
   }
+
+  @Override
+  public void close() {
+    this.unsafeHandle = 0;
+    cleanable.clean();
+  }
 }
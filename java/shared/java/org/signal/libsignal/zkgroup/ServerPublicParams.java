@@ -14,16 +14,13 @@ import org.signal.libsignal.zkgroup.internal.ByteArray;
 
 public final class ServerPublicParams extends NativeHandleGuard.SimpleOwner {
   public ServerPublicParams(byte[] contents) throws InvalidInputException {
-    super(filterExceptions(() -> Native.ServerPublicParams_Deserialize(contents)));
+    super(
+        filterExceptions(() -> Native.ServerPublicParams_Deserialize(contents)),
+        Native::ServerPublicParams_Destroy);
   }
 
   ServerPublicParams(long nativeHandle) {
-    super(nativeHandle);
-  }
-
-  @Override
-  protected void release(long handle) {
-    Native.ServerPublicParams_Destroy(handle);
+    super(nativeHandle, Native::ServerPublicParams_Destroy);
   }
 
   /**
@@ -0,0 +1,141 @@
+//
+// Copyright 2026 Signal Messenger, LLC.
+// SPDX-License-Identifier: AGPL-3.0-only
+//
+
+package org.signal.libsignal.zkgroup;
+
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.signal.libsignal.zkgroup.auth.AuthCredentialPresentation;
+import org.signal.libsignal.zkgroup.auth.ServerZkAuthOperations;
+import org.signal.libsignal.zkgroup.groups.GroupPublicParams;
+import org.signal.libsignal.zkgroup.profiles.ProfileKeyCredentialPresentation;
+import org.signal.libsignal.zkgroup.profiles.ServerZkProfileOperations;
+
+/**
+ * Verifies credential presentations for a server that sees the same groups over and over.
+ *
+ * <p>Servers usually store a group's public params in serialized form, and constructing a {@link
+ * GroupPublicParams} from them runs a native validity check. This class remembers the most
+ * recently used groups' params once they have passed that check, so a known group skips it. That
+ * is all the cache saves. {@link GroupPublicParams} is held as bytes, so each verification still
+ * deserializes the group's params in native code, and then does the verification itself. Unlike
+ * {@link ServerZkAuthOperations} and {@link ServerZkProfileOperations}, it accepts the serialized
+ * params directly.
+ *
+ * <p>Instances are safe to share between threads.
+ */
+public final class ServerZkPresentationVerifier {
+  /** The number of groups remembered when no other limit is given. */
+  public static final int DEFAULT_MAX_CACHED_GROUPS = 4096;
+
+  private final ServerZkAuthOperations authOperations;
+  private final ServerZkProfileOperations profileOperations;
+
+  // Guarded by itself. Keyed by the serialized params, which are copied before being stored.
+  private final Map<ByteBuffer, GroupPublicParams> groupPublicParams;
+
+  public ServerZkPresentationVerifier(ServerSecretParams serverSecretParams) {
+    this(serverSecretParams, DEFAULT_MAX_CACHED_GROUPS);
+  }
+
+  /**
+   * Creates a verifier that remembers at most {@code maxCachedGroups} groups, evicting the least
+   * recently used one when it needs to make room.
+   */
+  public ServerZkPresentationVerifier(ServerSecretParams serverSecretParams, int maxCachedGroups) {
+    if (maxCachedGroups <= 0) {
+      throw new IllegalArgumentException("maxCachedGroups must be positive");
+    }
+    this.authOperations = new ServerZkAuthOperations(serverSecretParams);
+    this.profileOperations = new ServerZkProfileOperations(serverSecretParams);
+    this.groupPublicParams =
+        new LinkedHashMap<ByteBuffer, GroupPublicParams>(16, 0.75f, true) {
+          @Override
+          protected boolean removeEldestEntry(Map.Entry<ByteBuffer, GroupPublicParams> eldest) {
+            return size() > maxCachedGroups;
+          }
+        };
+  }
+
+  /**
+   * Returns the validated params for {@code serializedGroupPublicParams}, checking them only if
+   * they aren't already cached.
+   *
+   * @throws InvalidInputException if the params are not valid
+   */
+  public GroupPublicParams getGroupPublicParams(byte[] serializedGroupPublicParams)
+      throws InvalidInputException {
+    ByteBuffer key = ByteBuffer.wrap(serializedGroupPublicParams);
+    synchronized (groupPublicParams) {
+      GroupPublicParams cached = groupPublicParams.get(key);
+      if (cached != null) {
+        return cached;
+      }
+    }
+
+    // Validate outside the lock. If two threads race on the same new group they'll both do the
+    // work, but they'll produce equal params.
+    GroupPublicParams params = new GroupPublicParams(serializedGroupPublicParams);
+    synchronized (groupPublicParams) {
+      groupPublicParams.put(ByteBuffer.wrap(params.serialize()), params);
+    }
+    return params;
+  }
+
+  /** Returns the number of groups currently cached. */
+  public int getCachedGroupCount() {
+    synchronized (groupPublicParams) {
+      return groupPublicParams.size();
+    }
+  }
+
+  public void verifyAuthCredentialPresentation(
+      byte[] serializedGroupPublicParams, AuthCredentialPresentation authCredentialPresentation)
+      throws InvalidInputException, VerificationFailedException {
+    verifyAuthCredentialPresentation(
+        serializedGroupPublicParams, authCredentialPresentation, Instant.now());
+  }
+
+  /**
+   * Equivalent to {@link ServerZkAuthOperations#verifyAuthCredentialPresentation(GroupPublicParams,
+   * AuthCredentialPresentation, Instant)}, with the group's params looked up in the cache.
+   *
+   * @throws InvalidInputException if the group's params are not valid
+   */
+  public void verifyAuthCredentialPresentation(
+      byte[] serializedGroupPublicParams,
+      AuthCredentialPresentation authCredentialPresentation,
+      Instant currentTime)
+      throws InvalidInputException, VerificationFailedException {
+    authOperations.verifyAuthCredentialPresentation(
+        getGroupPublicParams(serializedGroupPublicParams), authCredentialPresentation, currentTime);
+  }
+
+  public void verifyProfileKeyCredentialPresentation(
+      byte[] serializedGroupPublicParams,
+      ProfileKeyCredentialPresentation profileKeyCredentialPresentation)
+      throws InvalidInputException, VerificationFailedException {
+    verifyProfileKeyCredentialPresentation(
+        serializedGroupPublicParams, profileKeyCredentialPresentation, Instant.now());
+  }
+
+  /**
+   * Equivalent to {@link
+   * ServerZkProfileOperations#verifyProfileKeyCredentialPresentation(GroupPublicParams,
+   * ProfileKeyCredentialPresentation, Instant)}, with the group's params looked up in the cache.
+   *
+   * @throws InvalidInputException if the group's params are not valid
+   */
+  public void verifyProfileKeyCredentialPresentation(
+      byte[] serializedGroupPublicParams,
+      ProfileKeyCredentialPresentation profileKeyCredentialPresentation,
+      Instant now)
+      throws InvalidInputException, VerificationFailedException {
+    profileOperations.verifyProfileKeyCredentialPresentation(
+        getGroupPublicParams(serializedGroupPublicParams), profileKeyCredentialPresentation, now);
+  }
+}
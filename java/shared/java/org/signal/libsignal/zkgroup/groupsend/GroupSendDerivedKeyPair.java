@@ -23,6 +23,7 @@ import org.signal.libsignal.zkgroup.internal.ByteArray;
  *
  * @see GroupSendEndorsementsResponse#issue
  * @see GroupSendFullToken#verify
+ * @see GroupSendDerivedKeyPairProvider
  */
 public final class GroupSendDerivedKeyPair extends ByteArray {
   public GroupSendDerivedKeyPair(byte[] contents) throws InvalidInputException {
@@ -0,0 +1,121 @@
+//
+// Copyright 2026 Signal Messenger, LLC.
+// SPDX-License-Identifier: AGPL-3.0-only
+//
+
+package org.signal.libsignal.zkgroup.groupsend;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import org.signal.libsignal.protocol.ServiceId;
+import org.signal.libsignal.zkgroup.ServerSecretParams;
+import org.signal.libsignal.zkgroup.VerificationFailedException;
+
+/**
+ * Derives each {@link GroupSendDerivedKeyPair} once and hands out the same instance afterwards.
+ *
+ * <p>A server issuing endorsements and verifying tokens only ever needs the key pairs for a few
+ * upcoming expirations, which always fall on a day boundary. This provider caches those, and
+ * drops each key pair once its expiration has passed, since nothing can be issued or verified with
+ * it after that. Expirations that aren't on a day boundary, or that are too far in the future to
+ * be legitimate, are never cached, so clients can't fill the cache by presenting made-up
+ * expirations. Tokens with such expirations are rejected without deriving a key pair at all.
+ *
+ * <p>Instances are safe to share between threads.
+ */
+public final class GroupSendDerivedKeyPairProvider {
+  private static final long SECONDS_PER_DAY = 24 * 60 * 60;
+
+  /** How far in the future an expiration can be and still get cached, in seconds. */
+  private static final long MAX_CACHED_LIFETIME_SECONDS = 3 * SECONDS_PER_DAY;
+
+  /** One entry for each day boundary within {@link #MAX_CACHED_LIFETIME_SECONDS} of now. */
+  private static final int MAX_CACHED_KEY_PAIRS = 4;
+
+  private final ServerSecretParams serverSecretParams;
+  private final ConcurrentMap<Long, GroupSendDerivedKeyPair> keyPairs = new ConcurrentHashMap<>();
+
+  public GroupSendDerivedKeyPairProvider(ServerSecretParams serverSecretParams) {
+    this.serverSecretParams = serverSecretParams;
+  }
+
+  /**
+   * Returns the key pair for endorsements that expire at {@code expiration}, deriving it if it
+   * hasn't been seen before.
+   *
+   * @see GroupSendDerivedKeyPair#forExpiration
+   */
+  public GroupSendDerivedKeyPair forExpiration(Instant expiration) {
+    return forExpiration(expiration, Instant.now());
+  }
+
+  private GroupSendDerivedKeyPair forExpiration(Instant expiration, Instant now) {
+    final Long key = expiration.getEpochSecond();
+    GroupSendDerivedKeyPair keyPair = keyPairs.get(key);
+    if (keyPair != null) {
+      return keyPair;
+    }
+
+    keyPair = GroupSendDerivedKeyPair.forExpiration(expiration, serverSecretParams);
+    final long nowEpochSecond = now.getEpochSecond();
+    if (!isDayAligned(key)
+        || key < nowEpochSecond
+        || key - nowEpochSecond > MAX_CACHED_LIFETIME_SECONDS) {
+      return keyPair;
+    }
+
+    // The first time we see a new day is a good time to forget about the old ones.
+    for (Iterator<Long> it = keyPairs.keySet().iterator(); it.hasNext(); ) {
+      if (it.next() < nowEpochSecond) {
+        it.remove();
+      }
+    }
+    if (keyPairs.size() >= MAX_CACHED_KEY_PAIRS) {
+      return keyPair;
+    }
+
+    final GroupSendDerivedKeyPair existing = keyPairs.putIfAbsent(key, keyPair);
+    return existing != null ? existing : keyPair;
+  }
+
+  private static boolean isDayAligned(long epochSecond) {
+    return epochSecond % SECONDS_PER_DAY == 0;
+  }
+
+  /** Returns the number of key pairs currently cached. */
+  public int getCachedKeyPairCount() {
+    return keyPairs.size();
+  }
+
+  /**
+   * Verifies {@code token} using the key pair for its expiration.
+   *
+   * @throws VerificationFailedException if the token is invalid.
+   * @see GroupSendFullToken#verify(Collection, GroupSendDerivedKeyPair)
+   */
+  public void verify(GroupSendFullToken token, Collection<ServiceId> userIds)
+      throws VerificationFailedException {
+    verify(token, userIds, Instant.now());
+  }
+
+  /**
+   * Verifies {@code token} using the key pair for its expiration, assuming a specific current time.
+   *
+   * <p>This should only be used for testing purposes.
+   *
+   * @see #verify(GroupSendFullToken, Collection)
+   */
+  public void verify(GroupSendFullToken token, Collection<ServiceId> userIds, Instant now)
+      throws VerificationFailedException {
+    final Instant expiration = token.getExpiration();
+    if (now.isAfter(expiration) || !isDayAligned(expiration.getEpochSecond())) {
+      // Don't bother deriving a key pair just to reject the token; the server only issues
+      // endorsements that expire on a day boundary.
+      throw new VerificationFailedException();
+    }
+    token.verify(userIds, now, forExpiration(expiration, now));
+  }
+}
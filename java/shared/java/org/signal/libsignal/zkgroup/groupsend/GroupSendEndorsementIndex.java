@@ -0,0 +1,170 @@
+//
+// Copyright 2026 Signal Messenger, LLC.
+// SPDX-License-Identifier: AGPL-3.0-only
+//
+
+package org.signal.libsignal.zkgroup.groupsend;
+
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.signal.libsignal.internal.Native;
+import org.signal.libsignal.protocol.ServiceId;
+import org.signal.libsignal.zkgroup.groups.GroupSecretParams;
+import org.signal.libsignal.zkgroup.internal.ByteArray;
+
+/**
+ * Produces combined endorsements for arbitrary subsets of a group without combining every member
+ * from scratch each time.
+ *
+ * <p>The members are split into blocks of about sqrt(n) members each, and each block's combined
+ * endorsement is computed up front. A subset then takes the combined endorsement of every block it
+ * fully covers. For each partly covered block it takes whichever is smaller: the members it
+ * includes, or the block's combination minus the members it leaves out. Subsets like "everyone but
+ * a few members" therefore cost about sqrt(n) pieces plus one per excluded member, rather than one
+ * per included member, and no subset needs more than about n/2 + sqrt(n) pieces. Either way it
+ * takes at most three native calls.
+ *
+ * <p>An index is immutable and safe to share between threads.
+ */
+public final class GroupSendEndorsementIndex {
+  private final Map<ServiceId, Integer> memberIndexes;
+  private final int blockSize;
+
+  private final byte[][] memberContents;
+
+  // Direct buffers are what GroupSendEndorsement_Combine wants, so allocate them once up front.
+  private final ByteBuffer[] memberBuffers;
+  private final ByteBuffer[] blockBuffers;
+
+  /**
+   * Builds an index from the result of {@link GroupSendEndorsementsResponse#receive}.
+   *
+   * @param groupMembers the members, in the same order they were passed to {@code receive}
+   * @param endorsements the endorsements received for {@code groupMembers}
+   * @throws IllegalArgumentException if the number of members doesn't match the number of
+   *     endorsements, or a member is repeated
+   */
+  public GroupSendEndorsementIndex(
+      List<ServiceId> groupMembers,
+      GroupSendEndorsementsResponse.ReceivedEndorsements endorsements) {
+    final List<GroupSendEndorsement> memberEndorsements = endorsements.endorsements();
+    final int count = groupMembers.size();
+    if (memberEndorsements.size() != count) {
+      throw new IllegalArgumentException(
+          "expected " + count + " endorsements, got " + memberEndorsements.size());
+    }
+
+    memberIndexes = new HashMap<>(count * 2);
+    memberBuffers = new ByteBuffer[count];
+    memberContents = new byte[count][];
+    for (int i = 0; i < count; i++) {
+      if (memberIndexes.put(groupMembers.get(i), i) != null) {
+        throw new IllegalArgumentException("duplicate member " + groupMembers.get(i));
+      }
+      memberContents[i] = memberEndorsements.get(i).getInternalContentsForJNI();
+      memberBuffers[i] = toDirectBuffer(memberContents[i]);
+    }
+
+    blockSize = Math.max(1, (int) Math.ceil(Math.sqrt(count)));
+    final int blockCount = (count + blockSize - 1) / blockSize;
+    blockBuffers = new ByteBuffer[blockCount];
+    for (int block = 0; block < blockCount; block++) {
+      final int start = block * blockSize;
+      final int end = Math.min(start + blockSize, count);
+      final ByteBuffer[] members = new ByteBuffer[end - start];
+      System.arraycopy(memberBuffers, start, members, 0, members.length);
+      blockBuffers[block] = toDirectBuffer(Native.GroupSendEndorsement_Combine(members));
+    }
+  }
+
+  /**
+   * Returns the combined endorsement for {@code recipients}.
+   *
+   * <p>Equivalent to {@link GroupSendEndorsement#combine} on the recipients' individual
+   * endorsements. Repeated recipients are only counted once.
+   *
+   * @throws IllegalArgumentException if a recipient isn't a member of the group
+   */
+  public GroupSendEndorsement combine(Collection<ServiceId> recipients) {
+    final boolean[] selected = new boolean[memberBuffers.length];
+    for (ServiceId recipient : recipients) {
+      final Integer index = memberIndexes.get(recipient);
+      if (index == null) {
+        throw new IllegalArgumentException(recipient + " is not a member of the group");
+      }
+      selected[index] = true;
+    }
+
+    final List<ByteBuffer> toAdd = new ArrayList<>();
+    final List<Integer> toRemove = new ArrayList<>();
+    for (int block = 0; block < blockBuffers.length; block++) {
+      final int start = block * blockSize;
+      final int end = Math.min(start + blockSize, memberBuffers.length);
+      int selectedInBlock = 0;
+      for (int i = start; i < end; i++) {
+        if (selected[i]) {
+          selectedInBlock++;
+        }
+      }
+
+      if (selectedInBlock == 0) {
+        continue;
+      }
+      if (selectedInBlock * 2 > end - start) {
+        toAdd.add(blockBuffers[block]);
+        for (int i = start; i < end; i++) {
+          if (!selected[i]) {
+            toRemove.add(i);
+          }
+        }
+      } else {
+        for (int i = start; i < end; i++) {
+          if (selected[i]) {
+            toAdd.add(memberBuffers[i]);
+          }
+        }
+      }
+    }
+
+    byte[] result = Native.GroupSendEndorsement_Combine(toAdd.toArray(new ByteBuffer[0]));
+    if (!toRemove.isEmpty()) {
+      final byte[] removed;
+      if (toRemove.size() == 1) {
+        removed = memberContents[toRemove.get(0)];
+      } else {
+        final ByteBuffer[] buffers = new ByteBuffer[toRemove.size()];
+        for (int i = 0; i < buffers.length; i++) {
+          buffers[i] = memberBuffers[toRemove.get(i)];
+        }
+        removed = Native.GroupSendEndorsement_Combine(buffers);
+      }
+      result = Native.GroupSendEndorsement_Remove(result, removed);
+    }
+    return new GroupSendEndorsement(result, ByteArray.UNCHECKED_AND_UNCLONED);
+  }
+
+  /**
+   * Returns a token for sending to {@code recipients}, ready to put in an auth header.
+   *
+   * <p>{@code expiration} must be the same expiration that was in the original {@link
+   * GroupSendEndorsementsResponse}, or the resulting token will fail to verify.
+   *
+   * @throws IllegalArgumentException if a recipient isn't a member of the group
+   * @see GroupSendEndorsement#toFullToken
+   */
+  public GroupSendFullToken toFullToken(
+      Collection<ServiceId> recipients, GroupSecretParams groupParams, Instant expiration) {
+    return combine(recipients).toFullToken(groupParams, expiration);
+  }
+
+  private static ByteBuffer toDirectBuffer(byte[] contents) {
+    final ByteBuffer buffer = ByteBuffer.allocateDirect(contents.length);
+    buffer.put(contents);
+    return buffer;
+  }
+}
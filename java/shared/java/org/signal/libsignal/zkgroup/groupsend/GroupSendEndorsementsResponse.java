@@ -13,6 +13,8 @@ import java.time.Instant;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
+import java.util.concurrent.Executor;
+import org.signal.libsignal.internal.CompletableFuture;
 import org.signal.libsignal.internal.Native;
 import org.signal.libsignal.protocol.ServiceId;
 import org.signal.libsignal.zkgroup.InvalidInputException;
@@ -212,4 +214,58 @@ public final class GroupSendEndorsementsResponse extends ByteArray {
             endorsementContents[endorsementContents.length - 1], ByteArray.UNCHECKED_AND_UNCLONED);
     return new ReceivedEndorsements(endorsements, combinedEndorsement);
   }
+
+  /**
+   * Like {@link #receive(List, ServiceId.Aci, GroupSecretParams, ServerPublicParams)}, but runs on
+   * {@code executor} instead of the calling thread.
+   *
+   * <p>A single response can't be split up: its proof covers every member at once, and the
+   * per-member work is already spread across cores in native code. Use this to keep large groups
+   * from stalling the calling thread, or to receive responses for several groups in parallel.
+   *
+   * <p>{@code groupMembers} is copied before this method returns. The future fails with {@link
+   * VerificationFailedException} if the endorsements are not valid.
+   */
+  public CompletableFuture<ReceivedEndorsements> receive(
+      List<ServiceId> groupMembers,
+      ServiceId.Aci localUser,
+      GroupSecretParams groupParams,
+      ServerPublicParams serverParams,
+      Executor executor) {
+    final List<ServiceId> members = new ArrayList<>(groupMembers);
+    return receiveOn(executor, () -> receive(members, localUser, groupParams, serverParams));
+  }
+
+  /**
+   * Like {@link #receive(List, UuidCiphertext, ServerPublicParams)}, but runs on {@code executor}
+   * instead of the calling thread.
+   *
+   * @see #receive(List, ServiceId.Aci, GroupSecretParams, ServerPublicParams, Executor)
+   */
+  public CompletableFuture<ReceivedEndorsements> receive(
+      List<UuidCiphertext> groupMembers,
+      UuidCiphertext localUser,
+      ServerPublicParams serverParams,
+      Executor executor) {
+    final List<UuidCiphertext> members = new ArrayList<>(groupMembers);
+    return receiveOn(executor, () -> receive(members, localUser, serverParams));
+  }
+
+  private interface ReceiveOperation {
+    ReceivedEndorsements receive() throws VerificationFailedException;
+  }
+
+  private static CompletableFuture<ReceivedEndorsements> receiveOn(
+      Executor executor, ReceiveOperation operation) {
+    final CompletableFuture<ReceivedEndorsements> future = new CompletableFuture<>();
+    executor.execute(
+        () -> {
+          try {
+            future.complete(operation.receive());
+          } catch (VerificationFailedException | RuntimeException | Error e) {
+            future.completeExceptionally(e);
+          }
+        });
+    return future;
+  }
 }
@@ -0,0 +1,105 @@
+//
+// Copyright 2026 Signal Messenger, LLC.
+// SPDX-License-Identifier: AGPL-3.0-only
+//
+
+package org.signal.libsignal.zkgroup.groupsend;
+
+import java.nio.ByteBuffer;
+import java.security.SecureRandom;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import org.signal.libsignal.zkgroup.groups.UuidCiphertext;
+
+/**
+ * Remembers the last {@link GroupSendEndorsementsResponse} issued for each group, so that members
+ * of a group whose membership hasn't changed all get the same response.
+ *
+ * <p>An endorsements response covers every member of the group and doesn't depend on which member
+ * asked for it, so there's no need to issue a new one until the membership or the expiration
+ * changes. For large groups, issuing is by far the most expensive thing a group server does with
+ * endorsements.
+ *
+ * <p>The cache holds at most a fixed number of groups, evicting the least recently used one when it
+ * needs to make room. Instances are safe to share between threads.
+ */
+public final class GroupSendEndorsementsResponseCache {
+  private static final class Entry {
+    final GroupSendDerivedKeyPair keyPair;
+    final Set<UuidCiphertext> members;
+    final GroupSendEndorsementsResponse response;
+
+    Entry(
+        GroupSendDerivedKeyPair keyPair,
+        Set<UuidCiphertext> members,
+        GroupSendEndorsementsResponse response) {
+      this.keyPair = keyPair;
+      this.members = members;
+      this.response = response;
+    }
+  }
+
+  private final SecureRandom secureRandom;
+
+  // Guarded by itself.
+  private final Map<ByteBuffer, Entry> entries;
+
+  public GroupSendEndorsementsResponseCache(int maxGroups) {
+    this(maxGroups, new SecureRandom());
+  }
+
+  public GroupSendEndorsementsResponseCache(int maxGroups, SecureRandom secureRandom) {
+    if (maxGroups <= 0) {
+      throw new IllegalArgumentException("maxGroups must be positive");
+    }
+    this.secureRandom = secureRandom;
+    this.entries =
+        new LinkedHashMap<ByteBuffer, Entry>(16, 0.75f, true) {
+          @Override
+          protected boolean removeEldestEntry(Map.Entry<ByteBuffer, Entry> eldest) {
+            return size() > maxGroups;
+          }
+        };
+  }
+
+  /**
+   * Returns endorsements for {@code groupMembers}, reusing the previous response for {@code
+   * groupId} if it was issued for the same members with the same key pair.
+   *
+   * <p>The order of {@code groupMembers} doesn't matter. As with {@link
+   * GroupSendEndorsementsResponse#issue}, it should include the requesting user.
+   *
+   * @param groupId any stable identifier for the group, such as its {@link
+   *     org.signal.libsignal.zkgroup.groups.GroupIdentifier}
+   */
+  public GroupSendEndorsementsResponse issue(
+      byte[] groupId, Collection<UuidCiphertext> groupMembers, GroupSendDerivedKeyPair keyPair) {
+    final ByteBuffer key = ByteBuffer.wrap(groupId.clone());
+    final Set<UuidCiphertext> members = new HashSet<>(groupMembers);
+
+    final Entry cached;
+    synchronized (entries) {
+      cached = entries.get(key);
+    }
+    if (cached != null && cached.keyPair.equals(keyPair) && cached.members.equals(members)) {
+      return cached.response;
+    }
+
+    final GroupSendEndorsementsResponse response =
+        GroupSendEndorsementsResponse.issue(groupMembers, keyPair, secureRandom);
+    synchronized (entries) {
+      entries.put(key, new Entry(keyPair, members, response));
+    }
+    return response;
+  }
+
+  /** Forgets the cached response for {@code groupId}, if any. */
+  public void invalidate(byte[] groupId) {
+    synchronized (entries) {
+      entries.remove(ByteBuffer.wrap(groupId));
+    }
+  }
+}
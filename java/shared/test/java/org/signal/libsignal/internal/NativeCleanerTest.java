@@ -0,0 +1,62 @@
+//
+// Copyright 2026 Signal Messenger, LLC.
+// SPDX-License-Identifier: AGPL-3.0-only
+//
+
+package org.signal.libsignal.internal;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.Test;
+import org.signal.libsignal.protocol.SignalProtocolAddress;
+import org.signal.libsignal.protocol.state.SessionRecord;
+
+public class NativeCleanerTest {
+  @Test
+  public void testCountsLiveHandles() {
+    long before = NativeCleaner.liveHandleCount(SignalProtocolAddress.class);
+
+    SignalProtocolAddress address = new SignalProtocolAddress("+14151111111", 1);
+    assertEquals(before + 1, NativeCleaner.liveHandleCount(SignalProtocolAddress.class));
+    assertEquals(
+        before + 1, (long) NativeCleaner.liveHandleCounts().get(SignalProtocolAddress.class));
+    assertEquals("+14151111111", address.getName());
+  }
+
+  @Test
+  public void testCleanReleasesHandleOnce() {
+    Object owner = new Object();
+    AtomicLong released = new AtomicLong();
+    long before = NativeCleaner.liveHandleCount(Object.class);
+
+    NativeCleaner.Cleanable cleanable = NativeCleaner.register(owner, 42, released::addAndGet);
+    assertEquals(before + 1, NativeCleaner.liveHandleCount(Object.class));
+
+    cleanable.clean();
+    assertEquals(42, released.get());
+    assertEquals(before, NativeCleaner.liveHandleCount(Object.class));
+
+    // Cleaning twice is harmless.
+    cleanable.clean();
+    assertEquals(42, released.get());
+    assertEquals(before, NativeCleaner.liveHandleCount(Object.class));
+  }
+
+  @Test
+  public void testUnreachableHandlesAreReleased() throws Exception {
+    long before = NativeCleaner.liveHandleCount(SessionRecord.class);
+    for (int i = 0; i < 100; i++) {
+      new SessionRecord();
+    }
+
+    long deadline = System.currentTimeMillis() + 10_000;
+    while (NativeCleaner.liveHandleCount(SessionRecord.class) > before) {
+      if (System.currentTimeMillis() > deadline) {
+        throw new AssertionError("handles were not released");
+      }
+      System.gc();
+      Thread.sleep(10);
+    }
+  }
+}
@@ -7,6 +7,9 @@ package org.signal.libsignal.internal;
 
 import static org.junit.Assert.*;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
@@ -482,4 +485,57 @@ public class CompletableFutureTest {
       assertNotEquals(callbackException, ex.getCause());
     }
   }
+
+  @Test
+  public void testTimedOutWaitersDoNotBlockCompletion() throws Exception {
+    var future = new CompletableFuture<Integer>();
+    var order = new ArrayList<Integer>();
+    future.thenApply((Integer value) -> order.add(1));
+    for (int i = 0; i < 100; i++) {
+      assertThrows(TimeoutException.class, () -> future.get(1, TimeUnit.MICROSECONDS));
+    }
+    future.thenApply((Integer value) -> order.add(2));
+
+    future.complete(7);
+    assertEquals(Arrays.asList(1, 2), order);
+    assertEquals(7, future.get(1, TimeUnit.MICROSECONDS).intValue());
+  }
+
+  @Test
+  public void testCallbacksRunInOrderAdded() throws Exception {
+    var future = new CompletableFuture<Integer>();
+    var order = new ArrayList<Integer>();
+    for (int i = 0; i < 5; i++) {
+      final int index = i;
+      future.thenApply((Integer value) -> order.add(index));
+    }
+
+    future.complete(0);
+    assertEquals(Arrays.asList(0, 1, 2, 3, 4), order);
+  }
+
+  @Test
+  public void testConcurrentChainingAndCompletion() throws Exception {
+    final int threadCount = 8;
+    for (int round = 0; round < 100; round++) {
+      var future = new CompletableFuture<Integer>();
+      var chained = new ConcurrentLinkedQueue<CompletableFuture<Integer>>();
+      var threads = new Thread[threadCount];
+      for (int i = 0; i < threadCount; i++) {
+        threads[i] = new Thread(() -> chained.add(future.thenApply((Integer value) -> value + 1)));
+        threads[i].start();
+      }
+
+      future.complete(41);
+      for (Thread thread : threads) {
+        thread.join();
+      }
+
+      assertEquals(threadCount, chained.size());
+      for (CompletableFuture<Integer> next : chained) {
+        assertTrue(next.isDone());
+        assertEquals(42, next.get().intValue());
+      }
+    }
+  }
 }